@@ -0,0 +1,81 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.equj65.indexgenerator.builder.CreateIndexBuilderFactory;
+import net.equj65.indexgenerator.builder.ICreateIndexBuilder;
+import net.equj65.indexgenerator.builder.impl.PostgresCreateIndexBuilder;
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.SqlCommand;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PostgresCreateIndexBuilder#build()}のスループットを計測するベンチマークです。<br />
+ * 実際の生成処理と同様に1つのBuilderを使い回し、テーブル毎にテーブル名とIndex付与対象フィールドを変えて作成します。
+ * 割り当て量は{@code -prof gc}（{@link HotPathBenchmarkRunner}では既定で有効）で確認します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CreateIndexBuilderBenchmark {
+
+	/** 切り替えるテーブルの数 */
+	private static final int TABLE_COUNT = 16;
+
+	/** Index付与対象フィールド数 */
+	@Param({"1", "4", "16"})
+	public int keyCount;
+
+	/** 一意条件の数 */
+	@Param({"0", "1", "4"})
+	public int conditionCount;
+
+	private ICreateIndexBuilder builder;
+
+	private String[] tableNames;
+
+	private String[][] keyLists;
+
+	private int tableIndex;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		builder = CreateIndexBuilderFactory.createBuilder(DBMS.POSTGRESQL);
+		for (int i = 0; i < conditionCount; i++) {
+			builder.addIndexCondition("condition" + i, i % 2 == 0 ? (Object) Boolean.FALSE : (Object) Integer.valueOf(i));
+		}
+		tableNames = new String[TABLE_COUNT];
+		keyLists = new String[TABLE_COUNT][keyCount];
+		for (int i = 0; i < TABLE_COUNT; i++) {
+			tableNames[i] = "table" + i;
+			for (int j = 0; j < keyCount; j++) {
+				keyLists[i][j] = "field" + j;
+			}
+		}
+	}
+
+	@Benchmark
+	public SqlCommand build() {
+		int index = tableIndex++ & (TABLE_COUNT - 1);
+		builder.setTableName(tableNames[index]);
+		builder.setIndexFields(keyLists[index]);
+		return builder.build();
+	}
+}
@@ -0,0 +1,110 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.equj65.indexgenerator.analyzer.CreateTableAnalyzer;
+import net.equj65.indexgenerator.analyzer.CreateTableInfo;
+import net.equj65.indexgenerator.analyzer.SqlParenthesesAnalyzer;
+import net.equj65.indexgenerator.analyzer.SqlParenthesesInfoSet;
+import net.equj65.indexgenerator.parser.SQLStateManager;
+import net.equj65.indexgenerator.util.SqlUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CreateTable文1文に対する解析処理のスループットを計測するベンチマークです。<br />
+ * 以下の処理を、カラム数、コメント密度、括弧の入れ子数を変えて計測します。
+ * <pre>
+ * 1．{@link SqlUtils#removeComment(String)}
+ * 2．{@link SqlUtils#decompositionFieldDefinitionPart(String)}
+ * 3．{@link SqlParenthesesAnalyzer#analyze(String)}
+ * 4．{@link SQLStateManager#append(CharSequence)}（1行ずつ追加）
+ * 5．{@link CreateTableAnalyzer#analyze(CharSequence)}
+ * </pre>
+ * 割り当て量は{@code -prof gc}（{@link HotPathBenchmarkRunner}では既定で有効）で確認します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CreateTableSqlBenchmark {
+
+	/** カラム数 */
+	@Param({"10", "100", "1000"})
+	public int columnCount;
+
+	/** コメントを伴うカラムの割合(%) */
+	@Param({"0", "50", "100"})
+	public int commentDensity;
+
+	/** DEFAULT句の括弧の入れ子の深さ */
+	@Param({"0", "4", "16"})
+	public int nestingDepth;
+
+	private String sql;
+
+	/** 改行文字を含む1行単位のSQL断片 */
+	private String[] lines;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		sql = DdlCorpus.createTableSql("hoge", columnCount, commentDensity, nestingDepth);
+		List<String> lineList = new ArrayList<>();
+		int fromIndex = 0;
+		int lineEnd;
+		while ((lineEnd = sql.indexOf('\n', fromIndex)) >= 0) {
+			lineList.add(sql.substring(fromIndex, lineEnd + 1));
+			fromIndex = lineEnd + 1;
+		}
+		if (fromIndex < sql.length()) {
+			lineList.add(sql.substring(fromIndex));
+		}
+		lines = lineList.toArray(new String[lineList.size()]);
+	}
+
+	@Benchmark
+	public String removeComment() {
+		return SqlUtils.removeComment(sql);
+	}
+
+	@Benchmark
+	public List<String> decompositionFieldDefinitionPart() {
+		return SqlUtils.decompositionFieldDefinitionPart(sql);
+	}
+
+	@Benchmark
+	public SqlParenthesesInfoSet analyze() {
+		return SqlParenthesesAnalyzer.analyze(sql);
+	}
+
+	@Benchmark
+	public boolean stateManagerAppend() {
+		SQLStateManager stateManager = new SQLStateManager();
+		for (String line : lines) {
+			stateManager.append(line);
+		}
+		return stateManager.isEffective();
+	}
+
+	@Benchmark
+	public CreateTableInfo analyzeCreateTable() {
+		return CreateTableAnalyzer.analyze(sql);
+	}
+}
@@ -0,0 +1,127 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.equj65.indexgenerator.daemon.GeneratorClient;
+import net.equj65.indexgenerator.daemon.GeneratorDaemon;
+import net.equj65.indexgenerator.generator.UniqueIndexGenerator;
+import net.equj65.indexgenerator.main.Main;
+
+/**
+ * 1ファイルあたりのUniqueIndex作成の待ち時間を、以下の方式で比較します。
+ * <pre>
+ * 1．cold CLI       要求毎に{@link Main}をJVMごと起動する
+ * 2．thin client    起動済みの{@link GeneratorDaemon}に、要求毎に起動した{@link GeneratorClient}から依頼する
+ * 3．warm client    起動済みの{@link GeneratorDaemon}に、起動済みのJVMから依頼する（通信と処理のみ）
+ * </pre>
+ * JVMの起動を含めて計測するため、JMHではなく単独のプログラムとして実行します。
+ * <pre>
+ * [使い方]
+ *   java -cp benchmarks.jar net.equj65.indexgenerator.benchmark.DaemonLatencyBenchmark &lt;入力SQLファイル&gt; [繰り返し回数]
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class DaemonLatencyBenchmark {
+
+	private static final String ENCODING = "UTF-8";
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: DaemonLatencyBenchmark <input sql file> [iterations]");
+			System.exit(2);
+		}
+		File input = new File(args[0]).getAbsoluteFile();
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		File output = File.createTempFile("daemon-latency", ".sql");
+		String java = new File(System.getProperty("java.home"), "bin/java").getPath();
+		String classPath = System.getProperty("java.class.path");
+		int port = findFreePort();
+
+		long[] coldCli = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			output.delete();
+			long startTime = System.nanoTime();
+			run(java, "-cp", classPath, Main.class.getName(), input.getPath(), output.getPath(), "--encoding=" + ENCODING);
+			coldCli[i] = System.nanoTime() - startTime;
+		}
+
+		Process daemon = new ProcessBuilder(java, "-cp", classPath, GeneratorDaemon.class.getName(), String.valueOf(port))
+				.redirectErrorStream(true).start();
+		try {
+			// ウォームアップ完了（待ち受け開始）を待つ。
+			BufferedReader reader = new BufferedReader(new InputStreamReader(daemon.getInputStream()));
+			String line;
+			while ((line = reader.readLine()) != null && !line.startsWith("listening")) {
+				System.out.println("daemon: " + line);
+			}
+
+			long[] thinClient = new long[iterations];
+			for (int i = 0; i < iterations; i++) {
+				output.delete();
+				long startTime = System.nanoTime();
+				run(java, "-cp", classPath, GeneratorClient.class.getName(),
+						input.getPath(), output.getPath(), ENCODING, String.valueOf(port));
+				thinClient[i] = System.nanoTime() - startTime;
+			}
+
+			Map<String, Object> conditionMap = new HashMap<>();
+			conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+			long[] warmClient = new long[iterations];
+			try (GeneratorClient client = new GeneratorClient(port)) {
+				for (int i = 0; i < iterations; i++) {
+					output.delete();
+					long startTime = System.nanoTime();
+					client.generate(input, output, ENCODING, conditionMap);
+					warmClient[i] = System.nanoTime() - startTime;
+				}
+				client.shutdown();
+			}
+
+			System.out.println("input : " + input + " (" + input.length() + " bytes), iterations : " + iterations);
+			report("cold CLI", coldCli);
+			report("thin client", thinClient);
+			report("warm client", warmClient);
+		} finally {
+			daemon.destroy();
+			output.delete();
+		}
+	}
+
+	/**
+	 * 子プロセスを実行し、終了を待ちます。
+	 */
+	private static void run(String... command) throws IOException, InterruptedException {
+		Process process = new ProcessBuilder(command).inheritIO().start();
+		int exitCode = process.waitFor();
+		if (exitCode != 0) {
+			throw new IllegalStateException("exit code " + exitCode + " : " + Arrays.toString(command));
+		}
+	}
+
+	/**
+	 * 空きポートを取得します。
+	 */
+	private static int findFreePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	/**
+	 * 計測結果（中央値、最小値、最大値）を出力します。
+	 */
+	private static void report(String name, long[] nanos) {
+		long[] sorted = nanos.clone();
+		Arrays.sort(sorted);
+		System.out.printf("%-12s median %8.2f ms  min %8.2f ms  max %8.2f ms%n", name,
+				sorted[sorted.length / 2] / 1e6, sorted[0] / 1e6, sorted[sorted.length - 1] / 1e6);
+	}
+}
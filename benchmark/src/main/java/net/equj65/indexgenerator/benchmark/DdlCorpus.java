@@ -0,0 +1,101 @@
+package net.equj65.indexgenerator.benchmark;
+
+/**
+ * ベンチマークの入力となるDDLを作成します。<br />
+ * 以下の値を指定して、同じ指定に対しては常に同じDDLを作成します。
+ * <pre>
+ * 1．SQL文数        CreateTable文の数。CreateTable文毎にDropTable文、Insert文を伴う
+ * 2．カラム数       CreateTable文1文あたりのカラム数
+ * 3．コメント密度   コメントを伴うカラムの割合(%)。行コメントと範囲コメントを交互に付与する
+ * 4．括弧の入れ子数 各カラムのDEFAULT句の括弧の入れ子の深さ
+ * </pre>
+ * 各CreateTable文は、カラム単位のUNIQUE制約（10カラム毎）と複合UNIQUE制約を1つ含みます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+final class DdlCorpus {
+
+	/** カラム単位のUNIQUE制約を付与する間隔 */
+	private static final int UNIQUE_COLUMN_INTERVAL = 10;
+
+	private DdlCorpus() {
+	}
+
+	/**
+	 * 指定数のCreateTable文を含むDDL全体を作成します。
+	 * @param statementCount CreateTable文の数
+	 * @param columnCount CreateTable文1文あたりのカラム数
+	 * @param commentDensity コメントを伴うカラムの割合(%)
+	 * @param nestingDepth DEFAULT句の括弧の入れ子の深さ
+	 * @return DDL
+	 */
+	static String createEntireSql(int statementCount, int columnCount, int commentDensity, int nestingDepth) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("/* Drop Tables */\r\n");
+		for (int i = 0; i < statementCount; i++) {
+			builder.append("DROP TABLE IF EXISTS table").append(i).append(";\r\n");
+		}
+		builder.append("\r\n/* Create Tables */\r\n");
+		for (int i = 0; i < statementCount; i++) {
+			appendCreateTableSql(builder, "table" + i, columnCount, commentDensity, nestingDepth);
+			builder.append("INSERT INTO table").append(i).append(" VALUES ('it''s; -- not a comment');\r\n");
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * CreateTable文を1文作成します。
+	 * @param tableName テーブル名
+	 * @param columnCount カラム数
+	 * @param commentDensity コメントを伴うカラムの割合(%)
+	 * @param nestingDepth DEFAULT句の括弧の入れ子の深さ
+	 * @return CreateTable文
+	 */
+	static String createTableSql(String tableName, int columnCount, int commentDensity, int nestingDepth) {
+		StringBuilder builder = new StringBuilder();
+		appendCreateTableSql(builder, tableName, columnCount, commentDensity, nestingDepth);
+		return builder.toString();
+	}
+
+	private static void appendCreateTableSql(StringBuilder builder, String tableName,
+			int columnCount, int commentDensity, int nestingDepth) {
+		builder.append("CREATE TABLE ").append(tableName).append("\r\n(\r\n");
+		int commentCount = 0;
+		for (int i = 0; i < columnCount; i++) {
+			builder.append("\tfield").append(i).append(" numeric(10,2)");
+			if (nestingDepth > 0) {
+				builder.append(" DEFAULT ");
+				appendNestedExpression(builder, nestingDepth);
+			}
+			if (i % UNIQUE_COLUMN_INTERVAL == UNIQUE_COLUMN_INTERVAL - 1) {
+				builder.append(" UNIQUE");
+			}
+			builder.append(" NOT NULL,");
+			// 先頭からi+1カラムまでのコメント数が割合に達するまでコメントを付与する。
+			if ((long) (i + 1) * commentDensity >= (long) (commentCount + 1) * 100) {
+				if (commentCount % 2 == 0) {
+					builder.append(" -- field").append(i).append(", unique (comment;");
+				} else {
+					builder.append(" /* field").append(i).append(",\r\n\t   UNIQUE (comment); */");
+				}
+				commentCount++;
+			}
+			builder.append("\r\n");
+		}
+		builder.append("\tUNIQUE (field0, field").append(columnCount / 2).append(")\r\n");
+		builder.append(") WITHOUT OIDS;\r\n");
+	}
+
+	/**
+	 * 指定の深さの括弧の入れ子を持つ式を追加します。
+	 */
+	private static void appendNestedExpression(StringBuilder builder, int nestingDepth) {
+		for (int i = 0; i < nestingDepth; i++) {
+			builder.append("round(");
+		}
+		builder.append("1.5");
+		for (int i = 0; i < nestingDepth; i++) {
+			builder.append(", 0)");
+		}
+	}
+}
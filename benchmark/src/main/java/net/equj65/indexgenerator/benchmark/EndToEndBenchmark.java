@@ -0,0 +1,184 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.equj65.indexgenerator.generator.UniqueIndexGenerator;
+
+/**
+ * {@link UniqueIndexGenerator#generate(File, File, String)}の入力から出力までのスループットと、
+ * 処理中の最大メモリ使用量を計測します。<br />
+ * 入力は{@link SyntheticDdlGenerator}で作成し、作成済みの場合は再利用します。
+ * 計測は入力毎に新しいJVMで行い、以下を出力します。
+ * <pre>
+ * 1．MB/s       入力サイズを処理時間（JVMの起動を含まない）で割った値
+ * 2．peak RSS   処理終了時点の/proc/self/statusのVmHWM（Linux以外では出力しない）
+ * 3．peak heap  ヒープ領域の各メモリプールの最大使用量の合計
+ * </pre>
+ * 計測用JVMには当プログラムと同じJVM引数（-Xmx等）を指定します。
+ * <pre>
+ * [使い方]
+ *   java -cp benchmarks.jar net.equj65.indexgenerator.benchmark.EndToEndBenchmark [オプション] [サイズ(MB) ...]
+ *   オプション
+ *     --charset=文字コード  入力の文字コード（複数指定可。デフォルトはUTF-8とShift_JIS）
+ *     --seed=シード値       入力作成時のシード値
+ *     --work-dir=ディレクトリ 入力、出力の作成先（デフォルトはjava.io.tmpdir）
+ *   サイズのデフォルトは1、100、1024(MB)
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class EndToEndBenchmark {
+
+	/** 計測用JVMとして起動する場合の第1引数 */
+	private static final String CHILD_OPTION = "--child";
+
+	/** 計測結果の行の接頭辞 */
+	private static final String RESULT_PREFIX = "result ";
+
+	private static final long MB = 1024 * 1024;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && CHILD_OPTION.equals(args[0])) {
+			measure(new File(args[1]), new File(args[2]), args[3]);
+			return;
+		}
+
+		List<Long> sizeList = new ArrayList<>();
+		List<String> charsetList = new ArrayList<>();
+		long seed = SyntheticDdlGenerator.DEFAULT_SEED;
+		File workDir = new File(System.getProperty("java.io.tmpdir"));
+		for (String arg : args) {
+			if (arg.startsWith("--charset=")) {
+				charsetList.add(Charset.forName(arg.substring("--charset=".length())).name());
+			} else if (arg.startsWith("--seed=")) {
+				seed = Long.parseLong(arg.substring("--seed=".length()));
+			} else if (arg.startsWith("--work-dir=")) {
+				workDir = new File(arg.substring("--work-dir=".length()));
+			} else {
+				sizeList.add(Long.parseLong(arg));
+			}
+		}
+		if (sizeList.isEmpty()) {
+			sizeList.add(1L);
+			sizeList.add(100L);
+			sizeList.add(1024L);
+		}
+		if (charsetList.isEmpty()) {
+			charsetList.add(StandardCharsets.UTF_8.name());
+			charsetList.add("Shift_JIS");
+		}
+
+		System.out.printf("%-10s %10s %12s %10s %12s %12s%n", "charset", "size(MB)", "time(ms)", "MB/s", "peakRSS(MB)", "peakHeap(MB)");
+		for (String charset : charsetList) {
+			for (long sizeMB : sizeList) {
+				File input = new File(workDir, "synthetic-ddl-" + seed + "-" + sizeMB + "MB-" + charset + ".sql");
+				if (!input.exists()) {
+					new SyntheticDdlGenerator(seed).generate(input, Charset.forName(charset), sizeMB * MB);
+				}
+				File output = new File(workDir, "synthetic-ddl-" + seed + "-" + sizeMB + "MB-" + charset + ".out.sql");
+				Files.deleteIfExists(output.toPath());
+				try {
+					String[] result = runChild(input, output, charset);
+					long elapsedNanos = Long.parseLong(result[0]);
+					long peakRssKB = Long.parseLong(result[1]);
+					long peakHeap = Long.parseLong(result[2]);
+					System.out.printf("%-10s %10.1f %12.1f %10.1f %12s %12.1f%n", charset,
+							(double) input.length() / MB, elapsedNanos / 1e6,
+							(double) input.length() / MB / (elapsedNanos / 1e9),
+							peakRssKB < 0 ? "n/a" : String.format("%.1f", peakRssKB / 1024.0),
+							(double) peakHeap / MB);
+				} finally {
+					Files.deleteIfExists(output.toPath());
+				}
+			}
+		}
+	}
+
+	/**
+	 * 計測用JVMを起動し、計測結果（処理時間(ns)、最大RSS(KB)、最大ヒープ使用量(byte)）を取得します。
+	 */
+	private static String[] runChild(File input, File output, String charset) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(EndToEndBenchmark.class.getName());
+		command.add(CHILD_OPTION);
+		command.add(input.getPath());
+		command.add(output.getPath());
+		command.add(charset);
+		Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+		String result = null;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(RESULT_PREFIX)) {
+					result = line.substring(RESULT_PREFIX.length());
+				} else {
+					System.out.println("  " + line);
+				}
+			}
+		}
+		int exitCode = process.waitFor();
+		if (exitCode != 0 || result == null) {
+			throw new IllegalStateException("measurement failed (exit code " + exitCode + ") : " + input);
+		}
+		return result.split(" ");
+	}
+
+	/**
+	 * 計測用JVMでの処理です。1回分の処理時間と最大メモリ使用量を標準出力に出力します。
+	 */
+	private static void measure(File input, File output, String charset) throws IOException {
+		long startTime = System.nanoTime();
+		UniqueIndexGenerator.generate(input, output, charset);
+		long elapsedNanos = System.nanoTime() - startTime;
+		if (!output.exists()) {
+			// generateは例外を呼び出し元に送出しないため、出力の有無で失敗を判定する。
+			System.exit(1);
+		}
+		System.out.println(RESULT_PREFIX + elapsedNanos + " " + readPeakRssKB() + " " + readPeakHeapUsage());
+	}
+
+	/**
+	 * プロセスの最大RSS(KB)を取得します。取得できない場合は-1を返却します。
+	 */
+	private static long readPeakRssKB() {
+		try {
+			for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.US_ASCII)) {
+				if (line.startsWith("VmHWM:")) {
+					return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// /proc が存在しない環境では取得しない。
+		}
+		return -1;
+	}
+
+	/**
+	 * ヒープ領域の各メモリプールの最大使用量の合計(byte)を取得します。
+	 */
+	private static long readPeakHeapUsage() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+}
@@ -0,0 +1,38 @@
+package net.equj65.indexgenerator.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 解析処理、およびCreateIndex文作成処理のベンチマークを、GCプロファイラを有効にして実行します。<br />
+ * スループットに加え、1操作あたりの割り当て量（gc.alloc.rate.norm）を出力します。
+ * 引数にはJMHのコマンドラインオプションを指定することができます。
+ * <pre>
+ * [使い方]
+ *   java -cp benchmarks.jar net.equj65.indexgenerator.benchmark.HotPathBenchmarkRunner [JMHのオプション]
+ *   例）カラム数100のみ計測する
+ *   java -cp benchmarks.jar net.equj65.indexgenerator.benchmark.HotPathBenchmarkRunner -p columnCount=100
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class HotPathBenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options commandLineOptions = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		builder.parent(commandLineOptions);
+		if (commandLineOptions.getIncludes().isEmpty()) {
+			builder.include(SQLParserBenchmark.class.getSimpleName())
+					.include(CreateTableSqlBenchmark.class.getSimpleName())
+					.include(CreateIndexBuilderBenchmark.class.getSimpleName());
+		}
+		builder.addProfiler(GCProfiler.class);
+		new Runner(builder.build()).run();
+	}
+}
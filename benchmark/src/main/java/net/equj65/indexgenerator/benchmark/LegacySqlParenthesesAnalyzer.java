@@ -0,0 +1,75 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import net.equj65.indexgenerator.analyzer.SqlParenthesesInfo;
+import net.equj65.indexgenerator.parser.SQLLexer;
+
+/**
+ * 比較用の旧括弧解析処理です。<br />
+ * 括弧位置をボクシングして{@link Stack}で管理し、括弧情報を{@link List}で返却します。
+ * 包含判定は全括弧情報を走査します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class LegacySqlParenthesesAnalyzer {
+	/** 開始括弧 */
+	private static final Character START = '(';
+	/** 終了括弧 */
+	private static final Character END = ')';
+
+	/**
+	 * SQL文中の括弧を解析します。
+	 * @param target 解析対象のSQL文
+	 * @return 括弧情報の一覧（終了位置順）
+	 */
+	public static List<SqlParenthesesInfo> analyze(String target) {
+		List<SqlParenthesesInfo> sqlParenthesesInfoList = new ArrayList<>();
+		SQLLexer lexer = new SQLLexer();
+		Stack<Integer> stack = new Stack<>();
+		for (int i = 0; i < target.length(); i++) {
+			Character chr = target.charAt(i);
+			if ((START.equals(chr) || END.equals(chr)) && lexer.isEffective()) {
+				if (START.equals(chr)) {
+					stack.push(i);
+				} else if (!stack.empty()) {
+					sqlParenthesesInfoList.add(new SqlParenthesesInfo(stack.pop(), i));
+				}
+			}
+			lexer.next(chr);
+		}
+		return sqlParenthesesInfoList;
+	}
+
+	/**
+	 * 指定位置がいずれかの括弧に含まれていることを確認します。
+	 * @param sqlParenthesesInfoList 括弧情報の一覧
+	 * @param targetIndex チェック対象の位置
+	 * @return チェック結果
+	 */
+	public static boolean isEnclosed(List<SqlParenthesesInfo> sqlParenthesesInfoList, int targetIndex) {
+		boolean result = false;
+		for (SqlParenthesesInfo info : sqlParenthesesInfoList) {
+			result = result || (info.getStartParenthesesIndex() < targetIndex
+					&& targetIndex < info.getEndParenthesesIndex());
+		}
+		return result;
+	}
+
+	/**
+	 * 最も最初に始まる括弧の情報を取得します。
+	 * @param sqlParenthesesInfoList 括弧情報の一覧
+	 * @return 最も最初に始まる括弧の情報
+	 */
+	public static SqlParenthesesInfo getFirstStartParenthesesInfo(List<SqlParenthesesInfo> sqlParenthesesInfoList) {
+		SqlParenthesesInfo result = null;
+		for (SqlParenthesesInfo info : sqlParenthesesInfoList) {
+			if (result == null || info.getStartParenthesesIndex() < result.getStartParenthesesIndex()) {
+				result = info;
+			}
+		}
+		return result;
+	}
+}
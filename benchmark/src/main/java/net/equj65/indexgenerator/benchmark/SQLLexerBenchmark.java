@@ -0,0 +1,73 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.equj65.indexgenerator.parser.SQLLexer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SQLLexer}の走査性能を計測するベンチマークです。<br />
+ * 入力サイズ(MB)別の1回あたりの処理時間を計測します。
+ * 処理時間が入力サイズに比例する（MB当たりの処理時間が一定である）ことを確認する。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class SQLLexerBenchmark {
+
+	/** コメントおよび文字列リテラルを含むDDLの断片 */
+	private static final String DDL_CHUNK =
+			"/* Create Tables */\r\n"
+			+ "CREATE TABLE hoge -- テーブル\r\n"
+			+ "(\r\n"
+			+ "\tid serial NOT NULL,\r\n"
+			+ "\tname varchar(20) DEFAULT '--;(' UNIQUE, /* 名称 ; */\r\n"
+			+ "\tUNIQUE (id, name)\r\n"
+			+ ") WITHOUT OIDS;\r\n";
+
+	/** 入力サイズ(MB) */
+	@Param({"1", "10", "100"})
+	public int sizeMB;
+
+	private String sql;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		int length = sizeMB * 1024 * 1024;
+		StringBuilder builder = new StringBuilder(length + DDL_CHUNK.length());
+		while (builder.length() < length) {
+			builder.append(DDL_CHUNK);
+		}
+		sql = builder.toString();
+	}
+
+	@Benchmark
+	public int lexer() {
+		SQLLexer lexer = new SQLLexer();
+		int effectiveCount = 0;
+		for (int i = 0; i < sql.length(); i++) {
+			if (lexer.isEffective()) {
+				effectiveCount++;
+			}
+			lexer.next(sql.charAt(i));
+		}
+		return effectiveCount;
+	}
+}
@@ -0,0 +1,66 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import net.equj65.indexgenerator.domain.EntireSQL;
+import net.equj65.indexgenerator.parser.SQLParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SQLParser#parse(String)}のスループットを計測するベンチマークです。<br />
+ * 入力は{@link DdlCorpus}で作成し、SQL文数、カラム数、コメント密度、括弧の入れ子数を変えて計測します。
+ * 割り当て量は{@code -prof gc}（{@link HotPathBenchmarkRunner}では既定で有効）で確認します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SQLParserBenchmark {
+
+	/** CreateTable文の数 */
+	@Param({"10", "100", "1000"})
+	public int statementCount;
+
+	/** CreateTable文1文あたりのカラム数 */
+	@Param({"10", "100"})
+	public int columnCount;
+
+	/** コメントを伴うカラムの割合(%) */
+	@Param({"0", "50"})
+	public int commentDensity;
+
+	/** DEFAULT句の括弧の入れ子の深さ */
+	@Param({"0", "4"})
+	public int nestingDepth;
+
+	private SQLParser parser;
+
+	private String sql;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		parser = new SQLParser();
+		sql = DdlCorpus.createEntireSql(statementCount, columnCount, commentDensity, nestingDepth);
+	}
+
+	@Benchmark
+	public EntireSQL parse() {
+		return parser.parse(sql);
+	}
+}
@@ -0,0 +1,78 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.equj65.indexgenerator.analyzer.SqlParenthesesAnalyzer;
+import net.equj65.indexgenerator.analyzer.SqlParenthesesInfo;
+import net.equj65.indexgenerator.analyzer.SqlParenthesesInfoSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SqlParenthesesAnalyzer}と旧括弧解析処理({@link LegacySqlParenthesesAnalyzer})を比較するベンチマークです。<br />
+ * フィールド定義部の分割と同様に、括弧を解析した上で全カンマ位置の包含判定を行います。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SqlParenthesesBenchmark {
+
+	/** CreateTable文のカラム数 */
+	@Param({"10", "100", "1000"})
+	public int columnCount;
+
+	private String sql;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		StringBuilder builder = new StringBuilder("CREATE TABLE hoge\r\n(\r\n");
+		for (int i = 0; i < columnCount; i++) {
+			builder.append("\tfield").append(i).append(" numeric(10,2) DEFAULT (round(1.5, 0)) NOT NULL,\r\n");
+		}
+		builder.append("\tUNIQUE (field0, field1)\r\n) WITHOUT OIDS;\r\n");
+		sql = builder.toString();
+	}
+
+	@Benchmark
+	public int legacy() {
+		List<SqlParenthesesInfo> infoList = LegacySqlParenthesesAnalyzer.analyze(sql);
+		int enclosedCount = 0;
+		SqlParenthesesInfo first = LegacySqlParenthesesAnalyzer.getFirstStartParenthesesInfo(infoList);
+		for (int i = first.getStartParenthesesIndex(); i < first.getEndParenthesesIndex(); i++) {
+			if (sql.charAt(i) == ',' && LegacySqlParenthesesAnalyzer.isEnclosed(infoList, i)) {
+				enclosedCount++;
+			}
+		}
+		return enclosedCount;
+	}
+
+	@Benchmark
+	public int current() {
+		SqlParenthesesInfoSet infoSet = SqlParenthesesAnalyzer.analyze(sql);
+		int enclosedCount = 0;
+		SqlParenthesesInfo first = infoSet.getFirstStartParenthesesInfo();
+		for (int i = first.getStartParenthesesIndex(); i < first.getEndParenthesesIndex(); i++) {
+			if (sql.charAt(i) == ',' && infoSet.isEnclosed(i)) {
+				enclosedCount++;
+			}
+		}
+		return enclosedCount;
+	}
+}
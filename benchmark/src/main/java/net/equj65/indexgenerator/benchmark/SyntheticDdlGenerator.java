@@ -0,0 +1,317 @@
+package net.equj65.indexgenerator.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ERMaster形式のDDLを模した、大規模な入力SQLファイルを作成します。<br />
+ * 同じシード値、設定値、文字コードに対しては常に同じ内容のファイルを作成します。
+ * 作成するDDLは以下の要素を含みます。
+ * <pre>
+ * 1．DropTable文、CreateTable文、Comment文をERMasterと同様のセクションに分けて出力
+ * 2．カラム単位のUNIQUE制約、および複合UNIQUE制約（大文字、小文字の混在）
+ * 3．日本語の論理名を持つ行コメント、範囲コメント（Shift_JISで0x5Cを含む文字を含む）
+ * 4．';'、括弧、コメント開始文字列を含む文字列リテラル
+ * 5．CreateTable文の間に挟まるInsert文
+ * 6．CRLFとLFが混在する改行
+ * </pre>
+ * <pre>
+ * [使い方]
+ *   java -cp benchmarks.jar net.equj65.indexgenerator.benchmark.SyntheticDdlGenerator &lt;出力ファイル&gt; &lt;サイズ(MB)&gt; [文字コード] [シード値]
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class SyntheticDdlGenerator {
+
+	/** デフォルトのシード値 */
+	public static final long DEFAULT_SEED = 20141201L;
+
+	/** 1セクションあたりのテーブル数 */
+	private static final int TABLES_PER_SECTION = 20;
+
+	/** テーブルの論理名 */
+	private static final String[] TABLE_LOGICAL_NAMES = {
+		"顧客マスタ", "商品マスタ", "受注明細", "表示設定", "ソート順管理", "社員情報", "倉庫在庫", "請求書"
+	};
+
+	/** カラムの論理名 */
+	private static final String[] COLUMN_LOGICAL_NAMES = {
+		"顧客名", "メールアドレス", "商品コード", "表示名", "ソート順", "登録日時", "更新者", "備考", "郵便番号", "電話番号"
+	};
+
+	/** カラムのデータ型 */
+	private static final String[] DATA_TYPES = {
+		"integer", "bigint", "text", "varchar(20)", "numeric(10,2)", "timestamp", "boolean", "char(8)"
+	};
+
+	/** 文字列リテラル（DEFAULT句、Insert文、Comment文に利用する） */
+	private static final String[] LITERALS = {
+		"'a;b'", "'(x, y)'", "'-- not comment'", "'/* not; comment */'", "'it''s; (ok'", "'表示;（全角）'"
+	};
+
+	private final long seed;
+
+	/** CreateTable文1文あたりの最小カラム数 */
+	private int minColumnCount = 3;
+
+	/** CreateTable文1文あたりの最大カラム数 */
+	private int maxColumnCount = 30;
+
+	/** カラム単位のUNIQUE制約を付与するカラムの割合(%) */
+	private int uniqueColumnPercent = 10;
+
+	/** 複合UNIQUE制約を付与するテーブルの割合(%) */
+	private int compositeUniquePercent = 50;
+
+	/** CRLFで改行する行の割合(%)。残りはLFで改行する */
+	private int crlfPercent = 50;
+
+	/** CreateTable文1文あたりの最大Insert文数 */
+	private int maxInsertCount = 5;
+
+	/**
+	 * デフォルトのシード値を利用するインスタンスを作成します。
+	 */
+	public SyntheticDdlGenerator() {
+		this(DEFAULT_SEED);
+	}
+
+	/**
+	 * シード値を指定してインスタンスを作成します。
+	 * @param seed シード値
+	 */
+	public SyntheticDdlGenerator(long seed) {
+		this.seed = seed;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: SyntheticDdlGenerator <output file> <size MB> [charset] [seed]");
+			System.exit(2);
+		}
+		File output = new File(args[0]);
+		long size = Long.parseLong(args[1]) * 1024 * 1024;
+		Charset charset = Charset.forName(args.length > 2 ? args[2] : "UTF-8");
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+		long written = new SyntheticDdlGenerator(seed).generate(output, charset, size);
+		System.out.println(output + " : " + written + " bytes");
+	}
+
+	/**
+	 * 指定サイズ以上になるまでDDLをファイルに書き込みます。<br />
+	 * サイズの判定はセクション単位で行うため、作成されるファイルは指定サイズを最大1セクション分超過します。
+	 * @param output 出力先ファイル
+	 * @param charset 出力先の文字コード
+	 * @param size 作成するファイルのサイズ(byte)
+	 * @return 書き込んだサイズ(byte)
+	 * @throws IOException 書き込みに失敗した場合
+	 */
+	public long generate(File output, Charset charset, long size) throws IOException {
+		Random random = new Random(seed);
+		try (CountingOutputStream out = new CountingOutputStream(new FileOutputStream(output));
+				Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset))) {
+			int tableNo = 0;
+			while (out.count < size) {
+				writeSection(writer, random, tableNo);
+				tableNo += TABLES_PER_SECTION;
+				writer.flush();
+			}
+			return out.count;
+		}
+	}
+
+	/**
+	 * 1セクション分（{@link #TABLES_PER_SECTION}テーブル分）のDDLを書き込みます。
+	 */
+	private void writeSection(Writer writer, Random random, int firstTableNo) throws IOException {
+		List<Table> tableList = new ArrayList<>(TABLES_PER_SECTION);
+		for (int i = 0; i < TABLES_PER_SECTION; i++) {
+			tableList.add(createTable(random, firstTableNo + i));
+		}
+
+		writeLine(writer, random, "");
+		writeLine(writer, random, "/* Drop Tables */");
+		writeLine(writer, random, "");
+		for (Table table : tableList) {
+			writeLine(writer, random, "DROP TABLE IF EXISTS " + table.name + ";");
+		}
+		writeLine(writer, random, "");
+		writeLine(writer, random, "/* Create Tables */");
+		writeLine(writer, random, "");
+		for (Table table : tableList) {
+			writeCreateTable(writer, random, table);
+			writeInserts(writer, random, table);
+		}
+		writeLine(writer, random, "");
+		writeLine(writer, random, "/* Comments */");
+		writeLine(writer, random, "");
+		for (Table table : tableList) {
+			writeLine(writer, random, "COMMENT ON TABLE " + table.name + " IS '" + table.logicalName + "';");
+			for (int i = 0; i < table.columnNames.length; i++) {
+				writeLine(writer, random, "COMMENT ON COLUMN " + table.name + "." + table.columnNames[i]
+						+ " IS '" + table.columnLogicalNames[i] + "';");
+			}
+		}
+	}
+
+	/**
+	 * テーブル定義を乱数で作成します。
+	 */
+	private Table createTable(Random random, int tableNo) {
+		Table table = new Table();
+		table.name = "T_" + tableNo;
+		table.logicalName = TABLE_LOGICAL_NAMES[random.nextInt(TABLE_LOGICAL_NAMES.length)] + tableNo;
+		int columnCount = minColumnCount + random.nextInt(maxColumnCount - minColumnCount + 1);
+		table.columnNames = new String[columnCount];
+		table.columnLogicalNames = new String[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			table.columnNames[i] = "COL_" + i;
+			table.columnLogicalNames[i] = COLUMN_LOGICAL_NAMES[random.nextInt(COLUMN_LOGICAL_NAMES.length)];
+		}
+		return table;
+	}
+
+	/**
+	 * CreateTable文を書き込みます。
+	 */
+	private void writeCreateTable(Writer writer, Random random, Table table) throws IOException {
+		writeLine(writer, random, "-- " + table.logicalName);
+		writeLine(writer, random, "CREATE TABLE " + table.name);
+		writeLine(writer, random, "(");
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < table.columnNames.length; i++) {
+			line.setLength(0);
+			line.append('\t').append(table.columnNames[i]).append(' ');
+			if (i == 0) {
+				line.append("serial NOT NULL");
+			} else {
+				line.append(DATA_TYPES[random.nextInt(DATA_TYPES.length)]);
+				if (random.nextInt(4) == 0) {
+					line.append(" DEFAULT ").append(LITERALS[random.nextInt(LITERALS.length)]);
+				}
+				if (random.nextInt(100) < uniqueColumnPercent) {
+					line.append(random.nextBoolean() ? " UNIQUE" : " unique");
+				}
+				if (random.nextBoolean()) {
+					line.append(" NOT NULL");
+				}
+			}
+			line.append(',');
+			switch (random.nextInt(4)) {
+			case 0:
+				line.append(" -- ").append(table.columnLogicalNames[i]).append(" (unique;");
+				break;
+			case 1:
+				line.append(" /* ").append(table.columnLogicalNames[i]).append(", UNIQUE; */");
+				break;
+			default:
+				break;
+			}
+			writeLine(writer, random, line.toString());
+		}
+		if (table.columnNames.length > 2 && random.nextInt(100) < compositeUniquePercent) {
+			int keyCount = 2 + random.nextInt(Math.min(3, table.columnNames.length - 1) - 1);
+			line.setLength(0);
+			line.append(random.nextBoolean() ? "\tUNIQUE (" : "\tunique(");
+			for (int i = 0; i < keyCount; i++) {
+				if (i > 0) {
+					line.append(", ");
+				}
+				line.append(table.columnNames[i + 1]);
+			}
+			line.append("),");
+			writeLine(writer, random, line.toString());
+		}
+		writeLine(writer, random, "\tPRIMARY KEY (" + table.columnNames[0] + ")");
+		writeLine(writer, random, ") WITHOUT OIDS;");
+		writeLine(writer, random, "");
+	}
+
+	/**
+	 * CreateTable文に続くInsert文を書き込みます。
+	 */
+	private void writeInserts(Writer writer, Random random, Table table) throws IOException {
+		int insertCount = random.nextInt(maxInsertCount + 1);
+		for (int i = 0; i < insertCount; i++) {
+			writeLine(writer, random, "INSERT INTO " + table.name + " (" + table.columnNames[0] + ", "
+					+ table.columnNames[1] + ") VALUES (" + i + ", " + LITERALS[random.nextInt(LITERALS.length)] + ");");
+		}
+	}
+
+	/**
+	 * 1行を書き込みます。改行文字は{@link #crlfPercent}に従いCRLFとLFから選択します。
+	 */
+	private void writeLine(Writer writer, Random random, String line) throws IOException {
+		writer.write(line);
+		writer.write(random.nextInt(100) < crlfPercent ? "\r\n" : "\n");
+	}
+
+	public void setMinColumnCount(int minColumnCount) {
+		this.minColumnCount = minColumnCount;
+	}
+
+	public void setMaxColumnCount(int maxColumnCount) {
+		this.maxColumnCount = maxColumnCount;
+	}
+
+	public void setUniqueColumnPercent(int uniqueColumnPercent) {
+		this.uniqueColumnPercent = uniqueColumnPercent;
+	}
+
+	public void setCompositeUniquePercent(int compositeUniquePercent) {
+		this.compositeUniquePercent = compositeUniquePercent;
+	}
+
+	public void setCrlfPercent(int crlfPercent) {
+		this.crlfPercent = crlfPercent;
+	}
+
+	public void setMaxInsertCount(int maxInsertCount) {
+		this.maxInsertCount = maxInsertCount;
+	}
+
+	/**
+	 * 作成するテーブルの定義です。
+	 */
+	private static class Table {
+		String name;
+		String logicalName;
+		String[] columnNames;
+		String[] columnLogicalNames;
+	}
+
+	/**
+	 * 書き込んだバイト数を数える出力ストリームです。
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
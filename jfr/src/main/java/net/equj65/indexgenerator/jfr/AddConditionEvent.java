@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SQL全体のUNIQUE制約の除去とCreateIndex文の作成のJFRイベントです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@Name("net.equj65.indexgenerator.AddCondition")
+@Label("Create Unique Indexes")
+@Description("Removes all UNIQUE constraints and creates the CREATE UNIQUE INDEX statements, or creates those of one CREATE TABLE statement in the pipeline")
+@StackTrace(true)
+public class AddConditionEvent extends GenerateEvent {
+}
@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SQL文1文の解析のJFRイベントです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@Name("net.equj65.indexgenerator.BuildCommand")
+@Label("Parse Statement")
+@Description("Parses one statement and extracts its UNIQUE constraints")
+@StackTrace(false)
+public class BuildCommandEvent extends GenerateEvent {
+}
@@ -0,0 +1,29 @@
+package net.equj65.indexgenerator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import net.equj65.indexgenerator.trace.TraceSpan;
+
+/**
+ * UniqueIndex作成処理の計測箇所を表すJFRイベントの基底クラスです。<br />
+ * 計測を終了した時点で、対象のテーブル名とSQL文の長さを設定してイベントを記録します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@Category("Unique Index Generator")
+public abstract class GenerateEvent extends Event implements TraceSpan {
+
+	@Label("Table Name")
+	String tableName;
+
+	@Label("Statement Length")
+	long statementLength;
+
+	@Override
+	public void finish(String tableName, long statementLength) {
+		this.tableName = tableName;
+		this.statementLength = statementLength;
+		commit();
+	}
+}
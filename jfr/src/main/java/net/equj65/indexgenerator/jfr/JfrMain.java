@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.jfr;
+
+import net.equj65.indexgenerator.main.Main;
+import net.equj65.indexgenerator.trace.Tracing;
+
+/**
+ * {@link JfrTracer}を登録した上で{@link Main}を実行します。<br />
+ * 引数は{@link Main}と同様です。JFRの記録は-XX:StartFlightRecording等で開始します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class JfrMain {
+
+	public static void main(String[] args) throws Exception {
+		Tracing.setTracer(new JfrTracer());
+		Main.main(args);
+	}
+}
@@ -0,0 +1,85 @@
+package net.equj65.indexgenerator.jfr;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import jdk.jfr.EventType;
+import net.equj65.indexgenerator.trace.TracePoint;
+import net.equj65.indexgenerator.trace.TraceSpan;
+import net.equj65.indexgenerator.trace.Tracer;
+
+/**
+ * 計測箇所をJFRイベントとして記録する{@link Tracer}です。<br />
+ * イベントが記録対象でない場合（記録中でない場合、設定で無効化されている場合）はイベントを作成せず、計測を開始しません。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class JfrTracer implements Tracer {
+
+	/** 計測箇所毎のイベントの種別。記録対象であるかの判定に利用する */
+	private final Map<TracePoint, EventType> eventTypeMap = new EnumMap<>(TracePoint.class);
+
+	public JfrTracer() {
+		for (TracePoint point : TracePoint.values()) {
+			eventTypeMap.put(point, EventType.getEventType(getEventClass(point)));
+		}
+	}
+
+	@Override
+	public TraceSpan begin(TracePoint point) {
+		if (!eventTypeMap.get(point).isEnabled()) {
+			return null;
+		}
+		GenerateEvent event = createEvent(point);
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * 計測箇所に対応するイベントのクラスを取得します。
+	 */
+	private static Class<? extends GenerateEvent> getEventClass(TracePoint point) {
+		switch (point) {
+		case READ_FILE:
+			return ReadFileEvent.class;
+		case PARSE:
+			return ParseEvent.class;
+		case SPLIT:
+			return SplitEvent.class;
+		case BUILD_COMMAND:
+			return BuildCommandEvent.class;
+		case REMOVE_UNIQUE:
+			return RemoveUniqueEvent.class;
+		case ADD_CONDITION:
+			return AddConditionEvent.class;
+		case WRITE_FILE:
+			return WriteFileEvent.class;
+		default:
+			throw new IllegalArgumentException("unknown trace point : " + point);
+		}
+	}
+
+	/**
+	 * 計測箇所に対応するイベントを作成します。
+	 */
+	private static GenerateEvent createEvent(TracePoint point) {
+		switch (point) {
+		case READ_FILE:
+			return new ReadFileEvent();
+		case PARSE:
+			return new ParseEvent();
+		case SPLIT:
+			return new SplitEvent();
+		case BUILD_COMMAND:
+			return new BuildCommandEvent();
+		case REMOVE_UNIQUE:
+			return new RemoveUniqueEvent();
+		case ADD_CONDITION:
+			return new AddConditionEvent();
+		case WRITE_FILE:
+			return new WriteFileEvent();
+		default:
+			throw new IllegalArgumentException("unknown trace point : " + point);
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SQL全体の解析のJFRイベントです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@Name("net.equj65.indexgenerator.Parse")
+@Label("Parse SQL")
+@Description("Splits and parses the whole SQL, or parses one statement and removes its UNIQUE constraints in the pipeline")
+@StackTrace(true)
+public class ParseEvent extends GenerateEvent {
+}
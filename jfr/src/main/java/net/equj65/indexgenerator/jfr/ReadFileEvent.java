@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SQLファイルの読み込みのJFRイベントです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@Name("net.equj65.indexgenerator.ReadFile")
+@Label("Read SQL File")
+@Description("Reads and decodes the input SQL file. The pipeline emits one event per stretch of reading between backpressure waits")
+@StackTrace(true)
+public class ReadFileEvent extends GenerateEvent {
+}
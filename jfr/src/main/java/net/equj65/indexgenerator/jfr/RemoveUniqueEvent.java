@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * CreateTable文1文からのUNIQUE制約の除去のJFRイベントです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@Name("net.equj65.indexgenerator.RemoveUnique")
+@Label("Remove Unique Constraints")
+@Description("Removes the UNIQUE constraints from one CREATE TABLE statement")
+@StackTrace(false)
+public class RemoveUniqueEvent extends GenerateEvent {
+}
@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SQL文の分割のJFRイベントです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@Name("net.equj65.indexgenerator.Split")
+@Label("Split Statements")
+@Description("Splits the whole SQL into statements, or reads one statement in the pipeline")
+@StackTrace(true)
+public class SplitEvent extends GenerateEvent {
+}
@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SQLファイルの書き込みのJFRイベントです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+@Name("net.equj65.indexgenerator.WriteFile")
+@Label("Write SQL File")
+@Description("Encodes and writes the output SQL file")
+@StackTrace(true)
+public class WriteFileEvent extends GenerateEvent {
+}
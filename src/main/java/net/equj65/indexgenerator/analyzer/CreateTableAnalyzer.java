@@ -0,0 +1,169 @@
+package net.equj65.indexgenerator.analyzer;
+
+import static net.equj65.indexgenerator.analyzer.CreateTableInfo.*;
+import static net.equj65.indexgenerator.constants.SqlConstants.*;
+
+import java.util.Arrays;
+
+import net.equj65.indexgenerator.parser.SQLKeywordMatcher;
+import net.equj65.indexgenerator.parser.SQLLexer;
+
+/**
+ * CreateTable文のフィールド定義部を解析します。<br />
+ * CreateTable文を先頭から1度だけ走査し、フィールド定義の区切り、UNIQUEキーワード、
+ * 複合UNIQUE制約の対象項目を囲む括弧の位置を{@link CreateTableInfo}として記録します。
+ * 記録した位置はUNIQUE制約の対象項目の抽出と、UNIQUE制約の除去の双方で利用します。<br />
+ * フィールド定義の区切り、およびUNIQUEキーワードの判定条件は以下と同様です。
+ * <pre>
+ * 1．{@link net.equj65.indexgenerator.util.SqlUtils#decompositionFieldDefinitionPart(String)}
+ * 2．{@link net.equj65.indexgenerator.util.SqlUtils#isSqlUniqueKeyword(String, int)}
+ * 3．{@link net.equj65.indexgenerator.util.SqlUtils#isComplexUniqueConstraint(String, int)}
+ * </pre>
+ * 当クラスのメソッドは状態を共有しないため、複数スレッドから同時に呼び出すことができます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class CreateTableAnalyzer {
+
+	/** 開始括弧 */
+	private static final char START = '(';
+	/** 終了括弧 */
+	private static final char END = ')';
+	/** フィールド定義の区切り文字 */
+	private static final char DELIMITER = DECLARE_FIELD_DELIMITER.charAt(0);
+	/** UNIQUE制約の位置情報の初期の保持件数 */
+	private static final int INITIAL_UNIQUE_COUNT = 4;
+	/** UNIQUE制約を含まないCreateTable文の位置情報 */
+	private static final int[] EMPTY_SPANS = new int[0];
+
+	/**
+	 * CreateTable文全体を解析します。
+	 * @param createTableSql 解析対象のCreateTable文
+	 * @return CreateTable文の構造
+	 * @see #analyze(CharSequence, int, int)
+	 */
+	public static CreateTableInfo analyze(CharSequence createTableSql) {
+		return analyze(createTableSql, 0, createTableSql.length());
+	}
+
+	/**
+	 * 文字列の指定範囲をCreateTable文として解析します。<br />
+	 * 最初に出現するSQL文法上有効な開始括弧から、対応する終了括弧までをフィールド定義部とします。
+	 * 指定範囲の開始位置はSQL文法上有効な位置（コメント内、文字列リテラル内ではない位置）であること。
+	 * @param sql CreateTable文を含む文字列
+	 * @param fromIndex CreateTable文の開始位置
+	 * @param toIndex CreateTable文の終了位置（この位置を含まない）
+	 * @return CreateTable文の構造。位置はいずれも開始位置を0とした位置
+	 * @throws IllegalArgumentException フィールド定義部、または複合UNIQUE制約の括弧が閉じていない場合
+	 */
+	public static CreateTableInfo analyze(CharSequence sql, int fromIndex, int toIndex) {
+		SQLLexer lexer = new SQLLexer();
+		int depth = 0;
+		int sectionStartIndex = -1;
+		int sectionEndIndex = -1;
+		int[] uniqueSpans = EMPTY_SPANS;
+		int uniqueCount = 0;
+
+		// 解析中のフィールド定義の情報
+		int fieldStartIndex = -1;
+		int uniqueIndex = SQLKeywordMatcher.NOT_FOUND;
+		int keyStartIndex = NOT_COMPLEX;
+		int keyEndIndex = NOT_COMPLEX;
+
+		for (int i = fromIndex; i < toIndex && sectionEndIndex < 0; i++) {
+			char c = sql.charAt(i);
+			if (lexer.isEffective()) {
+				boolean isFieldEnd = false;
+				if (c == START) {
+					if (++depth == 1) {
+						sectionStartIndex = i;
+						fieldStartIndex = i + 1;
+					}
+				} else if (c == END && depth > 0) {
+					depth--;
+					if (depth == 1 && keyStartIndex != NOT_COMPLEX && keyEndIndex == NOT_COMPLEX) {
+						keyEndIndex = i;
+					} else if (depth == 0) {
+						sectionEndIndex = i;
+						isFieldEnd = true;
+					}
+				} else if (c == DELIMITER && depth == 1) {
+					isFieldEnd = true;
+				} else if (depth > 0 && uniqueIndex == SQLKeywordMatcher.NOT_FOUND
+						&& isUniqueKeyword(sql, i, toIndex, fieldStartIndex, depth)) {
+					uniqueIndex = i;
+					keyStartIndex = indexOfComplexKeyStart(sql, i + UNIQUE.length(), toIndex);
+				}
+
+				if (isFieldEnd) {
+					if (uniqueIndex != SQLKeywordMatcher.NOT_FOUND) {
+						if (keyStartIndex != NOT_COMPLEX && keyEndIndex == NOT_COMPLEX) {
+							throw new IllegalArgumentException("SQL文法に誤りがあります");
+						}
+						if (uniqueSpans.length < (uniqueCount + 1) * SLOT_COUNT) {
+							uniqueSpans = Arrays.copyOf(uniqueSpans, Math.max(INITIAL_UNIQUE_COUNT, uniqueCount * 2) * SLOT_COUNT);
+						}
+						int spanIndex = uniqueCount++ * SLOT_COUNT;
+						uniqueSpans[spanIndex + FIELD_START] = fieldStartIndex - fromIndex;
+						uniqueSpans[spanIndex + FIELD_END] = i - fromIndex;
+						uniqueSpans[spanIndex + UNIQUE_START] = uniqueIndex - fromIndex;
+						uniqueSpans[spanIndex + KEY_START] = keyStartIndex == NOT_COMPLEX ? NOT_COMPLEX : keyStartIndex - fromIndex;
+						uniqueSpans[spanIndex + KEY_END] = keyEndIndex == NOT_COMPLEX ? NOT_COMPLEX : keyEndIndex - fromIndex;
+					}
+					fieldStartIndex = i + 1;
+					uniqueIndex = SQLKeywordMatcher.NOT_FOUND;
+					keyStartIndex = NOT_COMPLEX;
+					keyEndIndex = NOT_COMPLEX;
+				}
+			}
+			lexer.next(c);
+		}
+
+		if (sectionEndIndex < 0) {
+			throw new IllegalArgumentException("SQL文法に誤りがあります");
+		}
+		return new CreateTableInfo(sectionStartIndex - fromIndex, sectionEndIndex - fromIndex, uniqueSpans, uniqueCount);
+	}
+
+	/**
+	 * 指定位置から始まる文字列が、SQL上の一意制約を表すUNIQUEキーワードであるか判定します。<br />
+	 * フィールド定義の先頭、およびフィールド定義の終端（フィールド定義部の直下の区切り文字、終了括弧）は、
+	 * フィールド定義を切り出して判定した場合と同様に前後の文字が存在しないものとして扱います。
+	 */
+	private static boolean isUniqueKeyword(CharSequence sql, int index, int toIndex, int fieldStartIndex, int depth) {
+		int endIndex = SQLKeywordMatcher.UNIQUE_MATCHER.matchEnd(sql, index, toIndex);
+		if (endIndex == SQLKeywordMatcher.NOT_FOUND) {
+			return false;
+		}
+		if (index != fieldStartIndex && !isSeparator(sql.charAt(index - 1))) {
+			return false;
+		}
+		if (endIndex == toIndex) {
+			return false;
+		}
+		char afterUniqueChar = sql.charAt(endIndex);
+		return isSeparator(afterUniqueChar) || afterUniqueChar == START
+				|| (depth == 1 && (afterUniqueChar == DELIMITER || afterUniqueChar == END));
+	}
+
+	/**
+	 * UNIQUEキーワードの前後に許容される空白文字（スペース、タブ、改行、復帰）であるか判定します。
+	 */
+	private static boolean isSeparator(char c) {
+		return c == ' ' || c == '\t' || CR.charValue() == c || LF.charValue() == c;
+	}
+
+	/**
+	 * UNIQUEキーワードの直後の空白文字を読み飛ばし、開始括弧が続く場合（複合UNIQUE制約の場合）はその位置を返却します。
+	 * @return 開始括弧の位置。複合UNIQUE制約ではない場合は{@link CreateTableInfo#NOT_COMPLEX}
+	 */
+	private static int indexOfComplexKeyStart(CharSequence sql, int fromIndex, int toIndex) {
+		for (int i = fromIndex; i < toIndex; i++) {
+			char c = sql.charAt(i);
+			if (c > ' ') {
+				return c == START ? i : NOT_COMPLEX;
+			}
+		}
+		return NOT_COMPLEX;
+	}
+}
@@ -0,0 +1,145 @@
+package net.equj65.indexgenerator.analyzer;
+
+/**
+ * CreateTable文の構造を保持するクラスです。<br />
+ * フィールド定義部を囲む括弧の位置と、UNIQUEキーワードを含むフィールド定義毎の以下の位置を保持します。
+ * 位置はいずれもCreateTable文の先頭を0とした位置です。
+ * <pre>
+ * 1．フィールド定義の開始位置、終了位置（区切り文字、またはフィールド定義部の終了括弧の位置）
+ * 2．UNIQUEキーワードの開始位置
+ * 3．複合UNIQUE制約の場合、対象項目を囲む括弧の開始位置、終了位置
+ * </pre>
+ * UNIQUEキーワードを含まないフィールド定義の位置は保持しません。
+ * @author W.Ryozo
+ * @version 1.0
+ * @see CreateTableAnalyzer
+ */
+public class CreateTableInfo {
+
+	/** 複合UNIQUE制約ではないことを表す値 */
+	public static final int NOT_COMPLEX = -1;
+
+	/** UNIQUE制約1件あたりの位置情報の数 */
+	static final int SLOT_COUNT = 5;
+	/** フィールド定義の開始位置 */
+	static final int FIELD_START = 0;
+	/** フィールド定義の終了位置 */
+	static final int FIELD_END = 1;
+	/** UNIQUEキーワードの開始位置 */
+	static final int UNIQUE_START = 2;
+	/** 複合UNIQUE制約の対象項目を囲む開始括弧の位置 */
+	static final int KEY_START = 3;
+	/** 複合UNIQUE制約の対象項目を囲む終了括弧の位置 */
+	static final int KEY_END = 4;
+
+	/** フィールド定義部の開始括弧の位置 */
+	private final int fieldSectionStartIndex;
+
+	/** フィールド定義部の終了括弧の位置 */
+	private final int fieldSectionEndIndex;
+
+	/** UNIQUE制約毎の位置情報。{@link #SLOT_COUNT}個ずつ出現順に保持する */
+	private final int[] uniqueSpans;
+
+	/** UNIQUE制約の数 */
+	private final int uniqueCount;
+
+	/**
+	 * CreateTable文の構造を利用してインスタンスを作成します。
+	 * @param fieldSectionStartIndex フィールド定義部の開始括弧の位置
+	 * @param fieldSectionEndIndex フィールド定義部の終了括弧の位置
+	 * @param uniqueSpans UNIQUE制約毎の位置情報
+	 * @param uniqueCount UNIQUE制約の数
+	 */
+	CreateTableInfo(int fieldSectionStartIndex, int fieldSectionEndIndex, int[] uniqueSpans, int uniqueCount) {
+		this.fieldSectionStartIndex = fieldSectionStartIndex;
+		this.fieldSectionEndIndex = fieldSectionEndIndex;
+		this.uniqueSpans = uniqueSpans;
+		this.uniqueCount = uniqueCount;
+	}
+
+	/**
+	 * フィールド定義部の開始括弧の位置を取得します。
+	 * @return 開始括弧の位置
+	 */
+	public int getFieldSectionStartIndex() {
+		return fieldSectionStartIndex;
+	}
+
+	/**
+	 * フィールド定義部の終了括弧の位置を取得します。
+	 * @return 終了括弧の位置
+	 */
+	public int getFieldSectionEndIndex() {
+		return fieldSectionEndIndex;
+	}
+
+	/**
+	 * UNIQUEキーワードを含むフィールド定義の数を取得します。
+	 * @return UNIQUE制約の数
+	 */
+	public int getUniqueCount() {
+		return uniqueCount;
+	}
+
+	/**
+	 * 指定したUNIQUE制約を含むフィールド定義の開始位置を取得します。
+	 * @param index UNIQUE制約の出現順（0始まり）
+	 * @return フィールド定義の開始位置
+	 */
+	public int getFieldStartIndex(int index) {
+		return slot(index, FIELD_START);
+	}
+
+	/**
+	 * 指定したUNIQUE制約を含むフィールド定義の終了位置を取得します。
+	 * @param index UNIQUE制約の出現順（0始まり）
+	 * @return フィールド定義の終了位置（この位置を含まない）
+	 */
+	public int getFieldEndIndex(int index) {
+		return slot(index, FIELD_END);
+	}
+
+	/**
+	 * 指定したUNIQUE制約のUNIQUEキーワードの開始位置を取得します。
+	 * @param index UNIQUE制約の出現順（0始まり）
+	 * @return UNIQUEキーワードの開始位置
+	 */
+	public int getUniqueIndex(int index) {
+		return slot(index, UNIQUE_START);
+	}
+
+	/**
+	 * 指定したUNIQUE制約が複合UNIQUE制約であるか判定します。
+	 * @param index UNIQUE制約の出現順（0始まり）
+	 * @return 判定結果
+	 */
+	public boolean isComplexUnique(int index) {
+		return slot(index, KEY_START) != NOT_COMPLEX;
+	}
+
+	/**
+	 * 複合UNIQUE制約の対象項目を囲む開始括弧の位置を取得します。
+	 * @param index UNIQUE制約の出現順（0始まり）
+	 * @return 開始括弧の位置。複合UNIQUE制約ではない場合は{@link #NOT_COMPLEX}
+	 */
+	public int getKeyStartIndex(int index) {
+		return slot(index, KEY_START);
+	}
+
+	/**
+	 * 複合UNIQUE制約の対象項目を囲む終了括弧の位置を取得します。
+	 * @param index UNIQUE制約の出現順（0始まり）
+	 * @return 終了括弧の位置。複合UNIQUE制約ではない場合は{@link #NOT_COMPLEX}
+	 */
+	public int getKeyEndIndex(int index) {
+		return slot(index, KEY_END);
+	}
+
+	private int slot(int index, int slot) {
+		if (index < 0 || uniqueCount <= index) {
+			throw new IndexOutOfBoundsException("index : " + index + ", count : " + uniqueCount);
+		}
+		return uniqueSpans[index * SLOT_COUNT + slot];
+	}
+}
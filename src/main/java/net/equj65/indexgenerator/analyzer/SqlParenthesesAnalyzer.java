@@ -1,74 +1,81 @@
 package net.equj65.indexgenerator.analyzer;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Stack;
+import static net.equj65.indexgenerator.analyzer.SqlParenthesesInfoSet.NO_MATCH;
 
-import net.equj65.indexgenerator.parser.SQLStateManager;
+import java.util.Arrays;
+
+import net.equj65.indexgenerator.parser.SQLLexer;
 import net.equj65.indexgenerator.util.StringUtils;
-import static net.equj65.indexgenerator.constants.SqlConstants.*;
 
 /**
- * TODO javadoc
+ * SQL文中の括弧を解析します。<br />
+ * 当クラスのメソッドは状態を共有しないため、複数スレッドから同時に呼び出すことができます。
  * @author W.Ryozo
  *
  */
 public class SqlParenthesesAnalyzer {
 	/** 開始括弧 */
-	private static final Character START = '(';
+	private static final char START = '(';
 	/** 終了括弧 */
-	private static final Character END = ')';
+	private static final char END = ')';
+	/** 括弧位置を保持するスタックの初期サイズ */
+	private static final int INITIAL_STACK_SIZE = 16;
 	
 	/**
-	 * TODO javadoc
-	 * @param target
-	 * @return
+	 * SQL文中のSQL文法上有効な括弧（コメント内、文字列リテラル内ではない括弧）を解析します。<br />
+	 * 対応する終了括弧が存在しない開始括弧、および対応する開始括弧が存在しない終了括弧は無視します。
+	 * @param target 解析対象のSQL文
+	 * @return 括弧情報
 	 */
 	public static SqlParenthesesInfoSet analyze(String target) {
 		if (StringUtils.isNullOrEmpty(target)) {
 			throw new IllegalArgumentException("target is null or empty");
 		}
 		
-		List<SqlParenthesesInfo> sqlParenthesesInfoList = new ArrayList<>();
-		SQLStateManager manager = new SQLStateManager();
-		int currentCursor = 0;
-		Stack<Integer> stack = new Stack<>();
-		
+		int length = target.length();
+		int[] matchIndexes = new int[length];
+		Arrays.fill(matchIndexes, NO_MATCH);
+		SQLLexer lexer = new SQLLexer();
+		int[] stack = new int[INITIAL_STACK_SIZE];
+		int stackSize = 0;
+		int firstStartIndex = NO_MATCH;
 		
-		for (int i = 0; i < target.length(); i++) {
-			Character chr = target.charAt(i);
-			if (START.equals(chr) || END.equals(chr)) {
-				// 該当の括弧が有効なSQL構文であるかチェック
-				manager.appendInSameRow(target.substring(currentCursor, i));
-				currentCursor = i;
-				if (manager.isEffective()) {
-					if (START.equals(chr)) {
-						stack.push(i);
-					} else {
-						if (!stack.empty()) {
-							SqlParenthesesInfo info = new SqlParenthesesInfo(stack.pop(), i);
-							sqlParenthesesInfoList.add(info);
-						}
+		for (int i = 0; i < length; i++) {
+			char chr = target.charAt(i);
+			// 該当の括弧が有効なSQL構文であるかチェック
+			if ((chr == START || chr == END) && lexer.isEffective()) {
+				if (chr == START) {
+					if (stackSize == stack.length) {
+						stack = Arrays.copyOf(stack, stackSize * 2);
 					}
-				}
-			}
-			if (CR.equals(chr)) {
-				manager.appendWithNewLine(target.substring(currentCursor, i));
-				currentCursor = i;
-				if (i < target.length() - 1) {
-					Character nextChar = target.charAt(i + 1);
-					if (LF.equals(nextChar)) {
-						// 読み飛ばし
-						i++;
+					stack[stackSize++] = i;
+				} else if (stackSize > 0) {
+					int startIndex = stack[--stackSize];
+					matchIndexes[startIndex] = i;
+					matchIndexes[i] = startIndex;
+					if (firstStartIndex == NO_MATCH || startIndex < firstStartIndex) {
+						firstStartIndex = startIndex;
 					}
 				}
-			} else if (LF.equals(chr)) {
-				manager.appendWithNewLine(target.substring(currentCursor, i));
-				currentCursor = i;
+			}
+			lexer.next(chr);
+		}
+		
+		// 対応の取れた括弧の内側の位置の深さを求める。
+		int[] depths = new int[length];
+		int depth = 0;
+		for (int i = 0; i < length; i++) {
+			int matchIndex = matchIndexes[i];
+			if (matchIndex != NO_MATCH && matchIndex < i) {
+				// 終了括弧自体は内側に含まない。
+				depth--;
+			}
+			depths[i] = depth;
+			if (matchIndex != NO_MATCH && i < matchIndex) {
+				depth++;
 			}
 		}
 		
-		SqlParenthesesInfoSet resultInfo = new SqlParenthesesInfoSet(sqlParenthesesInfoList);
-		return resultInfo;
+		return new SqlParenthesesInfoSet(matchIndexes, depths, firstStartIndex);
 	}
 }
@@ -1,10 +1,14 @@
 package net.equj65.indexgenerator.analyzer;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * SQL文中の複数の括弧情報を保持するクラスです。
+ * SQL文中の複数の括弧情報を保持するクラスです。<br />
+ * 括弧情報はSQL文上の位置毎の対応括弧位置、および括弧の深さとして保持するため、
+ * 任意の位置が括弧に含まれるか否か、最初に始まる括弧がどれであるかは定数時間で判定できます。
  * @author W.Ryozo
  * @version 1.0
  */
@@ -13,26 +17,156 @@ public class SqlParenthesesInfoSet implements Serializable {
 	/** serialVersionUID */
 	private static final long serialVersionUID = 1L;
 	
-	// TODO ここはSetで表現するべきでは？
-	// TODO SQLの順序に関する処理はUtilクラス側で何とかする。
-	private List<SqlParenthesesInfo> sqlParenthesesInfoList;
+	/** 対応する括弧が存在しないことを表す値 */
+	public static final int NO_MATCH = -1;
 	
 	/**
-	 * SQLの括弧情報を利用してインスタンスを作成します。
+	 * SQL文上の位置毎の対応括弧位置。<br />
+	 * SQL文法上有効な括弧の位置には対応する括弧の位置を、それ以外の位置には{@link #NO_MATCH}を保持する。
+	 */
+	private final int[] matchIndexes;
+	
+	/**
+	 * SQL文上の位置毎の括弧の深さ。<br />
+	 * 該当位置を内側（括弧文字自体は含まない）に含む括弧の数を保持する。
+	 */
+	private final int[] depths;
+	
+	/** 最も最初に始まる括弧の開始位置。括弧が存在しない場合は{@link #NO_MATCH} */
+	private final int firstStartIndex;
+	
+	/**
+	 * SQLの括弧情報の一覧を利用してインスタンスを作成します。<br />
+	 * 括弧情報の一覧から位置毎の対応括弧位置、括弧の深さを作成します。
+	 * SQL文の長さは最も後ろの括弧の終了位置までとし、それ以降の位置は括弧に含まれないものとして扱います。
 	 * @param sqlParenthesesInfoList SQL括弧情報の一覧
 	 */
 	public SqlParenthesesInfoSet(List<SqlParenthesesInfo> sqlParenthesesInfoList) {
-		if (sqlParenthesesInfoList == null) {
-			throw new NullPointerException("sqlParenthesesInfoList is null");
+		this(toMatchIndexes(sqlParenthesesInfoList), toDepths(sqlParenthesesInfoList), toFirstStartIndex(sqlParenthesesInfoList));
+	}
+	
+	/**
+	 * SQLの括弧情報を利用してインスタンスを作成します。
+	 * @param matchIndexes SQL文上の位置毎の対応括弧位置
+	 * @param depths SQL文上の位置毎の括弧の深さ
+	 * @param firstStartIndex 最も最初に始まる括弧の開始位置
+	 */
+	SqlParenthesesInfoSet(int[] matchIndexes, int[] depths, int firstStartIndex) {
+		if (matchIndexes == null || depths == null) {
+			throw new NullPointerException("matchIndexes or depths is null");
+		}
+		this.matchIndexes = matchIndexes;
+		this.depths = depths;
+		this.firstStartIndex = firstStartIndex;
+	}
+	
+	/**
+	 * 指定位置の括弧と対応する括弧の位置を取得します。
+	 * @param index 括弧の位置
+	 * @return 対応する括弧の位置。指定位置がSQL文法上有効な括弧でない場合は{@link #NO_MATCH}
+	 */
+	public int getMatchIndex(int index) {
+		return matchIndexes[index];
+	}
+	
+	/**
+	 * 指定位置を内側に含む括弧の数を取得します。
+	 * @param index チェック対象の位置
+	 * @return 括弧の深さ
+	 */
+	public int getDepth(int index) {
+		return depths[index];
+	}
+	
+	/**
+	 * 指定位置が一つ以上の括弧の内側に含まれていることを確認します。<br />
+	 * 括弧文字自体の位置は、その括弧の内側とは見なしません。
+	 * @param index チェック対象の位置
+	 * @return チェック結果
+	 */
+	public boolean isEnclosed(int index) {
+		return 0 <= index && index < depths.length && depths[index] > 0;
+	}
+	
+	/**
+	 * 最も最初に始まる括弧の情報を取得します。
+	 * @return 最も最初に始まる括弧の情報。括弧が存在しない場合はnull
+	 */
+	public SqlParenthesesInfo getFirstStartParenthesesInfo() {
+		if (firstStartIndex == NO_MATCH) {
+			return null;
 		}
-		this.sqlParenthesesInfoList = sqlParenthesesInfoList;
+		return new SqlParenthesesInfo(firstStartIndex, matchIndexes[firstStartIndex]);
 	}
 	
 	/**
-	 * 当クラスが保持するSQL括弧情報の一覧を取得します。
+	 * 当クラスが保持するSQL括弧情報の一覧を取得します。<br />
+	 * 一覧は括弧の終了位置の順に並びます。
 	 * @return SQL括弧情報の一覧
 	 */
 	public List<SqlParenthesesInfo> getSqlParenthesesInfoList() {
+		List<SqlParenthesesInfo> sqlParenthesesInfoList = new ArrayList<>();
+		for (int i = 0; i < matchIndexes.length; i++) {
+			int matchIndex = matchIndexes[i];
+			if (matchIndex != NO_MATCH && matchIndex < i) {
+				sqlParenthesesInfoList.add(new SqlParenthesesInfo(matchIndex, i));
+			}
+		}
 		return sqlParenthesesInfoList;
 	}
+	
+	/**
+	 * 括弧情報の一覧から位置毎の対応括弧位置を作成します。
+	 */
+	private static int[] toMatchIndexes(List<SqlParenthesesInfo> sqlParenthesesInfoList) {
+		if (sqlParenthesesInfoList == null) {
+			throw new NullPointerException("sqlParenthesesInfoList is null");
+		}
+		int length = 0;
+		for (SqlParenthesesInfo info : sqlParenthesesInfoList) {
+			length = Math.max(length, info.getEndParenthesesIndex() + 1);
+		}
+		int[] matchIndexes = new int[length];
+		Arrays.fill(matchIndexes, NO_MATCH);
+		for (SqlParenthesesInfo info : sqlParenthesesInfoList) {
+			matchIndexes[info.getStartParenthesesIndex()] = info.getEndParenthesesIndex();
+			matchIndexes[info.getEndParenthesesIndex()] = info.getStartParenthesesIndex();
+		}
+		return matchIndexes;
+	}
+	
+	/**
+	 * 括弧情報の一覧から位置毎の括弧の深さを作成します。<br />
+	 * 括弧の内側の開始位置で1を加え、終了括弧の位置で1を減じた差分を累積します。
+	 */
+	private static int[] toDepths(List<SqlParenthesesInfo> sqlParenthesesInfoList) {
+		int length = 0;
+		for (SqlParenthesesInfo info : sqlParenthesesInfoList) {
+			length = Math.max(length, info.getEndParenthesesIndex() + 1);
+		}
+		int[] depths = new int[length];
+		for (SqlParenthesesInfo info : sqlParenthesesInfoList) {
+			if (info.getStartParenthesesIndex() + 1 < info.getEndParenthesesIndex()) {
+				depths[info.getStartParenthesesIndex() + 1]++;
+				depths[info.getEndParenthesesIndex()]--;
+			}
+		}
+		for (int i = 1; i < length; i++) {
+			depths[i] += depths[i - 1];
+		}
+		return depths;
+	}
+	
+	/**
+	 * 括弧情報の一覧から最も最初に始まる括弧の開始位置を取得します。
+	 */
+	private static int toFirstStartIndex(List<SqlParenthesesInfo> sqlParenthesesInfoList) {
+		int firstStartIndex = NO_MATCH;
+		for (SqlParenthesesInfo info : sqlParenthesesInfoList) {
+			if (firstStartIndex == NO_MATCH || info.getStartParenthesesIndex() < firstStartIndex) {
+				firstStartIndex = info.getStartParenthesesIndex();
+			}
+		}
+		return firstStartIndex;
+	}
 }
@@ -0,0 +1,45 @@
+package net.equj65.indexgenerator.builder;
+
+import net.equj65.indexgenerator.domain.SqlCommand;
+import net.equj65.indexgenerator.domain.UniqueKey;
+
+/**
+ * {@link ICreateIndexBuilder}の基底クラスです。<br />
+ * {@link ICreateIndexBuilder}の既存の実装クラスに影響しないよう、{@link ICreateIndexBuilder}に追加する振る舞いは当クラスに定義します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public abstract class AbstractCreateIndexBuilder implements ICreateIndexBuilder {
+
+	/**
+	 * Indexを付与するフィールドを{@link UniqueKey}で指定します。<br />
+	 * デフォルトの実装はフィールド名の配列を作成して{@link #setIndexFields(String...)}を呼び出します。
+	 * フィールド名の配列を作成しない場合はサブクラスでオーバーライドしてください。
+	 * @param key Index付与対象のフィールドを表すUniqueキー
+	 */
+	public void setIndexKey(UniqueKey key) {
+		if (key == null) {
+			throw new IllegalArgumentException("インデックス付与対象のカラムが指定されていません。");
+		}
+		setIndexFields(key.getColumnNames());
+	}
+
+	/**
+	 * これまで設定された各種情報を保持したCreateIndex文を出力先に追加します。<br />
+	 * デフォルトの実装は{@link #build()}で作成したCreateIndex文を追加します。
+	 * CreateIndex文毎の中間文字列を作成しない場合はサブクラスでオーバーライドしてください。
+	 * @param sqlBuilder 出力先
+	 */
+	public void appendTo(StringBuilder sqlBuilder) {
+		sqlBuilder.append(build().getSqlCommand());
+	}
+
+	/**
+	 * これまで設定されたテーブル名、Index付与対象のフィールド、Index名称から、
+	 * {@link #build()}で作成するIndexを削除するDropIndex文を表す{@link SqlCommand}を作成します。<br />
+	 * Index名称が未指定の場合は{@link #build()}と同じデフォルトのIndex名を利用します。
+	 * @return DropIndex文を表す{@link SqlCommand}
+	 */
+	public abstract SqlCommand buildDropIndex();
+
+}
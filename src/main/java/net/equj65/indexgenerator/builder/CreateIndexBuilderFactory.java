@@ -15,7 +15,7 @@ public class CreateIndexBuilderFactory {
 	 * @param dbms CreateIndex文作成対象のRDBMS名
 	 * @return 該当DBMSと対応する{@link ICreateIndexBuilder}
 	 */
-	public static ICreateIndexBuilder createBuilder(DBMS dbms) {
+	public static AbstractCreateIndexBuilder createBuilder(DBMS dbms) {
 		if (DBMS.POSTGRESQL == dbms) {
 			return new PostgresCreateIndexBuilder();
 		}
@@ -0,0 +1,103 @@
+package net.equj65.indexgenerator.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.equj65.indexgenerator.util.StringUtils;
+
+/**
+ * 置換文字列（{NAME}形式）を含むSQL文のテンプレートです。<br />
+ * テンプレートは作成時に固定部分と置換文字列に分割するため、出力の都度テンプレートを走査、置換することはありません。<br />
+ * 当クラスのインスタンスは不変であり、複数スレッドから同時に利用することができます。
+ * <pre>
+ * [例]
+ *   SqlTemplate template = SqlTemplate.compile("{FIELD_NAME} = {FIELD_VALUE}", "{FIELD_NAME}", "{FIELD_VALUE}");
+ *   template.appendTo(builder, "is_deleted", "false"); // is_deleted = false
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public final class SqlTemplate {
+
+	/** 置換文字列の開始文字 */
+	private static final char PLACEHOLDER_START = '{';
+	/** 置換文字列の終了文字 */
+	private static final char PLACEHOLDER_END = '}';
+
+	/** テンプレートの固定部分。置換文字列の数+1の要素を持つ。 */
+	private final String[] fragments;
+
+	/** 置換文字列毎の置換値の位置 */
+	private final int[] parameterIndexes;
+
+	/** テンプレートの固定部分の文字数 */
+	private final int fixedLength;
+
+	private SqlTemplate(String[] fragments, int[] parameterIndexes) {
+		this.fragments = fragments;
+		this.parameterIndexes = parameterIndexes;
+		int length = 0;
+		for (String fragment : fragments) {
+			length += fragment.length();
+		}
+		this.fixedLength = length;
+	}
+
+	/**
+	 * テンプレート文字列を固定部分と置換文字列に分割し、インスタンスを作成します。
+	 * @param template テンプレート文字列
+	 * @param placeholders テンプレート中の置換文字列。{@link #appendTo(StringBuilder, CharSequence...)}の置換値と同じ順序で指定する。
+	 * @return テンプレート
+	 */
+	public static SqlTemplate compile(String template, String... placeholders) {
+		if (StringUtils.isNullOrEmpty(template)) {
+			throw new IllegalArgumentException("template is null or empty");
+		}
+		List<String> placeholderList = Arrays.asList(placeholders);
+		List<String> fragmentList = new ArrayList<>();
+		List<Integer> parameterIndexList = new ArrayList<>();
+		int fromIndex = 0;
+		int startIndex;
+		while ((startIndex = template.indexOf(PLACEHOLDER_START, fromIndex)) >= 0) {
+			int endIndex = template.indexOf(PLACEHOLDER_END, startIndex);
+			if (endIndex < 0) {
+				break;
+			}
+			int parameterIndex = placeholderList.indexOf(template.substring(startIndex, endIndex + 1));
+			if (parameterIndex < 0) {
+				throw new IllegalArgumentException("未定義の置換文字列です。 : " + template.substring(startIndex, endIndex + 1));
+			}
+			fragmentList.add(template.substring(fromIndex, startIndex));
+			parameterIndexList.add(parameterIndex);
+			fromIndex = endIndex + 1;
+		}
+		fragmentList.add(template.substring(fromIndex));
+
+		int[] parameterIndexes = new int[parameterIndexList.size()];
+		for (int i = 0; i < parameterIndexes.length; i++) {
+			parameterIndexes[i] = parameterIndexList.get(i);
+		}
+		return new SqlTemplate(fragmentList.toArray(new String[fragmentList.size()]), parameterIndexes);
+	}
+
+	/**
+	 * 置換文字列を置換値に置き換えたSQL文を出力先に追加します。
+	 * @param sqlBuilder 出力先
+	 * @param values 置換値。テンプレート作成時に指定した置換文字列の順序で指定する。
+	 */
+	public void appendTo(StringBuilder sqlBuilder, CharSequence... values) {
+		for (int i = 0; i < parameterIndexes.length; i++) {
+			sqlBuilder.append(fragments[i]).append(values[parameterIndexes[i]]);
+		}
+		sqlBuilder.append(fragments[parameterIndexes.length]);
+	}
+
+	/**
+	 * テンプレートの固定部分の文字数を返却します。
+	 * @return 固定部分の文字数
+	 */
+	public int getFixedLength() {
+		return fixedLength;
+	}
+}
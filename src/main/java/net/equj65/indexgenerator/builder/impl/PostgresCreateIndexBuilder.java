@@ -1,49 +1,71 @@
 package net.equj65.indexgenerator.builder.impl;
 
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
-import net.equj65.indexgenerator.builder.ICreateIndexBuilder;
+import net.equj65.indexgenerator.builder.AbstractCreateIndexBuilder;
+import net.equj65.indexgenerator.builder.SqlTemplate;
 import net.equj65.indexgenerator.constants.PostgresConditionLiteral;
 import net.equj65.indexgenerator.constants.PostgresDataType;
 import net.equj65.indexgenerator.domain.SqlCommand;
+import net.equj65.indexgenerator.domain.UniqueKey;
 import net.equj65.indexgenerator.util.StringUtils;
 import static net.equj65.indexgenerator.constants.SqlConstants.*;
 
 /**
- * PostgreSQL用のCreateUniqueIndex文Builderです。
+ * PostgreSQL用のCreateUniqueIndex文Builderです。<br />
+ * SQL文のテンプレートはクラスのロード時に{@link SqlTemplate}に変換し、Where句は条件が追加された後の最初の出力時にのみ作成します。<br />
+ * テーブル名、Index付与対象フィールド、Index名称を変更しながら同一インスタンスで複数のCreateIndex文を作成することができます。
  * 
  * @author W.Ryozo
  * @version 1.0
  */
-public class PostgresCreateIndexBuilder implements ICreateIndexBuilder {
+public class PostgresCreateIndexBuilder extends AbstractCreateIndexBuilder {
 	
-	/** SQL文のベース */
-	private static final String SQL_BASE = "CREATE UNIQUE INDEX {IDX_NAME} ON {TABLE_NAME} ({KEY_LIST})";
-	private static final String SQL_WHERE = " WHERE ";
-	private static final String SQL_CONDITION = "{FIELD_NAME} = {FIELD_VALUE}";
-	private static final String SQL_AND = "AND";
-	/** デフォルトのIndex名定義 */
-	private static final String DEFAULT_INDEX_NAME = "{TABLE_NAME}_{KEY_LIST}_key";
 	/** 置換文字列 */
 	private static final String REPLACE_STR_INDEX_NAME = "{IDX_NAME}";
 	private static final String REPLACE_STR_TABLE_NAME = "{TABLE_NAME}";
 	private static final String REPLACE_STR_KEY_LIST = "{KEY_LIST}";
 	private static final String REPLACE_STR_FIELD_NAME = "{FIELD_NAME}";
 	private static final String REPLACE_STR_FIELD_VALUE = "{FIELD_VALUE}";
+	/** SQL文のベース */
+	private static final SqlTemplate SQL_BASE = SqlTemplate.compile(
+			"CREATE UNIQUE INDEX {IDX_NAME} ON {TABLE_NAME} ({KEY_LIST})",
+			REPLACE_STR_INDEX_NAME, REPLACE_STR_TABLE_NAME, REPLACE_STR_KEY_LIST);
+	/** DropIndex文。作成するIndexが存在しない場合もエラーとしない。 */
+	private static final SqlTemplate SQL_DROP_INDEX = SqlTemplate.compile(
+			"DROP INDEX IF EXISTS {IDX_NAME}", REPLACE_STR_INDEX_NAME);
+	private static final String SQL_WHERE = " WHERE ";
+	private static final SqlTemplate SQL_CONDITION = SqlTemplate.compile(
+			"{FIELD_NAME} = {FIELD_VALUE}", REPLACE_STR_FIELD_NAME, REPLACE_STR_FIELD_VALUE);
+	/** IS NULL条件。IS NULL演算子は等号を伴わない。 */
+	private static final SqlTemplate SQL_NULL_CONDITION = SqlTemplate.compile(
+			"{FIELD_NAME} {FIELD_VALUE}", REPLACE_STR_FIELD_NAME, REPLACE_STR_FIELD_VALUE);
+	private static final String SQL_AND = " AND ";
+	/** デフォルトのIndex名定義 */
+	private static final SqlTemplate DEFAULT_INDEX_NAME = SqlTemplate.compile(
+			"{TABLE_NAME}_{KEY_LIST}_key", REPLACE_STR_TABLE_NAME, REPLACE_STR_KEY_LIST);
+	/** Index付与対象フィールドの区切り文字 */
+	private static final String KEY_LIST_DELIMITER = ", ";
+	/** デフォルトのIndex名におけるフィールドの区切り文字 */
+	private static final String INDEX_NAME_DELIMITER = "_";
 	
-	/** Index名称 */
-	// TODO index名は指定もできるし、指定しなくてもいい（デフォルト値の設定）する。
+	/** Index名称。未指定の場合はデフォルトのIndex名を利用する。 */
 	private String indexName;
 	/** テーブル名称 */
 	private String tableName;
-	/** 一意キー項目 */
+	/** 一意キー項目。{@link #setIndexKey(UniqueKey)}で指定された場合はnull */
 	private String[] keyList;
+	/** 一意キー。{@link #setIndexFields(String...)}で指定された場合はnull */
+	private UniqueKey indexKey;
 	/** 一意条件 */
 	private Map<String, Object> conditionMap = new LinkedHashMap<>();
+	/** 一意条件から作成したWhere句。未作成の場合はnull */
+	private String whereClause;
+	/** Index付与対象フィールドおよびデフォルトのIndex名の作業領域 */
+	private final StringBuilder keyListBuilder = new StringBuilder();
+	private final StringBuilder indexNameBuilder = new StringBuilder();
 	
 	/**
 	 * {@inheritDoc}
@@ -65,6 +87,19 @@ public class PostgresCreateIndexBuilder implements ICreateIndexBuilder {
 			throw new IllegalArgumentException("インデックス付与対象のカラムが指定されていません。");
 		}
 		this.keyList = fields;
+		this.indexKey = null;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setIndexKey(UniqueKey key) {
+		if (key == null) {
+			throw new IllegalArgumentException("インデックス付与対象のカラムが指定されていません。");
+		}
+		this.indexKey = key;
+		this.keyList = null;
 	}
 	
 	/**
@@ -81,6 +116,7 @@ public class PostgresCreateIndexBuilder implements ICreateIndexBuilder {
 		}
 
 		conditionMap.put(fieldName, fieldValue);
+		whereClause = null;
 	}
 	
 	/**
@@ -96,49 +132,99 @@ public class PostgresCreateIndexBuilder implements ICreateIndexBuilder {
 	 */
 	@Override
 	public SqlCommand build() {
-		if (tableName == null || keyList == null) {
+		StringBuilder sqlBuilder = new StringBuilder(SQL_BASE.getFixedLength() + 64);
+		appendTo(sqlBuilder);
+		return new SqlCommand(sqlBuilder.toString());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void appendTo(StringBuilder sqlBuilder) {
+		SQL_BASE.appendTo(sqlBuilder, getIndexName(), tableName, join(KEY_LIST_DELIMITER));
+		sqlBuilder.append(getWhereClause());
+		
+		sqlBuilder.append(SQL_DELIMITER);
+		// ツール[ER-MASTER]はどの環境で出力したとしても改行コードをCRLFで出力する。
+		// そのため、出力改行コードはCRLF固定とする。
+		sqlBuilder.append(LINE_SEPARATOR);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SqlCommand buildDropIndex() {
+		StringBuilder sqlBuilder = new StringBuilder(SQL_DROP_INDEX.getFixedLength() + 64);
+		SQL_DROP_INDEX.appendTo(sqlBuilder, getIndexName());
+		sqlBuilder.append(SQL_DELIMITER);
+		sqlBuilder.append(LINE_SEPARATOR);
+		return new SqlCommand(sqlBuilder.toString());
+	}
+
+	/**
+	 * Index名称を取得します。Index名称が未指定の場合はテーブル名、Index付与対象フィールドからデフォルトのIndex名を作成します。<br />
+	 * デフォルトのIndex名は作業領域に出力するため、次回の呼び出しまでに利用すること。
+	 */
+	private CharSequence getIndexName() {
+		if (tableName == null || (keyList == null && indexKey == null)) {
 			// TODO Exceptionを定義する。
 			throw new RuntimeException();
 		}
-		if (StringUtils.isNullOrEmpty(indexName)) {
-			indexName = DEFAULT_INDEX_NAME
-					.replace(REPLACE_STR_TABLE_NAME, tableName)
-					.replace(REPLACE_STR_KEY_LIST, StringUtils.join(keyList, "_"));
+		if (!StringUtils.isNullOrEmpty(indexName)) {
+			return indexName;
 		}
+		indexNameBuilder.setLength(0);
+		DEFAULT_INDEX_NAME.appendTo(indexNameBuilder, tableName, join(INDEX_NAME_DELIMITER));
+		return indexNameBuilder;
+	}
 
-		StringBuilder sqlBuilder = new StringBuilder();
-		sqlBuilder.append(
-				SQL_BASE.replace(REPLACE_STR_INDEX_NAME, indexName)
-						.replace(REPLACE_STR_TABLE_NAME, tableName)
-						.replace(REPLACE_STR_KEY_LIST, StringUtils.join(keyList, ", ")));
-		
-		if (!conditionMap.isEmpty()) {
-			sqlBuilder.append(SQL_WHERE);
-			StringBuilder conditionBuilder = new StringBuilder();
-			Set<Entry<String, Object>> entrySet = conditionMap.entrySet();
-			Iterator<Entry<String, Object>> iterator = entrySet.iterator();
-			
-			boolean isFirst = true;
-			while (iterator.hasNext()) {
-				Entry<String, Object> conditionEntry = iterator.next();
-				if (!isFirst) {
-					conditionBuilder.append(SQL_AND);
-					isFirst = false;
-				}
-				PostgresConditionLiteral literal = PostgresDataType.getLiteral(conditionEntry.getValue());
-				conditionBuilder.append(
-						SQL_CONDITION.replace(REPLACE_STR_FIELD_NAME, conditionEntry.getKey())
-								     .replace(REPLACE_STR_FIELD_VALUE, literal.toLiteralNotation(conditionEntry.getValue())));
+	/**
+	 * 一意条件からWhere句を作成します。<br />
+	 * 作成したWhere句は一意条件が追加されるまで再利用します。
+	 * @return Where句。一意条件が存在しない場合は空文字
+	 */
+	private String getWhereClause() {
+		if (whereClause != null) {
+			return whereClause;
+		}
+		if (conditionMap.isEmpty()) {
+			whereClause = "";
+			return whereClause;
+		}
+		StringBuilder conditionBuilder = new StringBuilder(SQL_WHERE);
+		boolean isFirst = true;
+		for (Entry<String, Object> conditionEntry : conditionMap.entrySet()) {
+			if (!isFirst) {
+				conditionBuilder.append(SQL_AND);
 			}
-			sqlBuilder.append(conditionBuilder.toString());
+			isFirst = false;
+			PostgresConditionLiteral literal = PostgresDataType.getLiteral(conditionEntry.getValue());
+			SqlTemplate condition = literal == PostgresConditionLiteral.ISNULL ? SQL_NULL_CONDITION : SQL_CONDITION;
+			condition.appendTo(conditionBuilder,
+					conditionEntry.getKey(), literal.toLiteralNotation(conditionEntry.getValue()));
 		}
-		
-		sqlBuilder.append(SQL_DELIMITER);
-		// ツール[ER-MASTER]はどの環境で出力したとしても改行コードをCRLFで出力する。
-		// そのため、出力改行コードはCRLF固定とする。
-		sqlBuilder.append(LINE_SEPARATOR);
-		
-		SqlCommand command = new SqlCommand(sqlBuilder.toString());
-		return command;
+		whereClause = conditionBuilder.toString();
+		return whereClause;
+	}
+
+	/**
+	 * 一意キー項目を区切り文字で連結します。<br />
+	 * 連結結果は作業領域に出力するため、次回の呼び出しまでに利用すること。
+	 */
+	private CharSequence join(String delimiter) {
+		keyListBuilder.setLength(0);
+		if (indexKey != null) {
+			indexKey.appendColumnNames(keyListBuilder, delimiter);
+			return keyListBuilder;
+		}
+		for (int i = 0; i < keyList.length; i++) {
+			if (i != 0) {
+				keyListBuilder.append(delimiter);
+			}
+			keyListBuilder.append(keyList[i]);
+		}
+		return keyListBuilder;
 	}
 }
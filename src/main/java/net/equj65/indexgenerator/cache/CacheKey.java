@@ -0,0 +1,243 @@
+package net.equj65.indexgenerator.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import net.equj65.indexgenerator.constants.DBMS;
+
+/**
+ * {@link ParseCache}のエントリを特定する128bitのキーです。<br />
+ * キーは作成設定（対象DBMS、UniqueIndexの条件、文字コード）から作成したキーを初期値とし、
+ * SQL文、またはファイルの内容をMurmurHash3（x64、128bit）と同じ手順で混合して作成します。
+ * そのため、内容が同じであっても作成設定が異なる場合は異なるキーとなります。<br />
+ * 当クラスのインスタンスは不変であり、複数スレッドから同時に利用することができます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public final class CacheKey {
+
+	/** ファイル読み込み時のバッファサイズ */
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	/** 作成設定の区切り文字 */
+	private static final char SEPARATOR = 0;
+
+	private final long high;
+
+	private final long low;
+
+	CacheKey(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * 作成設定からキーを作成します。<br />
+	 * UniqueIndexの条件はWHERE句に出力する順（条件の反復順）に、カラム名、値の型と文字列表現を利用します。
+	 * 条件が同じであっても順序が異なる場合はWHERE句が異なるため、異なるキーとなります。
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @return 作成設定を表すキー
+	 */
+	public static CacheKey ofSettings(DBMS targetDBMS, Map<String, Object> conditionMap, String fileEncoding) {
+		Hasher hasher = new Hasher(0, 0);
+		hasher.update(String.valueOf(ParseCache.FORMAT_VERSION));
+		hasher.update(SEPARATOR);
+		hasher.update(String.valueOf(targetDBMS));
+		hasher.update(SEPARATOR);
+		hasher.update(String.valueOf(fileEncoding));
+		if (conditionMap != null) {
+			for (Map.Entry<String, Object> condition : conditionMap.entrySet()) {
+				Object value = condition.getValue();
+				hasher.update(SEPARATOR);
+				hasher.update(condition.getKey());
+				hasher.update(SEPARATOR);
+				hasher.update(value == null ? "null" : value.getClass().getName() + ":" + value);
+			}
+		}
+		return hasher.finish();
+	}
+
+	/**
+	 * 作成設定を含めず、文字列の内容のみからキーを作成します。<br />
+	 * 同一の実行内でSQL文の内容が一致するかを比較する場合に利用します。
+	 * @param value 対象の文字列
+	 * @return 文字列のキー
+	 */
+	public static CacheKey of(CharSequence value) {
+		Hasher hasher = new Hasher(0, 0);
+		for (int i = 0; i < value.length(); i++) {
+			hasher.update(value.charAt(i));
+		}
+		return hasher.finish();
+	}
+
+	/**
+	 * 当キーを初期値として、SQL文の指定範囲のキーを作成します。
+	 * @param sql SQL文を含む文字列
+	 * @param fromIndex SQL文の開始位置
+	 * @param toIndex SQL文の終了位置（この位置を含まない）
+	 * @return SQL文のキー
+	 */
+	public CacheKey forStatement(CharSequence sql, int fromIndex, int toIndex) {
+		Hasher hasher = new Hasher(high, low);
+		for (int i = fromIndex; i < toIndex; i++) {
+			hasher.update(sql.charAt(i));
+		}
+		return hasher.finish();
+	}
+
+	/**
+	 * 当キーを初期値として、ファイルの内容（バイト列）のキーを作成します。
+	 * @param file 対象のファイル
+	 * @return ファイルのキー
+	 * @throws IOException ファイルの読み込みに失敗した場合
+	 */
+	public CacheKey forFile(File file) throws IOException {
+		Hasher hasher = new Hasher(high, low);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+			while (channel.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					hasher.update(buffer.get());
+				}
+				buffer.clear();
+			}
+		}
+		return hasher.finish();
+	}
+
+	long getHigh() {
+		return high;
+	}
+
+	long getLow() {
+		return low;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CacheKey)) {
+			return false;
+		}
+		CacheKey other = (CacheKey) obj;
+		return high == other.high && low == other.low;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (low ^ (low >>> 32));
+	}
+
+	/**
+	 * キーの16進数表現（32文字）を返却します。
+	 */
+	@Override
+	public String toString() {
+		return String.format("%016x%016x", high, low);
+	}
+
+	/**
+	 * MurmurHash3（x64、128bit）の手順で入力を1バイトずつ混合します。<br />
+	 * 文字は下位バイト、上位バイトの順（UTF-16LE）に混合します。
+	 */
+	private static class Hasher {
+
+		private static final long C1 = 0x87c37b91114253d5L;
+		private static final long C2 = 0x4cf5ad432745937fL;
+
+		private long h1;
+		private long h2;
+
+		/** 混合前のブロック（16バイト）の前半8バイト */
+		private long k1;
+		/** 混合前のブロック（16バイト）の後半8バイト */
+		private long k2;
+		/** 混合前のブロックのバイト数 */
+		private int position;
+		/** 入力の総バイト数 */
+		private long length;
+
+		Hasher(long seed1, long seed2) {
+			this.h1 = seed1;
+			this.h2 = seed2;
+		}
+
+		void update(String value) {
+			for (int i = 0; i < value.length(); i++) {
+				update(value.charAt(i));
+			}
+		}
+
+		void update(char c) {
+			update((byte) c);
+			update((byte) (c >>> 8));
+		}
+
+		void update(byte b) {
+			if (position < 8) {
+				k1 |= (b & 0xffL) << (position * 8);
+			} else {
+				k2 |= (b & 0xffL) << ((position - 8) * 8);
+			}
+			length++;
+			if (++position == 16) {
+				h1 ^= mixK1(k1);
+				h1 = Long.rotateLeft(h1, 27);
+				h1 += h2;
+				h1 = h1 * 5 + 0x52dce729;
+				h2 ^= mixK2(k2);
+				h2 = Long.rotateLeft(h2, 31);
+				h2 += h1;
+				h2 = h2 * 5 + 0x38495ab5;
+				k1 = 0;
+				k2 = 0;
+				position = 0;
+			}
+		}
+
+		CacheKey finish() {
+			if (position > 8) {
+				h2 ^= mixK2(k2);
+			}
+			if (position > 0) {
+				h1 ^= mixK1(k1);
+			}
+			h1 ^= length;
+			h2 ^= length;
+			h1 += h2;
+			h2 += h1;
+			h1 = fmix(h1);
+			h2 = fmix(h2);
+			h1 += h2;
+			h2 += h1;
+			return new CacheKey(h1, h2);
+		}
+
+		private static long mixK1(long k1) {
+			return Long.rotateLeft(k1 * C1, 31) * C2;
+		}
+
+		private static long mixK2(long k2) {
+			return Long.rotateLeft(k2 * C2, 33) * C1;
+		}
+
+		private static long fmix(long k) {
+			k ^= k >>> 33;
+			k *= 0xff51afd7ed558ccdL;
+			k ^= k >>> 33;
+			k *= 0xc4ceb9fe1a85ec53L;
+			k ^= k >>> 33;
+			return k;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package net.equj65.indexgenerator.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.equj65.indexgenerator.builder.AbstractCreateIndexBuilder;
+import net.equj65.indexgenerator.builder.CreateIndexBuilderFactory;
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.CreateTableSqlCommand;
+import net.equj65.indexgenerator.domain.SqlCommand;
+import net.equj65.indexgenerator.domain.UniqueKey;
+
+/**
+ * 作成設定（対象DBMS、UniqueIndexの条件、文字コード）毎の{@link ParseCache}の利用単位です。<br />
+ * エントリのキーは作成設定と内容から作成するため、作成設定が異なる実行の結果を利用することはありません。<br />
+ * 当クラスは複数スレッドから同時に利用することができます。
+ * @author W.Ryozo
+ * @version 1.0
+ * @see ParseCache#scope(DBMS, Map, String)
+ */
+public class CacheScope {
+
+	/**
+	 * キャッシュするCreateTable文の最小の長さ（文字数）。<br />
+	 * 短いCreateTable文はエントリの読み書きより解析の方が速いため、キャッシュしない。
+	 * 一般的なCreateTable文（数百文字以下）は対象とならず、CreateTable文単位のキャッシュは巨大なCreateTable文のみに効果がある。
+	 */
+	public static final int MIN_STATEMENT_LENGTH = 8192;
+
+	private final ParseCache cache;
+
+	/** 作成設定のキー */
+	private final CacheKey settingsKey;
+
+	private final DBMS targetDBMS;
+
+	private final Map<String, Object> conditionMap;
+
+	/** スレッド毎のCreateIndex文のBuilder。条件は全CreateIndex文で共通のため、Where句の作成は1度に留める */
+	private final ThreadLocal<AbstractCreateIndexBuilder> indexBuilder = new ThreadLocal<AbstractCreateIndexBuilder>() {
+		@Override
+		protected AbstractCreateIndexBuilder initialValue() {
+			AbstractCreateIndexBuilder builder = CreateIndexBuilderFactory.createBuilder(targetDBMS);
+			if (conditionMap != null) {
+				for (Map.Entry<String, Object> condition : conditionMap.entrySet()) {
+					builder.addIndexCondition(condition.getKey(), condition.getValue());
+				}
+			}
+			return builder;
+		}
+	};
+
+	CacheScope(ParseCache cache, CacheKey settingsKey, DBMS targetDBMS, Map<String, Object> conditionMap) {
+		this.cache = cache;
+		this.settingsKey = settingsKey;
+		this.targetDBMS = targetDBMS;
+		this.conditionMap = conditionMap;
+	}
+
+	/**
+	 * SQLファイルの内容のキーを作成します。
+	 * @param sqlFile 入力SQLファイル
+	 * @return SQLファイルのキー
+	 * @throws IOException SQLファイルの読み込みに失敗した場合
+	 */
+	public CacheKey fileKey(File sqlFile) throws IOException {
+		return settingsKey.forFile(sqlFile);
+	}
+
+	/**
+	 * SQLファイルの出力内容をキャッシュから復元します。
+	 * @param fileKey 入力SQLファイルのキー
+	 * @param outputSqlFile 出力先のSQLファイル（存在しないこと）
+	 * @return 復元した場合true
+	 */
+	public boolean restoreFile(CacheKey fileKey, File outputSqlFile) {
+		return cache.restoreFile(fileKey, outputSqlFile);
+	}
+
+	/**
+	 * SQLファイルの出力内容をキャッシュに書き込みます。
+	 * @param fileKey 入力SQLファイルのキー
+	 * @param outputSqlFile 作成済みの出力先のSQLファイル
+	 */
+	public void storeFile(CacheKey fileKey, File outputSqlFile) {
+		cache.putFile(fileKey, outputSqlFile);
+	}
+
+	/**
+	 * CreateTable文をキャッシュの対象とするか判定します。
+	 * @param statementLength CreateTable文の長さ（文字数）
+	 * @return {@link #MIN_STATEMENT_LENGTH}以上の場合true
+	 */
+	public boolean isCacheable(int statementLength) {
+		return statementLength >= MIN_STATEMENT_LENGTH;
+	}
+
+	/**
+	 * CreateTable文のキーを作成します。
+	 * @param sql CreateTable文を含む文字列
+	 * @param fromIndex CreateTable文の開始位置
+	 * @param toIndex CreateTable文の終了位置（この位置を含まない）
+	 * @return CreateTable文のキー
+	 */
+	public CacheKey statementKey(CharSequence sql, int fromIndex, int toIndex) {
+		return settingsKey.forStatement(sql, fromIndex, toIndex);
+	}
+
+	/**
+	 * CreateTable文の処理結果をキャッシュから取得します。
+	 * @param statementKey CreateTable文のキー
+	 * @return UNIQUE制約を除去し、CreateIndex文を作成済みのCreateTable文。キャッシュに存在しない場合はnull
+	 */
+	public CreateTableSqlCommand getCreateTable(CacheKey statementKey) {
+		return cache.getCreateTable(statementKey);
+	}
+
+	/**
+	 * 解析したCreateTable文のUNIQUE制約を除去してCreateIndex文を作成し、結果をキャッシュに書き込みます。<br />
+	 * 作成したCreateIndex文は{@link CreateTableSqlCommand#getIndexCommandList()}で取得できます。
+	 * @param statementKey CreateTable文のキー
+	 * @param createTableSql 解析したCreateTable文
+	 */
+	public void putCreateTable(CacheKey statementKey, CreateTableSqlCommand createTableSql) {
+		createTableSql.removeUniqueConstraints();
+		AbstractCreateIndexBuilder builder = indexBuilder.get();
+		List<UniqueKey> uniqueKeyList = createTableSql.getUniqueKeyList();
+		List<SqlCommand> indexCommandList = new ArrayList<>(uniqueKeyList.size());
+		for (UniqueKey uniqueKey : uniqueKeyList) {
+			builder.setTableName(createTableSql.getCreateTableName());
+			builder.setIndexKey(uniqueKey);
+			indexCommandList.add(builder.build());
+		}
+		createTableSql.setIndexCommandList(indexCommandList);
+		cache.putCreateTable(statementKey, createTableSql);
+	}
+}
@@ -0,0 +1,593 @@
+package net.equj65.indexgenerator.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.ColumnSymbolTable;
+import net.equj65.indexgenerator.domain.CreateTableSqlCommand;
+import net.equj65.indexgenerator.domain.SqlCommand;
+import net.equj65.indexgenerator.domain.UniqueKey;
+
+/**
+ * 実行をまたいで解析結果を再利用するための、ディスク上のキャッシュです。<br />
+ * エントリは内容から作成した{@link CacheKey}毎に1ファイルとして保持し、以下の2種類を保持します。
+ * <pre>
+ * 1．ファイル        SQLファイル全体の出力内容
+ * 2．CreateTable文  UNIQUE制約を除去したCreateTable文、Unique制約の項目、作成したCreateIndex文
+ * </pre>
+ * 主な用途は、内容が変更されていないSQLファイルの出力の復元（1）です。
+ * CreateTable文のエントリ（2）は{@link CacheScope#MIN_STATEMENT_LENGTH}文字以上の巨大なCreateTable文のみを対象とし、
+ * 変更されたSQLファイルや別のSQLファイルに同一の巨大なCreateTable文が含まれる場合に解析を省略します。
+ * 一般的な長さ（数百文字以下）のCreateTable文はエントリの読み書きより解析の方が速いため、
+ * 変更されたSQLファイルは巨大なCreateTable文を除いて全て解析し直します。<br />
+ * エントリは以下の形式のバイナリで保持し、読み込み時にヘッダ、長さ、CRC32を検証します。
+ * 検証に失敗したエントリ（書き込み途中で中断された、破損した等）は削除し、キャッシュに存在しないものとして扱います。
+ * <pre>
+ *   int     {@link #MAGIC}
+ *   byte    {@link #FORMAT_VERSION}
+ *   byte    エントリの種別
+ *   long[2] キー
+ *   long    内容の長さ
+ *   byte[]  内容
+ *   long    内容のCRC32
+ * </pre>
+ * エントリは一時ファイルに書き込んだ後に名前を変更して作成するため、
+ * 他のプロセスが同じディレクトリを利用している場合でも書き込み途中のエントリを読み込むことはありません。<br />
+ * エントリの合計サイズが上限を超えた場合、最後に利用した日時が古いエントリから削除します。
+ * 最後に利用した日時はエントリのファイルの更新日時として保持するため、実行をまたいで引き継がれます。<br />
+ * キャッシュの読み書きに失敗した場合、例外は送出せずキャッシュに存在しないものとして扱います。<br />
+ * 当クラスはスレッドセーフです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class ParseCache {
+
+	/** エントリの形式のバージョン。形式、または作成内容を変更した場合は値を変更すること */
+	public static final int FORMAT_VERSION = 2;
+
+	/** デフォルトのエントリの合計サイズの上限(byte) */
+	public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+	/** エントリの先頭4バイト */
+	private static final int MAGIC = 0x55495843;
+
+	/** エントリの種別：CreateTable文 */
+	private static final byte TYPE_CREATE_TABLE = 1;
+
+	/** エントリの種別：ファイル */
+	private static final byte TYPE_FILE = 2;
+
+	/** ヘッダのサイズ(byte) */
+	private static final int HEADER_SIZE = 4 + 1 + 1 + 8 + 8 + 8;
+
+	/** CRC32のサイズ(byte) */
+	private static final int CHECKSUM_SIZE = 8;
+
+	/** エントリのファイルの拡張子 */
+	private static final String ENTRY_SUFFIX = ".entry";
+
+	/** 書き込み途中のエントリのファイルの拡張子 */
+	private static final String TEMP_SUFFIX = ".tmp";
+
+	/** 複製時のバッファサイズ */
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	private final Path directory;
+
+	private final long maxBytes;
+
+	/** エントリ名毎のサイズ。最後に利用した順に並ぶ */
+	private final LinkedHashMap<String, Long> entryMap = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** エントリの合計サイズ */
+	private long totalBytes;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * デフォルトのサイズ上限でキャッシュを開きます。
+	 * @param directory キャッシュのディレクトリ
+	 * @throws IOException ディレクトリの作成、または読み込みに失敗した場合
+	 */
+	public ParseCache(File directory) throws IOException {
+		this(directory, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * キャッシュを開きます。ディレクトリが存在しない場合は作成します。<br />
+	 * 既存のエントリは最後に利用した日時の順に読み込み、書き込み途中で残った一時ファイルは削除します。
+	 * 既存のエントリの合計サイズが上限を超える場合（前回より小さい上限を指定した場合等）は、
+	 * 最後に利用した日時が古いエントリから削除します。
+	 * @param directory キャッシュのディレクトリ
+	 * @param maxBytes エントリの合計サイズの上限(byte)
+	 * @throws IOException ディレクトリの作成、または読み込みに失敗した場合
+	 */
+	public ParseCache(File directory, long maxBytes) throws IOException {
+		if (directory == null) {
+			throw new IllegalArgumentException("キャッシュのディレクトリが指定されていません。");
+		}
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("キャッシュのサイズ上限には1以上を指定してください。 : " + maxBytes);
+		}
+		this.directory = directory.toPath();
+		this.maxBytes = maxBytes;
+		Files.createDirectories(this.directory);
+		loadEntries();
+	}
+
+	/**
+	 * 作成設定毎のキャッシュの利用単位を作成します。
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @return 作成設定毎のキャッシュの利用単位
+	 */
+	public CacheScope scope(DBMS targetDBMS, Map<String, Object> conditionMap, String fileEncoding) {
+		return new CacheScope(this, CacheKey.ofSettings(targetDBMS, conditionMap, fileEncoding), targetDBMS, conditionMap);
+	}
+
+	/**
+	 * CreateTable文のエントリを読み込みます。
+	 * @param key エントリのキー
+	 * @return UNIQUE制約を除去済みのCreateTable文。エントリが存在しない、または破損している場合はnull
+	 */
+	CreateTableSqlCommand getCreateTable(CacheKey key) {
+		String name = key.toString();
+		Path path = entryPath(name);
+		if (!touch(name, path)) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		try {
+			byte[] data = Files.readAllBytes(path);
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+			long payloadLength = readHeader(in, key, TYPE_CREATE_TABLE);
+			if (payloadLength != data.length - HEADER_SIZE - CHECKSUM_SIZE) {
+				throw new EntryCorruptedException("length");
+			}
+			CRC32 crc = new CRC32();
+			crc.update(data, HEADER_SIZE, (int) payloadLength);
+			in.skipBytes((int) payloadLength);
+			if (crc.getValue() != in.readLong()) {
+				throw new EntryCorruptedException("checksum");
+			}
+
+			in = new DataInputStream(new ByteArrayInputStream(data, HEADER_SIZE, (int) payloadLength));
+			String tableName = readString(in);
+			String command = readString(in);
+			int keyCount = in.readInt();
+			List<UniqueKey> uniqueKeyList = Collections.emptyList();
+			List<SqlCommand> indexCommandList = new ArrayList<>(keyCount);
+			if (keyCount > 0) {
+				ColumnSymbolTable symbolTable = new ColumnSymbolTable();
+				uniqueKeyList = new ArrayList<>(keyCount);
+				for (int i = 0; i < keyCount; i++) {
+					String[] columnNames = new String[in.readInt()];
+					for (int j = 0; j < columnNames.length; j++) {
+						columnNames[j] = readString(in);
+					}
+					uniqueKeyList.add(symbolTable.createKey(columnNames));
+				}
+			}
+			int indexCount = in.readInt();
+			for (int i = 0; i < indexCount; i++) {
+				indexCommandList.add(new SqlCommand(readString(in)));
+			}
+			hitCount.incrementAndGet();
+			return new CreateTableSqlCommand(command, tableName, uniqueKeyList, indexCommandList);
+		} catch (IOException | RuntimeException e) {
+			discard(name, path);
+			missCount.incrementAndGet();
+			return null;
+		}
+	}
+
+	/**
+	 * CreateTable文のエントリを書き込みます。
+	 * @param key エントリのキー
+	 * @param command UNIQUE制約を除去し、CreateIndex文を作成済みのCreateTable文
+	 */
+	void putCreateTable(CacheKey key, CreateTableSqlCommand command) {
+		try {
+			ByteArrayOutputStream payload = new ByteArrayOutputStream(command.length() + 256);
+			DataOutputStream out = new DataOutputStream(payload);
+			writeString(out, command.getCreateTableName());
+			writeString(out, command.getSqlCommand());
+			List<UniqueKey> uniqueKeyList = command.getUniqueKeyList();
+			out.writeInt(uniqueKeyList.size());
+			for (UniqueKey uniqueKey : uniqueKeyList) {
+				out.writeInt(uniqueKey.getColumnCount());
+				for (int i = 0; i < uniqueKey.getColumnCount(); i++) {
+					writeString(out, uniqueKey.getColumnName(i));
+				}
+			}
+			List<SqlCommand> indexCommandList = command.getIndexCommandList();
+			out.writeInt(indexCommandList.size());
+			for (SqlCommand indexCommand : indexCommandList) {
+				writeString(out, indexCommand.getSqlCommand());
+			}
+			out.flush();
+			final byte[] data = payload.toByteArray();
+			writeEntry(key, TYPE_CREATE_TABLE, data.length, new PayloadWriter() {
+				@Override
+				public void write(OutputStream out, CRC32 crc) throws IOException {
+					out.write(data);
+					crc.update(data);
+				}
+			});
+		} catch (IOException | RuntimeException e) {
+			// キャッシュへの書き込みに失敗しても作成処理は継続する。
+		}
+	}
+
+	/**
+	 * ファイルのエントリの内容を出力先ファイルに復元します。<br />
+	 * 復元に失敗した場合、作成途中の出力先ファイルは削除します。
+	 * @param key エントリのキー
+	 * @param outputFile 出力先ファイル（存在しないこと）
+	 * @return 復元した場合true。エントリが存在しない、または破損している場合false
+	 */
+	boolean restoreFile(CacheKey key, File outputFile) {
+		String name = key.toString();
+		Path path = entryPath(name);
+		if (!touch(name, path)) {
+			missCount.incrementAndGet();
+			return false;
+		}
+		boolean completed = false;
+		boolean outputCreated = false;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), COPY_BUFFER_SIZE))) {
+			long payloadLength = readHeader(in, key, TYPE_FILE);
+			if (payloadLength != Files.size(path) - HEADER_SIZE - CHECKSUM_SIZE) {
+				throw new EntryCorruptedException("length");
+			}
+			CRC32 crc = new CRC32();
+			try (OutputStream out = Files.newOutputStream(outputFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+				outputCreated = true;
+				byte[] buffer = new byte[COPY_BUFFER_SIZE];
+				long remaining = payloadLength;
+				while (remaining > 0) {
+					int readCount = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+					if (readCount < 0) {
+						throw new EOFException();
+					}
+					out.write(buffer, 0, readCount);
+					crc.update(buffer, 0, readCount);
+					remaining -= readCount;
+				}
+			}
+			if (crc.getValue() != in.readLong()) {
+				throw new EntryCorruptedException("checksum");
+			}
+			completed = true;
+		} catch (EntryCorruptedException | EOFException e) {
+			discard(name, path);
+		} catch (IOException | RuntimeException e) {
+			// 出力先ファイルの書き込みの失敗等はエントリの破損とは見なさない。
+		} finally {
+			if (outputCreated && !completed) {
+				try {
+					Files.deleteIfExists(outputFile.toPath());
+				} catch (IOException e) {
+					// 削除できない場合は呼び出し元の出力処理で失敗する。
+				}
+			}
+		}
+		(completed ? hitCount : missCount).incrementAndGet();
+		return completed;
+	}
+
+	/**
+	 * 出力先ファイルの内容をファイルのエントリとして書き込みます。<br />
+	 * 出力先ファイルのサイズがキャッシュのサイズ上限を超える場合は書き込みません。
+	 * @param key エントリのキー
+	 * @param outputFile 出力先ファイル
+	 */
+	void putFile(CacheKey key, final File outputFile) {
+		final long length = outputFile.length();
+		if (HEADER_SIZE + length + CHECKSUM_SIZE > maxBytes) {
+			return;
+		}
+		try {
+			writeEntry(key, TYPE_FILE, length, new PayloadWriter() {
+				@Override
+				public void write(OutputStream out, CRC32 crc) throws IOException {
+					try (InputStream in = Files.newInputStream(outputFile.toPath())) {
+						byte[] buffer = new byte[COPY_BUFFER_SIZE];
+						long remaining = length;
+						int readCount;
+						while (remaining > 0 && (readCount = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+							out.write(buffer, 0, readCount);
+							crc.update(buffer, 0, readCount);
+							remaining -= readCount;
+						}
+						if (remaining > 0) {
+							throw new EOFException();
+						}
+					}
+				}
+			});
+		} catch (IOException | RuntimeException e) {
+			// キャッシュへの書き込みに失敗しても作成処理は継続する。
+		}
+	}
+
+	/**
+	 * キャッシュから読み込めた回数を取得します。
+	 * @return キャッシュヒット数
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * キャッシュから読み込めなかった回数を取得します。
+	 * @return キャッシュミス数
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * エントリ数を取得します。
+	 * @return エントリ数
+	 */
+	public synchronized int getEntryCount() {
+		return entryMap.size();
+	}
+
+	/**
+	 * エントリの合計サイズを取得します。
+	 * @return エントリの合計サイズ(byte)
+	 */
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "ParseCache[" + directory + ", entries=" + getEntryCount() + ", bytes=" + getTotalBytes()
+				+ ", hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+	}
+
+	/**
+	 * エントリのヘッダを読み込み、検証します。
+	 * @return 内容の長さ
+	 */
+	private static long readHeader(DataInputStream in, CacheKey key, byte type) throws IOException {
+		if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION || in.readByte() != type
+				|| in.readLong() != key.getHigh() || in.readLong() != key.getLow()) {
+			throw new EntryCorruptedException("header");
+		}
+		long payloadLength = in.readLong();
+		if (payloadLength < 0) {
+			throw new EntryCorruptedException("length");
+		}
+		return payloadLength;
+	}
+
+	/**
+	 * エントリを一時ファイルに書き込み、エントリのファイルに名前を変更します。
+	 */
+	private void writeEntry(CacheKey key, byte type, long payloadLength, PayloadWriter payloadWriter) throws IOException {
+		String name = key.toString();
+		Path path = entryPath(name);
+		if (!Files.isDirectory(path.getParent())) {
+			Files.createDirectories(path.getParent());
+		}
+		Path tempPath = Files.createTempFile(directory, name, TEMP_SUFFIX);
+		boolean moved = false;
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath), COPY_BUFFER_SIZE))) {
+				out.writeInt(MAGIC);
+				out.writeByte(FORMAT_VERSION);
+				out.writeByte(type);
+				out.writeLong(key.getHigh());
+				out.writeLong(key.getLow());
+				out.writeLong(payloadLength);
+				CRC32 crc = new CRC32();
+				payloadWriter.write(out, crc);
+				out.writeLong(crc.getValue());
+			}
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			moved = true;
+			added(name, HEADER_SIZE + payloadLength + CHECKSUM_SIZE);
+		} finally {
+			if (!moved) {
+				Files.deleteIfExists(tempPath);
+			}
+		}
+	}
+
+	/**
+	 * エントリの利用を記録します。エントリのファイルの更新日時を現在日時とし、実行をまたいで利用順を引き継ぎます。
+	 * @return エントリが存在する場合true
+	 */
+	private boolean touch(String name, Path path) {
+		synchronized (this) {
+			if (entryMap.get(name) == null) {
+				// 他のプロセスが作成したエントリは次回の起動時に認識する。
+				return false;
+			}
+		}
+		// 他のプロセスが削除したエントリは読み込み時に失敗し、破損したエントリと同様に扱う。
+		path.toFile().setLastModified(System.currentTimeMillis());
+		return true;
+	}
+
+	/**
+	 * 作成したエントリを記録し、サイズ上限を超えた場合は最後に利用した日時が古いエントリから削除します。
+	 */
+	private void added(String name, long size) {
+		List<String> evictedList;
+		synchronized (this) {
+			Long previousSize = entryMap.put(name, size);
+			totalBytes += size - (previousSize == null ? 0 : previousSize);
+			evictedList = evict(name);
+		}
+		delete(evictedList);
+	}
+
+	/**
+	 * エントリの合計サイズが上限以下となるまで、最後に利用した日時が古いエントリを記録から除きます。<br />
+	 * 呼び出し元は当インスタンスのロックを取得していること。
+	 * @param keptName 除かないエントリの名前。全てのエントリを対象とする場合はnull
+	 * @return 記録から除いたエントリの名前
+	 */
+	private List<String> evict(String keptName) {
+		List<String> evictedList = new ArrayList<>();
+		Iterator<Map.Entry<String, Long>> iterator = entryMap.entrySet().iterator();
+		while (totalBytes > maxBytes && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+			if (eldest.getKey().equals(keptName)) {
+				continue;
+			}
+			totalBytes -= eldest.getValue();
+			evictedList.add(eldest.getKey());
+			iterator.remove();
+		}
+		return evictedList;
+	}
+
+	/**
+	 * 記録から除いたエントリのファイルを削除します。
+	 */
+	private void delete(List<String> evictedList) {
+		for (String evicted : evictedList) {
+			try {
+				Files.deleteIfExists(entryPath(evicted));
+			} catch (IOException e) {
+				// 削除できないエントリは次回の起動時に再度認識する。
+			}
+		}
+	}
+
+	/**
+	 * 破損したエントリを削除します。
+	 */
+	private void discard(String name, Path path) {
+		synchronized (this) {
+			Long size = entryMap.remove(name);
+			if (size != null) {
+				totalBytes -= size;
+			}
+		}
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			// 削除できない場合も次回の読み込み時に再度検証する。
+		}
+	}
+
+	/**
+	 * ディレクトリ配下のエントリを最後に利用した日時の順に読み込み、合計サイズが上限を超える分を削除します。
+	 */
+	private void loadEntries() throws IOException {
+		final Map<Path, Long> lastModifiedMap = new LinkedHashMap<>();
+		try (DirectoryStream<Path> shards = Files.newDirectoryStream(directory)) {
+			for (Path shard : shards) {
+				if (shard.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+					Files.deleteIfExists(shard);
+					continue;
+				}
+				if (!Files.isDirectory(shard)) {
+					continue;
+				}
+				try (DirectoryStream<Path> entries = Files.newDirectoryStream(shard, "*" + ENTRY_SUFFIX)) {
+					for (Path entry : entries) {
+						lastModifiedMap.put(entry, Files.getLastModifiedTime(entry).toMillis());
+					}
+				}
+			}
+		}
+		List<Path> entryList = new ArrayList<>(lastModifiedMap.keySet());
+		Collections.sort(entryList, new Comparator<Path>() {
+			@Override
+			public int compare(Path o1, Path o2) {
+				long lastModified1 = lastModifiedMap.get(o1);
+				long lastModified2 = lastModifiedMap.get(o2);
+				return lastModified1 < lastModified2 ? -1 : (lastModified1 == lastModified2 ? 0 : 1);
+			}
+		});
+		List<String> evictedList;
+		synchronized (this) {
+			for (Path entry : entryList) {
+				String fileName = entry.getFileName().toString();
+				long size = Files.size(entry);
+				entryMap.put(fileName.substring(0, fileName.length() - ENTRY_SUFFIX.length()), size);
+				totalBytes += size;
+			}
+			evictedList = evict(null);
+		}
+		delete(evictedList);
+	}
+
+	/**
+	 * エントリのファイルのパスを取得します。キーの先頭2文字のディレクトリに振り分けます。
+	 */
+	private Path entryPath(String name) {
+		return directory.resolve(name.substring(0, 2)).resolve(name + ENTRY_SUFFIX);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > in.available()) {
+			throw new EntryCorruptedException("string length");
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * エントリの内容を書き込む処理です。
+	 */
+	private interface PayloadWriter {
+		void write(OutputStream out, CRC32 crc) throws IOException;
+	}
+
+	/**
+	 * エントリが破損していることを表す例外です。
+	 */
+	private static class EntryCorruptedException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		EntryCorruptedException(String message) {
+			super("cache entry is corrupted : " + message);
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package net.equj65.indexgenerator.constants;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
 
 import static net.equj65.indexgenerator.constants.PostgresConditionLiteral.*;
 
@@ -32,6 +34,16 @@ public enum PostgresDataType {
 	NULL(null, ISNULL),
 	;
 	
+	/** Javaデータ型と列挙子の対応表。条件値毎に列挙子を走査しないよう、クラスのロード時に作成する。 */
+	private static final Map<Class<?>, PostgresDataType> DATA_TYPE_MAP = new HashMap<>();
+	static {
+		for (PostgresDataType type : values()) {
+			if (type.dataType != null) {
+				DATA_TYPE_MAP.put(type.dataType, type);
+			}
+		}
+	}
+
 	private PostgresConditionLiteral literal;
 	private Class<?> dataType;
 	/**
@@ -58,13 +70,7 @@ public enum PostgresDataType {
 		if (obj == null) {
 			return true;
 		}
-		Class<?> clazz = obj.getClass();
-		for (PostgresDataType type : values()) {
-			if (type.dataType.equals(clazz)) {
-				return true;
-			}
-		}
-		return false;
+		return DATA_TYPE_MAP.containsKey(obj.getClass());
 	}
 	
 	/**
@@ -77,11 +83,9 @@ public enum PostgresDataType {
 		if (obj == null) {
 			return NULL.literal;
 		}
-		Class<?> clazz = obj.getClass();
-		for (PostgresDataType type : values()) {
-			if (type.dataType.equals(clazz)) {
-				return type.literal;
-			}
+		PostgresDataType type = DATA_TYPE_MAP.get(obj.getClass());
+		if (type != null) {
+			return type.literal;
 		}
 		throw new IllegalArgumentException("Target class is not Supported");
 	}
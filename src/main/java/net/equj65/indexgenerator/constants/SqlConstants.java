@@ -19,6 +19,9 @@ public class SqlConstants {
 	/** 文字列リテラルの開始/終端文字 */
 	public static final String STRING_LITERAL = "'";
 	
+	/** 引用符付き識別子の開始/終端文字 */
+	public static final String QUOTED_IDENTIFIER = "\"";
+	
 	/** 複数行コメントの終了 */
 	public static final String MULTILINE_COMMENT_SUFFIX = "*/";
 	
@@ -0,0 +1,255 @@
+package net.equj65.indexgenerator.daemon;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link GeneratorDaemon}と{@link GeneratorClient}間の通信形式を定義します。<br />
+ * 要求、応答は{@link DataOutput}形式で以下の通り送受信します。
+ * Javaの直列化は利用せず、受信側で生成するオブジェクトは文字列と条件値の型に限定します。<br />
+ * 接続の最初に、デーモンが起動時に作成した認証トークンを送信します。
+ * 認証トークンはユーザのホームディレクトリに所有者のみ読み書き可能なファイル（{@link #tokenFile(int)}）として作成するため、
+ * 同一ホスト上の他ユーザはデーモンに要求を送信できません。
+ * <pre>
+ * [接続時]
+ *   UTF     認証トークン  ※不一致の場合はERRORを応答して切断する
+ * [要求]
+ *   byte    要求種別（{@link #GENERATE}、{@link #SHUTDOWN}）
+ *   --- 以下、GENERATEの場合のみ
+ *   UTF     読み込み対象のSQLファイル（絶対パス）
+ *   UTF     出力先のSQLファイル（絶対パス）
+ *   UTF     SQLファイルの文字コード
+ *   int     条件数
+ *   条件数分 UTF（フィールド名）、byte（条件値の型）、条件値
+ * [応答]
+ *   byte    結果（{@link #OK}、{@link #ERROR}）
+ *   long    処理時間（ミリ秒）  ※OKの場合
+ *   UTF     エラーメッセージ    ※ERRORの場合
+ *   ※要求を解釈できない場合（不正な要求種別、条件値等）はERRORを応答して切断する
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+final class DaemonProtocol {
+
+	/** デフォルトの待ち受けポート */
+	static final int DEFAULT_PORT = 7465;
+
+	/** 要求種別：UniqueIndex作成 */
+	static final byte GENERATE = 1;
+	/** 要求種別：デーモン停止 */
+	static final byte SHUTDOWN = 2;
+
+	/** 結果：正常終了 */
+	static final byte OK = 0;
+	/** 結果：異常終了 */
+	static final byte ERROR = 1;
+
+	/** 認証トークンのバイト数 */
+	private static final int TOKEN_BYTES = 32;
+
+	/** 認証トークンファイル名の接頭辞、接尾辞 */
+	private static final String TOKEN_FILE_PREFIX = ".uniqindex-daemon-";
+	private static final String TOKEN_FILE_SUFFIX = ".token";
+
+	/** 認証トークンファイルの権限（所有者のみ読み書き可能） */
+	private static final EnumSet<PosixFilePermission> TOKEN_FILE_PERMISSIONS =
+			EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+
+	/** 16進数表記の文字 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/** 条件値の型 */
+	private static final byte TYPE_NULL = 0;
+	private static final byte TYPE_STRING = 1;
+	private static final byte TYPE_BOOLEAN = 2;
+	private static final byte TYPE_SHORT = 3;
+	private static final byte TYPE_INTEGER = 4;
+	private static final byte TYPE_LONG = 5;
+	private static final byte TYPE_FLOAT = 6;
+	private static final byte TYPE_DOUBLE = 7;
+	private static final byte TYPE_DECIMAL = 8;
+
+	private DaemonProtocol() {
+	}
+
+	/**
+	 * 指定ポートで待ち受けるデーモンの認証トークンファイルを取得します。<br />
+	 * 認証トークンファイルはユーザのホームディレクトリ直下に待ち受けポート毎に作成します。
+	 * @param port デーモンの待ち受けポート
+	 * @return 認証トークンファイル
+	 */
+	static Path tokenFile(int port) {
+		return Paths.get(System.getProperty("user.home"), TOKEN_FILE_PREFIX + port + TOKEN_FILE_SUFFIX);
+	}
+
+	/**
+	 * 新しい認証トークンを作成し、所有者のみ読み書き可能なファイルに書き込みます。<br />
+	 * 既存のファイルは置き換えます。書き込み途中のファイルをクライアントが読み込まないよう、
+	 * 同一ディレクトリの一時ファイルに書き込んだ上で置き換えます。
+	 * @param tokenFile 認証トークンファイル
+	 * @return 作成した認証トークン
+	 * @throws IOException ファイルの書き込みに失敗した場合
+	 */
+	static String createToken(Path tokenFile) throws IOException {
+		byte[] random = new byte[TOKEN_BYTES];
+		new SecureRandom().nextBytes(random);
+		char[] hex = new char[TOKEN_BYTES * 2];
+		for (int i = 0; i < TOKEN_BYTES; i++) {
+			hex[i * 2] = HEX_DIGITS[(random[i] >> 4) & 0xF];
+			hex[i * 2 + 1] = HEX_DIGITS[random[i] & 0xF];
+		}
+		String token = new String(hex);
+
+		Path directory = tokenFile.toAbsolutePath().getParent();
+		String fileName = tokenFile.getFileName().toString();
+		Path tempFile;
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			FileAttribute<?> permissions = PosixFilePermissions.asFileAttribute(TOKEN_FILE_PERMISSIONS);
+			tempFile = Files.createTempFile(directory, fileName, null, permissions);
+		} else {
+			// POSIX形式の権限を持たないファイルシステムでは、ホームディレクトリの権限に委ねる。
+			tempFile = Files.createTempFile(directory, fileName, null);
+		}
+		try {
+			Files.write(tempFile, token.getBytes(StandardCharsets.US_ASCII));
+			Files.move(tempFile, tokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+		return token;
+	}
+
+	/**
+	 * 認証トークンファイルから認証トークンを読み込みます。
+	 * @param tokenFile 認証トークンファイル
+	 * @return 認証トークン
+	 * @throws IOException ファイルが存在しない場合、または読み込みに失敗した場合
+	 */
+	static String readToken(Path tokenFile) throws IOException {
+		return new String(Files.readAllBytes(tokenFile), StandardCharsets.US_ASCII).trim();
+	}
+
+	/**
+	 * 受信した認証トークンが正しいか判定します。比較に要する時間は一致した文字数に依存しません。
+	 * @param expected デーモンの認証トークン
+	 * @param actual 受信した認証トークン
+	 * @return 一致する場合true
+	 */
+	static boolean isValidToken(String expected, String actual) {
+		return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII), actual.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * 条件を書き込みます。
+	 * @param out 出力先
+	 * @param conditionMap UniqueIndexの条件
+	 * @throws IOException 出力に失敗した場合
+	 */
+	static void writeConditions(DataOutput out, Map<String, Object> conditionMap) throws IOException {
+		if (conditionMap == null) {
+			out.writeInt(0);
+			return;
+		}
+		out.writeInt(conditionMap.size());
+		for (Map.Entry<String, Object> condition : conditionMap.entrySet()) {
+			out.writeUTF(condition.getKey());
+			Object value = condition.getValue();
+			if (value == null) {
+				out.writeByte(TYPE_NULL);
+			} else if (value instanceof String) {
+				out.writeByte(TYPE_STRING);
+				out.writeUTF((String) value);
+			} else if (value instanceof Boolean) {
+				out.writeByte(TYPE_BOOLEAN);
+				out.writeBoolean((Boolean) value);
+			} else if (value instanceof Short) {
+				out.writeByte(TYPE_SHORT);
+				out.writeShort((Short) value);
+			} else if (value instanceof Integer) {
+				out.writeByte(TYPE_INTEGER);
+				out.writeInt((Integer) value);
+			} else if (value instanceof Long) {
+				out.writeByte(TYPE_LONG);
+				out.writeLong((Long) value);
+			} else if (value instanceof Float) {
+				out.writeByte(TYPE_FLOAT);
+				out.writeFloat((Float) value);
+			} else if (value instanceof Double) {
+				out.writeByte(TYPE_DOUBLE);
+				out.writeDouble((Double) value);
+			} else if (value instanceof BigDecimal) {
+				out.writeByte(TYPE_DECIMAL);
+				out.writeUTF(value.toString());
+			} else {
+				throw new IllegalArgumentException("条件値がサポート外のデータ型です。 : " + value.getClass());
+			}
+		}
+	}
+
+	/**
+	 * 条件を読み込みます。
+	 * @param in 入力
+	 * @return UniqueIndexの条件（順序は送信時の順序）
+	 * @throws IOException 入力の読み込みに失敗した場合、または不正な形式の場合
+	 */
+	static Map<String, Object> readConditions(DataInput in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) {
+			throw new IOException("不正な条件数です。 : " + count);
+		}
+		Map<String, Object> conditionMap = new LinkedHashMap<>();
+		for (int i = 0; i < count; i++) {
+			String field = in.readUTF();
+			byte type = in.readByte();
+			switch (type) {
+			case TYPE_NULL:
+				conditionMap.put(field, null);
+				break;
+			case TYPE_STRING:
+				conditionMap.put(field, in.readUTF());
+				break;
+			case TYPE_BOOLEAN:
+				conditionMap.put(field, in.readBoolean());
+				break;
+			case TYPE_SHORT:
+				conditionMap.put(field, in.readShort());
+				break;
+			case TYPE_INTEGER:
+				conditionMap.put(field, in.readInt());
+				break;
+			case TYPE_LONG:
+				conditionMap.put(field, in.readLong());
+				break;
+			case TYPE_FLOAT:
+				conditionMap.put(field, in.readFloat());
+				break;
+			case TYPE_DOUBLE:
+				conditionMap.put(field, in.readDouble());
+				break;
+			case TYPE_DECIMAL:
+				conditionMap.put(field, new BigDecimal(in.readUTF()));
+				break;
+			default:
+				throw new IOException("不正な条件値の型です。 : " + type);
+			}
+		}
+		return conditionMap;
+	}
+}
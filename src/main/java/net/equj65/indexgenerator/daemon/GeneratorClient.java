@@ -0,0 +1,136 @@
+package net.equj65.indexgenerator.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.equj65.indexgenerator.exception.BaseRuntimeException;
+import net.equj65.indexgenerator.generator.UniqueIndexGenerator;
+
+/**
+ * {@link GeneratorDaemon}にUniqueIndex作成要求を送信するクライアントです。<br />
+ * 1つの接続で複数の要求を順に送信できます。当クラスはスレッドセーフではありません。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class GeneratorClient implements Closeable {
+
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	/**
+	 * ループバックアドレスの指定ポートで待ち受けるデーモンに接続します。<br />
+	 * 認証トークンはデーモンが作成した認証トークンファイル（{@link DaemonProtocol#tokenFile(int)}）から読み込み、
+	 * 接続時に送信します。認証の結果は最初の要求の応答で通知されます。
+	 * @param port デーモンの待ち受けポート
+	 * @throws IOException 接続に失敗した場合、または認証トークンファイルを読み込めない場合
+	 */
+	public GeneratorClient(int port) throws IOException {
+		Path tokenFile = DaemonProtocol.tokenFile(port);
+		String token = DaemonProtocol.readToken(tokenFile);
+		this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		try {
+			this.socket.setTcpNoDelay(true);
+			this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			out.writeUTF(token);
+		} catch (IOException | RuntimeException e) {
+			socket.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * デーモンにUniqueIndexの作成を要求し、完了を待ちます。<br />
+	 * ファイルはデーモン側で読み書きするため、絶対パスに変換して送信します。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @param conditionMap UniqueIndexの条件
+	 * @return デーモン側の処理時間（ミリ秒）
+	 * @throws IOException 通信に失敗した場合
+	 * @throws BaseRuntimeException デーモン側で処理に失敗した場合
+	 */
+	public long generate(File inputSqlFile, File outputSqlFile, String fileEncoding, Map<String, Object> conditionMap) throws IOException {
+		out.writeByte(DaemonProtocol.GENERATE);
+		out.writeUTF(inputSqlFile.getAbsolutePath());
+		out.writeUTF(outputSqlFile.getAbsolutePath());
+		out.writeUTF(fileEncoding);
+		DaemonProtocol.writeConditions(out, conditionMap);
+		out.flush();
+		return readResponse();
+	}
+
+	/**
+	 * デーモンに停止を要求します。
+	 * @throws IOException 通信に失敗した場合
+	 */
+	public void shutdown() throws IOException {
+		out.writeByte(DaemonProtocol.SHUTDOWN);
+		out.flush();
+		readResponse();
+	}
+
+	/**
+	 * 接続を終了します。
+	 */
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+	/**
+	 * 応答を読み込みます。
+	 */
+	private long readResponse() throws IOException {
+		byte status = in.readByte();
+		if (status == DaemonProtocol.OK) {
+			return in.readLong();
+		}
+		throw new BaseRuntimeException(in.readUTF());
+	}
+
+	/**
+	 * デーモンにUniqueIndexの作成を要求します。
+	 * 条件は{@link net.equj65.indexgenerator.main.Main}と同様、論理削除フラグ（is_deleted = false）とします。
+	 * <pre>
+	 * [使い方]
+	 *   GeneratorClient &lt;入力ファイル&gt; &lt;出力ファイル&gt; [文字コード] [ポート]
+	 *   GeneratorClient --shutdown [ポート]
+	 * </pre>
+	 * 処理に失敗した場合、終了コード1で終了します。
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length >= 1 && "--shutdown".equals(args[0])) {
+			try (GeneratorClient client = new GeneratorClient(
+					args.length > 1 ? Integer.parseInt(args[1]) : DaemonProtocol.DEFAULT_PORT)) {
+				client.shutdown();
+			}
+			return;
+		}
+		if (args.length < 2) {
+			System.err.println("Usage: GeneratorClient <input file> <output file> [encoding] [port]");
+			System.exit(2);
+		}
+		String encoding = args.length > 2 ? args[2] : "UTF-8";
+		int port = args.length > 3 ? Integer.parseInt(args[3]) : DaemonProtocol.DEFAULT_PORT;
+		Map<String, Object> conditionMap = new HashMap<>();
+		conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+		try (GeneratorClient client = new GeneratorClient(port)) {
+			client.generate(new File(args[0]), new File(args[1]), encoding, conditionMap);
+		} catch (BaseRuntimeException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+}
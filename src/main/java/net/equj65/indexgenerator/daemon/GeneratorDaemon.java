@@ -0,0 +1,269 @@
+package net.equj65.indexgenerator.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import net.equj65.indexgenerator.generator.UniqueIndexGenerator;
+import net.equj65.indexgenerator.generator.UniqueIndexPipeline;
+
+/**
+ * UniqueIndex作成要求を受け付ける常駐プロセスです。<br />
+ * JVMの起動およびJITコンパイルによる処理時間を要求毎に負担しないよう、
+ * 起動時に一時ファイルに対してUniqueIndexの作成を繰り返してウォームアップした上で、ループバックアドレスのみで要求を待ち受けます。
+ * 要求は{@link GeneratorClient}から送信します。通信形式は{@link DaemonProtocol}を参照してください。<br />
+ * 起動時に認証トークンを作成してユーザのホームディレクトリに所有者のみ読み書き可能なファイルとして保存し、
+ * 認証トークンを送信しない接続の要求（停止要求を含む）は拒否します。認証トークンファイルは停止時に削除します。<br />
+ * 1接続で複数の要求を順に処理し、複数の接続を並行して処理します。同時に処理する要求の数は起動時に指定した数に制限します。
+ * 接続の処理と、{@link UniqueIndexPipeline}の読み込み、解析には同じスレッドプールを利用します。<br />
+ * コマンドラインの{@link GeneratorClient}自体もJVMを起動するため、小さなSQLファイルを1ファイルずつ処理する場合は
+ * デーモンを経由しない方が速くなります。
+ * デーモンは、JITコンパイル前の解析が処理時間の大半を占める大きなSQLファイルを繰り返し処理する場合や、
+ * ビルドツール等の常駐プロセスから{@link GeneratorClient}を生成して1接続で多数の要求を送信する場合に利用してください。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class GeneratorDaemon implements Closeable {
+
+	/** 接続待ちキューの長さ */
+	private static final int BACKLOG = 50;
+
+	/** ウォームアップに利用するCreateTable文 */
+	private static final String WARM_UP_SQL =
+			"/* Create Tables */\r\n"
+			+ "CREATE TABLE warm_up -- テーブル\r\n"
+			+ "(\r\n"
+			+ "\tid serial NOT NULL,\r\n"
+			+ "\tcode varchar(20) NOT NULL UNIQUE,\r\n"
+			+ "\tname varchar(20) DEFAULT '--;(', /* 名称 ; */\r\n"
+			+ "\tUNIQUE (id, name)\r\n"
+			+ ") WITHOUT OIDS;\r\n";
+
+	/** ウォームアップに利用するSQLファイルに含めるCreateTable文の数 */
+	private static final int WARM_UP_TABLE_COUNT = 200;
+
+	/** ウォームアップの繰り返し回数 */
+	private static final int WARM_UP_ITERATIONS = 50;
+
+	/** 接続後、認証トークンを受信するまでの待ち時間（ミリ秒） */
+	private static final int AUTHENTICATION_TIMEOUT = 10000;
+
+	/** 待ち受けソケット */
+	private final ServerSocket serverSocket;
+
+	/** 接続の処理、およびパイプラインの読み込み、解析を実行するスレッド */
+	private final ExecutorService executor;
+
+	/** 要求の処理に利用するパイプライン */
+	private final UniqueIndexPipeline pipeline;
+
+	/** 同時に処理する要求の数の制限 */
+	private final Semaphore requestPermits;
+
+	/** 認証トークンファイル */
+	private final Path tokenFile;
+
+	/** 認証トークン */
+	private final String token;
+
+	/**
+	 * ループバックアドレスの指定ポートで待ち受けるインスタンスを作成します。<br />
+	 * 認証トークンは{@link DaemonProtocol#tokenFile(int)}（待ち受けポート毎のホームディレクトリ直下のファイル）に保存します。
+	 * @param port 待ち受けポート。0の場合は空きポートを利用する。
+	 * @param threadCount 同時に処理する要求の数
+	 * @throws IOException 待ち受けを開始できない場合、または認証トークンファイルを作成できない場合
+	 */
+	public GeneratorDaemon(int port, int threadCount) throws IOException {
+		this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+		try {
+			this.tokenFile = DaemonProtocol.tokenFile(serverSocket.getLocalPort());
+			this.token = DaemonProtocol.createToken(tokenFile);
+		} catch (IOException | RuntimeException e) {
+			serverSocket.close();
+			throw e;
+		}
+		this.executor = Executors.newCachedThreadPool();
+		this.pipeline = new UniqueIndexPipeline(Runtime.getRuntime().availableProcessors(),
+				UniqueIndexPipeline.DEFAULT_WINDOW_SIZE, executor);
+		this.requestPermits = new Semaphore(threadCount);
+	}
+
+	/**
+	 * 待ち受けポートを取得します。
+	 * @return 待ち受けポート
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * 一時ファイルを入力として要求と同じ経路でUniqueIndexの作成を繰り返し実行し、JITコンパイルを促します。
+	 * @throws IOException 一時ファイルの作成、またはUniqueIndexの作成に失敗した場合
+	 */
+	public void warmUp() throws IOException {
+		Map<String, Object> conditionMap = new HashMap<>();
+		conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+		StringBuilder sql = new StringBuilder(WARM_UP_SQL.length() * WARM_UP_TABLE_COUNT);
+		for (int i = 0; i < WARM_UP_TABLE_COUNT; i++) {
+			sql.append(WARM_UP_SQL);
+		}
+		Path inputFile = Files.createTempFile("uniqindex-warmup", ".sql");
+		Path outputFile = inputFile.resolveSibling(inputFile.getFileName() + ".out");
+		try {
+			Files.write(inputFile, sql.toString().getBytes(StandardCharsets.UTF_8));
+			for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+				Files.deleteIfExists(outputFile);
+				UniqueIndexGenerator.generateFile(inputFile.toFile(), outputFile.toFile(), "UTF-8",
+						UniqueIndexGenerator.DEFAULT_DBMS, conditionMap, pipeline);
+			}
+		} finally {
+			Files.deleteIfExists(outputFile);
+			Files.deleteIfExists(inputFile);
+		}
+	}
+
+	/**
+	 * 要求を待ち受けます。<br />
+	 * 当メソッドは停止要求を受け付けるか、{@link #close()}が呼び出されるまで復帰しません。
+	 * @throws IOException 待ち受けに失敗した場合
+	 */
+	public void serve() throws IOException {
+		try {
+			while (true) {
+				final Socket socket = serverSocket.accept();
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						handle(socket);
+					}
+				});
+			}
+		} catch (SocketException e) {
+			if (!serverSocket.isClosed()) {
+				throw e;
+			}
+			// close()による待ち受けの終了
+		} finally {
+			close();
+		}
+	}
+
+	/**
+	 * 待ち受けを終了し、認証トークンファイルを削除します。処理中の要求は完了まで処理します。
+	 */
+	@Override
+	public void close() throws IOException {
+		executor.shutdown();
+		try {
+			serverSocket.close();
+		} finally {
+			Files.deleteIfExists(tokenFile);
+		}
+	}
+
+	/**
+	 * 1接続分の要求を処理します。
+	 */
+	private void handle(Socket socket) {
+		try (Socket s = socket;
+				DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+			s.setSoTimeout(AUTHENTICATION_TIMEOUT);
+			if (!DaemonProtocol.isValidToken(token, in.readUTF())) {
+				out.writeByte(DaemonProtocol.ERROR);
+				out.writeUTF("認証に失敗しました。");
+				out.flush();
+				return;
+			}
+			s.setSoTimeout(0);
+			while (true) {
+				byte command;
+				try {
+					command = in.readByte();
+				} catch (EOFException e) {
+					return;
+				}
+				if (command == DaemonProtocol.SHUTDOWN) {
+					out.writeByte(DaemonProtocol.OK);
+					out.writeLong(0L);
+					out.flush();
+					close();
+					return;
+				}
+				boolean decoded = false;
+				long startTime = System.currentTimeMillis();
+				try {
+					if (command != DaemonProtocol.GENERATE) {
+						throw new IOException("不正な要求種別です。 : " + command);
+					}
+					File inputSqlFile = new File(in.readUTF());
+					File outputSqlFile = new File(in.readUTF());
+					String fileEncoding = in.readUTF();
+					Map<String, Object> conditionMap = DaemonProtocol.readConditions(in);
+					decoded = true;
+					generate(inputSqlFile, outputSqlFile, fileEncoding, conditionMap);
+					out.writeByte(DaemonProtocol.OK);
+					out.writeLong(System.currentTimeMillis() - startTime);
+				} catch (Throwable e) {
+					out.writeByte(DaemonProtocol.ERROR);
+					out.writeUTF(String.valueOf(e));
+				}
+				out.flush();
+				if (!decoded) {
+					// 要求を読み切れていないため、以降の要求の区切りを判別できない。
+					return;
+				}
+			}
+		} catch (IOException e) {
+			// 接続単位の通信エラーは他の接続に影響させない。
+			System.err.println("daemon connection failed : " + e);
+		}
+	}
+
+	/**
+	 * 同時に処理する要求の数の制限内でUniqueIndexを作成します。
+	 */
+	private void generate(File inputSqlFile, File outputSqlFile, String fileEncoding,
+			Map<String, Object> conditionMap) throws IOException, InterruptedException {
+		requestPermits.acquire();
+		try {
+			UniqueIndexGenerator.generateFile(inputSqlFile, outputSqlFile, fileEncoding,
+					UniqueIndexGenerator.DEFAULT_DBMS, conditionMap, pipeline);
+		} finally {
+			requestPermits.release();
+		}
+	}
+
+	/**
+	 * デーモンを起動します。
+	 * <pre>
+	 * [使い方]
+	 *   GeneratorDaemon [ポート]
+	 * </pre>
+	 */
+	public static void main(String[] args) throws Exception {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DaemonProtocol.DEFAULT_PORT;
+		try (GeneratorDaemon daemon = new GeneratorDaemon(port, Runtime.getRuntime().availableProcessors())) {
+			daemon.warmUp();
+			System.out.println("listening on " + daemon.getPort());
+			daemon.serve();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package net.equj65.indexgenerator.domain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 1テーブル内のカラム名を一意な番号（0からの連番）に対応付ける記号表です。<br />
+ * 同じ名称のカラム名は1つの文字列として保持し、{@link UniqueKey}はカラム名を番号の配列として保持します。
+ * 番号の検索にはオープンアドレス法のハッシュ表を利用し、カラム毎のオブジェクトを作成しません。<br />
+ * 当クラスはスレッドセーフではありません。1テーブルの解析中に登録を完了した後は参照のみ行うこと。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public final class ColumnSymbolTable implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** 番号の初期容量 */
+	private static final int INITIAL_CAPACITY = 4;
+
+	/** 番号順のカラム名 */
+	private String[] names = new String[INITIAL_CAPACITY];
+
+	/** 登録済みのカラム数 */
+	private int size;
+
+	/** ハッシュ表。要素は番号+1（0は空き）。容量は2の累乗 */
+	private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+	/**
+	 * カラム名を登録し、番号を取得します。登録済みのカラム名の場合は登録済みの番号を返却します。
+	 * @param name カラム名
+	 * @return カラム名の番号
+	 */
+	public int intern(String name) {
+		int mask = slots.length - 1;
+		int index = name.hashCode() & mask;
+		int slot;
+		while ((slot = slots[index]) != 0) {
+			if (names[slot - 1].equals(name)) {
+				return slot - 1;
+			}
+			index = (index + 1) & mask;
+		}
+		if (size == names.length) {
+			names = Arrays.copyOf(names, size * 2);
+		}
+		names[size] = name;
+		slots[index] = ++size;
+		if (size * 2 > slots.length) {
+			rehash();
+		}
+		return size - 1;
+	}
+
+	/**
+	 * 番号に対応するカラム名を取得します。
+	 * @param id カラム名の番号
+	 * @return カラム名
+	 */
+	public String getName(int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("id : " + id + ", size : " + size);
+		}
+		return names[id];
+	}
+
+	/**
+	 * 登録済みのカラム数を取得します。
+	 * @return 登録済みのカラム数
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * カラム名を登録し、登録順のカラムから成るUniqueキーを作成します。<br />
+	 * 同じカラム名を複数指定した場合、2つ目以降は無視します。
+	 * @param columnNames Uniqueキーを構成するカラム名
+	 * @return 作成したUniqueキー
+	 */
+	public UniqueKey createKey(String... columnNames) {
+		if (columnNames == null || columnNames.length == 0) {
+			throw new IllegalArgumentException("Uniqueキーを構成するカラムが指定されていません。");
+		}
+		int[] columnIds = new int[columnNames.length];
+		int count = 0;
+		columnLoop: for (String columnName : columnNames) {
+			int id = intern(columnName);
+			for (int i = 0; i < count; i++) {
+				if (columnIds[i] == id) {
+					continue columnLoop;
+				}
+			}
+			columnIds[count++] = id;
+		}
+		return new UniqueKey(this, count == columnIds.length ? columnIds : Arrays.copyOf(columnIds, count));
+	}
+
+	/**
+	 * ハッシュ表の容量を倍にして再構築します。
+	 */
+	private void rehash() {
+		int[] newSlots = new int[slots.length * 2];
+		int mask = newSlots.length - 1;
+		for (int id = 0; id < size; id++) {
+			int index = names[id].hashCode() & mask;
+			while (newSlots[index] != 0) {
+				index = (index + 1) & mask;
+			}
+			newSlots[index] = id + 1;
+		}
+		slots = newSlots;
+	}
+}
@@ -1,16 +1,12 @@
 package net.equj65.indexgenerator.domain;
 
 import java.util.List;
-import java.util.ListIterator;
-import java.util.Set;
 
-import net.equj65.indexgenerator.analyzer.SqlParenthesesAnalyzer;
-import net.equj65.indexgenerator.analyzer.SqlParenthesesInfo;
-import net.equj65.indexgenerator.analyzer.SqlParenthesesInfoSet;
-import net.equj65.indexgenerator.parser.SQLStateManager;
-import net.equj65.indexgenerator.util.SqlParenthesesUtils;
-import net.equj65.indexgenerator.util.SqlUtils;
-import net.equj65.indexgenerator.util.StringUtils;
+import net.equj65.indexgenerator.analyzer.CreateTableAnalyzer;
+import net.equj65.indexgenerator.analyzer.CreateTableInfo;
+import net.equj65.indexgenerator.trace.TracePoint;
+import net.equj65.indexgenerator.trace.TraceSpan;
+import net.equj65.indexgenerator.trace.Tracing;
 import static net.equj65.indexgenerator.constants.SqlConstants.*;
 
 /**
@@ -27,18 +23,65 @@ public class CreateTableSqlCommand extends SqlCommand {
 	
 	/**
 	 * Unique制約付与対象の項目一覧。<br />
-	 * UNIQUE対象とするカラム名の一覧を保持するSetで構成される。<br />
-	 * 単一UNIQUEの場合はSetは1要素のみ持つが、複合UNIQUEの場合、
-	 * SetはUNIQUEキーを構成するすべてのカラム名を保持する。
+	 * UNIQUE制約毎の{@link UniqueKey}で構成される。UNIQUE制約が無い場合は空のリスト。
 	 */
-	private List<Set<String>> uniqueKeyList;
+	private List<UniqueKey> uniqueKeyList;
 	
-	public CreateTableSqlCommand(String command, String tableName, List<Set<String>> uniqueKeyList) {
+	/**
+	 * CreateTable文の構造。<br />
+	 * 解析時に記録した構造をUNIQUE制約の除去に再利用する。SQL文の書き換え後、および直列化後はnull。
+	 */
+	private transient CreateTableInfo createTableInfo;
+	
+	/** UNIQUE制約を除去済みであるか */
+	private boolean uniqueConstraintsRemoved;
+	
+	/**
+	 * Unique制約から作成したCreateIndex文の一覧。<br />
+	 * 作成済みのCreateIndex文を保持しない場合（呼び出し元で作成する場合）はnull。
+	 */
+	private List<SqlCommand> indexCommandList;
+	
+	public CreateTableSqlCommand(String command, String tableName, List<UniqueKey> uniqueKeyList) {
 		super(command);
 		this.createTableName = tableName;
 		this.uniqueKeyList = uniqueKeyList;
 	}
 	
+	/**
+	 * UNIQUE制約を除去済みのCreateTable文と、作成済みのCreateIndex文を利用してインスタンスを作成します。<br />
+	 * {@link net.equj65.indexgenerator.cache.ParseCache}から復元する場合に利用し、
+	 * 作成したインスタンスに対する{@link #removeUniqueConstraints()}は何も行いません。
+	 * @param command UNIQUE制約を除去済みのCreateTable文
+	 * @param tableName 作成対象のテーブル名
+	 * @param uniqueKeyList Unique制約付与対象の項目一覧
+	 * @param indexCommandList Unique制約から作成したCreateIndex文の一覧
+	 */
+	public CreateTableSqlCommand(String command, String tableName, List<UniqueKey> uniqueKeyList,
+			List<SqlCommand> indexCommandList) {
+		this(command, tableName, uniqueKeyList);
+		this.uniqueConstraintsRemoved = true;
+		this.indexCommandList = indexCommandList;
+	}
+	
+	/**
+	 * 入力全体上のCreateTable文の範囲を利用してインスタンスを作成します。
+	 * @param source CreateTable文を含む入力全体
+	 * @param offset 入力全体上のCreateTable文の開始位置
+	 * @param length CreateTable文の長さ
+	 * @param tableName 作成対象のテーブル名
+	 * @param uniqueKeyList Unique制約付与対象の項目一覧
+	 * @param createTableInfo 解析済みのCreateTable文の構造。nullの場合は必要時に解析する
+	 * @see SqlCommand#SqlCommand(CharSequence, int, int)
+	 */
+	public CreateTableSqlCommand(CharSequence source, int offset, int length, String tableName,
+			List<UniqueKey> uniqueKeyList, CreateTableInfo createTableInfo) {
+		super(source, offset, length);
+		this.createTableName = tableName;
+		this.uniqueKeyList = uniqueKeyList;
+		this.createTableInfo = createTableInfo;
+	}
+	
 	/**
 	 * 当CreateTableが作成するTABLE名称を返却します。
 	 * @return TABLE名称
@@ -51,67 +94,120 @@ public class CreateTableSqlCommand extends SqlCommand {
 	 * 当CreateTableが保持するUNIQUE制約項目の一覧を返却します。
 	 * @return UNIQUEとなる項目一覧
 	 */
-	public List<Set<String>> getUniqueKeyList() {
+	public List<UniqueKey> getUniqueKeyList() {
 		return uniqueKeyList;
 	}
 	
 	/**
-	 * TODO javadoc
+	 * UNIQUE制約を除去済みであるかを返却します。
+	 * @return UNIQUE制約を除去済みの場合true
+	 */
+	public boolean isUniqueConstraintsRemoved() {
+		return uniqueConstraintsRemoved;
+	}
+	
+	/**
+	 * 作成済みのCreateIndex文の一覧を返却します。
+	 * @return CreateIndex文の一覧。作成済みのCreateIndex文を保持しない場合はnull
+	 */
+	public List<SqlCommand> getIndexCommandList() {
+		return indexCommandList;
+	}
+	
+	/**
+	 * 作成済みのCreateIndex文の一覧を設定します。
+	 * @param indexCommandList Unique制約から作成したCreateIndex文の一覧
+	 */
+	public void setIndexCommandList(List<SqlCommand> indexCommandList) {
+		this.indexCommandList = indexCommandList;
+	}
+	
+	/**
+	 * 当CreateTable文の構造を返却します。<br />
+	 * 解析済みの構造を保持していない場合は当メソッドの呼び出し時に解析します。
+	 * @return CreateTable文の構造
+	 */
+	public CreateTableInfo getCreateTableInfo() {
+		if (createTableInfo == null) {
+			createTableInfo = CreateTableAnalyzer.analyze(getSqlCommand());
+		}
+		return createTableInfo;
+	}
+	
+	/**
+	 * 当CreateTable文からUNIQUE制約を取り除きます。<br />
+	 * 解析済みの構造に記録されたUNIQUEキーワードの位置を利用し、SQL文を再解析せずに以下の通り書き換えます。
+	 * UNIQUE制約が存在しない場合、およびUNIQUE制約を除去済みの場合はSQL文を書き換えません。
+	 * <pre>
+	 * 1．複合UNIQUE制約 フィールド定義自体を区切り文字と共に削除する
+	 * 2．単項目UNIQUE制約 UNIQUEキーワード（直前がスペースの場合はスペース1文字を含む）を削除する
+	 * </pre>
 	 */
 	public void removeUniqueConstraints() {
-		//テーブルの項目定義部を取得
-		SqlParenthesesInfoSet parenthesesInfoSet = SqlParenthesesAnalyzer.analyze(this.getSqlCommand());
-		SqlParenthesesInfo declareFieldParenthese = SqlParenthesesUtils.getFirstStartParenthesesInfo(parenthesesInfoSet);
-		if (declareFieldParenthese == null) {
-			// TODO Exception修正
-			throw new RuntimeException("SQL構文が不正です。");
+		if (uniqueConstraintsRemoved) {
+			return;
 		}
-		
-		String beforeDeclareFieldsSection = this.getSqlCommand().substring(0, declareFieldParenthese.getStartParenthesesIndex() + 1);
-		String afterDeclareFieldsSection = this.getSqlCommand().substring(declareFieldParenthese.getEndParenthesesIndex());
-		
-		// CreateTable文のフィールド定義部を個々のフィールド別に分割し、配列に格納する。
-		List<String> declareFieldArray = SqlUtils.decompositionFieldDefinitionPart(getSqlCommand());
-		
-		ListIterator<String> decFieldsIte = declareFieldArray.listIterator();
-		decFieldsLoop: while (decFieldsIte.hasNext()) {
-			// 該当のフィールド定義部がUNIQUEであるか判定
-			String decField = decFieldsIte.next();
-			StringBuilder noUniqueDecFieldBuilder = new StringBuilder();
-			SQLStateManager manager = new SQLStateManager();
-			int uniqueIndex = decField.toUpperCase().indexOf(UNIQUE);
-			if (uniqueIndex < 0) {
-				continue decFieldsLoop;
-			}
+		TraceSpan span = Tracing.begin(TracePoint.REMOVE_UNIQUE);
+		int statementLength = length();
+		CreateTableInfo info = getCreateTableInfo();
+		int uniqueCount = info.getUniqueCount();
+		if (uniqueCount > 0) {
+			String sql = getSqlCommand();
+			int sectionStartIndex = info.getFieldSectionStartIndex();
+			int sectionEndIndex = info.getFieldSectionEndIndex();
+			StringBuilder noUniqueCreateTableBuilder = new StringBuilder(sql.length());
+			noUniqueCreateTableBuilder.append(sql, 0, sectionStartIndex + 1);
 			
-			String beforeUniqueString = decField.substring(0, uniqueIndex);
-			manager.append(beforeUniqueString);
-			if (manager.isEffective() && SqlUtils.isSqlUniqueKeyword(decField, uniqueIndex)) {
-				// SQL文法上有効なUNIQUEキーワードである。
-				if (SqlUtils.isComplexUniqueConstraint(decField, uniqueIndex)) {
+			// 削除されずに残るフィールド定義は、複合UNIQUE制約の間の連続した範囲として出力する。
+			// 範囲同士は区切り文字で連結する。
+			int rangeStartIndex = sectionStartIndex + 1;
+			int copyFromIndex = rangeStartIndex;
+			boolean isRangeStarted = false;
+			boolean isFieldAppended = false;
+			for (int i = 0; i < uniqueCount; i++) {
+				int fieldStartIndex = info.getFieldStartIndex(i);
+				if (info.isComplexUnique(i)) {
 					// 複合Unique制約の場合、定義部自体を削除する。
-					decFieldsIte.remove();
-					continue decFieldsLoop;
+					if (rangeStartIndex <= fieldStartIndex - 1) {
+						if (!isRangeStarted && isFieldAppended) {
+							noUniqueCreateTableBuilder.append(DECLARE_FIELD_DELIMITER);
+						}
+						noUniqueCreateTableBuilder.append(sql, copyFromIndex, fieldStartIndex - 1);
+						isFieldAppended = true;
+					}
+					rangeStartIndex = info.getFieldEndIndex(i) + 1;
+					copyFromIndex = rangeStartIndex;
+					isRangeStarted = false;
 				} else {
 					// 単項目Unique制約の場合、UNIQUEキーワードを読み飛ばす
-					String afterUniqueString = decField.substring(uniqueIndex + UNIQUE.length());
-					// 単項目Uniqueキーワードの前文字がスペースである場合、スペース1文字も併せて削除する。
-					int lastIndexOfSpace = beforeUniqueString.lastIndexOf(" ");
-					if (lastIndexOfSpace == beforeUniqueString.length() - 1) {
-						beforeUniqueString = beforeUniqueString.substring(0, beforeUniqueString.length() - 1);
+					if (!isRangeStarted && isFieldAppended) {
+						noUniqueCreateTableBuilder.append(DECLARE_FIELD_DELIMITER);
 					}
-					noUniqueDecFieldBuilder.append(beforeUniqueString).append(afterUniqueString);
-					decFieldsIte.set(noUniqueDecFieldBuilder.toString());
+					int uniqueIndex = info.getUniqueIndex(i);
+					// 単項目Uniqueキーワードの前文字がスペースである場合、スペース1文字も併せて削除する。
+					int beforeUniqueEndIndex = uniqueIndex > fieldStartIndex && sql.charAt(uniqueIndex - 1) == ' '
+							? uniqueIndex - 1 : uniqueIndex;
+					noUniqueCreateTableBuilder.append(sql, copyFromIndex, beforeUniqueEndIndex);
+					copyFromIndex = uniqueIndex + UNIQUE.length();
+					isRangeStarted = true;
+					isFieldAppended = true;
 				}
 			}
+			if (rangeStartIndex <= sectionEndIndex) {
+				if (!isRangeStarted && isFieldAppended) {
+					noUniqueCreateTableBuilder.append(DECLARE_FIELD_DELIMITER);
+				}
+				noUniqueCreateTableBuilder.append(sql, copyFromIndex, sectionEndIndex);
+			}
+			noUniqueCreateTableBuilder.append(sql, sectionEndIndex, sql.length());
+			
+			setSqlCommand(noUniqueCreateTableBuilder.toString());
+			// 書き換え後のSQL文に対して記録済みの位置は無効となる。
+			createTableInfo = null;
+		}
+		uniqueConstraintsRemoved = true;
+		if (span != null) {
+			span.finish(createTableName, statementLength);
 		}
-		
-		// CreateTable文を復元する。
-		StringBuilder noUniqueCreateTableBuilder = new StringBuilder();
-		noUniqueCreateTableBuilder.append(beforeDeclareFieldsSection)
-								  .append(StringUtils.join(declareFieldArray, DECLARE_FIELD_DELIMITER))
-								  .append(afterDeclareFieldsSection);
-
-		this.command = noUniqueCreateTableBuilder.toString();
 	}
 }
@@ -1,17 +1,38 @@
 package net.equj65.indexgenerator.domain;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.RandomAccess;
 
+import net.equj65.indexgenerator.builder.AbstractCreateIndexBuilder;
 import net.equj65.indexgenerator.builder.CreateIndexBuilderFactory;
-import net.equj65.indexgenerator.builder.ICreateIndexBuilder;
 import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.io.ChannelWriters;
+import net.equj65.indexgenerator.metrics.GenerateMetrics;
+import net.equj65.indexgenerator.metrics.GeneratePhase;
+import net.equj65.indexgenerator.trace.TracePoint;
+import net.equj65.indexgenerator.trace.TraceSpan;
+import net.equj65.indexgenerator.trace.Tracing;
 
 /**
- * SQL全体を保持するDomainです。
+ * SQL全体を保持するDomainです。<br />
+ * SQL文の追加時に以下の索引を更新し、CreateTable文を全SQL文の走査なしに参照できるようにします。
+ * <pre>
+ * 1．テーブル名からCreateTable文への索引（{@link #getCreateTable(String)}）
+ * 2．CreateTable文のSQL文一覧上の位置の配列（{@link #getCreateTableList()}）
+ * </pre>
  * @author W.Ryozo
  * @version 1.0
  */
@@ -19,23 +40,95 @@ public class EntireSQL implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 	
+	/** Channelへの出力時のバッファサイズ */
+	private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+	
+	/** CreateTable文の位置の配列の初期容量 */
+	private static final int INITIAL_CREATE_TABLE_CAPACITY = 16;
+	
 	/** SQL文を構成するSQLのリスト */
 	private List<SqlCommand> sqlCommandList = new ArrayList<SqlCommand>();
 	
 	/**
-	 * SQL文を追加します。
+	 * テーブル名からCreateTable文への索引。<br />
+	 * SQL文の一覧から再作成できるため直列化せず、復元時に再作成する。
+	 */
+	private transient Map<String, CreateTableSqlCommand> createTableMap = new HashMap<>();
+	
+	/** CreateTable文のSQL文一覧上の位置。先頭から{@link #createTableCount}件が有効。直列化せず、復元時に再作成する */
+	private transient int[] createTableIndexes = new int[INITIAL_CREATE_TABLE_CAPACITY];
+	
+	/** CreateTable文の数 */
+	private transient int createTableCount;
+	
+	/**
+	 * SQL文を追加します。<br />
+	 * CreateTable文の場合は索引に登録します。
 	 * @param command
 	 */
 	public void addSqlCommand(SqlCommand command) {
+		if (command instanceof CreateTableSqlCommand) {
+			CreateTableSqlCommand createTableSql = (CreateTableSqlCommand) command;
+			if (createTableCount == createTableIndexes.length) {
+				createTableIndexes = Arrays.copyOf(createTableIndexes, createTableCount * 2);
+			}
+			createTableIndexes[createTableCount++] = sqlCommandList.size();
+			createTableMap.put(createTableSql.getCreateTableName(), createTableSql);
+		}
 		sqlCommandList.add(command);
 	}
 	
 	/**
-	 * SQL文を取得します。
+	 * 復元したSQL文の一覧からCreateTable文の索引を再作成します。<br />
+	 * 索引は直列化しないため、索引の導入前に直列化されたインスタンスも同様に復元できます。
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		List<SqlCommand> restoredList = sqlCommandList != null ? sqlCommandList : Collections.<SqlCommand>emptyList();
+		sqlCommandList = new ArrayList<>(restoredList.size());
+		createTableMap = new HashMap<>();
+		createTableIndexes = new int[INITIAL_CREATE_TABLE_CAPACITY];
+		createTableCount = 0;
+		for (SqlCommand command : restoredList) {
+			addSqlCommand(command);
+		}
+	}
+	
+	/**
+	 * SQL文を取得します。<br />
+	 * SQL文の追加は{@link #addSqlCommand(SqlCommand)}で行うため、返却する一覧は変更できません。
 	 * @return　SQL文の一覧
 	 */
 	public List<SqlCommand> getSqlCommandList() {
-		return sqlCommandList;
+		return Collections.unmodifiableList(sqlCommandList);
+	}
+	
+	/**
+	 * テーブル名に対応するCreateTable文を取得します。<br />
+	 * テーブル名はCreateTable文の記述と完全に一致する必要があります。同名のCreateTable文が複数存在する場合は最後のCreateTable文を返却します。
+	 * @param tableName テーブル名
+	 * @return CreateTable文。存在しない場合はnull
+	 */
+	public CreateTableSqlCommand getCreateTable(String tableName) {
+		return createTableMap.get(tableName);
+	}
+	
+	/**
+	 * CreateTable文のみを入力順に取得します。<br />
+	 * 返却する一覧はCreateTable文の位置の配列を参照するビューであり、Insert文等の他のSQL文を走査しません。
+	 * 一覧は変更できず、以後のSQL文の追加は反映されません。
+	 * @return CreateTable文の一覧
+	 */
+	public List<CreateTableSqlCommand> getCreateTableList() {
+		return new CreateTableList(createTableIndexes, createTableCount);
+	}
+	
+	/**
+	 * CreateTable文の数を取得します。
+	 * @return CreateTable文の数
+	 */
+	public int getCreateTableCount() {
+		return createTableCount;
 	}
 	
 	/**
@@ -49,45 +142,146 @@ public class EntireSQL implements Serializable {
 	 * @param conditionMap UNIQUE制約に対して追加する条件（Key:カラム名、Value:条件値)
 	 */
 	public void addConditionToAllUniqueConstraint(DBMS targetDBMS, Map<String, Object> conditionMap) {
+		addConditionToAllUniqueConstraint(targetDBMS, conditionMap, null);
+	}
+	
+	/**
+	 * 自身が保持するSQL文中の全UNIQUE制約に対して引数に指定されたUNIQUE条件を追加し、
+	 * UNIQUE制約の除去、およびCreateIndex文の作成の処理時間と作成したCreateIndex文数を記録します。
+	 * @param conditionMap UNIQUE制約に対して追加する条件（Key:カラム名、Value:条件値)
+	 * @param metrics 計測結果の記録先。nullの場合は計測しない
+	 * @see #addConditionToAllUniqueConstraint(DBMS, Map)
+	 */
+	public void addConditionToAllUniqueConstraint(DBMS targetDBMS, Map<String, Object> conditionMap, GenerateMetrics metrics) {
+		TraceSpan span = Tracing.begin(TracePoint.ADD_CONDITION);
 		List<SqlCommand> addSqlCommandList = new ArrayList<>();
-		for (SqlCommand sqlCommand : sqlCommandList) {
-			if (sqlCommand instanceof CreateTableSqlCommand) {
-				// TODO リファクタリング このif文は消せないか？
-				// 個々のCreateTable文のUniqueIndex制約を削除
-				CreateTableSqlCommand createTableSql = (CreateTableSqlCommand) sqlCommand;
-				createTableSql.removeUniqueConstraints();
+		// 条件は全CreateIndex文で共通のため、Builderを使い回しWhere句の作成を1度に留める。
+		AbstractCreateIndexBuilder indexBuilder = CreateIndexBuilderFactory.createBuilder(targetDBMS);
+		if (conditionMap != null) {
+			for (Map.Entry<String, Object> condition : conditionMap.entrySet()) {
+				indexBuilder.addIndexCondition(condition.getKey(), condition.getValue());
+			}
+		}
+		for (CreateTableSqlCommand createTableSql : getCreateTableList()) {
+			// 個々のCreateTable文のUniqueIndex制約を削除
+			long startTime = metrics != null ? System.nanoTime() : 0;
+			createTableSql.removeUniqueConstraints();
+			if (metrics != null) {
+				startTime = metrics.endPhase(GeneratePhase.REMOVE_UNIQUE, startTime);
+			}
 
-				List<Set<String>> uniqueKeyList = createTableSql.getUniqueKeyList();
-				for (Set<String> uniqueKeySet : uniqueKeyList) {
-					ICreateIndexBuilder indexBuilder = CreateIndexBuilderFactory.createBuilder(targetDBMS);
+			List<UniqueKey> uniqueKeyList = createTableSql.getUniqueKeyList();
+			List<SqlCommand> indexCommandList = createTableSql.getIndexCommandList();
+			if (indexCommandList != null) {
+				// 解析時（キャッシュ利用時）に作成済みのCreateIndex文をSQLに追加
+				addSqlCommandList.addAll(indexCommandList);
+			} else {
+				for (UniqueKey uniqueKey : uniqueKeyList) {
 					indexBuilder.setTableName(createTableSql.getCreateTableName());
-					indexBuilder.setIndexFields(uniqueKeySet.toArray(new String[]{}));
-					if (conditionMap != null) {
-						for (String key : conditionMap.keySet()) {
-							indexBuilder.addIndexCondition(key, conditionMap.get(key));
-						}
-					}
+					indexBuilder.setIndexKey(uniqueKey);
 
 					// 作成したCreateIndex文をSQLに追加
 					addSqlCommandList.add(indexBuilder.build());
 				}
 			}
+			if (metrics != null) {
+				metrics.endPhase(GeneratePhase.BUILD_INDEX, startTime);
+				metrics.addIndexes(uniqueKeyList.size());
+			}
 		}
 		
 		for (SqlCommand addSql : addSqlCommandList) {
 			addSqlCommand(addSql);
 		}
+		if (span != null) {
+			span.finish(null, length());
+		}
+	}
+	
+	/**
+	 * 保持するSQL文を1文ずつ出力先に追加します。<br />
+	 * SQL文全体を1つの文字列に連結せずに出力するため、出力に必要なメモリ量はSQL文の量に依存しません。<br />
+	 * 出力先のフラッシュ、およびクローズは行いません。
+	 * @param appendable 出力先
+	 * @throws IOException 出力に失敗した場合
+	 */
+	public void writeTo(Appendable appendable) throws IOException {
+		for (SqlCommand command : sqlCommandList) {
+			command.appendTo(appendable);
+		}
+	}
+	
+	/**
+	 * 保持するSQL文を1文ずつ指定の文字コードでエンコードし、Channelに書き込みます。<br />
+	 * エンコードは1つの{@link CharsetEncoder}を使い回し、{@link #WRITE_BUFFER_SIZE}単位で書き込みます。
+	 * 出力先の文字コードで表現できない文字は{@link java.io.OutputStreamWriter}と同様に置換文字に置き換えます。<br />
+	 * Channelのクローズは行いません。
+	 * @param channel 出力先
+	 * @param charset 出力先の文字コード
+	 * @throws IOException 出力に失敗した場合
+	 */
+	public void writeTo(WritableByteChannel channel, Charset charset) throws IOException {
+		Writer writer = ChannelWriters.newWriter(channel, charset, WRITE_BUFFER_SIZE);
+		writeTo(writer);
+		writer.flush();
+	}
+	
+	/**
+	 * SQL全体の長さ（文字数）を取得します。
+	 * @return SQL全体の長さ
+	 */
+	public int length() {
+		int length = 0;
+		for (SqlCommand command : sqlCommandList) {
+			length += command.length();
+		}
+		return length;
 	}
 	
 	/**
 	 * SQL文を文字列表現で返却します。
 	 */
 	public String toString() {
-		StringBuilder builder = new StringBuilder();
-		for (SqlCommand command : sqlCommandList) {
-			builder.append(command.toString());
+		StringBuilder builder = new StringBuilder(length());
+		try {
+			for (SqlCommand command : sqlCommandList) {
+				command.appendTo(builder);
+			}
+		} catch (IOException e) {
+			// StringBuilderへの追加でIOExceptionは発生しない。
+			throw new IllegalStateException(e);
 		}
 		return builder.toString();
 	}
 
+	/**
+	 * CreateTable文の位置の配列を参照する、CreateTable文のみの一覧です。
+	 */
+	private class CreateTableList extends AbstractList<CreateTableSqlCommand> implements RandomAccess {
+		
+		/** CreateTable文の位置 */
+		private final int[] indexes;
+		
+		/** CreateTable文の数 */
+		private final int count;
+		
+		CreateTableList(int[] indexes, int count) {
+			this.indexes = indexes;
+			this.count = count;
+		}
+		
+		@Override
+		public CreateTableSqlCommand get(int index) {
+			if (index < 0 || index >= count) {
+				throw new IndexOutOfBoundsException("index : " + index + ", size : " + count);
+			}
+			return (CreateTableSqlCommand) sqlCommandList.get(indexes[index]);
+		}
+		
+		@Override
+		public int size() {
+			return count;
+		}
+	}
+
 }
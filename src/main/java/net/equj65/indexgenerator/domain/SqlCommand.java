@@ -1,22 +1,35 @@
 package net.equj65.indexgenerator.domain;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.lang.annotation.Inherited;
+import java.io.Writer;
 
 import net.equj65.indexgenerator.util.StringUtils;
 
 /**
- * SQL文を表すDomainです。
+ * SQL文を表すDomainです。<br />
+ * SQL本文は文字列として保持する他、入力全体を表す文字列上の範囲（開始位置、長さ）として保持することができます。
+ * 範囲として保持する場合、SQL本文は入力全体と共有され、SQL本文が書き換えられるまで複製されません。
  * @author W.Ryozo
  * @version 1.0
  */
 public class SqlCommand implements Serializable {
 
 	private static final long serialVersionUID = 1L;
-	
-	/** SQL本文 */
+
+	/** SQL本文。SQL本文を入力上の範囲として保持する場合はnull */
 	protected String command;
-	
+
+	/** SQL本文を含む入力全体。SQL本文を文字列として保持する場合はnull */
+	private transient CharSequence source;
+
+	/** 入力全体上のSQL本文の開始位置 */
+	private transient int offset;
+
+	/** SQL本文の長さ */
+	private transient int length;
+
 	/**
 	 * SQL文とSQL種別を利用してインスタンスを作成します。
 	 * @param command SQL文
@@ -28,13 +41,115 @@ public class SqlCommand implements Serializable {
 		}
 		this.command = command;
 	}
-	
+
+	/**
+	 * 入力全体上のSQL文の範囲を利用してインスタンスを作成します。<br />
+	 * 入力全体は不変であること。
+	 * @param source SQL文を含む入力全体
+	 * @param offset 入力全体上のSQL文の開始位置
+	 * @param length SQL文の長さ
+	 */
+	public SqlCommand(CharSequence source, int offset, int length) {
+		if (source == null) {
+			throw new NullPointerException("source is null");
+		}
+		if (length <= 0) {
+			throw new IllegalArgumentException("sql is empty");
+		}
+		if (offset < 0 || source.length() - length < offset) {
+			throw new IndexOutOfBoundsException("offset : " + offset + ", length : " + length);
+		}
+		this.source = source;
+		this.offset = offset;
+		this.length = length;
+	}
+
 	/**
-	 * SQL本文を取得します。
-	 * @return
+	 * SQL本文を取得します。<br />
+	 * SQL本文を入力上の範囲として保持している場合、呼び出しの都度SQL本文を複製します。
+	 * @return SQL本文
 	 */
 	public String getSqlCommand() {
-		return command;
+		if (command != null) {
+			return command;
+		}
+		return source.subSequence(offset, offset + length).toString();
+	}
+
+	/**
+	 * SQL本文の長さを取得します。
+	 * @return SQL本文の長さ
+	 */
+	public int length() {
+		return command != null ? command.length() : length;
+	}
+
+	/**
+	 * SQL本文が指定されたSQL文のSQL本文と一致するか判定します。<br />
+	 * SQL本文を入力上の範囲として保持している場合も、SQL本文を複製せずに比較します。
+	 * @param other 比較対象のSQL文
+	 * @return SQL本文が一致する場合true
+	 */
+	public boolean contentEquals(SqlCommand other) {
+		if (other == this) {
+			return true;
+		}
+		int commandLength = length();
+		if (other == null || other.length() != commandLength) {
+			return false;
+		}
+		CharSequence thisSource = command != null ? command : source;
+		int thisOffset = command != null ? 0 : offset;
+		CharSequence otherSource = other.command != null ? other.command : other.source;
+		int otherOffset = other.command != null ? 0 : other.offset;
+		if (thisSource instanceof String && otherSource instanceof String) {
+			return ((String) thisSource).regionMatches(thisOffset, (String) otherSource, otherOffset, commandLength);
+		}
+		for (int i = 0; i < commandLength; i++) {
+			if (thisSource.charAt(thisOffset + i) != otherSource.charAt(otherOffset + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * SQL本文を複製せずに出力先に追加します。
+	 * @param appendable 出力先
+	 * @throws IOException 出力に失敗した場合
+	 */
+	public void appendTo(Appendable appendable) throws IOException {
+		if (command != null) {
+			appendable.append(command);
+		} else if (appendable instanceof Writer && source instanceof String) {
+			// Writer#append(CharSequence, int, int)は範囲を文字列に複製するため、範囲指定の書き込みを利用する。
+			((Writer) appendable).write((String) source, offset, length);
+		} else {
+			appendable.append(source, offset, offset + length);
+		}
+	}
+
+	/**
+	 * SQL本文を書き換えます。<br />
+	 * 以後、SQL本文は入力全体と共有されません。
+	 * @param command 書き換え後のSQL本文
+	 */
+	protected void setSqlCommand(String command) {
+		if (StringUtils.isNullOrEmpty(command)) {
+			throw new IllegalArgumentException("sql is empty");
+		}
+		this.command = command;
+		this.source = null;
+	}
+
+	/**
+	 * 直列化の際はSQL本文のみを直列化し、入力全体は直列化しません。<br />
+	 * SQL本文を入力上の範囲として保持している場合も、当インスタンスの状態は変更せずに複製したSQL本文を直列化します。
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("command", getSqlCommand());
+		out.writeFields();
 	}
 
 	/**
@@ -42,6 +157,6 @@ public class SqlCommand implements Serializable {
 	 */
 	@Override
 	public String toString() {
-		return command;
+		return getSqlCommand();
 	}
 }
@@ -0,0 +1,116 @@
+package net.equj65.indexgenerator.domain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * 1つのUNIQUE制約を構成するカラムの一覧を表す不変のDomainです。<br />
+ * カラム名はテーブル毎の{@link ColumnSymbolTable}に登録し、当クラスは定義順のカラム名の番号のみを保持します。
+ * 単項目UNIQUEの場合は1カラム、複合UNIQUEの場合はUNIQUEキーを構成するすべてのカラムを保持します。<br />
+ * インスタンスは{@link ColumnSymbolTable#createKey(String...)}で作成します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public final class UniqueKey implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** カラム名の記号表 */
+	private final ColumnSymbolTable symbolTable;
+
+	/** 定義順のカラム名の番号 */
+	private final int[] columnIds;
+
+	UniqueKey(ColumnSymbolTable symbolTable, int[] columnIds) {
+		this.symbolTable = symbolTable;
+		this.columnIds = columnIds;
+	}
+
+	/**
+	 * UNIQUEキーを構成するカラム数を取得します。
+	 * @return カラム数
+	 */
+	public int getColumnCount() {
+		return columnIds.length;
+	}
+
+	/**
+	 * 定義順でindex番目のカラム名を取得します。
+	 * @param index 0からの位置
+	 * @return カラム名
+	 */
+	public String getColumnName(int index) {
+		return symbolTable.getName(columnIds[index]);
+	}
+
+	/**
+	 * UNIQUEキーを構成するカラム名を定義順の配列で取得します。
+	 * @return カラム名の配列（呼び出し毎に新しい配列）
+	 */
+	public String[] getColumnNames() {
+		String[] columnNames = new String[columnIds.length];
+		for (int i = 0; i < columnIds.length; i++) {
+			columnNames[i] = symbolTable.getName(columnIds[i]);
+		}
+		return columnNames;
+	}
+
+	/**
+	 * カラム名を定義順に区切り文字で連結し、出力先に追加します。
+	 * @param builder 出力先
+	 * @param delimiter 区切り文字
+	 */
+	public void appendColumnNames(StringBuilder builder, String delimiter) {
+		for (int i = 0; i < columnIds.length; i++) {
+			if (i != 0) {
+				builder.append(delimiter);
+			}
+			builder.append(symbolTable.getName(columnIds[i]));
+		}
+	}
+
+	/**
+	 * 定義順のカラム名が一致する場合に等しいと判定します。
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof UniqueKey)) {
+			return false;
+		}
+		UniqueKey other = (UniqueKey) obj;
+		if (columnIds.length != other.columnIds.length) {
+			return false;
+		}
+		if (symbolTable == other.symbolTable) {
+			return Arrays.equals(columnIds, other.columnIds);
+		}
+		for (int i = 0; i < columnIds.length; i++) {
+			if (!getColumnName(i).equals(other.getColumnName(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int i = 0; i < columnIds.length; i++) {
+			hash = 31 * hash + getColumnName(i).hashCode();
+		}
+		return hash;
+	}
+
+	/**
+	 * カラム名を定義順に[a, b]の形式で返却します。
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		appendColumnNames(builder, ", ");
+		return builder.append(']').toString();
+	}
+}
@@ -0,0 +1,86 @@
+package net.equj65.indexgenerator.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 複数ファイルのUniqueIndex作成結果を表します。<br />
+ * ファイル毎の作成結果はディレクトリの走査順に保持します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class BatchResult {
+
+	/** ファイル毎の作成結果 */
+	private final List<GenerateResult> resultList;
+
+	/** 全体の処理時間（ミリ秒） */
+	private final long elapsedMillis;
+
+	/**
+	 * 作成結果を保持したインスタンスを作成します。
+	 * @param resultList ファイル毎の作成結果
+	 * @param elapsedMillis 全体の処理時間（ミリ秒）
+	 */
+	public BatchResult(List<GenerateResult> resultList, long elapsedMillis) {
+		this.resultList = Collections.unmodifiableList(new ArrayList<>(resultList));
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * ファイル毎の作成結果を取得します。
+	 * @return ファイル毎の作成結果（変更不可）
+	 */
+	public List<GenerateResult> getResultList() {
+		return resultList;
+	}
+
+	/**
+	 * 異常終了したファイルの作成結果を取得します。
+	 * @return 異常終了したファイルの作成結果
+	 */
+	public List<GenerateResult> getErrorList() {
+		List<GenerateResult> errorList = new ArrayList<>();
+		for (GenerateResult result : resultList) {
+			if (!result.isSuccess()) {
+				errorList.add(result);
+			}
+		}
+		return errorList;
+	}
+
+	/**
+	 * 正常終了したファイル数を取得します。
+	 * @return 正常終了したファイル数
+	 */
+	public int getSuccessCount() {
+		return resultList.size() - getErrorCount();
+	}
+
+	/**
+	 * 異常終了したファイル数を取得します。
+	 * @return 異常終了したファイル数
+	 */
+	public int getErrorCount() {
+		int count = 0;
+		for (GenerateResult result : resultList) {
+			if (!result.isSuccess()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 全ファイルが正常終了したか判定します。
+	 * @return 全ファイルが正常終了した場合true
+	 */
+	public boolean isSuccess() {
+		return getErrorCount() == 0;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+}
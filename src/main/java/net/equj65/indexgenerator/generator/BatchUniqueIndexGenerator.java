@@ -0,0 +1,195 @@
+package net.equj65.indexgenerator.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.exception.BaseRuntimeException;
+
+/**
+ * ディレクトリ配下の複数のSQLファイルに対してUniqueIndexを作成するGeneratorです。<br />
+ * 入力ディレクトリ配下をGlobパターンに一致するファイルについて走査し、固定数のスレッドで並列に処理します。
+ * 出力先には入力ディレクトリからの相対パスを維持してファイルを作成します。<br />
+ * 1ファイルの処理に失敗した場合も処理は継続し、ファイル毎の結果を{@link BatchResult}として返却します。
+ * <pre>
+ * [例]
+ *   BatchResult result = new BatchUniqueIndexGenerator(8).generate(
+ *       new File("ddl"), new File("out"), "**.sql", "UTF-8", DBMS.POSTGRESQL, conditionMap);
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class BatchUniqueIndexGenerator {
+
+	/** デフォルトのGlobパターン（全階層の.sqlファイル） */
+	public static final String DEFAULT_GLOB = "**.sql";
+
+	/** 待機中のタスク数の上限（スレッド数に対する倍率） */
+	private static final int QUEUE_CAPACITY_PER_THREAD = 4;
+
+	/**
+	 * 1ファイル毎の処理に利用するパイプライン。
+	 * 複数ファイルをワーカースレッドで並列に処理するため、1ファイル当たりの解析スレッドは1つとする。
+	 */
+	private static final UniqueIndexPipeline PIPELINE = new UniqueIndexPipeline(1, UniqueIndexPipeline.DEFAULT_WINDOW_SIZE);
+
+	/** ワーカースレッド数 */
+	private final int threadCount;
+
+	/**
+	 * 利用可能なプロセッサ数のワーカースレッドで処理するインスタンスを作成します。
+	 */
+	public BatchUniqueIndexGenerator() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * ワーカースレッド数を指定してインスタンスを作成します。
+	 * @param threadCount ワーカースレッド数
+	 */
+	public BatchUniqueIndexGenerator(int threadCount) {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException("スレッド数には1以上を指定してください。 : " + threadCount);
+		}
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * 入力ディレクトリ配下のGlobパターンに一致するSQLファイルに対してUniqueIndexを作成します。<br />
+	 * Globパターンは入力ディレクトリからの相対パスに対して判定します。
+	 * 出力ディレクトリが入力ディレクトリ配下に存在する場合、出力ディレクトリは走査しません。
+	 * @param inputDir 入力ディレクトリ
+	 * @param outputDir 出力ディレクトリ
+	 * @param glob 対象ファイルのGlobパターン
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @return ファイル毎の作成結果
+	 * @throws IOException 入力ディレクトリの走査に失敗した場合
+	 */
+	public BatchResult generate(File inputDir,
+			File outputDir,
+			String glob,
+			final String fileEncoding,
+			final DBMS targetDBMS,
+			final Map<String, Object> conditionMap) throws IOException {
+		if (inputDir == null || !inputDir.isDirectory()) {
+			throw new IllegalArgumentException("入力ディレクトリが存在しないかディレクトリではありません。 : " + inputDir);
+		}
+		if (outputDir == null) {
+			throw new IllegalArgumentException("出力ディレクトリが指定されていません。");
+		}
+		long startTime = System.currentTimeMillis();
+		final Path inputRoot = inputDir.toPath().toAbsolutePath().normalize();
+		final Path outputRoot = outputDir.toPath().toAbsolutePath().normalize();
+		final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+
+		// 待機中のタスク数を制限し、ディレクトリの走査がファイルの処理を上回る場合は走査スレッド自身で処理する。
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+				0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(threadCount * QUEUE_CAPACITY_PER_THREAD),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		final List<File> inputFileList = new ArrayList<>();
+		final List<File> outputFileList = new ArrayList<>();
+		// ファイル毎の処理結果を走査順に保持する。走査に失敗したファイルは処理を行わず、失敗の結果のみ保持する。
+		final List<Future<GenerateResult>> futureList = new ArrayList<>();
+		final List<GenerateResult> walkErrorList = new ArrayList<>();
+		try {
+			Files.walkFileTree(inputRoot, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+					return dir.equals(outputRoot) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					Path relativePath = inputRoot.relativize(file);
+					if (attrs.isRegularFile() && matcher.matches(relativePath)) {
+						final File inputFile = file.toFile();
+						final File outputFile = outputRoot.resolve(relativePath.toString()).toFile();
+						inputFileList.add(inputFile);
+						outputFileList.add(outputFile);
+						walkErrorList.add(null);
+						futureList.add(executor.submit(new Callable<GenerateResult>() {
+							@Override
+							public GenerateResult call() {
+								return generateFile(inputFile, outputFile, fileEncoding, targetDBMS, conditionMap);
+							}
+						}));
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException e) {
+					inputFileList.add(file.toFile());
+					outputFileList.add(null);
+					walkErrorList.add(new GenerateResult(file.toFile(), null, 0L, e));
+					futureList.add(null);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+
+			List<GenerateResult> resultList = new ArrayList<>(futureList.size());
+			for (int i = 0; i < futureList.size(); i++) {
+				if (futureList.get(i) == null) {
+					resultList.add(walkErrorList.get(i));
+					continue;
+				}
+				try {
+					resultList.add(futureList.get(i).get());
+				} catch (ExecutionException e) {
+					resultList.add(new GenerateResult(inputFileList.get(i), outputFileList.get(i), 0L, e.getCause()));
+				}
+			}
+			return new BatchResult(resultList, System.currentTimeMillis() - startTime);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BaseRuntimeException("UniqueIndexの作成中に割り込まれました。", e);
+		} finally {
+			for (Future<GenerateResult> future : futureList) {
+				if (future != null) {
+					future.cancel(true);
+				}
+			}
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * 1ファイル分のUniqueIndexを作成し、発生した例外を含む作成結果を返却します。
+	 */
+	private static GenerateResult generateFile(File inputFile,
+			File outputFile,
+			String fileEncoding,
+			DBMS targetDBMS,
+			Map<String, Object> conditionMap) {
+		long startTime = System.currentTimeMillis();
+		try {
+			File parentDir = outputFile.getParentFile();
+			if (parentDir != null) {
+				Files.createDirectories(parentDir.toPath());
+			}
+			UniqueIndexGenerator.generateFile(inputFile, outputFile, fileEncoding, targetDBMS, conditionMap, PIPELINE);
+			return new GenerateResult(inputFile, outputFile, System.currentTimeMillis() - startTime, null);
+		} catch (Exception e) {
+			return new GenerateResult(inputFile, outputFile, System.currentTimeMillis() - startTime, e);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package net.equj65.indexgenerator.generator;
+
+import java.io.File;
+
+/**
+ * 1ファイル分のUniqueIndex作成結果を表します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class GenerateResult {
+
+	/** 読み込み対象のSQLファイル */
+	private final File inputSqlFile;
+
+	/** 出力先のSQLファイル */
+	private final File outputSqlFile;
+
+	/** 処理時間（ミリ秒） */
+	private final long elapsedMillis;
+
+	/** 発生した例外。正常終了した場合はnull */
+	private final Throwable error;
+
+	/**
+	 * 作成結果を保持したインスタンスを作成します。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param elapsedMillis 処理時間（ミリ秒）
+	 * @param error 発生した例外。正常終了した場合はnull
+	 */
+	public GenerateResult(File inputSqlFile, File outputSqlFile, long elapsedMillis, Throwable error) {
+		this.inputSqlFile = inputSqlFile;
+		this.outputSqlFile = outputSqlFile;
+		this.elapsedMillis = elapsedMillis;
+		this.error = error;
+	}
+
+	public File getInputSqlFile() {
+		return inputSqlFile;
+	}
+
+	public File getOutputSqlFile() {
+		return outputSqlFile;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * 正常終了したか判定します。
+	 * @return 正常終了した場合true
+	 */
+	public boolean isSuccess() {
+		return error == null;
+	}
+
+	/**
+	 * 作成結果を1行の文字列で返却します。
+	 */
+	@Override
+	public String toString() {
+		if (isSuccess()) {
+			return "OK    " + inputSqlFile + " -> " + outputSqlFile + " (" + elapsedMillis + "ms)";
+		}
+		return "ERROR " + inputSqlFile + " : " + error;
+	}
+}
@@ -0,0 +1,138 @@
+package net.equj65.indexgenerator.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.equj65.indexgenerator.builder.AbstractCreateIndexBuilder;
+import net.equj65.indexgenerator.builder.CreateIndexBuilderFactory;
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.CreateTableSqlCommand;
+import net.equj65.indexgenerator.domain.EntireSQL;
+import net.equj65.indexgenerator.domain.UniqueKey;
+import net.equj65.indexgenerator.parser.SQLParser;
+
+/**
+ * 変更前後の2つのSQLファイルを比較し、変更されたUniqueIndexのみを作成し直すSQLを作成します。<br />
+ * CreateTable文をテーブル名で対応付け、Unique制約の項目の集合を比較して以下のSQL文を出力します。
+ * <pre>
+ * 1．変更後に存在しないUnique制約  DropIndex文
+ * 2．変更後に追加されたUnique制約  CreateUniqueIndex文
+ * </pre>
+ * 変更後に追加されたテーブルは全Unique制約のCreateUniqueIndex文を出力します。
+ * 変更後に存在しないテーブルはテーブルの削除と共にIndexも削除されるため、何も出力しません。<br />
+ * CreateTable文の内容が変更前後で一致するテーブルは、Unique制約を比較せずに読み飛ばします。
+ * 内容の一致はCreateTable文の本文を複製せずに比較して判定します。<br />
+ * SQL文は{@link UniqueIndexGenerator}と同じ順序（テーブル毎、Unique制約の定義順）で出力し、
+ * テーブル毎にDropIndex文をCreateUniqueIndex文より先に出力します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class UniqueIndexDiffGenerator {
+
+	/**
+	 * 変更前後のSQLファイルを比較し、変更されたUniqueIndexのみを作成し直すSQLファイルを作成します。
+	 * @param oldSqlFile 変更前のSQLファイル
+	 * @param newSqlFile 変更後のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @throws IOException SQLファイルの読み書きに失敗した場合
+	 */
+	public static void generate(File oldSqlFile,
+			File newSqlFile,
+			File outputSqlFile,
+			String fileEncoding,
+			DBMS targetDBMS,
+			Map<String, Object> conditionMap) throws IOException {
+		UniqueIndexGenerator.validate(newSqlFile, outputSqlFile);
+		if (oldSqlFile == null || !oldSqlFile.isFile()) {
+			throw new IllegalArgumentException("変更前のSQLファイルが存在しないかファイルではありません");
+		}
+
+		SQLParser sqlParser = new SQLParser();
+		EntireSQL oldSql = sqlParser.parse(UniqueIndexGenerator.readSqlFile(oldSqlFile, fileEncoding));
+		EntireSQL newSql = sqlParser.parse(UniqueIndexGenerator.readSqlFile(newSqlFile, fileEncoding));
+		EntireSQL diffSql = diff(oldSql, newSql, targetDBMS, conditionMap);
+		UniqueIndexGenerator.writeSqlFile(outputSqlFile, diffSql, fileEncoding);
+	}
+
+	/**
+	 * 解析済みの変更前後のSQLを比較し、変更されたUniqueIndexのみを作成し直すSQLを作成します。<br />
+	 * 引数のSQLは変更しません（Unique制約の除去を行いません）。
+	 * @param oldSql 変更前のSQL
+	 * @param newSql 変更後のSQL
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @return DropIndex文、CreateUniqueIndex文のみを保持するSQL。変更が無い場合はSQL文を保持しない
+	 */
+	public static EntireSQL diff(EntireSQL oldSql, EntireSQL newSql, DBMS targetDBMS, Map<String, Object> conditionMap) {
+		// 条件は全CreateIndex文で共通のため、Builderを使い回しWhere句の作成を1度に留める。
+		AbstractCreateIndexBuilder indexBuilder = CreateIndexBuilderFactory.createBuilder(targetDBMS);
+		if (conditionMap != null) {
+			for (Map.Entry<String, Object> condition : conditionMap.entrySet()) {
+				indexBuilder.addIndexCondition(condition.getKey(), condition.getValue());
+			}
+		}
+
+		EntireSQL diffSql = new EntireSQL();
+		for (CreateTableSqlCommand newCreateTable : newSql.getCreateTableList()) {
+			String tableName = newCreateTable.getCreateTableName();
+			CreateTableSqlCommand oldCreateTable = oldSql.getCreateTable(tableName);
+			List<UniqueKey> newKeyList = newCreateTable.getUniqueKeyList();
+			if (oldCreateTable == null) {
+				// 追加されたテーブル
+				addCreateIndexes(diffSql, indexBuilder, tableName, newKeyList, null);
+				continue;
+			}
+			if (isSameStatement(oldCreateTable, newCreateTable)) {
+				continue;
+			}
+
+			List<UniqueKey> oldKeyList = oldCreateTable.getUniqueKeyList();
+			Set<UniqueKey> oldKeySet = new HashSet<>(oldKeyList);
+			Set<UniqueKey> newKeySet = new HashSet<>(newKeyList);
+			if (oldKeySet.equals(newKeySet)) {
+				continue;
+			}
+			for (UniqueKey oldKey : oldKeyList) {
+				if (!newKeySet.contains(oldKey)) {
+					indexBuilder.setTableName(tableName);
+					indexBuilder.setIndexKey(oldKey);
+					diffSql.addSqlCommand(indexBuilder.buildDropIndex());
+					// 同一のUnique制約が重複して定義されている場合も1度のみ出力する。
+					newKeySet.add(oldKey);
+				}
+			}
+			addCreateIndexes(diffSql, indexBuilder, tableName, newKeyList, oldKeySet);
+		}
+		return diffSql;
+	}
+
+	/**
+	 * 変更前に存在しないUnique制約のCreateUniqueIndex文を追加します。
+	 * @param existingKeySet 変更前のUnique制約。追加されたテーブルの場合はnull
+	 */
+	private static void addCreateIndexes(EntireSQL diffSql, AbstractCreateIndexBuilder indexBuilder, String tableName,
+			List<UniqueKey> newKeyList, Set<UniqueKey> existingKeySet) {
+		Set<UniqueKey> createdKeySet = existingKeySet != null ? existingKeySet : new HashSet<UniqueKey>();
+		for (UniqueKey newKey : newKeyList) {
+			if (createdKeySet.add(newKey)) {
+				indexBuilder.setTableName(tableName);
+				indexBuilder.setIndexKey(newKey);
+				diffSql.addSqlCommand(indexBuilder.build());
+			}
+		}
+	}
+
+	/**
+	 * CreateTable文の内容が一致するか判定します。
+	 */
+	private static boolean isSameStatement(CreateTableSqlCommand oldCreateTable, CreateTableSqlCommand newCreateTable) {
+		return oldCreateTable.contentEquals(newCreateTable);
+	}
+}
@@ -1,19 +1,28 @@
 package net.equj65.indexgenerator.generator;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
 
+import net.equj65.indexgenerator.cache.CacheKey;
+import net.equj65.indexgenerator.cache.CacheScope;
+import net.equj65.indexgenerator.cache.ParseCache;
 import net.equj65.indexgenerator.constants.DBMS;
 import net.equj65.indexgenerator.domain.EntireSQL;
-import net.equj65.indexgenerator.parser.SQLParser;
+import net.equj65.indexgenerator.io.ChannelWriters;
+import net.equj65.indexgenerator.io.MappedFileReader;
+import net.equj65.indexgenerator.metrics.GenerateMetrics;
+import net.equj65.indexgenerator.metrics.GenerateMetricsListener;
+import net.equj65.indexgenerator.metrics.GeneratePhase;
+import net.equj65.indexgenerator.trace.TracePoint;
+import net.equj65.indexgenerator.trace.TraceSpan;
+import net.equj65.indexgenerator.trace.Tracing;
 
 /**
  * UniqueIndexのGeneratorです。
@@ -28,6 +37,44 @@ public class UniqueIndexGenerator {
 	
 	/** デフォルトDBMS */
 	public static final DBMS DEFAULT_DBMS = DBMS.POSTGRESQL;
+	
+	/** SQLファイル読み込み時のバッファサイズ */
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+	
+	/** SQLファイル読み込み時に確保するバッファの初期容量の上限 */
+	private static final int MAX_INITIAL_CAPACITY = Integer.MAX_VALUE - 8;
+	
+	/** SQLファイル書き込み時のバッファサイズ */
+	private static final int WRITE_BUFFER_SIZE = 256 * 1024;
+	
+	/** 1ファイル毎の処理に利用するパイプライン */
+	private static final UniqueIndexPipeline PIPELINE = new UniqueIndexPipeline();
+	
+	/** 計測結果の通知先。計測しない場合はnull */
+	private static volatile GenerateMetricsListener metricsListener;
+	
+	/** 解析結果のキャッシュ。キャッシュしない場合はnull */
+	private static volatile ParseCache parseCache;
+	
+	/**
+	 * 計測結果の通知先を設定します。<br />
+	 * 設定した場合、以後の1ファイル毎のUniqueIndex作成（一括処理、{@link net.equj65.indexgenerator.daemon.GeneratorDaemon}経由を含む）の
+	 * 計測結果を、正常終了の都度通知します。nullを設定した場合は計測を行いません。
+	 * @param listener 計測結果の通知先
+	 */
+	public static void setMetricsListener(GenerateMetricsListener listener) {
+		metricsListener = listener;
+	}
+	
+	/**
+	 * 解析結果のキャッシュを設定します。<br />
+	 * 設定した場合、以後の1ファイル毎のUniqueIndex作成では、内容が同一の入力ファイルはキャッシュから出力を復元し、
+	 * 入力ファイルが異なる場合も内容が同一のCreateTable文は解析しません。nullを設定した場合はキャッシュしません。
+	 * @param cache 解析結果のキャッシュ
+	 */
+	public static void setParseCache(ParseCache cache) {
+		parseCache = cache;
+	}
 
 	public static void generate(File inputSqlFile, File outputSqlFile, String fileEncoding) {
 		generate(inputSqlFile, outputSqlFile, fileEncoding, DEFAULT_DBMS, DEFAULT_DELFLAG_NAME, Boolean.FALSE);
@@ -58,7 +105,154 @@ public class UniqueIndexGenerator {
 			String fileEncoding,
 			DBMS targetDBMS,
 			Map<String, Object> conditionMap) {
-		// arguments validate
+		validate(inputSqlFile, outputSqlFile);
+
+		try {
+			generateFile(inputSqlFile, outputSqlFile, fileEncoding, targetDBMS, conditionMap);
+		} catch (Exception e) {
+			// TODO 例外処理の実装
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * 1ファイル分のUniqueIndexを作成します。<br />
+	 * {@link #generate(File, File, String, DBMS, Map)}と異なり、発生した例外は呼び出し元に送出します。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @throws IOException SQLファイルの読み書きに失敗した場合
+	 */
+	public static void generateFile(File inputSqlFile,
+			File outputSqlFile,
+			String fileEncoding,
+			DBMS targetDBMS,
+			Map<String, Object> conditionMap) throws IOException {
+		generateFile(inputSqlFile, outputSqlFile, fileEncoding, targetDBMS, conditionMap, PIPELINE);
+	}
+	
+	/**
+	 * 1ファイル分のUniqueIndexを指定された{@link UniqueIndexPipeline}で作成します。<br />
+	 * {@link #setMetricsListener(GenerateMetricsListener)}で通知先が設定されている場合は計測結果を通知します。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @param pipeline 利用するパイプライン
+	 * @throws IOException SQLファイルの読み書きに失敗した場合
+	 */
+	public static void generateFile(File inputSqlFile,
+			File outputSqlFile,
+			String fileEncoding,
+			DBMS targetDBMS,
+			Map<String, Object> conditionMap,
+			UniqueIndexPipeline pipeline) throws IOException {
+		GenerateMetricsListener listener = metricsListener;
+		GenerateMetrics metrics = listener != null ? new GenerateMetrics() : null;
+		generateFile(inputSqlFile, outputSqlFile, fileEncoding, targetDBMS, conditionMap, metrics, pipeline);
+		if (listener != null) {
+			listener.onGenerated(inputSqlFile, outputSqlFile, metrics);
+		}
+	}
+	
+	/**
+	 * 1ファイル分のUniqueIndexを作成し、工程毎の処理時間と処理件数を記録します。<br />
+	 * {@link #setMetricsListener(GenerateMetricsListener)}で設定した通知先には通知しません。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @param metrics 計測結果の記録先。nullの場合は計測しない
+	 * @throws IOException SQLファイルの読み書きに失敗した場合
+	 */
+	public static void generateFile(File inputSqlFile,
+			File outputSqlFile,
+			String fileEncoding,
+			DBMS targetDBMS,
+			Map<String, Object> conditionMap,
+			GenerateMetrics metrics) throws IOException {
+		generateFile(inputSqlFile, outputSqlFile, fileEncoding, targetDBMS, conditionMap, metrics, PIPELINE);
+	}
+	
+	/**
+	 * 1ファイル分のUniqueIndexを指定された{@link UniqueIndexPipeline}で作成します。<br />
+	 * 読み込み、解析、書き込みを並行して行うため、入力全体の読み込み完了を待たずに出力を開始します。
+	 * 解析結果のキャッシュが設定されている場合は、キャッシュから出力を復元、またはキャッシュに出力を書き込みます。
+	 * 処理に失敗した場合、作成途中の出力ファイルは削除します。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @param metrics 計測結果の記録先。nullの場合は計測しない
+	 * @param pipeline 利用するパイプライン
+	 * @throws IOException SQLファイルの読み書きに失敗した場合
+	 */
+	static void generateFile(File inputSqlFile,
+			File outputSqlFile,
+			String fileEncoding,
+			DBMS targetDBMS,
+			Map<String, Object> conditionMap,
+			GenerateMetrics metrics,
+			UniqueIndexPipeline pipeline) throws IOException {
+		validate(inputSqlFile, outputSqlFile);
+
+		long startTime = metrics != null ? System.nanoTime() : 0;
+		ParseCache cache = parseCache;
+		CacheScope cacheScope = cache != null ? cache.scope(targetDBMS, conditionMap, fileEncoding) : null;
+		CacheKey fileKey = null;
+		if (cacheScope != null) {
+			fileKey = cacheScope.fileKey(inputSqlFile);
+			if (cacheScope.restoreFile(fileKey, outputSqlFile)) {
+				if (metrics != null) {
+					recordSummary(metrics, inputSqlFile, outputSqlFile, System.nanoTime() - startTime);
+				}
+				return;
+			}
+		}
+		Charset charset = Charset.forName(fileEncoding);
+		FileChannel channel = FileChannel.open(outputSqlFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		boolean completed = false;
+		try (MappedFileReader reader = new MappedFileReader(inputSqlFile, charset);
+				Writer writer = ChannelWriters.newWriter(channel, charset, WRITE_BUFFER_SIZE)) {
+			pipeline.run(reader, writer, targetDBMS, conditionMap, metrics, cacheScope);
+			long flushStartTime = metrics != null ? System.nanoTime() : 0;
+			writer.flush();
+			if (metrics != null) {
+				long endTime = metrics.endPhase(GeneratePhase.WRITE, flushStartTime);
+				recordSummary(metrics, inputSqlFile, outputSqlFile, endTime - startTime);
+			}
+			completed = true;
+		} finally {
+			channel.close();
+			if (!completed) {
+				Files.deleteIfExists(outputSqlFile.toPath());
+			}
+		}
+		if (cacheScope != null) {
+			cacheScope.storeFile(fileKey, outputSqlFile);
+		}
+	}
+	
+	/**
+	 * 入出力ファイルのサイズと全体の処理時間を記録します。
+	 */
+	private static void recordSummary(GenerateMetrics metrics, File inputSqlFile, File outputSqlFile, long elapsedNanos) {
+		metrics.setInputBytes(inputSqlFile.length());
+		metrics.setOutputBytes(outputSqlFile.length());
+		metrics.setElapsedNanos(elapsedNanos);
+	}
+	
+	/**
+	 * 入出力ファイルの指定を検証します。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 */
+	static void validate(File inputSqlFile, File outputSqlFile) {
 		if (inputSqlFile == null) {
 			throw new IllegalArgumentException("読み込み対象のSQLファイルが指定されていません。");
 		}
@@ -71,53 +265,52 @@ public class UniqueIndexGenerator {
 		if (outputSqlFile.exists()) {
 			throw new IllegalArgumentException("出力用のSQLファイルが既に存在します。存在しないファイル名を指定してください");
 		}
-
-		try {
-		String sql = readSqlFile(inputSqlFile, fileEncoding);
-		SQLParser sqlParser = new SQLParser();
-		EntireSQL entireSql = sqlParser.parse(sql);
-		// TODO ここでDBMSを渡さないようにする。
-		entireSql.addConditionToAllUniqueConstraint(targetDBMS, conditionMap);
-		
-		writeSqlFile(outputSqlFile, entireSql.toString(), fileEncoding);
-		} catch (Exception e) {
-			// TODO 例外処理の実装
-			e.printStackTrace();
-		}
 	}
 	
 	/**
-	 * SQLファイル全体を読み込みます。
+	 * SQLファイル全体を読み込みます。<br />
+	 * ファイルはメモリマップした上で一括でデコードします。
+	 * 読み込み先の容量は最初の読み込み結果のバイト数と文字数の比から見積もるため、
+	 * マルチバイト文字を含むファイルであってもファイルのバイト数分の容量を確保しません。
 	 * @param sqlFile 読み込み対象のSQLファイル
 	 * @param encoding SQLファイルの文字コード
 	 * @return 読み込んだSQLファイル（改行コード含む）
 	 */
-	private static String readSqlFile(File sqlFile, String encoding) throws IOException {
-		StringBuilder builder = new StringBuilder();
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-				new FileInputStream(sqlFile), encoding))){
-			int c;
-			while ((c = reader.read()) != -1) {
-				// TODO サロゲート文字が含まれていた場合問題無いのか？
-				builder.append((char) c);
+	static String readSqlFile(File sqlFile, String encoding) throws IOException {
+		TraceSpan span = Tracing.begin(TracePoint.READ_FILE);
+		try (MappedFileReader reader = new MappedFileReader(sqlFile, Charset.forName(encoding))) {
+			char[] buffer = new char[READ_BUFFER_SIZE];
+			int readCount = reader.read(buffer);
+			long estimatedLength = reader.estimateCharCount();
+			// 見積もりの誤差で容量が倍増しないよう、見積もりに1/16の余裕を持たせる。
+			StringBuilder builder = new StringBuilder((int) Math.min(estimatedLength + estimatedLength / 16, MAX_INITIAL_CAPACITY));
+			while (readCount != -1) {
+				builder.append(buffer, 0, readCount);
+				readCount = reader.read(buffer);
 			}
+			if (span != null) {
+				span.finish(null, builder.length());
+			}
+			return builder.toString();
 		}
-		
-		return builder.toString();
 	}
 	
 	/**
-	 * ファイルを書き込みます。
+	 * ファイルを書き込みます。<br />
+	 * SQL文は1文ずつエンコードして書き込むため、SQL全体を1つの文字列に連結しません。
 	 * @param outputFile 出力先ファイルを表すFileオブジェクト
-	 * @param writeString 出力対象の文字列
+	 * @param entireSql 出力対象のSQL
 	 * @param encoding 出力先ファイルのエンコーディング
 	 * @throws IOException
 	 */
-	private static void writeSqlFile(File outputFile, String writeString, String encoding) throws IOException {
-		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), encoding))) {
-			// TODO　削除
-			System.out.println(writeString);
-			writer.write(writeString);
+	static void writeSqlFile(File outputFile, EntireSQL entireSql, String encoding) throws IOException {
+		try (FileChannel channel = FileChannel.open(outputFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			TraceSpan span = Tracing.begin(TracePoint.WRITE_FILE);
+			entireSql.writeTo(channel, Charset.forName(encoding));
+			if (span != null) {
+				span.finish(null, entireSql.length());
+			}
 		}
 	}
 }
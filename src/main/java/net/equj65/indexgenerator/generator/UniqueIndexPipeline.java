@@ -0,0 +1,577 @@
+package net.equj65.indexgenerator.generator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.equj65.indexgenerator.builder.AbstractCreateIndexBuilder;
+import net.equj65.indexgenerator.builder.CreateIndexBuilderFactory;
+import net.equj65.indexgenerator.cache.CacheScope;
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.CreateTableSqlCommand;
+import net.equj65.indexgenerator.domain.SqlCommand;
+import net.equj65.indexgenerator.domain.UniqueKey;
+import net.equj65.indexgenerator.exception.BaseRuntimeException;
+import net.equj65.indexgenerator.metrics.GenerateMetrics;
+import net.equj65.indexgenerator.metrics.GeneratePhase;
+import net.equj65.indexgenerator.parser.SQLParser;
+import net.equj65.indexgenerator.parser.SQLStatementReader;
+import net.equj65.indexgenerator.trace.TracePoint;
+import net.equj65.indexgenerator.trace.TraceSpan;
+import net.equj65.indexgenerator.trace.Tracing;
+
+/**
+ * 読み込み、解析、書き換え、書き込みを並行して行うUniqueIndex作成のパイプラインです。<br />
+ * 各処理は以下のスレッドで実行し、SQL文をキューで受け渡します。
+ * <pre>
+ * 1．読み込みスレッド   入力からSQL文を1文ずつ読み込む
+ * 2．解析スレッド（複数）SQL文を解析し、CreateTable文のUnique制約を除去する
+ * 3．呼び出し元スレッド  入力順に並べ直してSQL文を書き込み、CreateIndex文を作成する
+ * </pre>
+ * 読み込みスレッド、解析スレッドは実行の都度作成せず、{@link ExecutorService}のスレッドを利用します。
+ * ExecutorServiceを指定しない場合、全インスタンスで共有するスレッドプールを利用します。<br />
+ * 読み込み済みで書き込み前のSQL文の数は{@link #getWindowSize()}を上限とし、
+ * 上限に達した場合は書き込みが追いつくまで読み込みを停止します。
+ * CreateIndex文は作成の都度一時ファイルに退避し（{@link #SPOOL_THRESHOLD}文字未満の場合はメモリ上に保持し）、
+ * 入力全体の書き込み後に入力順に出力します。
+ * そのため、保持するSQL文、CreateIndex文の量は入力全体のサイズに依存しません。<br />
+ * 出力内容は
+ * {@link net.equj65.indexgenerator.domain.EntireSQL#addConditionToAllUniqueConstraint(DBMS, Map)}による一括処理と一致します。<br />
+ * 当クラスのインスタンスは設定値のみを保持し、複数スレッドから同時に利用することができます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class UniqueIndexPipeline {
+
+	/** デフォルトの処理中SQL文数の上限 */
+	public static final int DEFAULT_WINDOW_SIZE = 1024;
+
+	/** CreateIndex文を一時ファイルに退避せずにメモリ上に保持する文字数の上限 */
+	public static final int SPOOL_THRESHOLD = 1 << 20;
+
+	/** 解析スレッド数 */
+	private final int parserThreadCount;
+
+	/** 読み込み済みで書き込み前のSQL文数の上限 */
+	private final int windowSize;
+
+	/** 読み込み、解析を実行するスレッド */
+	private final ExecutorService executor;
+
+	/**
+	 * 利用可能なプロセッサ数の解析スレッドで処理するインスタンスを作成します。
+	 */
+	public UniqueIndexPipeline() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * 解析スレッド数と処理中SQL文数の上限を指定してインスタンスを作成します。<br />
+	 * 読み込み、解析には全インスタンスで共有するスレッドプールを利用します。
+	 * @param parserThreadCount 解析スレッド数
+	 * @param windowSize 読み込み済みで書き込み前のSQL文数の上限
+	 */
+	public UniqueIndexPipeline(int parserThreadCount, int windowSize) {
+		this(parserThreadCount, windowSize, SharedExecutor.INSTANCE);
+	}
+
+	/**
+	 * 解析スレッド数、処理中SQL文数の上限、読み込みと解析を実行する{@link ExecutorService}を指定してインスタンスを作成します。<br />
+	 * 読み込み、解析の各処理は互いの完了を待ち合わせるため、ExecutorServiceは同時に実行する1回の処理毎に
+	 * 解析スレッド数+1個のタスクを並行して実行できること（{@link Executors#newCachedThreadPool()}等）。
+	 * ExecutorServiceの停止は呼び出し元で行います。
+	 * @param parserThreadCount 解析スレッド数
+	 * @param windowSize 読み込み済みで書き込み前のSQL文数の上限
+	 * @param executor 読み込み、解析を実行するExecutorService
+	 */
+	public UniqueIndexPipeline(int parserThreadCount, int windowSize, ExecutorService executor) {
+		if (executor == null) {
+			throw new IllegalArgumentException("ExecutorServiceが指定されていません。");
+		}
+		if (parserThreadCount <= 0) {
+			throw new IllegalArgumentException("スレッド数には1以上を指定してください。 : " + parserThreadCount);
+		}
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("処理中SQL文数の上限には1以上を指定してください。 : " + windowSize);
+		}
+		this.parserThreadCount = parserThreadCount;
+		this.windowSize = windowSize;
+		this.executor = executor;
+	}
+
+	/**
+	 * 読み込み済みで書き込み前のSQL文数の上限を取得します。
+	 * @return 処理中SQL文数の上限
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * 入力からSQL文を読み込み、Unique制約をCreateIndex文に置き換えたSQLを出力先に書き込みます。<br />
+	 * 出力先のフラッシュ、およびクローズは行いません。入力のクローズも行いません。
+	 * @param reader 入力
+	 * @param writer 出力先
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @throws IOException 入力の読み込み、または出力に失敗した場合
+	 */
+	public void run(Reader reader, Writer writer, DBMS targetDBMS, Map<String, Object> conditionMap) throws IOException {
+		run(reader, writer, targetDBMS, conditionMap, null);
+	}
+
+	/**
+	 * 入力からSQL文を読み込み、Unique制約をCreateIndex文に置き換えたSQLを出力先に書き込み、
+	 * 工程毎の処理時間と処理件数を記録します。<br />
+	 * 入力からの読み込み（{@link GeneratePhase#READ}）とSQL文の分割（{@link GeneratePhase#SPLIT}）はSQL文1文毎に分けて記録します。
+	 * @param reader 入力
+	 * @param writer 出力先
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @param metrics 計測結果の記録先。nullの場合は計測しない
+	 * @throws IOException 入力の読み込み、または出力に失敗した場合
+	 * @see #run(Reader, Writer, DBMS, Map)
+	 */
+	public void run(Reader reader, Writer writer, DBMS targetDBMS, Map<String, Object> conditionMap,
+			GenerateMetrics metrics) throws IOException {
+		run(reader, writer, targetDBMS, conditionMap, metrics, null);
+	}
+
+	/**
+	 * CreateTable文の解析結果をキャッシュしながら、入力からSQL文を読み込み、
+	 * Unique制約をCreateIndex文に置き換えたSQLを出力先に書き込みます。<br />
+	 * キャッシュに存在するCreateTable文は解析せず、キャッシュの内容を出力します。
+	 * @param reader 入力
+	 * @param writer 出力先
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @param metrics 計測結果の記録先。nullの場合は計測しない
+	 * @param cacheScope CreateTable文の解析結果のキャッシュ。作成設定は引数の対象DBMS、条件と一致すること。nullの場合はキャッシュしない
+	 * @throws IOException 入力の読み込み、または出力に失敗した場合
+	 * @see #run(Reader, Writer, DBMS, Map, GenerateMetrics)
+	 */
+	public void run(final Reader reader, Writer writer, DBMS targetDBMS, Map<String, Object> conditionMap,
+			final GenerateMetrics metrics, final CacheScope cacheScope) throws IOException {
+		// 条件は全CreateIndex文で共通のため、Builderを使い回しWhere句の作成を1度に留める。
+		AbstractCreateIndexBuilder indexBuilder = CreateIndexBuilderFactory.createBuilder(targetDBMS);
+		if (conditionMap != null) {
+			for (Map.Entry<String, Object> condition : conditionMap.entrySet()) {
+				indexBuilder.addIndexCondition(condition.getKey(), condition.getValue());
+			}
+		}
+
+		// キューの要素数はwindowで制限するため、キュー自体は容量を制限しない。
+		final Semaphore window = new Semaphore(windowSize);
+		final BlockingQueue<Statement> parseQueue = new LinkedBlockingQueue<>();
+		final BlockingQueue<Statement> writeQueue = new LinkedBlockingQueue<>();
+		List<Future<Void>> futureList = new ArrayList<>(parserThreadCount + 1);
+		try {
+			futureList.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws InterruptedException {
+					read(reader, window, parseQueue, writeQueue, metrics);
+					return null;
+				}
+			}));
+			for (int i = 0; i < parserThreadCount; i++) {
+				futureList.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws InterruptedException {
+						parse(parseQueue, writeQueue, metrics, cacheScope);
+						return null;
+					}
+				}));
+			}
+			write(writer, indexBuilder, window, writeQueue, metrics);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BaseRuntimeException("UniqueIndexの作成中に割り込まれました。", e);
+		} finally {
+			// 書き込みが失敗した場合に、待機中の読み込み、解析を終了させる。
+			for (Future<Void> future : futureList) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * 読み込み処理です。SQL文を1文ずつ読み込み、解析キューに追加します。<br />
+	 * 読み込みの計測（{@link TracePoint#READ_FILE}）は処理中SQL文数が上限に達して待機する都度区切り、待機時間を含めません。
+	 * 各計測には前回の区切りから読み込んだ文字数を記録します。
+	 * SQL文の分割（{@link TracePoint#SPLIT}）は1文毎に計測します。
+	 */
+	private void read(Reader reader, Semaphore window, BlockingQueue<Statement> parseQueue,
+			BlockingQueue<Statement> writeQueue, GenerateMetrics metrics) throws InterruptedException {
+		try {
+			TraceSpan span = Tracing.begin(TracePoint.READ_FILE);
+			TimedReader timedReader = metrics != null ? new TimedReader(reader) : null;
+			SQLStatementReader statementReader = new SQLStatementReader(timedReader != null ? timedReader : reader);
+			int sequence = 0;
+			long readLength = 0;
+			long startTime = metrics != null ? System.nanoTime() : 0;
+			String sql;
+			TraceSpan splitSpan = Tracing.begin(TracePoint.SPLIT);
+			while ((sql = statementReader.readStatement()) != null) {
+				if (splitSpan != null) {
+					splitSpan.finish(null, sql.length());
+				}
+				if (metrics != null) {
+					recordRead(metrics, timedReader, startTime);
+				}
+				readLength += sql.length();
+				if (!window.tryAcquire()) {
+					if (span != null) {
+						span.finish(null, readLength);
+					}
+					readLength = 0;
+					window.acquire();
+					span = Tracing.begin(TracePoint.READ_FILE);
+				}
+				parseQueue.put(new Statement(sequence++, sql));
+				if (metrics != null) {
+					startTime = System.nanoTime();
+				}
+				splitSpan = Tracing.begin(TracePoint.SPLIT);
+			}
+			if (splitSpan != null) {
+				// 入力終端までの読み込み
+				splitSpan.finish(null, 0);
+			}
+			if (metrics != null) {
+				recordRead(metrics, timedReader, startTime);
+			}
+			if (span != null) {
+				span.finish(null, readLength);
+			}
+			writeQueue.put(Statement.end(sequence));
+		} catch (IOException | RuntimeException | Error e) {
+			writeQueue.put(Statement.failure(e));
+		} finally {
+			for (int i = 0; i < parserThreadCount; i++) {
+				parseQueue.put(Statement.POISON);
+			}
+		}
+	}
+
+	/**
+	 * SQL文1文の読み込みに要した時間を、入力からの読み込みとSQL文の分割に分けて記録します。
+	 */
+	private static void recordRead(GenerateMetrics metrics, TimedReader timedReader, long startTime) {
+		long readNanos = timedReader.takeNanos();
+		metrics.addPhaseNanos(GeneratePhase.READ, readNanos);
+		metrics.addPhaseNanos(GeneratePhase.SPLIT, System.nanoTime() - startTime - readNanos);
+	}
+
+	/**
+	 * 解析処理です。SQL文を解析してUnique制約を除去し、書き込みキューに追加します。<br />
+	 * 解析の計測（{@link TracePoint#PARSE}）はSQL文1文毎に行い、解析待ちの時間を含めません。
+	 */
+	private static void parse(BlockingQueue<Statement> parseQueue, BlockingQueue<Statement> writeQueue,
+			GenerateMetrics metrics, CacheScope cacheScope) throws InterruptedException {
+		SQLParser parser = new SQLParser(null, metrics, cacheScope);
+		Statement statement;
+		while ((statement = parseQueue.take()) != Statement.POISON) {
+			TraceSpan span = Tracing.begin(TracePoint.PARSE);
+			try {
+				SqlCommand command = parser.parseStatement(statement.sql);
+				if (command instanceof CreateTableSqlCommand) {
+					long startTime = metrics != null ? System.nanoTime() : 0;
+					((CreateTableSqlCommand) command).removeUniqueConstraints();
+					if (metrics != null) {
+						metrics.endPhase(GeneratePhase.REMOVE_UNIQUE, startTime);
+					}
+				}
+				statement.command = command;
+			} catch (RuntimeException | Error e) {
+				statement.error = e;
+			}
+			if (span != null) {
+				span.finish(statement.command instanceof CreateTableSqlCommand
+						? ((CreateTableSqlCommand) statement.command).getCreateTableName() : null, statement.sql.length());
+			}
+			statement.sql = null;
+			writeQueue.put(statement);
+		}
+	}
+
+	/**
+	 * 書き込み処理です。解析済みのSQL文を入力順に並べ直して書き込み、最後にCreateIndex文を書き込みます。<br />
+	 * CreateIndex文は作成の都度{@link IndexSpool}に退避します。
+	 * CreateIndex文の作成（{@link TracePoint#ADD_CONDITION}）はCreateTable文1文毎に計測します。
+	 */
+	private static void write(Writer writer, AbstractCreateIndexBuilder indexBuilder, Semaphore window,
+			BlockingQueue<Statement> writeQueue, GenerateMetrics metrics) throws IOException, InterruptedException {
+		TraceSpan span = Tracing.begin(TracePoint.WRITE_FILE);
+		long writtenLength = 0;
+		try (IndexSpool indexSpool = new IndexSpool()) {
+			StringBuilder indexBuffer = indexSpool.getBuffer();
+			Map<Integer, Statement> pendingMap = new HashMap<>();
+			int nextSequence = 0;
+			int statementCount = -1;
+			while (statementCount < 0 || nextSequence < statementCount) {
+				Statement statement = writeQueue.take();
+				if (statement.error != null) {
+					throw rethrow(statement.error);
+				}
+				if (statement.command == null) {
+					statementCount = statement.sequence;
+					continue;
+				}
+				pendingMap.put(statement.sequence, statement);
+				while ((statement = pendingMap.remove(nextSequence)) != null) {
+					long startTime = metrics != null ? System.nanoTime() : 0;
+					statement.command.appendTo(writer);
+					writtenLength += statement.command.length();
+					if (metrics != null) {
+						startTime = metrics.endPhase(GeneratePhase.WRITE, startTime);
+					}
+					if (statement.command instanceof CreateTableSqlCommand) {
+						CreateTableSqlCommand createTableSql = (CreateTableSqlCommand) statement.command;
+						TraceSpan indexSpan = Tracing.begin(TracePoint.ADD_CONDITION);
+						if (createTableSql.getIndexCommandList() != null) {
+							for (SqlCommand indexCommand : createTableSql.getIndexCommandList()) {
+								indexCommand.appendTo(indexBuffer);
+							}
+						} else {
+							for (UniqueKey uniqueKey : createTableSql.getUniqueKeyList()) {
+								indexBuilder.setTableName(createTableSql.getCreateTableName());
+								indexBuilder.setIndexKey(uniqueKey);
+								indexBuilder.appendTo(indexBuffer);
+							}
+						}
+						if (indexSpan != null) {
+							indexSpan.finish(createTableSql.getCreateTableName(), createTableSql.length());
+						}
+						indexSpool.spillIfFull();
+						if (metrics != null) {
+							metrics.endPhase(GeneratePhase.BUILD_INDEX, startTime);
+							metrics.addIndexes(createTableSql.getUniqueKeyList().size());
+						}
+					}
+					nextSequence++;
+					window.release();
+				}
+			}
+			long startTime = metrics != null ? System.nanoTime() : 0;
+			writtenLength += indexSpool.writeTo(writer);
+			if (metrics != null) {
+				metrics.endPhase(GeneratePhase.WRITE, startTime);
+			}
+		}
+		if (span != null) {
+			span.finish(null, writtenLength);
+		}
+	}
+
+	/**
+	 * 他スレッドで発生した例外を呼び出し元に送出可能な形式に変換します。
+	 */
+	private static IOException rethrow(Throwable error) {
+		if (error instanceof RuntimeException) {
+			throw (RuntimeException) error;
+		}
+		if (error instanceof Error) {
+			throw (Error) error;
+		}
+		if (error instanceof IOException) {
+			return (IOException) error;
+		}
+		throw new BaseRuntimeException(error.getMessage(), error);
+	}
+
+	/**
+	 * 全インスタンスで共有する読み込み、解析用のスレッドプールです。<br />
+	 * 初回の利用時に作成します。スレッドは必要に応じて作成して再利用し、一定時間利用されない場合は終了します。
+	 * JVMの終了を妨げないよう、デーモンスレッドとします。
+	 */
+	private static class SharedExecutor {
+
+		static final ExecutorService INSTANCE = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "uniqindex-pipeline-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * 入力全体の書き込みが完了するまでCreateIndex文を退避する領域です。<br />
+	 * CreateIndex文はメモリ上に保持し、{@link UniqueIndexPipeline#SPOOL_THRESHOLD}文字に達した時点で
+	 * 一時ファイル（UTF-8）に書き出します。一時ファイルはクローズ時に削除します。
+	 */
+	private static class IndexSpool implements Closeable {
+
+		/** 一時ファイルの読み書きのバッファサイズ */
+		private static final int COPY_BUFFER_SIZE = 8192;
+
+		/** 一時ファイルに書き出していないCreateIndex文 */
+		private final StringBuilder buffer = new StringBuilder();
+		/** 一時ファイル。未作成の場合はnull */
+		private Path spoolPath;
+		/** 一時ファイルへの出力 */
+		private Writer spoolWriter;
+		/** 一時ファイルに書き出した文字数 */
+		private long spooledLength;
+
+		/** CreateIndex文の追加先を取得します。 */
+		StringBuilder getBuffer() {
+			return buffer;
+		}
+
+		/** 追加されたCreateIndex文が上限に達している場合、一時ファイルに書き出します。 */
+		void spillIfFull() throws IOException {
+			if (buffer.length() < SPOOL_THRESHOLD) {
+				return;
+			}
+			if (spoolWriter == null) {
+				spoolPath = Files.createTempFile("uniqindex", ".sql");
+				spoolWriter = Files.newBufferedWriter(spoolPath, StandardCharsets.UTF_8);
+			}
+			spooledLength += buffer.length();
+			writeBuffer(spoolWriter);
+		}
+
+		/**
+		 * 退避したCreateIndex文を追加順に出力先に書き込みます。
+		 * @return 書き込んだ文字数
+		 */
+		long writeTo(Writer writer) throws IOException {
+			long length = spooledLength + buffer.length();
+			if (spoolWriter != null) {
+				spoolWriter.close();
+				spoolWriter = null;
+				try (BufferedReader spoolReader = Files.newBufferedReader(spoolPath, StandardCharsets.UTF_8)) {
+					char[] copyBuffer = new char[COPY_BUFFER_SIZE];
+					int readLength;
+					while ((readLength = spoolReader.read(copyBuffer)) >= 0) {
+						writer.write(copyBuffer, 0, readLength);
+					}
+				}
+			}
+			writeBuffer(writer);
+			return length;
+		}
+
+		/** 一時ファイルに書き出していないCreateIndex文を複製せずに出力先に書き込みます。 */
+		private void writeBuffer(Writer writer) throws IOException {
+			char[] copyBuffer = new char[Math.min(buffer.length(), COPY_BUFFER_SIZE)];
+			for (int start = 0; start < buffer.length(); start += copyBuffer.length) {
+				int end = Math.min(start + copyBuffer.length, buffer.length());
+				buffer.getChars(start, end, copyBuffer, 0);
+				writer.write(copyBuffer, 0, end - start);
+			}
+			buffer.setLength(0);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				if (spoolWriter != null) {
+					spoolWriter.close();
+				}
+			} finally {
+				if (spoolPath != null) {
+					Files.deleteIfExists(spoolPath);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 入力からの読み込みに要した時間を累積するReaderです。
+	 */
+	private static class TimedReader extends FilterReader {
+
+		/** 前回の取得以降の読み込み時間（ナノ秒） */
+		private long nanos;
+
+		TimedReader(Reader reader) {
+			super(reader);
+		}
+
+		@Override
+		public int read() throws IOException {
+			long startTime = System.nanoTime();
+			try {
+				return super.read();
+			} finally {
+				nanos += System.nanoTime() - startTime;
+			}
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) throws IOException {
+			long startTime = System.nanoTime();
+			try {
+				return super.read(buffer, offset, length);
+			} finally {
+				nanos += System.nanoTime() - startTime;
+			}
+		}
+
+		/** 前回の取得以降の読み込み時間を取得します。 */
+		long takeNanos() {
+			long result = nanos;
+			nanos = 0;
+			return result;
+		}
+	}
+
+	/**
+	 * スレッド間で受け渡すSQL文です。
+	 */
+	private static class Statement {
+
+		/** 解析スレッドの終了を表す要素 */
+		static final Statement POISON = new Statement(-1, null);
+
+		/** 入力上の順序。入力終端を表す要素の場合はSQL文の総数 */
+		final int sequence;
+		/** 解析前のSQL文 */
+		String sql;
+		/** 解析結果 */
+		SqlCommand command;
+		/** 発生した例外 */
+		Throwable error;
+
+		Statement(int sequence, String sql) {
+			this.sequence = sequence;
+			this.sql = sql;
+		}
+
+		/** 入力終端を表す要素を作成します。 */
+		static Statement end(int statementCount) {
+			return new Statement(statementCount, null);
+		}
+
+		/** 処理の失敗を表す要素を作成します。 */
+		static Statement failure(Throwable error) {
+			Statement statement = new Statement(-1, null);
+			statement.error = error;
+			return statement;
+		}
+	}
+}
@@ -0,0 +1,566 @@
+package net.equj65.indexgenerator.generator;
+
+import static net.equj65.indexgenerator.constants.SqlConstants.*;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.equj65.indexgenerator.builder.AbstractCreateIndexBuilder;
+import net.equj65.indexgenerator.builder.CreateIndexBuilderFactory;
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.CreateTableSqlCommand;
+import net.equj65.indexgenerator.domain.EntireSQL;
+import net.equj65.indexgenerator.domain.SqlCommand;
+import net.equj65.indexgenerator.domain.UniqueKey;
+import net.equj65.indexgenerator.parser.SQLLexer;
+import net.equj65.indexgenerator.parser.SQLParser;
+
+/**
+ * 入力ファイルの変更を監視し、変更の都度UniqueIndexを再作成するGeneratorです。<br />
+ * 前回の入力内容とSQL文毎の処理結果を保持し、以下の手順で変更箇所のみを処理します。
+ * <pre>
+ * 1．前回の入力内容と先頭、末尾から比較し、一致しない範囲を特定する
+ * 2．一致しない範囲のみSQL文に分割し直し、再解析する
+ *    （前回の処理結果とSQL本文が一致するSQL文は再解析しない）
+ * 3．出力ファイルは変更されたSQL文の範囲のみを書き換え、後続の内容はファイル上で移動する
+ * </pre>
+ * 出力ファイルは当クラスが管理するため、既に存在する場合も上書きします。
+ * 出力ファイルが外部で変更された場合（サイズが前回の出力と異なる場合）は全体を書き直します。<br />
+ * 当クラスはスレッドセーフではありません。{@link #close()}を除き、1つのスレッドから利用してください。
+ * <pre>
+ * [例]
+ *   try (UniqueIndexWatcher watcher = new UniqueIndexWatcher(input, output, "UTF-8", DBMS.POSTGRESQL, conditionMap)) {
+ *     watcher.watch();
+ *   }
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class UniqueIndexWatcher implements Closeable {
+
+	/** 変更検知後、後続の変更通知をまとめるための待ち時間（ミリ秒） */
+	private static final long SETTLE_MILLIS = 100L;
+
+	/** 出力ファイル上で内容を移動する際のバッファサイズ */
+	private static final int MOVE_BUFFER_SIZE = 256 * 1024;
+
+	/** SQL区切り文字 */
+	private static final char DELIMITER = SQL_DELIMITER.charAt(0);
+
+	/** 読み込み対象のSQLファイル */
+	private final File inputSqlFile;
+	/** 出力先のSQLファイル */
+	private final File outputSqlFile;
+	/** SQLファイルの文字コード */
+	private final Charset charset;
+	/** CreateIndex文のBuilder。条件は全CreateIndex文で共通のため、使い回してWhere句の作成を1度に留める。 */
+	private final AbstractCreateIndexBuilder indexBuilder;
+	/** SQL文の解析 */
+	private final SQLParser parser = new SQLParser();
+	/** ファイルの監視 */
+	private final WatchService watchService;
+
+	/** 前回の入力内容 */
+	private String previousSql = "";
+	/** 前回の入力におけるSQL文毎の終了位置（この位置を含まない） */
+	private int[] statementEnds = new int[0];
+	/** 前回の入力におけるSQL文毎の処理結果 */
+	private List<Statement> statementList = new ArrayList<>();
+	/** 前回出力したSQL文 */
+	private List<SqlCommand> outputCommandList = new ArrayList<>();
+	/** 前回出力したSQL文毎の出力ファイル上の終了位置（バイト） */
+	private long[] outputByteEnds = new long[0];
+	/** 前回の処理結果。{@link #getEntireSQL()}の初回呼び出し時に作成する。 */
+	private EntireSQL entireSql;
+
+	/**
+	 * 監視対象のファイルと出力条件を指定してインスタンスを作成します。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param fileEncoding SQLファイルの文字コード
+	 * @param targetDBMS 対象DBMS
+	 * @param conditionMap UniqueIndexの条件
+	 * @throws IOException ファイルの監視を開始できない場合
+	 */
+	public UniqueIndexWatcher(File inputSqlFile,
+			File outputSqlFile,
+			String fileEncoding,
+			DBMS targetDBMS,
+			Map<String, Object> conditionMap) throws IOException {
+		if (inputSqlFile == null || !inputSqlFile.isFile()) {
+			throw new IllegalArgumentException("読み込み対象SQLファイルが存在しないかファイルではありません");
+		}
+		if (outputSqlFile == null) {
+			throw new IllegalArgumentException("出力用のSQLファイルが指定されていません");
+		}
+		this.inputSqlFile = inputSqlFile.getAbsoluteFile();
+		this.outputSqlFile = outputSqlFile.getAbsoluteFile();
+		this.charset = Charset.forName(fileEncoding);
+		this.indexBuilder = CreateIndexBuilderFactory.createBuilder(targetDBMS);
+		if (conditionMap != null) {
+			for (Map.Entry<String, Object> condition : conditionMap.entrySet()) {
+				indexBuilder.addIndexCondition(condition.getKey(), condition.getValue());
+			}
+		}
+		this.watchService = FileSystems.getDefault().newWatchService();
+		// エディタによっては一時ファイルのリネームで保存するため、作成も監視する。
+		this.inputSqlFile.getParentFile().toPath().register(watchService,
+				StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+	}
+
+	/**
+	 * 入力ファイルを監視し、変更の都度UniqueIndexを再作成します。<br />
+	 * 当メソッドは{@link #close()}が呼び出されるか、スレッドが割り込まれるまで復帰しません。
+	 * 監視開始時に1度UniqueIndexを作成します。
+	 * 再作成に失敗した場合は{@link #onError(Exception)}を呼び出し、監視を継続します。
+	 * @throws InterruptedException スレッドが割り込まれた場合
+	 */
+	public void watch() throws InterruptedException {
+		regenerateQuietly();
+		Path fileName = inputSqlFile.toPath().getFileName();
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				boolean changed = pollChanged(key, fileName);
+				// 保存処理による連続した変更通知を1度の再作成にまとめる。
+				while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					changed |= pollChanged(key, fileName);
+				}
+				if (changed) {
+					regenerateQuietly();
+				}
+			}
+		} catch (ClosedWatchServiceException e) {
+			// close()による監視の終了
+		}
+	}
+
+	/**
+	 * 入力ファイルを読み込み、UniqueIndexを再作成します。<br />
+	 * 前回の入力内容から変更された範囲のSQL文のみを再解析し、出力ファイルは変更された範囲のみを書き換えます。
+	 * @return 再解析したSQL文の数
+	 * @throws IOException ファイルの読み書きに失敗した場合
+	 */
+	public int regenerate() throws IOException {
+		long startTime = System.currentTimeMillis();
+		// 入力全体を前回の入力内容と比較するため、ファイルは一括で読み込みデコードする。
+		String sql = new String(Files.readAllBytes(inputSqlFile.toPath()), charset);
+
+		// 前回の入力内容と先頭、末尾から一致する範囲を求める。
+		int prefixLength = commonPrefixLength(sql, previousSql);
+		int suffixLength = commonSuffixLength(sql, previousSql, Math.min(sql.length(), previousSql.length()) - prefixLength);
+
+		// 一致する範囲内で終了するSQL文は再利用し、その直後から分割し直す。
+		// 入力終端で終了するSQL文は区切り文字で終了していない可能性があるため再利用しない。
+		int reusedCount = 0;
+		while (reusedCount < statementEnds.length
+				&& statementEnds[reusedCount] <= prefixLength && statementEnds[reusedCount] < previousSql.length()) {
+			reusedCount++;
+		}
+		int fromIndex = reusedCount == 0 ? 0 : statementEnds[reusedCount - 1];
+		int delta = sql.length() - previousSql.length();
+		int suffixStart = sql.length() - suffixLength;
+
+		List<Statement> newStatementList = new ArrayList<>(statementList.size() + 16);
+		newStatementList.addAll(statementList.subList(0, reusedCount));
+		int[] newEnds = Arrays.copyOf(statementEnds, Math.max(16, statementEnds.length));
+		int statementCount = reusedCount;
+		Map<String, Statement> replacedMap = null;
+		int parsedCount = 0;
+
+		SQLLexer lexer = new SQLLexer();
+		int statementStart = fromIndex;
+		int resumeIndex = -1;
+		for (int i = fromIndex; i < sql.length() || statementStart < sql.length(); i++) {
+			int statementEnd;
+			if (i == sql.length()) {
+				statementEnd = sql.length();
+			} else {
+				char c = sql.charAt(i);
+				boolean isDelimiter = c == DELIMITER && lexer.isEffective();
+				lexer.next(c);
+				if (!isDelimiter) {
+					continue;
+				}
+				statementEnd = i + 1;
+			}
+
+			if (replacedMap == null) {
+				replacedMap = createReplacedMap(reusedCount, previousSql.length() - suffixLength);
+			}
+			String statementSql = sql.substring(statementStart, statementEnd);
+			Statement statement = replacedMap.get(statementSql);
+			if (statement == null) {
+				statement = parse(statementSql);
+				replacedMap.put(statementSql, statement);
+				parsedCount++;
+			}
+			newStatementList.add(statement);
+			if (statementCount == newEnds.length) {
+				newEnds = Arrays.copyOf(newEnds, statementCount * 2);
+			}
+			newEnds[statementCount++] = statementEnd;
+			statementStart = statementEnd;
+
+			// 区切り位置が末尾の一致範囲内にあり、前回の区切り位置と一致する場合、以降のSQL文は前回と同一である。
+			if (suffixStart <= statementEnd && statementEnd < sql.length()) {
+				int previousIndex = Arrays.binarySearch(statementEnds, statementEnd - delta);
+				if (previousIndex >= 0) {
+					resumeIndex = previousIndex + 1;
+					break;
+				}
+			}
+			if (statementEnd == sql.length()) {
+				break;
+			}
+		}
+		if (resumeIndex >= 0) {
+			int remaining = statementEnds.length - resumeIndex;
+			newStatementList.addAll(statementList.subList(resumeIndex, statementList.size()));
+			if (newEnds.length < statementCount + remaining) {
+				newEnds = Arrays.copyOf(newEnds, statementCount + remaining);
+			}
+			for (int i = 0; i < remaining; i++) {
+				newEnds[statementCount++] = statementEnds[resumeIndex + i] + delta;
+			}
+		}
+
+		List<SqlCommand> newOutputList = toOutputList(newStatementList);
+		writeDifference(newStatementList.size(), newOutputList);
+		previousSql = sql;
+		statementEnds = Arrays.copyOf(newEnds, statementCount);
+		statementList = newStatementList;
+		entireSql = null;
+		onRegenerated(parsedCount, System.currentTimeMillis() - startTime);
+		return parsedCount;
+	}
+
+	/**
+	 * 前回の処理結果を取得します。
+	 * @return 前回の処理結果。未処理の場合はnull
+	 */
+	public EntireSQL getEntireSQL() {
+		if (entireSql == null && !outputCommandList.isEmpty()) {
+			entireSql = new EntireSQL();
+			for (SqlCommand command : toOutputList(statementList)) {
+				entireSql.addSqlCommand(command);
+			}
+		}
+		return entireSql;
+	}
+
+	/**
+	 * ファイルの監視を終了します。
+	 */
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+
+	/**
+	 * UniqueIndexの再作成後に呼び出されます。<br />
+	 * デフォルトの実装は何もしません。再作成の結果を通知する場合はサブクラスでオーバーライドしてください。
+	 * @param parsedCount 再解析したSQL文の数
+	 * @param elapsedMillis 処理時間（ミリ秒）
+	 */
+	protected void onRegenerated(int parsedCount, long elapsedMillis) {
+	}
+
+	/**
+	 * UniqueIndexの再作成に失敗した場合に呼び出されます。<br />
+	 * デフォルトの実装は何もしません。失敗を通知する場合はサブクラスでオーバーライドしてください。
+	 * @param e 発生した例外
+	 */
+	protected void onError(Exception e) {
+	}
+
+	/**
+	 * UniqueIndexを再作成し、発生した例外を{@link #onError(Exception)}に通知します。
+	 */
+	private void regenerateQuietly() {
+		try {
+			regenerate();
+		} catch (IOException | RuntimeException e) {
+			onError(e);
+		}
+	}
+
+	/**
+	 * 変更通知を取り出し、入力ファイルの変更が含まれるか判定します。
+	 */
+	private static boolean pollChanged(WatchKey key, Path fileName) {
+		boolean changed = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+				changed = true;
+			}
+		}
+		key.reset();
+		return changed;
+	}
+
+	/**
+	 * 前回の入力で変更範囲に掛かるSQL文を、SQL本文をキーとして保持する対応表を作成します。<br />
+	 * 分割し直したSQL文のうち、SQL本文が前回と一致するSQL文は再解析しません。
+	 * @param fromIndex 対象とする前回のSQL文の開始インデックス
+	 * @param changedEnd 前回の入力における変更範囲の終了位置
+	 */
+	private Map<String, Statement> createReplacedMap(int fromIndex, int changedEnd) {
+		Map<String, Statement> replacedMap = new HashMap<>();
+		for (int i = fromIndex; i < statementList.size(); i++) {
+			int start = i == 0 ? 0 : statementEnds[i - 1];
+			if (changedEnd < start) {
+				break;
+			}
+			replacedMap.put(previousSql.substring(start, statementEnds[i]), statementList.get(i));
+		}
+		return replacedMap;
+	}
+
+	/**
+	 * SQL文を解析してUnique制約を除去し、対応するCreateIndex文を作成します。
+	 */
+	private Statement parse(String statementSql) {
+		SqlCommand command = parser.parseStatement(statementSql);
+		List<SqlCommand> indexCommandList = Collections.emptyList();
+		if (command instanceof CreateTableSqlCommand) {
+			CreateTableSqlCommand createTableSql = (CreateTableSqlCommand) command;
+			createTableSql.removeUniqueConstraints();
+			indexCommandList = new ArrayList<>();
+			for (UniqueKey uniqueKey : createTableSql.getUniqueKeyList()) {
+				indexBuilder.setTableName(createTableSql.getCreateTableName());
+				indexBuilder.setIndexKey(uniqueKey);
+				indexCommandList.add(indexBuilder.build());
+			}
+		}
+		return new Statement(command, indexCommandList);
+	}
+
+	/**
+	 * 前回の出力内容と異なる範囲のみを出力ファイルに書き込みます。<br />
+	 * CreateTable文等の範囲とCreateIndex文の範囲は離れているため、CreateIndex文の範囲、CreateTable文等の範囲の順に
+	 * 2段階で書き換えます。
+	 */
+	private void writeDifference(int statementCount, List<SqlCommand> newOutputList) throws IOException {
+		try (FileChannel channel = FileChannel.open(outputSqlFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+			long previousSize = outputByteEnds.length == 0 ? 0L : outputByteEnds[outputByteEnds.length - 1];
+			if (channel.size() != previousSize) {
+				outputCommandList = new ArrayList<>();
+				outputByteEnds = new long[0];
+			}
+			int previousStatementCount = outputCommandList.size() - countIndexCommands(statementList);
+			if (!outputCommandList.isEmpty() && 0 <= previousStatementCount) {
+				List<SqlCommand> intermediateList = new ArrayList<>(outputCommandList.subList(0, previousStatementCount));
+				intermediateList.addAll(newOutputList.subList(statementCount, newOutputList.size()));
+				patch(channel, intermediateList);
+			}
+			patch(channel, newOutputList);
+		} catch (IOException | RuntimeException e) {
+			// 書き換え途中で失敗した場合、次回は出力ファイル全体を書き直す。
+			outputCommandList = new ArrayList<>();
+			outputByteEnds = new long[0];
+			throw e;
+		}
+	}
+
+	/**
+	 * 前回の出力内容と先頭、末尾から一致しない範囲のSQL文を書き換えます。<br />
+	 * 書き換えによりサイズが変わる場合、後続の内容をファイル上で移動します。
+	 */
+	private void patch(FileChannel channel, List<SqlCommand> newOutputList) throws IOException {
+		int previousCount = outputCommandList.size();
+		int newCount = newOutputList.size();
+		int maxCount = Math.min(previousCount, newCount);
+		int prefixCount = 0;
+		while (prefixCount < maxCount && isSameText(outputCommandList.get(prefixCount), newOutputList.get(prefixCount))) {
+			prefixCount++;
+		}
+		int suffixCount = 0;
+		while (suffixCount < maxCount - prefixCount
+				&& isSameText(outputCommandList.get(previousCount - 1 - suffixCount), newOutputList.get(newCount - 1 - suffixCount))) {
+			suffixCount++;
+		}
+		if (prefixCount + suffixCount == previousCount && previousCount == newCount) {
+			return;
+		}
+
+		long previousSize = previousCount == 0 ? 0L : outputByteEnds[previousCount - 1];
+		long middleStart = prefixCount == 0 ? 0L : outputByteEnds[prefixCount - 1];
+		long previousSuffixStart = previousCount - suffixCount == 0 ? 0L : outputByteEnds[previousCount - suffixCount - 1];
+
+		long[] newByteEnds = new long[newCount];
+		System.arraycopy(outputByteEnds, 0, newByteEnds, 0, prefixCount);
+		List<byte[]> middleList = new ArrayList<>(newCount - suffixCount - prefixCount);
+		long position = middleStart;
+		for (int i = prefixCount; i < newCount - suffixCount; i++) {
+			byte[] bytes = newOutputList.get(i).getSqlCommand().getBytes(charset);
+			middleList.add(bytes);
+			position += bytes.length;
+			newByteEnds[i] = position;
+		}
+		long delta = position - previousSuffixStart;
+		for (int i = 0; i < suffixCount; i++) {
+			newByteEnds[newCount - suffixCount + i] = outputByteEnds[previousCount - suffixCount + i] + delta;
+		}
+
+		move(channel, previousSuffixStart, previousSize, delta);
+		position = middleStart;
+		for (byte[] bytes : middleList) {
+			position += writeFully(channel, ByteBuffer.wrap(bytes), position);
+		}
+		channel.truncate(previousSize + delta);
+
+		outputCommandList = newOutputList;
+		outputByteEnds = newByteEnds;
+	}
+
+	/**
+	 * 出力ファイル上の指定範囲の内容を移動します。
+	 */
+	private static void move(FileChannel channel, long fromIndex, long toIndex, long delta) throws IOException {
+		if (delta == 0 || fromIndex == toIndex) {
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(MOVE_BUFFER_SIZE, toIndex - fromIndex));
+		if (delta > 0) {
+			// 後方に移動する場合、移動元を上書きしないよう末尾から移動する。
+			long end = toIndex;
+			while (fromIndex < end) {
+				long start = Math.max(fromIndex, end - buffer.capacity());
+				copy(channel, buffer, start, (int) (end - start), start + delta);
+				end = start;
+			}
+		} else {
+			long start = fromIndex;
+			while (start < toIndex) {
+				int length = (int) Math.min(buffer.capacity(), toIndex - start);
+				copy(channel, buffer, start, length, start + delta);
+				start += length;
+			}
+		}
+	}
+
+	/**
+	 * 出力ファイル上の指定位置の内容を別の位置に複製します。
+	 */
+	private static void copy(FileChannel channel, ByteBuffer buffer, long from, int length, long to) throws IOException {
+		buffer.clear();
+		buffer.limit(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, from + buffer.position()) < 0) {
+				throw new IOException("出力ファイルが外部で変更されました。 : " + from);
+			}
+		}
+		buffer.flip();
+		writeFully(channel, buffer, to);
+	}
+
+	/**
+	 * バッファの残りの内容を全て指定位置に書き込みます。
+	 * @return 書き込んだバイト数
+	 */
+	private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		int length = buffer.remaining();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + length - buffer.remaining());
+		}
+		return length;
+	}
+
+	/**
+	 * 2つの文字列の先頭から一致する文字数を返却します。
+	 */
+	private static int commonPrefixLength(String sql, String previousSql) {
+		int maxLength = Math.min(sql.length(), previousSql.length());
+		int length = 0;
+		while (length < maxLength && sql.charAt(length) == previousSql.charAt(length)) {
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * 2つの文字列の末尾から一致する文字数を、上限の文字数まで返却します。
+	 */
+	private static int commonSuffixLength(String sql, String previousSql, int maxLength) {
+		int length = 0;
+		while (length < maxLength
+				&& sql.charAt(sql.length() - 1 - length) == previousSql.charAt(previousSql.length() - 1 - length)) {
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * 2つのSQL文の本文が一致するか判定します。<br />
+	 * 再解析していないSQL文は同一インスタンスのため、本文の比較は行いません。
+	 */
+	private static boolean isSameText(SqlCommand previous, SqlCommand current) {
+		if (previous == current) {
+			return true;
+		}
+		return previous.length() == current.length() && previous.getSqlCommand().equals(current.getSqlCommand());
+	}
+
+	/**
+	 * SQL文毎の処理結果を出力順（SQL文、CreateIndex文の順）に並べます。
+	 */
+	private static List<SqlCommand> toOutputList(List<Statement> statementList) {
+		List<SqlCommand> outputList = new ArrayList<>(statementList.size() + countIndexCommands(statementList));
+		for (Statement statement : statementList) {
+			outputList.add(statement.command);
+		}
+		for (Statement statement : statementList) {
+			outputList.addAll(statement.indexCommandList);
+		}
+		return outputList;
+	}
+
+	/**
+	 * CreateIndex文の総数を返却します。
+	 */
+	private static int countIndexCommands(List<Statement> statementList) {
+		int count = 0;
+		for (Statement statement : statementList) {
+			count += statement.indexCommandList.size();
+		}
+		return count;
+	}
+
+	/**
+	 * SQL文1文分の処理結果です。
+	 */
+	private static class Statement {
+
+		/** Unique制約除去済みのSQL文 */
+		final SqlCommand command;
+		/** SQL文から作成したCreateIndex文 */
+		final List<SqlCommand> indexCommandList;
+
+		Statement(SqlCommand command, List<SqlCommand> indexCommandList) {
+			this.command = command;
+			this.indexCommandList = indexCommandList;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package net.equj65.indexgenerator.io;
+
+import java.io.BufferedWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Channelへの書き込みを行うWriterを作成するユーティリティクラスです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class ChannelWriters {
+
+	private ChannelWriters() {
+	}
+
+	/**
+	 * 指定の文字コードでエンコードしてChannelに書き込むWriterを作成します。<br />
+	 * エンコードは1つの{@link CharsetEncoder}を使い回し、バッファサイズ単位で書き込みます。
+	 * 出力先の文字コードで表現できない文字は{@link java.io.OutputStreamWriter}と同様に置換文字に置き換えます。<br />
+	 * 作成したWriterをクローズした場合、Channelもクローズされます。
+	 * @param channel 出力先
+	 * @param charset 出力先の文字コード
+	 * @param bufferSize バッファサイズ（文字数、バイト数）
+	 * @return 作成したWriter
+	 */
+	public static Writer newWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+		CharsetEncoder encoder = charset.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		return new BufferedWriter(Channels.newWriter(channel, encoder, bufferSize), bufferSize);
+	}
+}
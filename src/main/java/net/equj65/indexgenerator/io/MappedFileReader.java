@@ -0,0 +1,193 @@
+package net.equj65.indexgenerator.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ファイルをメモリマップし、一括でデコードしながら読み込むReaderです。<br />
+ * ファイルは{@link #MAPPING_SIZE}単位の領域に分割してマップされるため、2GBを超えるファイルも読み込み可能です。<br />
+ * デコードは1つの{@link CharsetDecoder}を使い回して行い、マップ領域の境界に跨る
+ * マルチバイト文字やサロゲートペアも正しく復元します。<br />
+ * 不正なバイト列およびマッピング不可能な文字は{@link java.io.InputStreamReader}と同様に置換文字に置き換えます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class MappedFileReader extends Reader {
+
+	/** 一度にマップするファイル領域のサイズ */
+	private static final long MAPPING_SIZE = 64L * 1024 * 1024;
+
+	/** デコード結果を保持するバッファのサイズ */
+	private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+
+	/** 読み込み対象ファイルのChannel */
+	private final FileChannel channel;
+
+	/** 読み込み対象ファイルのサイズ */
+	private final long fileSize;
+
+	/** デコーダ */
+	private final CharsetDecoder decoder;
+
+	/** デコード済み文字のバッファ（読み込みモード） */
+	private final CharBuffer charBuffer = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+
+	/** 現在マップしている領域 */
+	private MappedByteBuffer window;
+
+	/** 現在マップしている領域の開始位置 */
+	private long windowStart;
+
+	/** 現在マップしている領域の終了位置 */
+	private long windowEnd;
+
+	/** デコード済みの文字数 */
+	private long decodedChars;
+
+	/** ファイル終端までのデコードが完了したことを表すフラグ */
+	private boolean decodeCompleted = false;
+
+	/** デコーダのフラッシュが完了したことを表すフラグ */
+	private boolean flushed = false;
+
+	/** クローズ済みであることを表すフラグ */
+	private boolean closed = false;
+
+	/**
+	 * 読み込み対象のファイルと文字コードを指定してインスタンスを作成します。
+	 * @param file 読み込み対象のファイル
+	 * @param charset ファイルの文字コード
+	 * @throws IOException ファイルのオープンに失敗した場合
+	 */
+	public MappedFileReader(File file, Charset charset) throws IOException {
+		if (file == null) {
+			throw new NullPointerException("file is null");
+		}
+		if (charset == null) {
+			throw new NullPointerException("charset is null");
+		}
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.fileSize = channel.size();
+		this.decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		charBuffer.flip();
+	}
+
+	/**
+	 * ファイル全体をデコードした場合の文字数を見積もります。<br />
+	 * デコード済みの範囲のバイト数と文字数の比から見積もるため、読み込みが進むほど正確になります。
+	 * ファイル終端までデコード済みの場合は実際の文字数を返却します。
+	 * デコード前の場合は文字コードの1バイト当たりの最大文字数から見積もった上限値を返却します。
+	 * @return ファイル全体の文字数の見積もり
+	 */
+	public long estimateCharCount() {
+		if (decodeCompleted) {
+			return decodedChars;
+		}
+		long decodedBytes = window == null ? 0 : windowStart + window.position();
+		if (decodedBytes == 0) {
+			return (long) Math.ceil(fileSize * (double) decoder.maxCharsPerByte());
+		}
+		return (long) Math.ceil((double) decodedChars * fileSize / decodedBytes);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Reader is closed");
+		}
+		if (off < 0 || len < 0 || cbuf.length - len < off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (!charBuffer.hasRemaining() && !fill()) {
+			return -1;
+		}
+		int count = Math.min(len, charBuffer.remaining());
+		charBuffer.get(cbuf, off, count);
+		return count;
+	}
+
+	/**
+	 * マップ領域をデコードし、デコード済み文字のバッファを補充します。
+	 * @return 1文字以上補充できた場合true。ファイル終端に達した場合false
+	 * @throws IOException ファイルのマップに失敗した場合
+	 */
+	private boolean fill() throws IOException {
+		charBuffer.clear();
+		while (charBuffer.position() == 0 && !flushed) {
+			if (decodeCompleted) {
+				// デコーダ内部に残った文字を出力する。
+				if (decoder.flush(charBuffer).isUnderflow()) {
+					flushed = true;
+				}
+				continue;
+			}
+			if (window == null) {
+				map(0);
+			}
+			boolean endOfInput = windowEnd == fileSize;
+			CoderResult result = decoder.decode(window, charBuffer, endOfInput);
+			if (result.isError()) {
+				result.throwException();
+			}
+			if (result.isUnderflow()) {
+				if (endOfInput) {
+					decodeCompleted = true;
+				} else {
+					// 領域末尾で途切れたマルチバイト文字は、次の領域の先頭として再度マップする。
+					map(windowStart + window.position());
+				}
+			}
+		}
+		decodedChars += charBuffer.position();
+		charBuffer.flip();
+		return charBuffer.hasRemaining();
+	}
+
+	/**
+	 * 指定位置からファイルをマップします。
+	 * @param start マップを開始するファイル上の位置
+	 * @throws IOException ファイルのマップに失敗した場合
+	 */
+	private void map(long start) throws IOException {
+		long size = Math.min(MAPPING_SIZE, fileSize - start);
+		window = channel.map(MapMode.READ_ONLY, start, size);
+		windowStart = start;
+		windowEnd = start + size;
+	}
+
+	/**
+	 * 読み込み対象ファイルのバイト数を返却します。
+	 * @return ファイルのバイト数
+	 */
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		window = null;
+		channel.close();
+	}
+}
@@ -1,18 +1,235 @@
 package net.equj65.indexgenerator.main;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
+import net.equj65.indexgenerator.cache.ParseCache;
+import net.equj65.indexgenerator.daemon.GeneratorClient;
+import net.equj65.indexgenerator.daemon.GeneratorDaemon;
+import net.equj65.indexgenerator.generator.BatchResult;
+import net.equj65.indexgenerator.generator.BatchUniqueIndexGenerator;
+import net.equj65.indexgenerator.generator.GenerateResult;
+import net.equj65.indexgenerator.generator.UniqueIndexDiffGenerator;
 import net.equj65.indexgenerator.generator.UniqueIndexGenerator;
+import net.equj65.indexgenerator.generator.UniqueIndexWatcher;
+import net.equj65.indexgenerator.metrics.GenerateMetrics;
+import net.equj65.indexgenerator.metrics.GenerateMetricsListener;
 
-// TODO 削除
+/**
+ * コマンドラインから{@link UniqueIndexGenerator}を実行します。<br />
+ * 入力にディレクトリを指定した場合、配下のSQLファイルを{@link BatchUniqueIndexGenerator}で一括処理します。
+ * <pre>
+ * [使い方]
+ *   Main &lt;入力ファイル|入力ディレクトリ&gt; &lt;出力ファイル|出力ディレクトリ&gt; [オプション]
+ *     --encoding=&lt;文字コード&gt;  SQLファイルの文字コード（デフォルト：UTF-8）
+ *     --glob=&lt;パターン&gt;        一括処理の対象ファイル（デフォルト：**.sql）
+ *     --threads=&lt;スレッド数&gt;   一括処理のスレッド数（デフォルト：プロセッサ数）
+ *     --watch                 入力ファイルの変更を監視し、変更の都度出力ファイルを更新する
+ *     --connect=&lt;ポート&gt;      起動済みの{@link GeneratorDaemon}に処理を依頼する（小さなファイルでは遅くなる。{@link GeneratorDaemon}を参照）
+ *     --stats                 ファイル毎の工程別処理時間と処理件数を標準エラー出力に出力する
+ *     --cache-dir=&lt;ディレクトリ&gt; 出力結果をディレクトリにキャッシュし、以後の実行で内容が同一のファイルに再利用する
+ *     --cache-size=&lt;MB&gt;       キャッシュのサイズ上限（デフォルト：256MB）
+ *     --diff=&lt;変更前ファイル&gt;  入力ファイルを変更後として比較し、変更されたUniqueIndexのDropIndex文、CreateUniqueIndex文のみを出力する
+ *   Main --daemon [ポート]      {@link GeneratorDaemon}を起動する
+ * </pre>
+ * --diff、--watch、--connectは同時に指定できず、入力にはファイルを指定します。
+ * --stats、--cache-dir、--cache-sizeは--diff、--watch、--connectと同時に指定できません。
+ * オプションの指定が不正な場合は終了コード2で終了します。<br />
+ * 処理に失敗した場合、および一括処理で1ファイルでも失敗した場合、終了コード1で終了します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
 public class Main {
-	
+
+	private static final String OPTION_ENCODING = "--encoding=";
+	private static final String OPTION_GLOB = "--glob=";
+	private static final String OPTION_THREADS = "--threads=";
+	private static final String OPTION_WATCH = "--watch";
+	private static final String OPTION_CONNECT = "--connect=";
+	private static final String OPTION_DAEMON = "--daemon";
+	private static final String OPTION_STATS = "--stats";
+	private static final String OPTION_CACHE_DIR = "--cache-dir=";
+	private static final String OPTION_CACHE_SIZE = "--cache-size=";
+	private static final String OPTION_DIFF = "--diff=";
+
+	private static final String DEFAULT_ENCODING = "UTF-8";
+
+	private static final String USAGE = "Usage: Main <input file|dir> <output file|dir> "
+			+ "[--encoding=UTF-8] [--glob=**.sql] [--threads=N] [--watch] [--connect=PORT] [--stats]"
+			+ " [--cache-dir=DIR] [--cache-size=MB] [--diff=OLD_FILE]";
+
 	public static void main(String[] args) throws Exception {
-		UniqueIndexGenerator generator = new UniqueIndexGenerator();
-		File inputFile = new File("/Users/pray-for-freedom/Documents/eclipse-workspaces/ermaster/er-master-test/tables.sql");
-		File outputFile = new File("/Users/pray-for-freedom/Documents/eclipse-workspaces/ermaster/er-master-test/tables_output.sql");
-		outputFile.delete();
-		generator.generate(inputFile, outputFile, "Shift-JIS");
+		if (args.length >= 1 && args[0].equals(OPTION_DAEMON)) {
+			GeneratorDaemon.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if (args.length < 2) {
+			exitWithUsage(null);
+		}
+		File input = new File(args[0]);
+		File output = new File(args[1]);
+		String encoding = DEFAULT_ENCODING;
+		String glob = BatchUniqueIndexGenerator.DEFAULT_GLOB;
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		boolean watch = false;
+		int daemonPort = -1;
+		boolean stats = false;
+		File cacheDirectory = null;
+		File diffBase = null;
+		long cacheBytes = ParseCache.DEFAULT_MAX_BYTES;
+		boolean cacheSizeSpecified = false;
+		for (int i = 2; i < args.length; i++) {
+			if (args[i].startsWith(OPTION_ENCODING)) {
+				encoding = args[i].substring(OPTION_ENCODING.length());
+			} else if (args[i].startsWith(OPTION_GLOB)) {
+				glob = args[i].substring(OPTION_GLOB.length());
+			} else if (args[i].startsWith(OPTION_THREADS)) {
+				threadCount = (int) parseNumberOption(args[i], OPTION_THREADS, Integer.MAX_VALUE);
+			} else if (args[i].equals(OPTION_WATCH)) {
+				watch = true;
+			} else if (args[i].startsWith(OPTION_CONNECT)) {
+				daemonPort = (int) parseNumberOption(args[i], OPTION_CONNECT, 65535);
+			} else if (args[i].startsWith(OPTION_CACHE_DIR)) {
+				cacheDirectory = new File(args[i].substring(OPTION_CACHE_DIR.length()));
+			} else if (args[i].startsWith(OPTION_CACHE_SIZE)) {
+				cacheBytes = parseNumberOption(args[i], OPTION_CACHE_SIZE, Long.MAX_VALUE / (1024 * 1024)) * 1024 * 1024;
+				cacheSizeSpecified = true;
+			} else if (args[i].startsWith(OPTION_DIFF)) {
+				diffBase = new File(args[i].substring(OPTION_DIFF.length()));
+			} else if (args[i].equals(OPTION_STATS)) {
+				stats = true;
+			} else {
+				exitWithUsage("不明なオプションです。 : " + args[i]);
+			}
+		}
+
+		// --diff、--watch、--connectはいずれか1つのみ指定でき、通常の作成処理の設定は利用しない。
+		int modeCount = (diffBase != null ? 1 : 0) + (watch ? 1 : 0) + (daemonPort >= 0 ? 1 : 0);
+		if (modeCount > 1) {
+			exitWithUsage(OPTION_DIFF + "、" + OPTION_WATCH + "、" + OPTION_CONNECT + "は同時に指定できません。");
+		}
+		if (modeCount > 0) {
+			if (stats) {
+				exitWithUsage(OPTION_STATS + "は" + OPTION_DIFF + "、" + OPTION_WATCH + "、" + OPTION_CONNECT + "と同時に指定できません。");
+			}
+			if (cacheDirectory != null || cacheSizeSpecified) {
+				exitWithUsage(OPTION_CACHE_DIR + "、" + OPTION_CACHE_SIZE + "は"
+						+ OPTION_DIFF + "、" + OPTION_WATCH + "、" + OPTION_CONNECT + "と同時に指定できません。");
+			}
+			if (input.isDirectory()) {
+				exitWithUsage(OPTION_DIFF + "、" + OPTION_WATCH + "、" + OPTION_CONNECT + "の入力にはファイルを指定してください。");
+			}
+		}
+
+		if (stats) {
+			UniqueIndexGenerator.setMetricsListener(new GenerateMetricsListener() {
+				@Override
+				public void onGenerated(File inputSqlFile, File outputSqlFile, GenerateMetrics metrics) {
+					synchronized (System.err) {
+						System.err.println(inputSqlFile + " -> " + outputSqlFile);
+						System.err.println(metrics);
+					}
+				}
+			});
+		}
+
+		ParseCache cache = null;
+		if (cacheDirectory != null) {
+			cache = new ParseCache(cacheDirectory, cacheBytes);
+			UniqueIndexGenerator.setParseCache(cache);
+		}
+
+		Map<String, Object> conditionMap = new HashMap<>();
+		conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+		if (diffBase != null) {
+			UniqueIndexDiffGenerator.generate(diffBase, input, output, encoding, UniqueIndexGenerator.DEFAULT_DBMS, conditionMap);
+			return;
+		}
+		if (watch) {
+			final File outputFile = output;
+			try (UniqueIndexWatcher watcher = new UniqueIndexWatcher(
+					input, output, encoding, UniqueIndexGenerator.DEFAULT_DBMS, conditionMap) {
+				@Override
+				protected void onRegenerated(int parsedCount, long elapsedMillis) {
+					System.out.println("regenerated " + outputFile + " (" + parsedCount + " statements parsed, " + elapsedMillis + "ms)");
+				}
+
+				@Override
+				protected void onError(Exception e) {
+					System.err.println("failed to regenerate " + outputFile + " : " + e);
+				}
+			}) {
+				watcher.watch();
+			}
+			return;
+		}
+		if (daemonPort >= 0) {
+			try (GeneratorClient client = new GeneratorClient(daemonPort)) {
+				client.generate(input, output, encoding, conditionMap);
+			}
+			return;
+		}
+		if (!input.isDirectory()) {
+			try {
+				UniqueIndexGenerator.generateFile(input, output, encoding, UniqueIndexGenerator.DEFAULT_DBMS, conditionMap);
+			} catch (Exception e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+			if (stats && cache != null) {
+				System.err.println(cache);
+			}
+			return;
+		}
+
+		BatchResult result = new BatchUniqueIndexGenerator(threadCount).generate(
+				input, output, glob, encoding, UniqueIndexGenerator.DEFAULT_DBMS, conditionMap);
+		if (stats && cache != null) {
+			System.err.println(cache);
+		}
+		for (GenerateResult fileResult : result.getErrorList()) {
+			System.err.println(fileResult);
+		}
+		System.out.println(result.getSuccessCount() + " succeeded, " + result.getErrorCount() + " failed ("
+				+ result.getElapsedMillis() + "ms)");
+		if (!result.isSuccess()) {
+			System.exit(1);
+		}
 	}
 
+	/**
+	 * 数値を指定するオプションの値を取得します。<br />
+	 * 値が数値でない場合、および1以上上限以下でない場合は、エラーメッセージと使い方を出力して終了コード2で終了します。
+	 * @param arg オプション
+	 * @param option オプション名
+	 * @param max 値の上限
+	 * @return オプションの値
+	 */
+	private static long parseNumberOption(String arg, String option, long max) {
+		String value = arg.substring(option.length());
+		long number = -1;
+		try {
+			number = Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			// 範囲外の値と同様に扱う。
+		}
+		if (number < 1 || max < number) {
+			exitWithUsage(option + "には1以上" + max + "以下の数値を指定してください。 : " + value);
+		}
+		return number;
+	}
+
+	/**
+	 * オプションの指定が不正な場合に、エラーメッセージと使い方を出力して終了コード2で終了します。
+	 * @param message エラーメッセージ。nullの場合は使い方のみ出力する
+	 */
+	private static void exitWithUsage(String message) {
+		if (message != null) {
+			System.err.println(message);
+		}
+		System.err.println(USAGE);
+		System.exit(2);
+	}
 }
@@ -0,0 +1,185 @@
+package net.equj65.indexgenerator.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 1ファイル分のUniqueIndex作成の計測結果です。<br />
+ * 工程（{@link GeneratePhase}）毎の処理時間と処理時間の記録回数、処理したバイト数、SQL文数、CreateTable文数、UNIQUE制約数、
+ * 作成したCreateIndex文数、最大のSQL文の長さを保持します。<br />
+ * 各値は複数のスレッドから同時に更新することができます。工程毎の処理時間は工程を実行した全スレッドの処理時間の合計であり、
+ * 工程を並列に実行した場合は全体の処理時間を超えることがあります。<br />
+ * 計測を行わない場合、各処理にはnullを渡します。その場合、時刻の取得を含め計測処理は一切行いません。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class GenerateMetrics {
+
+	private static final GeneratePhase[] PHASES = GeneratePhase.values();
+
+	/** 工程毎の処理時間（ナノ秒） */
+	private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+
+	/** 工程毎の処理時間の記録回数 */
+	private final AtomicLongArray phaseCounts = new AtomicLongArray(PHASES.length);
+
+	/** 全体の処理時間（ナノ秒） */
+	private final AtomicLong elapsedNanos = new AtomicLong();
+
+	/** 入力のバイト数 */
+	private final AtomicLong inputBytes = new AtomicLong();
+
+	/** 出力のバイト数 */
+	private final AtomicLong outputBytes = new AtomicLong();
+
+	/** SQL文数 */
+	private final AtomicLong statementCount = new AtomicLong();
+
+	/** CreateTable文数 */
+	private final AtomicLong createTableCount = new AtomicLong();
+
+	/** UNIQUE制約数 */
+	private final AtomicLong uniqueConstraintCount = new AtomicLong();
+
+	/** 作成したCreateIndex文数 */
+	private final AtomicLong indexCount = new AtomicLong();
+
+	/** 最大のSQL文の長さ（文字数） */
+	private final AtomicLong largestStatementLength = new AtomicLong();
+
+	/**
+	 * 工程の処理時間を加算し、記録回数を1加算します。
+	 * @param phase 工程
+	 * @param nanos 処理時間（ナノ秒）
+	 */
+	public void addPhaseNanos(GeneratePhase phase, long nanos) {
+		phaseNanos.addAndGet(phase.ordinal(), nanos);
+		phaseCounts.incrementAndGet(phase.ordinal());
+	}
+
+	/**
+	 * 工程の開始時刻から現在までの時間を、工程の処理時間に加算します。
+	 * @param phase 工程
+	 * @param startNanos {@link System#nanoTime()}で取得した工程の開始時刻
+	 * @return 現在時刻（{@link System#nanoTime()}）。続く工程の開始時刻として利用できる
+	 */
+	public long endPhase(GeneratePhase phase, long startNanos) {
+		long now = System.nanoTime();
+		addPhaseNanos(phase, now - startNanos);
+		return now;
+	}
+
+	/**
+	 * 工程の処理時間を取得します。
+	 * @param phase 工程
+	 * @return 処理時間（ナノ秒）
+	 */
+	public long getPhaseNanos(GeneratePhase phase) {
+		return phaseNanos.get(phase.ordinal());
+	}
+
+	/**
+	 * 工程の処理時間の記録回数を取得します。<br />
+	 * SQL文毎に記録する工程（{@link GeneratePhase#CLASSIFY}等）ではSQL文数、
+	 * CreateTable文毎に記録する工程（{@link GeneratePhase#ANALYZE_FIELDS}等）ではCreateTable文数となります。
+	 * @param phase 工程
+	 * @return 記録回数
+	 */
+	public long getPhaseCount(GeneratePhase phase) {
+		return phaseCounts.get(phase.ordinal());
+	}
+
+	/**
+	 * SQL文を1文処理したことを記録します。
+	 * @param length SQL文の長さ（文字数）
+	 */
+	public void addStatement(int length) {
+		statementCount.incrementAndGet();
+		long largest;
+		while ((largest = largestStatementLength.get()) < length) {
+			if (largestStatementLength.compareAndSet(largest, length)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * CreateTable文を1文処理したことを記録します。
+	 * @param uniqueConstraintCount CreateTable文が含むUNIQUE制約数
+	 */
+	public void addCreateTable(int uniqueConstraintCount) {
+		createTableCount.incrementAndGet();
+		this.uniqueConstraintCount.addAndGet(uniqueConstraintCount);
+	}
+
+	/**
+	 * CreateIndex文を作成したことを記録します。
+	 * @param count 作成したCreateIndex文数
+	 */
+	public void addIndexes(int count) {
+		indexCount.addAndGet(count);
+	}
+
+	public void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos.set(elapsedNanos);
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos.get();
+	}
+
+	public void setInputBytes(long inputBytes) {
+		this.inputBytes.set(inputBytes);
+	}
+
+	public long getInputBytes() {
+		return inputBytes.get();
+	}
+
+	public void setOutputBytes(long outputBytes) {
+		this.outputBytes.set(outputBytes);
+	}
+
+	public long getOutputBytes() {
+		return outputBytes.get();
+	}
+
+	public long getStatementCount() {
+		return statementCount.get();
+	}
+
+	public long getCreateTableCount() {
+		return createTableCount.get();
+	}
+
+	public long getUniqueConstraintCount() {
+		return uniqueConstraintCount.get();
+	}
+
+	public long getIndexCount() {
+		return indexCount.get();
+	}
+
+	public long getLargestStatementLength() {
+		return largestStatementLength.get();
+	}
+
+	/**
+	 * 計測結果を複数行の文字列で返却します。
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format("elapsed          : %10.1f ms%n", getElapsedNanos() / 1e6));
+		for (GeneratePhase phase : PHASES) {
+			builder.append(String.format("  %-15s: %10.1f ms (%d)%n", phase, getPhaseNanos(phase) / 1e6, getPhaseCount(phase)));
+		}
+		builder.append(String.format("input            : %10d bytes%n", getInputBytes()));
+		builder.append(String.format("output           : %10d bytes%n", getOutputBytes()));
+		builder.append(String.format("statements       : %10d (largest %d chars)%n", getStatementCount(), getLargestStatementLength()));
+		builder.append(String.format("create tables    : %10d%n", getCreateTableCount()));
+		builder.append(String.format("unique           : %10d%n", getUniqueConstraintCount()));
+		builder.append(String.format("indexes          : %10d", getIndexCount()));
+		return builder.toString();
+	}
+}
@@ -0,0 +1,21 @@
+package net.equj65.indexgenerator.metrics;
+
+import java.io.File;
+
+/**
+ * 1ファイル分のUniqueIndex作成の計測結果を受け取るListenerです。<br />
+ * {@link net.equj65.indexgenerator.generator.UniqueIndexGenerator#setMetricsListener(GenerateMetricsListener)}で登録します。
+ * 一括処理時は複数スレッドから同時に呼び出されます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public interface GenerateMetricsListener {
+
+	/**
+	 * 1ファイル分のUniqueIndex作成が正常終了した際に呼び出されます。
+	 * @param inputSqlFile 読み込み対象のSQLファイル
+	 * @param outputSqlFile 出力先のSQLファイル
+	 * @param metrics 計測結果
+	 */
+	void onGenerated(File inputSqlFile, File outputSqlFile, GenerateMetrics metrics);
+}
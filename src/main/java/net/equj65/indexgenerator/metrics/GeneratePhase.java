@@ -0,0 +1,31 @@
+package net.equj65.indexgenerator.metrics;
+
+/**
+ * UniqueIndex作成処理の工程です。<br />
+ * 工程毎の処理時間は{@link GenerateMetrics}に記録します。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public enum GeneratePhase {
+
+	/** 入力の読み込み（デコードを含む） */
+	READ,
+
+	/** SQL文の分割 */
+	SPLIT,
+
+	/** SQL文の種別の判定 */
+	CLASSIFY,
+
+	/** CreateTable文の構造の解析、およびUNIQUE制約の抽出 */
+	ANALYZE_FIELDS,
+
+	/** CreateTable文からのUNIQUE制約の除去 */
+	REMOVE_UNIQUE,
+
+	/** CreateIndex文の作成 */
+	BUILD_INDEX,
+
+	/** 出力 */
+	WRITE
+}
@@ -0,0 +1,163 @@
+package net.equj65.indexgenerator.parser;
+
+import static net.equj65.indexgenerator.constants.SqlConstants.*;
+
+import java.util.Locale;
+
+import net.equj65.indexgenerator.util.StringUtils;
+
+/**
+ * SQL文中のキーワードを大文字小文字を区別せずに検索します。<br />
+ * 複数のキーワードを1度の走査で検索することができ、検索の際に文字列の複製は行いません。<br />
+ * キーワードは以下の条件を満たす場合に一致したと判定します。
+ * <pre>
+ * 1．キーワードの位置がSQL文法上有効であること（コメント内、文字列リテラル内ではないこと）
+ * 2．キーワードの前後の文字が識別子を構成する文字（英数字、アンダースコア）ではないこと
+ * 3．キーワード中の空白は1文字以上の空白文字（スペース、タブ、改行等）と一致する
+ * </pre>
+ * 当クラスのインスタンスは不変であり、複数スレッドから同時に利用することができます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class SQLKeywordMatcher {
+
+	/** キーワードが見つからないことを表す値 */
+	public static final int NOT_FOUND = -1;
+
+	/** CREATE TABLEキーワードのMatcher */
+	public static final SQLKeywordMatcher CREATE_TABLE_MATCHER = new SQLKeywordMatcher(CREATE_TABLE_PREFIX);
+
+	/** UNIQUEキーワードのMatcher */
+	public static final SQLKeywordMatcher UNIQUE_MATCHER = new SQLKeywordMatcher(UNIQUE);
+
+	/** キーワード中の空白 */
+	private static final char SPACE = ' ';
+
+	/** 検索対象のキーワード（大文字） */
+	private final char[][] keywords;
+
+	/**
+	 * 検索対象のキーワードを指定してインスタンスを作成します。
+	 * @param keywords 検索対象のキーワード
+	 */
+	public SQLKeywordMatcher(String... keywords) {
+		if (keywords == null || keywords.length == 0) {
+			throw new IllegalArgumentException("keywords is null or empty");
+		}
+		this.keywords = new char[keywords.length][];
+		for (int i = 0; i < keywords.length; i++) {
+			String keyword = keywords[i] == null ? null : keywords[i].trim();
+			if (StringUtils.isNullOrEmpty(keyword)) {
+				throw new IllegalArgumentException("keyword is null or empty");
+			}
+			this.keywords[i] = keyword.toUpperCase(Locale.ENGLISH).toCharArray();
+		}
+	}
+
+	/**
+	 * 指定範囲中で最初に出現するSQL文法上有効なキーワードの位置を返却します。<br />
+	 * 検索開始位置はSQL文法上有効な位置（コメント内、文字列リテラル内ではない位置）であること。
+	 * @param sql 検索対象の文字列
+	 * @param fromIndex 検索開始位置
+	 * @param toIndex 検索終了位置（この位置を含まない）
+	 * @return キーワードの開始位置。キーワードが存在しない場合は{@link #NOT_FOUND}
+	 */
+	public int indexOf(CharSequence sql, int fromIndex, int toIndex) {
+		SQLLexer lexer = new SQLLexer();
+		for (int i = fromIndex; i < toIndex; i++) {
+			if (lexer.isEffective() && keywordAt(sql, i, toIndex) != NOT_FOUND) {
+				return i;
+			}
+			lexer.next(sql.charAt(i));
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * 文字列全体で最初に出現するSQL文法上有効なキーワードの位置を返却します。
+	 * @param sql 検索対象の文字列
+	 * @return キーワードの開始位置。キーワードが存在しない場合は{@link #NOT_FOUND}
+	 * @see #indexOf(CharSequence, int, int)
+	 */
+	public int indexOf(CharSequence sql) {
+		return indexOf(sql, 0, sql.length());
+	}
+
+	/**
+	 * 指定位置から始まるキーワードを判定します。<br />
+	 * 当メソッドは指定位置がSQL文法上有効であるかの判定は行いません。
+	 * @param sql 判定対象の文字列
+	 * @param index 判定位置
+	 * @param toIndex 判定対象の終了位置（この位置を含まない）
+	 * @return 一致したキーワードのインスタンス作成時の順序（0始まり）。一致しない場合は{@link #NOT_FOUND}
+	 */
+	public int keywordAt(CharSequence sql, int index, int toIndex) {
+		if (0 < index && isIdentifierPart(sql.charAt(index - 1))) {
+			return NOT_FOUND;
+		}
+		for (int i = 0; i < keywords.length; i++) {
+			if (matchEnd(sql, index, toIndex, keywords[i]) != NOT_FOUND) {
+				return i;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * 指定位置から始まるキーワードの終了位置を返却します。<br />
+	 * 当メソッドは指定位置がSQL文法上有効であるかの判定は行いません。
+	 * @param sql 判定対象の文字列
+	 * @param index 判定位置
+	 * @param toIndex 判定対象の終了位置（この位置を含まない）
+	 * @return キーワードの終了位置（この位置を含まない）。一致しない場合は{@link #NOT_FOUND}
+	 */
+	public int matchEnd(CharSequence sql, int index, int toIndex) {
+		if (0 < index && isIdentifierPart(sql.charAt(index - 1))) {
+			return NOT_FOUND;
+		}
+		for (char[] keyword : keywords) {
+			int endIndex = matchEnd(sql, index, toIndex, keyword);
+			if (endIndex != NOT_FOUND) {
+				return endIndex;
+			}
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * 指定位置から始まる文字列がキーワードと一致する場合、キーワードの終了位置を返却します。
+	 */
+	private static int matchEnd(CharSequence sql, int index, int toIndex, char[] keyword) {
+		int position = index;
+		for (char keywordChar : keyword) {
+			if (toIndex <= position) {
+				return NOT_FOUND;
+			}
+			if (keywordChar == SPACE) {
+				// キーワード中の空白は1文字以上の空白文字と一致する。
+				if (!Character.isWhitespace(sql.charAt(position))) {
+					return NOT_FOUND;
+				}
+				while (position < toIndex && Character.isWhitespace(sql.charAt(position))) {
+					position++;
+				}
+			} else {
+				if (Character.toUpperCase(sql.charAt(position)) != keywordChar) {
+					return NOT_FOUND;
+				}
+				position++;
+			}
+		}
+		if (position < toIndex && isIdentifierPart(sql.charAt(position))) {
+			return NOT_FOUND;
+		}
+		return position;
+	}
+
+	/**
+	 * 引数の文字が識別子を構成する文字であるか判定します。
+	 */
+	private static boolean isIdentifierPart(char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+}
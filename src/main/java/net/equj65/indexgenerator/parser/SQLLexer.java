@@ -0,0 +1,192 @@
+package net.equj65.indexgenerator.parser;
+
+import static net.equj65.indexgenerator.constants.SqlConstants.*;
+
+/**
+ * SQL文を1文字ずつ読み進め、現在位置のSQL状態（コメント中、文字列リテラル中等）を判定する字句解析器です。<br />
+ * 文字列の切り出しや再帰呼び出しを行わず、入力を先頭から1度だけ走査します。<br />
+ * 当クラスの状態は {@link #next(char)} により読み込んだ文字の直後の位置を表します。<br />
+ * 当クラスはスレッドセーフではありません。スレッド毎にインスタンスを作成してください。
+ * <pre>
+ * [例]
+ *   SQLLexer lexer = new SQLLexer();
+ *   for (int i = 0; i < sql.length(); i++) {
+ *     if (lexer.isEffective()) {
+ *       // sql.charAt(i)はSQL文法上有効な文字である。
+ *     }
+ *     lexer.next(sql.charAt(i));
+ *   }
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class SQLLexer {
+
+	/**
+	 * SQL上のカーソル位置の状態を表す列挙子です。
+	 */
+	public enum State {
+		/** コメント内でも文字列リテラル内でもない（SQL文法上有効な位置） */
+		EFFECTIVE,
+		/** 単一行コメント中 */
+		SINGLE_LINE_COMMENT,
+		/** 複数行コメント中 */
+		MULTI_LINE_COMMENT,
+		/** 文字列リテラル中 */
+		STRING_LITERAL,
+		/** 引用符付き識別子中 */
+		QUOTED_IDENTIFIER,
+	}
+
+	/** 単一行コメント開始文字 */
+	private static final char SINGLELINE_COMMENT_CHAR = SINGLELINE_COMMENT_PREFIX.charAt(0);
+	/** 複数行コメント開始文字(1文字目) */
+	private static final char MULTILINE_COMMENT_START = MULTILINE_COMMENT_PREFIX.charAt(0);
+	/** 複数行コメント開始文字(2文字目) */
+	private static final char MULTILINE_COMMENT_ASTERISK = MULTILINE_COMMENT_PREFIX.charAt(1);
+	/** 複数行コメント終了文字(2文字目) */
+	private static final char MULTILINE_COMMENT_END = MULTILINE_COMMENT_SUFFIX.charAt(1);
+	/** 文字列リテラルの開始/終端文字 */
+	private static final char QUOTE = STRING_LITERAL.charAt(0);
+	/** 引用符付き識別子の開始/終端文字 */
+	private static final char DOUBLE_QUOTE = QUOTED_IDENTIFIER.charAt(0);
+	/** 保留文字なし */
+	private static final char NONE = 0;
+
+	/** 現在の状態 */
+	private State state = State.EFFECTIVE;
+
+	/**
+	 * 2文字で構成されるキーワード（"--", "/*", "*&#47;"）の1文字目として保留中の文字。<br />
+	 * 保留中の文字が存在しない場合は{@link #NONE}。
+	 */
+	private char pending = NONE;
+
+	/**
+	 * 1文字読み進め、SQL状態を更新します。
+	 * @param c 読み込む文字
+	 */
+	public void next(char c) {
+		switch (state) {
+		case EFFECTIVE:
+			if (pending == SINGLELINE_COMMENT_CHAR && c == SINGLELINE_COMMENT_CHAR) {
+				state = State.SINGLE_LINE_COMMENT;
+				pending = NONE;
+			} else if (pending == MULTILINE_COMMENT_START && c == MULTILINE_COMMENT_ASTERISK) {
+				state = State.MULTI_LINE_COMMENT;
+				pending = NONE;
+			} else if (c == QUOTE) {
+				state = State.STRING_LITERAL;
+				pending = NONE;
+			} else if (c == DOUBLE_QUOTE) {
+				state = State.QUOTED_IDENTIFIER;
+				pending = NONE;
+			} else if (c == SINGLELINE_COMMENT_CHAR || c == MULTILINE_COMMENT_START) {
+				pending = c;
+			} else {
+				pending = NONE;
+			}
+			break;
+		case SINGLE_LINE_COMMENT:
+			// 単一行コメントを完了できるのは改行文字のみ
+			if (CR.charValue() == c || LF.charValue() == c) {
+				state = State.EFFECTIVE;
+			}
+			break;
+		case MULTI_LINE_COMMENT:
+			if (pending == MULTILINE_COMMENT_ASTERISK && c == MULTILINE_COMMENT_END) {
+				state = State.EFFECTIVE;
+				pending = NONE;
+			} else {
+				pending = c == MULTILINE_COMMENT_ASTERISK ? c : NONE;
+			}
+			break;
+		case STRING_LITERAL:
+			// エスケープ('')は一度リテラルを閉じて再度開始したものとして扱う。
+			if (c == QUOTE) {
+				state = State.EFFECTIVE;
+			}
+			break;
+		case QUOTED_IDENTIFIER:
+			// 文字列リテラルと同様、エスケープ("")は一度識別子を閉じて再度開始したものとして扱う。
+			if (c == DOUBLE_QUOTE) {
+				state = State.EFFECTIVE;
+			}
+			break;
+		}
+	}
+
+	/**
+	 * 引数に指定された文字列の指定範囲を読み進め、SQL状態を更新します。
+	 * @param sql 読み込み対象の文字列
+	 * @param fromIndex 読み込み開始位置（この位置を含む）
+	 * @param toIndex 読み込み終了位置（この位置を含まない）
+	 */
+	public void next(CharSequence sql, int fromIndex, int toIndex) {
+		for (int i = fromIndex; i < toIndex; i++) {
+			next(sql.charAt(i));
+		}
+	}
+
+	/**
+	 * 引数に指定された文字配列の指定範囲を読み進め、SQL状態を更新します。
+	 * @param sql 読み込み対象の文字配列
+	 * @param fromIndex 読み込み開始位置（この位置を含む）
+	 * @param toIndex 読み込み終了位置（この位置を含まない）
+	 */
+	public void next(char[] sql, int fromIndex, int toIndex) {
+		for (int i = fromIndex; i < toIndex; i++) {
+			next(sql[i]);
+		}
+	}
+
+	/**
+	 * 現在位置を行末と見なしてSQL状態を更新します。<br />
+	 * 改行文字を読み込んだ場合と同様、単一行コメントは終了します。
+	 */
+	public void endOfLine() {
+		if (state == State.SINGLE_LINE_COMMENT) {
+			state = State.EFFECTIVE;
+		}
+		pending = NONE;
+	}
+
+	/**
+	 * 状態を初期化します。
+	 */
+	public void reset() {
+		state = State.EFFECTIVE;
+		pending = NONE;
+	}
+
+	/**
+	 * 現在のSQL状態を取得します。
+	 * @return 現在のSQL状態
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * 現在のカーソル位置がSQL文法上有効（コメント内でなく、SQLリテラル内、引用符付き識別子内でもない）であるかを返却します。
+	 * @return 現在カーソル位置が有効であるか否か
+	 * @see SQLStateManager#isEffective()
+	 */
+	public boolean isEffective() {
+		return state == State.EFFECTIVE;
+	}
+
+	/**
+	 * 引数に指定された文字列の指定位置がSQL文法上有効であるか判定します。<br />
+	 * 文字列の先頭から指定位置の直前までを読み込んだ状態を判定するため、
+	 * 同一文字列に対して複数位置を判定する場合は{@link SQLLexer}のインスタンスを利用して読み進めること。
+	 * @param sql 判定対象の文字列
+	 * @param offset 判定対象の位置
+	 * @return 指定位置が有効であるか否か
+	 */
+	public static boolean isEffective(CharSequence sql, int offset) {
+		SQLLexer lexer = new SQLLexer();
+		lexer.next(sql, 0, offset);
+		return lexer.isEffective();
+	}
+}
@@ -1,31 +1,110 @@
 package net.equj65.indexgenerator.parser;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
-import net.equj65.indexgenerator.analyzer.SqlParenthesesAnalyzer;
-import net.equj65.indexgenerator.analyzer.SqlParenthesesInfo;
-import net.equj65.indexgenerator.analyzer.SqlParenthesesInfoSet;
+import net.equj65.indexgenerator.analyzer.CreateTableAnalyzer;
+import net.equj65.indexgenerator.analyzer.CreateTableInfo;
+import net.equj65.indexgenerator.cache.CacheKey;
+import net.equj65.indexgenerator.cache.CacheScope;
+import net.equj65.indexgenerator.domain.ColumnSymbolTable;
 import net.equj65.indexgenerator.domain.CreateTableSqlCommand;
 import net.equj65.indexgenerator.domain.EntireSQL;
 import net.equj65.indexgenerator.domain.SqlCommand;
-import net.equj65.indexgenerator.util.SqlParenthesesUtils;
+import net.equj65.indexgenerator.domain.UniqueKey;
+import net.equj65.indexgenerator.exception.BaseRuntimeException;
+import net.equj65.indexgenerator.metrics.GenerateMetrics;
+import net.equj65.indexgenerator.metrics.GeneratePhase;
+import net.equj65.indexgenerator.parser.SQLStatementClassifier.StatementType;
+import net.equj65.indexgenerator.trace.TracePoint;
+import net.equj65.indexgenerator.trace.TraceSpan;
+import net.equj65.indexgenerator.trace.Tracing;
 import net.equj65.indexgenerator.util.SqlUtils;
 import net.equj65.indexgenerator.util.StringUtils;
 import static net.equj65.indexgenerator.constants.SqlConstants.*;
 
 /**
  * SQL文のParserです。<br />
+ * 当クラスは状態を持たないため、1つのインスタンスを複数スレッドから同時に利用することができます。<br />
+ * {@link ExecutorService}を指定してインスタンスを作成した場合、{@link #parse(String)}は個々のSQL文の解析を
+ * 並列に実行します。解析結果は並列実行の有無に関わらず入力上の順序で{@link EntireSQL}に格納されます。
  * 
  * @author W.Ryozo
  * @version 1.0
  */
 public class SQLParser {
 
+	/** SQL文の終了位置を保持する配列の初期サイズ */
+	private static final int INITIAL_SQL_COUNT = 64;
+
+	/** SQL文の解析を並列実行するExecutor。逐次解析する場合はnull */
+	private final ExecutorService executor;
+
+	/** 計測結果の記録先。計測しない場合はnull */
+	private final GenerateMetrics metrics;
+
+	/** CreateTable文の解析結果のキャッシュ。キャッシュしない場合はnull */
+	private final CacheScope cacheScope;
+
+	/**
+	 * SQL文を逐次解析するインスタンスを作成します。
+	 */
+	public SQLParser() {
+		this(null);
+	}
+
+	/**
+	 * SQL文を並列解析するインスタンスを作成します。<br />
+	 * Executorのライフサイクルは呼び出し元が管理します。
+	 * 
+	 * @param executor
+	 *            SQL文の解析を実行するExecutor（{@link java.util.concurrent.ForkJoinPool}等）。nullの場合は逐次解析する。
+	 */
+	public SQLParser(ExecutorService executor) {
+		this(executor, null);
+	}
+
+	/**
+	 * 解析の計測結果を記録するインスタンスを作成します。<br />
+	 * 分割、コメントの除去、フィールド定義部の解析の処理時間と、SQL文数、CreateTable文数、UNIQUE制約数を記録します。
+	 * 
+	 * @param executor
+	 *            SQL文の解析を実行するExecutor。nullの場合は逐次解析する。
+	 * @param metrics
+	 *            計測結果の記録先。nullの場合は計測しない。
+	 */
+	public SQLParser(ExecutorService executor, GenerateMetrics metrics) {
+		this(executor, metrics, null);
+	}
+
+	/**
+	 * CreateTable文の解析結果をキャッシュするインスタンスを作成します。<br />
+	 * キャッシュの対象となる長さ（{@link CacheScope#MIN_STATEMENT_LENGTH}以上）のCreateTable文はUNIQUE制約を除去済みで作成され、
+	 * 対応するCreateIndex文を{@link CreateTableSqlCommand#getIndexCommandList()}で取得できます。
+	 * 
+	 * @param executor
+	 *            SQL文の解析を実行するExecutor。nullの場合は逐次解析する。
+	 * @param metrics
+	 *            計測結果の記録先。nullの場合は計測しない。
+	 * @param cacheScope
+	 *            CreateTable文の解析結果のキャッシュ。nullの場合はキャッシュしない。
+	 */
+	public SQLParser(ExecutorService executor, GenerateMetrics metrics, CacheScope cacheScope) {
+		this.executor = executor;
+		this.metrics = metrics;
+		this.cacheScope = cacheScope;
+	}
+
 	/**
 	 * SQL文を読み込み、{@link EntireSQL}オブジェクトに変換します。
 	 * 
@@ -39,79 +118,269 @@ public class SQLParser {
 			return entireSQL;
 		}
 
-		List<String> sqlCommandList = splitSqlCommands(targetSqlCommands);
-		for (String sql : sqlCommandList) {
-			entireSQL.addSqlCommand(buildSqlCommand(sql));
+		TraceSpan parseSpan = Tracing.begin(TracePoint.PARSE);
+		long startTime = metrics != null ? System.nanoTime() : 0;
+		TraceSpan splitSpan = Tracing.begin(TracePoint.SPLIT);
+		int[] sqlEndIndexes = splitSqlCommands(targetSqlCommands);
+		if (splitSpan != null) {
+			splitSpan.finish(null, targetSqlCommands.length());
+		}
+		if (metrics != null) {
+			metrics.endPhase(GeneratePhase.SPLIT, startTime);
+		}
+		if (executor == null) {
+			int fromIndex = 0;
+			for (int endIndex : sqlEndIndexes) {
+				entireSQL.addSqlCommand(buildSqlCommand(targetSqlCommands, fromIndex, endIndex));
+				fromIndex = endIndex;
+			}
+		} else {
+			for (SqlCommand sqlCommand : buildSqlCommandsInParallel(targetSqlCommands, sqlEndIndexes)) {
+				entireSQL.addSqlCommand(sqlCommand);
+			}
+		}
+		if (parseSpan != null) {
+			parseSpan.finish(null, targetSqlCommands.length());
 		}
 		return entireSQL;
 
 	}
 
 	/**
-	 * 引数に受け取ったSQLを元にSqlCommandを作成します。
+	 * 引数に受け取ったSQLの一覧を並列に解析します。<br />
+	 * 解析結果は引数のSQLの順序で返却します。
+	 * 
+	 * @param targetSqlCommands
+	 *            SQL文全体
+	 * @param sqlEndIndexes
+	 *            個々のSQL文の終了位置
+	 * @return 作成したSQLCommandの一覧
+	 */
+	private List<SqlCommand> buildSqlCommandsInParallel(final String targetSqlCommands, int[] sqlEndIndexes) {
+		List<Future<SqlCommand>> futureList = new ArrayList<>(sqlEndIndexes.length);
+		try {
+			int fromIndex = 0;
+			for (final int endIndex : sqlEndIndexes) {
+				final int startIndex = fromIndex;
+				futureList.add(executor.submit(new Callable<SqlCommand>() {
+					@Override
+					public SqlCommand call() {
+						return buildSqlCommand(targetSqlCommands, startIndex, endIndex);
+					}
+				}));
+				fromIndex = endIndex;
+			}
+
+			List<SqlCommand> resultList = new ArrayList<>(futureList.size());
+			for (Future<SqlCommand> future : futureList) {
+				resultList.add(future.get());
+			}
+			return resultList;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BaseRuntimeException("SQL文の解析中に割り込みが発生しました。", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new BaseRuntimeException("SQL文の解析に失敗しました。", cause);
+		} finally {
+			// 解析に失敗した場合、未実行の解析は不要である。
+			for (Future<SqlCommand> future : futureList) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * 入力からSQL文を1文ずつ読み込み、解析結果を{@link SqlCommandHandler}に通知します。<br />
+	 * 入力全体を保持せずにSQL文単位で解析するため、保持するメモリ量は最大のSQL文1文分となります。<br />
+	 * 当メソッドはExecutorの指定に関わらずSQL文を逐次解析し、呼び出し元のスレッドでhandlerを呼び出します。<br />
+	 * 引数のReaderはクローズしません。
+	 * 
+	 * @param reader
+	 *            SQL文の読み込み元
+	 * @param handler
+	 *            解析結果の通知先
+	 * @throws IOException
+	 *             入力の読み込みに失敗した場合
+	 */
+	public void parse(Reader reader, SqlCommandHandler handler) throws IOException {
+		if (handler == null) {
+			throw new NullPointerException("handler is null");
+		}
+		SQLStatementReader statementReader = new SQLStatementReader(reader);
+		String sql;
+		while ((sql = statementReader.readStatement()) != null) {
+			handler.handle(buildSqlCommand(sql, 0, sql.length()));
+		}
+	}
+
+	/**
+	 * 入力からSQL文を1文ずつ読み込み、解析結果を{@link SqlCommandHandler}に通知します。<br />
+	 * 引数のChannelはクローズしません。
+	 * 
+	 * @param channel
+	 *            SQL文の読み込み元
+	 * @param charset
+	 *            読み込み元の文字コード
+	 * @param handler
+	 *            解析結果の通知先
+	 * @throws IOException
+	 *             入力の読み込みに失敗した場合
+	 * @see #parse(Reader, SqlCommandHandler)
+	 */
+	public void parse(ReadableByteChannel channel, Charset charset, SqlCommandHandler handler) throws IOException {
+		if (handler == null) {
+			throw new NullPointerException("handler is null");
+		}
+		SQLStatementReader statementReader = new SQLStatementReader(channel, charset);
+		String sql;
+		while ((sql = statementReader.readStatement()) != null) {
+			handler.handle(buildSqlCommand(sql, 0, sql.length()));
+		}
+	}
+
+	/**
+	 * 1文分のSQL文を解析し、{@link SqlCommand}を作成します。<br />
+	 * {@link SQLStatementReader}等で分割済みのSQL文を、呼び出し元で並列に解析する場合に利用します。
 	 * 
 	 * @param sql
-	 *            対象のSQL
-	 * @return 作成したSQLCommand
+	 *            解析対象のSQL文（1文）
+	 * @return 作成したSqlCommand
 	 */
-	private SqlCommand buildSqlCommand(String sql) {
+	public SqlCommand parseStatement(String sql) {
 		if (StringUtils.isNullOrEmpty(sql)) {
 			throw new IllegalArgumentException("SQL is null or empty");
 		}
+		return buildSqlCommand(sql, 0, sql.length());
+	}
+
+	/**
+	 * 引数に受け取ったSQLを元にSqlCommandを作成します。<br />
+	 * 作成したSqlCommandはSQL本文を複製せず、SQL文全体上の範囲として保持します。
+	 * 
+	 * @param targetSqlCommands
+	 *            対象のSQLを含むSQL文全体
+	 * @param fromIndex
+	 *            対象のSQLの開始位置
+	 * @param toIndex
+	 *            対象のSQLの終了位置（この位置を含まない）
+	 * @return 作成したSQLCommand
+	 */
+	private SqlCommand buildSqlCommand(String targetSqlCommands, int fromIndex, int toIndex) {
+		if (fromIndex >= toIndex) {
+			throw new IllegalArgumentException("SQL is null or empty");
+		}
 		
-		String noCommentSql = SqlUtils.removeComment(sql);
-		boolean isCreateTableSql = noCommentSql.trim().startsWith(CREATE_TABLE_PREFIX);
+		TraceSpan span = Tracing.begin(TracePoint.BUILD_COMMAND);
+		long startTime = 0;
+		if (metrics != null) {
+			metrics.addStatement(toIndex - fromIndex);
+			startTime = System.nanoTime();
+		}
+		// 先頭の数語のみでSQL文の種別を判定する。CreateTable文以外はこれ以上走査しない。
+		StatementType statementType = SQLStatementClassifier.classify(targetSqlCommands, fromIndex, toIndex);
+		if (metrics != null) {
+			startTime = metrics.endPhase(GeneratePhase.CLASSIFY, startTime);
+		}
 
 		SqlCommand sqlCommand = null;
-		if (isCreateTableSql) {
-			// Table名の取得
-			String tableName = getTableName(noCommentSql);
-			
-			// CreateTable文内に含まれるUniqueキー情報を解析
-			List<Set<String>> uniqueKeyList = new ArrayList<>();
-			
-			List<String> fieldDefinitionList = SqlUtils.decompositionFieldDefinitionPart(sql);
-			for (String fieldDefinition : fieldDefinitionList) {
-				SQLStateManager manager = new SQLStateManager();
-				int uniqueIndex = fieldDefinition.toUpperCase().indexOf(UNIQUE);
-				if (uniqueIndex < 0) {
-					continue;
-				}
-				String beforeUniqueString = fieldDefinition.substring(0, uniqueIndex);
-				manager.append(beforeUniqueString);
-				if (manager.isEffective() && SqlUtils.isSqlUniqueKeyword(fieldDefinition, uniqueIndex)) {
-					// SQL文法上有効なUNIQUEキーワードである。
-					Set<String> keySet = new LinkedHashSet<>();
-					if (SqlUtils.isComplexUniqueConstraint(fieldDefinition, uniqueIndex)) {
-						// 複合UNIQUE - 括弧内のフィールドすべてを対象とする。
-						SqlParenthesesInfoSet parenthesesInfoSet = SqlParenthesesAnalyzer.analyze(fieldDefinition);
-						SqlParenthesesInfo uniqueFieldsParentheses = SqlParenthesesUtils.getFirstStartParenthesesInfo(parenthesesInfoSet);
-						String innerParentheses = SqlParenthesesUtils.getInsideParenthesesString(fieldDefinition, uniqueFieldsParentheses);
-						String[] uniqueFields = SqlUtils.removeComment(innerParentheses).split(DECLARE_FIELD_DELIMITER);
-						
-						for (String uniqueField : uniqueFields) {
-							keySet.add(uniqueField.trim());
-						}
-					} else {
-						// 単項目UNIQE コメントを除いたフィールド定義部の先頭単語がUNIQUEキー名である
-						keySet.add(SqlUtils.removeComment(fieldDefinition).trim().split(" ")[0]);
-					}
-					uniqueKeyList.add(keySet);
+		String tableName = null;
+		if (statementType == StatementType.CREATE_TABLE) {
+			// 解析結果がキャッシュに存在する場合は解析しない。
+			CacheKey cacheKey = null;
+			CreateTableSqlCommand createTableSql = null;
+			if (cacheScope != null && cacheScope.isCacheable(toIndex - fromIndex)) {
+				cacheKey = cacheScope.statementKey(targetSqlCommands, fromIndex, toIndex);
+				createTableSql = cacheScope.getCreateTable(cacheKey);
+			}
+			if (createTableSql == null) {
+				createTableSql = buildCreateTableSqlCommand(targetSqlCommands, fromIndex, toIndex);
+				if (cacheKey != null) {
+					cacheScope.putCreateTable(cacheKey, createTableSql);
 				}
 			}
+			tableName = createTableSql.getCreateTableName();
 			
-			sqlCommand = new CreateTableSqlCommand(sql, tableName, uniqueKeyList);
+			if (metrics != null) {
+				metrics.endPhase(GeneratePhase.ANALYZE_FIELDS, startTime);
+				metrics.addCreateTable(createTableSql.getUniqueKeyList().size());
+			}
+			sqlCommand = createTableSql;
 			
 		} else {
-			sqlCommand = new SqlCommand(sql);
+			sqlCommand = new SqlCommand(targetSqlCommands, fromIndex, toIndex - fromIndex);
 		}
 
+		if (span != null) {
+			span.finish(tableName, toIndex - fromIndex);
+		}
 		return sqlCommand;
 	}
 
 	/**
-	 * 引数に受け取ったSQLコマンドをSQL区切り文字で分割し、List形式で返却します。<br />
-	 * 個々のSQL分は末尾にSQL区切り文字を含んだ状態で分割されます。<br />
+	 * CreateTable文を解析し、{@link CreateTableSqlCommand}を作成します。<br />
+	 * フィールド定義部は1度だけ解析し、記録した位置からUniqueキーを抽出します。
+	 * 
+	 * @param targetSqlCommands
+	 *            対象のCreateTable文を含むSQL文全体
+	 * @param fromIndex
+	 *            対象のCreateTable文の開始位置
+	 * @param toIndex
+	 *            対象のCreateTable文の終了位置（この位置を含まない）
+	 * @return 作成したCreateTableSqlCommand
+	 */
+	private CreateTableSqlCommand buildCreateTableSqlCommand(String targetSqlCommands, int fromIndex, int toIndex) {
+		// Table名の取得
+		String tableName = SQLStatementClassifier.getTableName(targetSqlCommands, fromIndex, toIndex);
+		
+		// CreateTable文内に含まれるUniqueキー情報を解析
+		// Uniqueキーの無いテーブルではリストおよび記号表を作成しない。
+		List<UniqueKey> uniqueKeyList = Collections.emptyList();
+		ColumnSymbolTable symbolTable = null;
+		
+		// フィールド定義部を1度だけ解析し、記録した位置からUniqueキーを抽出する。
+		// 解析結果はUNIQUE制約の除去に再利用するため、CreateTableSqlCommandに保持させる。
+		CreateTableInfo createTableInfo = CreateTableAnalyzer.analyze(targetSqlCommands, fromIndex, toIndex);
+		int uniqueCount = createTableInfo.getUniqueCount();
+		StringBuilder noCommentBuilder = null;
+		if (uniqueCount > 0) {
+			symbolTable = new ColumnSymbolTable();
+			uniqueKeyList = new ArrayList<>(uniqueCount);
+			noCommentBuilder = new StringBuilder();
+		}
+		for (int i = 0; i < uniqueCount; i++) {
+			noCommentBuilder.setLength(0);
+			String[] uniqueFields;
+			if (createTableInfo.isComplexUnique(i)) {
+				// 複合UNIQUE - 括弧内のフィールドすべてを対象とする。
+				SqlUtils.removeComment(targetSqlCommands, fromIndex + createTableInfo.getKeyStartIndex(i) + 1,
+						fromIndex + createTableInfo.getKeyEndIndex(i), noCommentBuilder);
+				uniqueFields = noCommentBuilder.toString().split(DECLARE_FIELD_DELIMITER);
+				for (int j = 0; j < uniqueFields.length; j++) {
+					uniqueFields[j] = uniqueFields[j].trim();
+				}
+			} else {
+				// 単項目UNIQE コメントを除いたフィールド定義部の先頭単語がUNIQUEキー名である
+				SqlUtils.removeComment(targetSqlCommands, fromIndex + createTableInfo.getFieldStartIndex(i),
+						fromIndex + createTableInfo.getFieldEndIndex(i), noCommentBuilder);
+				uniqueFields = new String[] {noCommentBuilder.toString().trim().split(" ")[0]};
+			}
+			uniqueKeyList.add(symbolTable.createKey(uniqueFields));
+		}
+		
+		return new CreateTableSqlCommand(targetSqlCommands, fromIndex, toIndex - fromIndex,
+				tableName, uniqueKeyList, createTableInfo);
+	}
+
+	/**
+	 * 引数に受け取ったSQLコマンドをSQL区切り文字で分割し、個々のSQL文の終了位置を返却します。<br />
+	 * 個々のSQL文は直前のSQL文の終了位置（先頭のSQL文は0）から始まり、末尾にSQL区切り文字を含んだ状態で分割されます。<br />
 	 * SQL文を分離する際はSQLのDelimiterを利用しますが、以下のブロックに位置するDelimiterは認識されません。
 	 * 
 	 * <pre>
@@ -121,57 +390,34 @@ public class SQLParser {
 	 * 
 	 * @param targetSqlCommands
 	 *            変換対象のSQL文
-	 * @return 分割後のSQL文
+	 * @return 分割後の個々のSQL文の終了位置（この位置を含まない）
 	 */
-	private List<String> splitSqlCommands(String targetSqlCommands) {
-		List<String> sqlCommandList = new ArrayList<>();
-		SQLStateManager manager = new SQLStateManager();
-		StringBuilder sqlBuilder = new StringBuilder();
+	private int[] splitSqlCommands(String targetSqlCommands) {
+		int[] sqlEndIndexes = new int[INITIAL_SQL_COUNT];
+		int sqlCount = 0;
+		SQLLexer lexer = new SQLLexer();
+		char delimiter = SQL_DELIMITER.charAt(0);
 		int fromIndex = 0;
-		while (fromIndex <= targetSqlCommands.length()) {
-			int delimiterIndex = targetSqlCommands.indexOf(SQL_DELIMITER, fromIndex);
-			String sqlCandidate = null;
-			if (0 <= delimiterIndex) {
-				sqlCandidate = targetSqlCommands.substring(fromIndex, delimiterIndex);
-				sqlBuilder.append(sqlCandidate);
-				manager.append(sqlCandidate);
-				if (manager.isEffective()) {
-					sqlBuilder.append(SQL_DELIMITER);
-					sqlCommandList.add(sqlBuilder.toString());
-					sqlBuilder = new StringBuilder();
-				} else {
-					// SQL文法とは無関係の区切り文字である場合、区切り文字を補完
-					sqlBuilder.append(SQL_DELIMITER);
+		for (int i = 0; i < targetSqlCommands.length(); i++) {
+			char c = targetSqlCommands.charAt(i);
+			if (c == delimiter && lexer.isEffective()) {
+				// SQL文法上有効な区切り文字である場合、区切り文字を含めてSQL文とする。
+				if (sqlCount == sqlEndIndexes.length) {
+					sqlEndIndexes = Arrays.copyOf(sqlEndIndexes, sqlCount * 2);
 				}
-			} else {
-				// Delimiterが見つからない場合（最終に達した場合）
-				sqlCandidate = targetSqlCommands.substring(fromIndex);
-				sqlBuilder.append(sqlCandidate);
-				sqlCommandList.add(sqlBuilder.toString());
-				sqlBuilder = new StringBuilder();
+				sqlEndIndexes[sqlCount++] = i + 1;
+				fromIndex = i + 1;
 			}
-			
-			fromIndex = fromIndex + sqlCandidate.length() + SQL_DELIMITER.length();
+			lexer.next(c);
 		}
-
-		return sqlCommandList;
-	}
-	
-	/**
-	 * 引数のCreate Table文の作成テーブル名を取得します。<br />
-	 * SQLキーワード[Create Table テーブル名]前にSQLコメント文が存在しない前提とします。
-	 * @param createTableSql 対象とするCreateTable文
-	 * @return Table名
-	 */
-	private String getTableName(String createTableSql) {
-		String behindOfCreateTableStr = createTableSql.substring(
-				createTableSql.toUpperCase().indexOf(CREATE_TABLE_PREFIX) + CREATE_TABLE_PREFIX.length()).trim();
-		Pattern pattern = Pattern.compile("[\\s(]");
-		Matcher matcher = pattern.matcher(behindOfCreateTableStr);
-		if (matcher.find()) {
-			return behindOfCreateTableStr.substring(0, matcher.start());
+		if (fromIndex < targetSqlCommands.length()) {
+			// Delimiterが見つからない場合（最終に達した場合）
+			if (sqlCount == sqlEndIndexes.length) {
+				sqlEndIndexes = Arrays.copyOf(sqlEndIndexes, sqlCount + 1);
+			}
+			sqlEndIndexes[sqlCount++] = targetSqlCommands.length();
 		}
-		
-		throw new IllegalArgumentException("SQL文法に誤りがあります");
+
+		return Arrays.copyOf(sqlEndIndexes, sqlCount);
 	}
 }
@@ -0,0 +1,170 @@
+package net.equj65.indexgenerator.parser;
+
+import static net.equj65.indexgenerator.parser.SQLKeywordMatcher.NOT_FOUND;
+
+/**
+ * SQL文の先頭の数語のみを読み、SQL文の種別を判定します。<br />
+ * 先頭の空白文字、およびコメントを読み飛ばし、最初の2語（キーワード間のコメントは空白と同様に扱う）で種別を判定します。
+ * 種別の判定後はSQL文の残りを読み込まないため、巨大なInsert文等であっても判定に要する時間はSQL文の長さに依存しません。
+ * <pre>
+ * [判定する種別]
+ *   CREATE TABLE ...  {@link StatementType#CREATE_TABLE}
+ *   ALTER TABLE ...   {@link StatementType#ALTER_TABLE}
+ *   INSERT ...        {@link StatementType#INSERT}
+ *   COMMENT ON ...    {@link StatementType#COMMENT_ON}
+ *   上記以外          {@link StatementType#OTHER}
+ * </pre>
+ * キーワードは大文字小文字を区別しません。<br />
+ * 当クラスのメソッドは状態を共有しないため、複数スレッドから同時に呼び出すことができます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class SQLStatementClassifier {
+
+	/**
+	 * SQL文の種別を表す列挙子です。
+	 */
+	public enum StatementType {
+		/** CreateTable文 */
+		CREATE_TABLE,
+		/** AlterTable文 */
+		ALTER_TABLE,
+		/** Insert文 */
+		INSERT,
+		/** Comment文 */
+		COMMENT_ON,
+		/** 上記以外のSQL文 */
+		OTHER,
+	}
+
+	private static final SQLKeywordMatcher CREATE_MATCHER = new SQLKeywordMatcher("CREATE");
+	private static final SQLKeywordMatcher ALTER_MATCHER = new SQLKeywordMatcher("ALTER");
+	private static final SQLKeywordMatcher INSERT_MATCHER = new SQLKeywordMatcher("INSERT");
+	private static final SQLKeywordMatcher COMMENT_MATCHER = new SQLKeywordMatcher("COMMENT");
+	private static final SQLKeywordMatcher TABLE_MATCHER = new SQLKeywordMatcher("TABLE");
+	private static final SQLKeywordMatcher ON_MATCHER = new SQLKeywordMatcher("ON");
+
+	/**
+	 * 文字列の指定範囲のSQL文の種別を判定します。<br />
+	 * 指定範囲の開始位置はSQL文法上有効な位置（コメント内、文字列リテラル内ではない位置）であること。
+	 * @param sql SQL文を含む文字列
+	 * @param fromIndex SQL文の開始位置
+	 * @param toIndex SQL文の終了位置（この位置を含まない）
+	 * @return SQL文の種別
+	 */
+	public static StatementType classify(CharSequence sql, int fromIndex, int toIndex) {
+		int index = skipWhitespaceAndComments(sql, fromIndex, toIndex);
+		if (index == toIndex) {
+			return StatementType.OTHER;
+		}
+		int endIndex;
+		if ((endIndex = CREATE_MATCHER.matchEnd(sql, index, toIndex)) != NOT_FOUND) {
+			return matchNext(TABLE_MATCHER, sql, endIndex, toIndex) != NOT_FOUND ? StatementType.CREATE_TABLE : StatementType.OTHER;
+		}
+		if ((endIndex = ALTER_MATCHER.matchEnd(sql, index, toIndex)) != NOT_FOUND) {
+			return matchNext(TABLE_MATCHER, sql, endIndex, toIndex) != NOT_FOUND ? StatementType.ALTER_TABLE : StatementType.OTHER;
+		}
+		if (INSERT_MATCHER.matchEnd(sql, index, toIndex) != NOT_FOUND) {
+			return StatementType.INSERT;
+		}
+		if ((endIndex = COMMENT_MATCHER.matchEnd(sql, index, toIndex)) != NOT_FOUND) {
+			return matchNext(ON_MATCHER, sql, endIndex, toIndex) != NOT_FOUND ? StatementType.COMMENT_ON : StatementType.OTHER;
+		}
+		return StatementType.OTHER;
+	}
+
+	/**
+	 * 文字列全体をSQL文として種別を判定します。
+	 * @param sql 判定対象のSQL文
+	 * @return SQL文の種別
+	 * @see #classify(CharSequence, int, int)
+	 */
+	public static StatementType classify(CharSequence sql) {
+		return classify(sql, 0, sql.length());
+	}
+
+	/**
+	 * CreateTable文、またはAlterTable文の対象テーブル名を取得します。<br />
+	 * TABLEキーワードに続く語（空白文字、開始括弧、コメントの直前まで）をテーブル名とします。
+	 * @param sql SQL文を含む文字列
+	 * @param fromIndex SQL文の開始位置
+	 * @param toIndex SQL文の終了位置（この位置を含まない）
+	 * @return テーブル名
+	 * @throws IllegalArgumentException CreateTable文、AlterTable文ではない場合、またはテーブル名が終端していない場合
+	 */
+	public static String getTableName(CharSequence sql, int fromIndex, int toIndex) {
+		int endIndex = matchNext(CREATE_MATCHER, sql, fromIndex, toIndex);
+		if (endIndex == NOT_FOUND) {
+			endIndex = matchNext(ALTER_MATCHER, sql, fromIndex, toIndex);
+		}
+		if (endIndex != NOT_FOUND) {
+			endIndex = matchNext(TABLE_MATCHER, sql, endIndex, toIndex);
+		}
+		if (endIndex != NOT_FOUND) {
+			int tableNameStartIndex = skipWhitespaceAndComments(sql, endIndex, toIndex);
+			for (int i = tableNameStartIndex; i < toIndex; i++) {
+				char c = sql.charAt(i);
+				if (Character.isWhitespace(c) || c == '(' || isCommentStart(sql, i, toIndex)) {
+					return sql.subSequence(tableNameStartIndex, i).toString();
+				}
+			}
+		}
+
+		throw new IllegalArgumentException("SQL文法に誤りがあります");
+	}
+
+	/**
+	 * 文字列全体をSQL文としてテーブル名を取得します。
+	 * @param sql 対象のCreateTable文、またはAlterTable文
+	 * @return テーブル名
+	 * @see #getTableName(CharSequence, int, int)
+	 */
+	public static String getTableName(CharSequence sql) {
+		return getTableName(sql, 0, sql.length());
+	}
+
+	/**
+	 * 空白文字、コメントを読み飛ばし、次のキーワードの終了位置を返却します。
+	 * @return キーワードの終了位置。次の語がキーワードではない場合は{@link SQLKeywordMatcher#NOT_FOUND}
+	 */
+	private static int matchNext(SQLKeywordMatcher matcher, CharSequence sql, int fromIndex, int toIndex) {
+		int index = skipWhitespaceAndComments(sql, fromIndex, toIndex);
+		if (index == toIndex) {
+			return NOT_FOUND;
+		}
+		return matcher.matchEnd(sql, index, toIndex);
+	}
+
+	/**
+	 * 空白文字、およびコメントを読み飛ばし、最初のSQL文法上有効な文字の位置を返却します。
+	 * @return 最初の有効な文字の位置。存在しない場合は終了位置
+	 */
+	private static int skipWhitespaceAndComments(CharSequence sql, int fromIndex, int toIndex) {
+		SQLLexer lexer = new SQLLexer();
+		for (int i = fromIndex; i < toIndex; i++) {
+			char c = sql.charAt(i);
+			if (lexer.isEffective() && !Character.isWhitespace(c)) {
+				if (!isCommentStart(sql, i, toIndex)) {
+					return i;
+				}
+				// コメント開始文字列の2文字目まで読み込み、コメント中の状態とする。
+				lexer.next(c);
+				c = sql.charAt(++i);
+			}
+			lexer.next(c);
+		}
+		return toIndex;
+	}
+
+	/**
+	 * 指定位置からコメント開始文字列（"--"、"/*"）が始まるか判定します。
+	 */
+	private static boolean isCommentStart(CharSequence sql, int index, int toIndex) {
+		if (index + 1 >= toIndex) {
+			return false;
+		}
+		char c = sql.charAt(index);
+		char next = sql.charAt(index + 1);
+		return (c == '-' && next == '-') || (c == '/' && next == '*');
+	}
+}
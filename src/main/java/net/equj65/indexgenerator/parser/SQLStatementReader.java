@@ -0,0 +1,119 @@
+package net.equj65.indexgenerator.parser;
+
+import static net.equj65.indexgenerator.constants.SqlConstants.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 入力からSQL文を1文ずつ読み込むReaderです。<br />
+ * SQL区切り文字を発見する都度SQL文を返却するため、保持するメモリ量は最大のSQL文1文分となります。<br />
+ * コメント文中、および文字列リテラル内のSQL区切り文字はSQL文の区切りとして扱いません。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public class SQLStatementReader implements Closeable {
+
+	/** 読み込みバッファのサイズ */
+	private static final int BUFFER_SIZE = 8192;
+
+	/** SQL区切り文字 */
+	private static final char DELIMITER = SQL_DELIMITER.charAt(0);
+
+	/** 読み込み元 */
+	private final Reader reader;
+
+	/** 読み込みバッファ */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/** 読み込みバッファ上の現在位置 */
+	private int position = 0;
+
+	/** 読み込みバッファ上の有効な文字数 */
+	private int limit = 0;
+
+	/** 読み込み中のSQL文 */
+	private final StringBuilder statementBuilder = new StringBuilder();
+
+	/** SQL状態を判定する字句解析器 */
+	private final SQLLexer lexer = new SQLLexer();
+
+	/**
+	 * 読み込み元のReaderを指定してインスタンスを作成します。
+	 * @param reader 読み込み元
+	 */
+	public SQLStatementReader(Reader reader) {
+		if (reader == null) {
+			throw new NullPointerException("reader is null");
+		}
+		this.reader = reader;
+	}
+
+	/**
+	 * 読み込み元のChannelと文字コードを指定してインスタンスを作成します。<br />
+	 * 文字コードとして不正なバイト列は、他の読み込み経路（{@link net.equj65.indexgenerator.io.MappedFileReader}）と同様に置換文字に置き換えます。
+	 * @param channel 読み込み元
+	 * @param charset 読み込み元の文字コード
+	 */
+	public SQLStatementReader(ReadableByteChannel channel, Charset charset) {
+		this(Channels.newReader(channel, charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE), -1));
+	}
+
+	/**
+	 * SQL文を1文読み込みます。<br />
+	 * 返却するSQL文は末尾にSQL区切り文字を含みます。ただし入力の最終SQL文に区切り文字が存在しない場合、
+	 * 入力の終端までを1文として返却します。
+	 * @return SQL文。入力の終端に達した場合はnull
+	 * @throws IOException 入力の読み込みに失敗した場合
+	 */
+	public String readStatement() throws IOException {
+		while (true) {
+			if (position >= limit) {
+				int readCount = reader.read(buffer, 0, buffer.length);
+				if (readCount < 0) {
+					// 入力の終端に達した場合
+					return statementBuilder.length() == 0 ? null : flushStatement();
+				}
+				position = 0;
+				limit = readCount;
+			}
+
+			int start = position;
+			while (position < limit) {
+				char c = buffer[position++];
+				boolean isDelimiter = c == DELIMITER && lexer.isEffective();
+				lexer.next(c);
+				if (isDelimiter) {
+					statementBuilder.append(buffer, start, position - start);
+					return flushStatement();
+				}
+			}
+			statementBuilder.append(buffer, start, position - start);
+		}
+	}
+
+	/**
+	 * 読み込み中のSQL文を返却し、次のSQL文の読み込みに備えます。
+	 * @return 読み込み中のSQL文
+	 */
+	private String flushStatement() {
+		String statement = statementBuilder.toString();
+		statementBuilder.setLength(0);
+		return statement;
+	}
+
+	/**
+	 * 読み込み元をクローズします。
+	 */
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
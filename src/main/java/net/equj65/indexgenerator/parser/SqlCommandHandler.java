@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.parser;
+
+import net.equj65.indexgenerator.domain.SqlCommand;
+
+/**
+ * {@link SQLParser}がSQL文を1文ずつ解析した結果を受け取るハンドラです。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public interface SqlCommandHandler {
+
+	/**
+	 * 解析済みのSQL文を受け取ります。<br />
+	 * 当メソッドは入力上のSQL文の出現順に呼び出されます。
+	 * @param command 解析済みのSQL文
+	 */
+	void handle(SqlCommand command);
+}
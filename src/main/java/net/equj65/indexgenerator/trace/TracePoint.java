@@ -0,0 +1,36 @@
+package net.equj65.indexgenerator.trace;
+
+/**
+ * トレースの計測箇所です。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public enum TracePoint {
+
+	/** SQLファイルの読み込み */
+	READ_FILE,
+
+	/**
+	 * SQL全体の解析（{@link net.equj65.indexgenerator.parser.SQLParser#parse(String)}）。<br />
+	 * {@link net.equj65.indexgenerator.generator.UniqueIndexPipeline}ではSQL文1文の解析とUNIQUE制約の除去
+	 */
+	PARSE,
+
+	/** SQL文の分割。{@link net.equj65.indexgenerator.generator.UniqueIndexPipeline}ではSQL文1文の読み込みと分割 */
+	SPLIT,
+
+	/** SQL文1文の解析 */
+	BUILD_COMMAND,
+
+	/** CreateTable文1文からのUNIQUE制約の除去 */
+	REMOVE_UNIQUE,
+
+	/**
+	 * SQL全体のUNIQUE制約の除去とCreateIndex文の作成。<br />
+	 * {@link net.equj65.indexgenerator.generator.UniqueIndexPipeline}ではCreateTable文1文分のCreateIndex文の作成
+	 */
+	ADD_CONDITION,
+
+	/** SQLファイルの書き込み */
+	WRITE_FILE
+}
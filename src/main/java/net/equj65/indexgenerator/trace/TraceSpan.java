@@ -0,0 +1,16 @@
+package net.equj65.indexgenerator.trace;
+
+/**
+ * {@link Tracer#begin(TracePoint)}で開始した1回分の計測です。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public interface TraceSpan {
+
+	/**
+	 * 計測を終了します。
+	 * @param tableName 対象のテーブル名。CreateTable文1文以外を対象とする計測の場合はnull
+	 * @param statementLength 対象のSQL文の長さ（文字数）。SQL全体を対象とする計測の場合はSQL全体の長さ
+	 */
+	void finish(String tableName, long statementLength);
+}
@@ -0,0 +1,18 @@
+package net.equj65.indexgenerator.trace;
+
+/**
+ * 解析処理、生成処理の各箇所の処理時間を外部のプロファイラ等に通知するTracerです。<br />
+ * {@link Tracing#setTracer(Tracer)}で登録します。複数スレッドから同時に呼び出されます。
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public interface Tracer {
+
+	/**
+	 * 計測を開始します。<br />
+	 * 返却した計測は、計測を開始したスレッドで{@link TraceSpan#finish(String, long)}を呼び出して終了します。
+	 * @param point 計測箇所
+	 * @return 開始した計測。計測箇所を計測しない場合はnull
+	 */
+	TraceSpan begin(TracePoint point);
+}
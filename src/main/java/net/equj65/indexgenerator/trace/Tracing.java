@@ -0,0 +1,42 @@
+package net.equj65.indexgenerator.trace;
+
+/**
+ * 登録された{@link Tracer}を保持します。<br />
+ * Tracerが登録されていない場合、{@link #begin(TracePoint)}はnullを返却し、呼び出し元は計測処理を一切行いません。
+ * <pre>
+ * [呼び出し元の記述]
+ *   TraceSpan span = Tracing.begin(TracePoint.SPLIT);
+ *   ...
+ *   if (span != null) {
+ *       span.finish(tableName, statementLength);
+ *   }
+ * </pre>
+ * @author W.Ryozo
+ * @version 1.0
+ */
+public final class Tracing {
+
+	/** 登録されたTracer。登録されていない場合はnull */
+	private static volatile Tracer tracer;
+
+	private Tracing() {
+	}
+
+	/**
+	 * Tracerを登録します。nullを指定した場合は計測を行いません。
+	 * @param tracer 登録するTracer
+	 */
+	public static void setTracer(Tracer tracer) {
+		Tracing.tracer = tracer;
+	}
+
+	/**
+	 * 登録されたTracerで計測を開始します。
+	 * @param point 計測箇所
+	 * @return 開始した計測。Tracerが登録されていない場合、または計測箇所を計測しない場合はnull
+	 */
+	public static TraceSpan begin(TracePoint point) {
+		Tracer current = tracer;
+		return current != null ? current.begin(point) : null;
+	}
+}
@@ -4,7 +4,8 @@ import net.equj65.indexgenerator.analyzer.SqlParenthesesInfo;
 import net.equj65.indexgenerator.analyzer.SqlParenthesesInfoSet;
 
 /**
- * SQL上の括弧に関する操作をとりまとめたUtilクラスです。
+ * SQL上の括弧に関する操作をとりまとめたUtilクラスです。<br />
+ * 当クラスのメソッドは状態を共有しないため、複数スレッドから同時に呼び出すことができます。
  * @author W.Ryozo
  * @version 1.0
  */
@@ -29,30 +30,16 @@ public class SqlParenthesesUtils {
 	 * @return チェック結果
 	 */
 	public static boolean isEnclosed(SqlParenthesesInfoSet parenthesesInfoSet, int targetIndex) {
-		boolean result = false;
-		for (SqlParenthesesInfo info : parenthesesInfoSet.getSqlParenthesesInfoList()) {
-			result = result || isEnclosed(info, targetIndex);
-		}
-		return result;
+		return parenthesesInfoSet.isEnclosed(targetIndex);
 	}
 	
 	/**
 	 * 最も最初に始まる括弧の情報を取得します。
-	 * FIXME: 本当は括弧の情報をTree情報で管理して、こういったメソッドは利用しない方針としたい
 	 * @param parenthsesSet 最も最初に始まる括弧の情報
-	 * @return
+	 * @return 最も最初に始まる括弧の情報。括弧が存在しない場合はnull
 	 */
 	public static SqlParenthesesInfo getFirstStartParenthesesInfo(SqlParenthesesInfoSet parenthsesSet) {
-		SqlParenthesesInfo result = null;
-		for (SqlParenthesesInfo info : parenthsesSet.getSqlParenthesesInfoList()) {
-			if (result == null) {
-				result = info;
-			}
-			if (info.getStartParenthesesIndex() < result.getStartParenthesesIndex()) {
-				result = info;
-			}
-		}
-		return result;
+		return parenthsesSet.getFirstStartParenthesesInfo();
 	}
 	
 	/**
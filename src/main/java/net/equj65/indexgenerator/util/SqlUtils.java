@@ -8,10 +8,12 @@ import java.util.List;
 import net.equj65.indexgenerator.analyzer.SqlParenthesesAnalyzer;
 import net.equj65.indexgenerator.analyzer.SqlParenthesesInfo;
 import net.equj65.indexgenerator.analyzer.SqlParenthesesInfoSet;
-import net.equj65.indexgenerator.parser.SQLStateManager;
+import net.equj65.indexgenerator.parser.SQLKeywordMatcher;
+import net.equj65.indexgenerator.parser.SQLLexer;
 
 /**
- * SQLに関する操作をとりまとめたのUtilクラスです。
+ * SQLに関する操作をとりまとめたのUtilクラスです。<br />
+ * 当クラスのメソッドは状態を共有しないため、複数スレッドから同時に呼び出すことができます。
  * @author W.Ryozo
  * @version 1.0
  */
@@ -68,6 +70,25 @@ public class SqlUtils {
 		return isBeforeCharMatch && isAfterCharMatch;
 	}
 	
+	/**
+	 * 引数に指定されたSQL文字列上で最初に出現する、SQL上の一意制約を表すUNIQUEキーワードの位置を返却する。<br />
+	 * UNIQUEキーワードは大文字小文字を区別せず検索する。コメント内、文字列リテラル内のUNIQUEキーワードは対象としない。
+	 * @param declareFieldString 検索対象のSQL文字列
+	 * @return UNIQUEキーワードの開始位置。存在しない場合は-1
+	 * @see #isSqlUniqueKeyword(String, int)
+	 */
+	public static int indexOfUniqueKeyword(String declareFieldString) {
+		int uniqueIndex = SQLKeywordMatcher.UNIQUE_MATCHER.indexOf(declareFieldString);
+		while (uniqueIndex != SQLKeywordMatcher.NOT_FOUND) {
+			if (isSqlUniqueKeyword(declareFieldString, uniqueIndex)) {
+				return uniqueIndex;
+			}
+			// UNIQUEキーワードの位置はSQL文法上有効であるため、次の文字から検索を再開できる。
+			uniqueIndex = SQLKeywordMatcher.UNIQUE_MATCHER.indexOf(declareFieldString, uniqueIndex + 1, declareFieldString.length());
+		}
+		return -1;
+	}
+	
 	/**
 	 * 引数に指定されたSQL文字列上のUNIQUEキーワードが複合UNIQUE制約であるかチェックする。<br />
 	 * UNIQUEキーワードの次文字列が括弧である場合、複合UNIQUE制約であると判定する。<br />。
@@ -117,37 +138,22 @@ public class SqlUtils {
 		
 		List<String> declareFieldArray = new ArrayList<>();
 		SqlParenthesesInfoSet decFieldsParenthesesSet = SqlParenthesesAnalyzer.analyze(fieldDefinitionSection);
-		SQLStateManager manager = new SQLStateManager();
-
-		StringBuilder declareFieldBuilder = new StringBuilder();
+		SQLLexer lexer = new SQLLexer();
+		char delimiter = DECLARE_FIELD_DELIMITER.charAt(0);
 		int fromIndex = 0;
-		while (fromIndex <= fieldDefinitionSection.length()) {
-			int delimiterIndex = fieldDefinitionSection.indexOf(DECLARE_FIELD_DELIMITER, fromIndex);
-			String candidateField = null;
-			if (0 <= delimiterIndex) {
-				candidateField = fieldDefinitionSection.substring(fromIndex, delimiterIndex);
-				declareFieldBuilder.append(candidateField);
-				// TODO この一行の正当性を検証する
-				manager.append(candidateField);
-				if (manager.isEffective() 
-						&& !SqlParenthesesUtils.isEnclosed(decFieldsParenthesesSet,delimiterIndex)) {
-					// SQL文法上有効なフィールド定義区切り文字であり、かつ、括弧で包まれていない（フィールド定義の区切り文字として利用されている）
-					declareFieldArray.add(declareFieldBuilder.toString());
-					declareFieldBuilder = new StringBuilder();
-				} else {
-					// SQL文法とは無関係の区切り文字である場合、区切り文字を補完
-					declareFieldBuilder.append(DECLARE_FIELD_DELIMITER);
-				}
-			} else {
-				// Delimiterが見つからない場合（最終要素に達した場合）
-				candidateField = fieldDefinitionSection.substring(fromIndex);
-				declareFieldBuilder.append(candidateField);
-				declareFieldArray.add(declareFieldBuilder.toString());
-				declareFieldBuilder = new StringBuilder();
+		for (int i = 0; i < fieldDefinitionSection.length(); i++) {
+			char c = fieldDefinitionSection.charAt(i);
+			if (c == delimiter
+					&& lexer.isEffective() 
+					&& !SqlParenthesesUtils.isEnclosed(decFieldsParenthesesSet, i)) {
+				// SQL文法上有効なフィールド定義区切り文字であり、かつ、括弧で包まれていない（フィールド定義の区切り文字として利用されている）
+				declareFieldArray.add(fieldDefinitionSection.substring(fromIndex, i));
+				fromIndex = i + 1;
 			}
-
-			fromIndex = fromIndex + candidateField.length() + DECLARE_FIELD_DELIMITER.length();
+			lexer.next(c);
 		}
+		// 最終要素
+		declareFieldArray.add(fieldDefinitionSection.substring(fromIndex));
 		
 		return declareFieldArray;
 	}
@@ -159,22 +165,7 @@ public class SqlUtils {
 	 * @return 判定結果
 	 */
 	public static boolean isCreateTableSql(String sql) {
-		SQLStateManager manager = new SQLStateManager();
-		int fromIndex = 0;
-		while (fromIndex < sql.length()) {
-			int createTableIndex = sql.toUpperCase().indexOf(CREATE_TABLE_PREFIX, fromIndex);
-			if (createTableIndex < 0) {
-				break;
-			}
-			String candidateCreateTable = sql.substring(fromIndex, createTableIndex);
-			manager.append(candidateCreateTable);
-			if (manager.isEffective()) {
-				return true;
-			}
-			fromIndex = fromIndex + candidateCreateTable.length() + CREATE_TABLE_PREFIX.length();
-		}
-		
-		return false;
+		return SQLKeywordMatcher.CREATE_TABLE_MATCHER.indexOf(sql) != SQLKeywordMatcher.NOT_FOUND;
 	}
 
 	/**
@@ -203,7 +194,7 @@ public class SqlUtils {
 	/**
 	 * SQL文中に含まれるコメントを取り除く。<br />
 	 * 単一行コメント（"--"から改行文字まで）および複数行コメント("¥/*"から"*¥/"まで)を削除する。<br />
-	 * なお、"--"や"¥/*"といったコメントを表す文言がStringリテラル内で利用されている場合、これをコメントとは判定せず、
+	 * なお、"--"や"¥/*"といったコメントを表す文言がStringリテラル内、または引用符付き識別子（""内）で利用されている場合、これをコメントとは判定せず、
 	 * 文言の削除は行わない。
 	 * <pre>
 	 *   [example1]．
@@ -243,97 +234,50 @@ public class SqlUtils {
 	 * @return コメントが存在しないSQL文
 	 */
 	public static String removeComment(String sql) {
-		StringBuilder noCommentSqlBuilder = new StringBuilder();
-		SQLStateManager manager = new SQLStateManager();
-		// 単一行コメント文中であることを表すフラグ
-		boolean isInnerSingleLineCommentFlg = false;
-		// 複数行コメント文中であることを表すフラグ
-		boolean isInnerMultiLineCommentFlg = false;
-		
-		int fromIndex = 0;
-		while (fromIndex <= sql.length()) {
-			// 現在判定対象としている文字列を取得
-			String currentDecisionStr = sql.substring(fromIndex);
-			if (isInnerSingleLineCommentFlg) {
-				String lineSeparateStr = null;
-				// ファイル内の改行コードは統一されている前提。
-				int lineSeparatorIndex = currentDecisionStr.indexOf(CR);
-				if (0 <= lineSeparatorIndex) {
-					lineSeparateStr = String.valueOf(CR);
-					if (lineSeparatorIndex < currentDecisionStr.length() - 1) {
-						Character nextCrStr = currentDecisionStr.charAt(lineSeparatorIndex + 1);
-						if (LF.equals(nextCrStr)) {
-							lineSeparateStr = lineSeparateStr.concat(String.valueOf(LF));
-						}
-					}
-				} else {
-					lineSeparatorIndex = currentDecisionStr.indexOf(LF);
-					if (0 <= lineSeparatorIndex) {
-						lineSeparateStr = String.valueOf(LF);
-					}
-				}
-				
-				if (0 <= lineSeparatorIndex) {
-					// 単一行コメント文中である場合、改行文字は例外無く単一行コメントの終了を意味するため
-					// SqlStateManagerによる有効文字判定は行わない。
-					isInnerSingleLineCommentFlg = false;
-					manager.appendWithNewLine(currentDecisionStr.substring(0, lineSeparatorIndex));
-					fromIndex = fromIndex + lineSeparatorIndex + lineSeparateStr.length();
-					noCommentSqlBuilder.append(lineSeparateStr);
-
-				} else {
-					// コメントの終端文字が存在しない場合、以降の行はすべて単一コメントであるため、処理終了
-					break;
-				}
-				
-			} else if (isInnerMultiLineCommentFlg) {
-				// 複数行コメントの終了文字を探し、該当文字がSQL文法用有効であるかチェックする。
-				int mlCommentSuffixIndex = currentDecisionStr.indexOf(MULTILINE_COMMENT_SUFFIX);
-				if (0 <= mlCommentSuffixIndex) {
-					// 複数行コメント文中である場合、SUFFIX文字は例外無く複数行コメントの終了を意味するため
-					// SqlStateManagerによる有効文字判定は行わない。
-					isInnerMultiLineCommentFlg = false;
-					manager.append(currentDecisionStr.substring(0, mlCommentSuffixIndex + MULTILINE_COMMENT_SUFFIX.length()));
-					fromIndex = fromIndex + mlCommentSuffixIndex + MULTILINE_COMMENT_SUFFIX.length();
-					continue;
-				} else {
-					// コメントの終端文字が存在しない場合、今後コメント以外のSQL文は存在しないため、処理終了
-					break;
-				}
-			} else {
-				// 現在コメント文中ではない
-				int startSingleCommentIndex = currentDecisionStr.indexOf(SINGLELINE_COMMENT_PREFIX);
-				int startMultiCommentIndex = currentDecisionStr.indexOf(MULTILINE_COMMENT_PREFIX);
-				int minimumIndex = NumberUtils.getMinimumOfPositive(startSingleCommentIndex, startMultiCommentIndex);
-				if (minimumIndex < 0) {
-					// 以降の文字はすべてコメント文を含まないSQL文である。内容をBuilderにAppendし処理終了。
-					noCommentSqlBuilder.append(currentDecisionStr);
-					break;
-				} else {
-					String foundString = null;
-					if (minimumIndex == startSingleCommentIndex) {
-						foundString = SINGLELINE_COMMENT_PREFIX;
-					} else {
-						foundString = MULTILINE_COMMENT_PREFIX;
-					}
-					
-					String beforeCommentStr = currentDecisionStr.substring(0, minimumIndex);
-					noCommentSqlBuilder.append(beforeCommentStr);
-					manager.append(beforeCommentStr);
-					if (manager.isEffective()) {
-						// 発見したコメント開始文字列はSQL文法上有意である。（コメント文の開始として有効である）
-						isInnerSingleLineCommentFlg = minimumIndex == startSingleCommentIndex;
-						isInnerMultiLineCommentFlg = minimumIndex == startMultiCommentIndex;
-					} else {
-						// コメント文字列がSQL文歩上コメントの開始として認識されない場合、該当の文字はSQL文であるため、BuilderにAppendする。
-						noCommentSqlBuilder.append(foundString);
-					}
-					fromIndex = fromIndex + beforeCommentStr.length() + foundString.length();
-					manager.append(foundString);
-				}
+		StringBuilder noCommentSqlBuilder = new StringBuilder(sql.length());
+		removeComment(sql, 0, sql.length(), noCommentSqlBuilder);
+		return noCommentSqlBuilder.toString();
+	}
+	
+	/**
+	 * SQL文の指定範囲からコメントを取り除き、出力先のバッファに追加する。<br />
+	 * SQL文を先頭から1度だけ走査し、コメント以外の部分をまとめてバッファに追加する。
+	 * コメントの判定条件は{@link #removeComment(String)}と同様である。<br />
+	 * 指定範囲の開始位置はSQL文法上有効な位置（コメント内、文字列リテラル内ではない位置）であること。
+	 * @param sql 対象のSQL文
+	 * @param fromIndex 対象範囲の開始位置
+	 * @param toIndex 対象範囲の終了位置（この位置を含まない）
+	 * @param noCommentSqlBuilder コメントを除いたSQL文の出力先
+	 */
+	public static void removeComment(CharSequence sql, int fromIndex, int toIndex, StringBuilder noCommentSqlBuilder) {
+		SQLLexer lexer = new SQLLexer();
+		// コメント以外の部分の開始位置
+		int effectiveStartIndex = fromIndex;
+		for (int i = fromIndex; i < toIndex; i++) {
+			SQLLexer.State beforeState = lexer.getState();
+			lexer.next(sql.charAt(i));
+			SQLLexer.State afterState = lexer.getState();
+			if (beforeState == afterState) {
+				continue;
+			}
+			if (afterState == SQLLexer.State.SINGLE_LINE_COMMENT
+					|| afterState == SQLLexer.State.MULTI_LINE_COMMENT) {
+				// コメント開始文字列の2文字目を読み込んだ。コメント開始文字列の1文字目の直前までを出力する。
+				noCommentSqlBuilder.append(sql, effectiveStartIndex, i - 1);
+			} else if (beforeState == SQLLexer.State.SINGLE_LINE_COMMENT) {
+				// 単一行コメントを終了させた改行文字は出力対象とする。
+				effectiveStartIndex = i;
+			} else if (beforeState == SQLLexer.State.MULTI_LINE_COMMENT) {
+				effectiveStartIndex = i + 1;
 			}
 		}
 		
-		return noCommentSqlBuilder.toString();
+		SQLLexer.State lastState = lexer.getState();
+		if (lastState == SQLLexer.State.EFFECTIVE
+				|| lastState == SQLLexer.State.STRING_LITERAL
+				|| lastState == SQLLexer.State.QUOTED_IDENTIFIER) {
+			// 終端していないコメントは出力しない。
+			noCommentSqlBuilder.append(sql, effectiveStartIndex, toIndex);
+		}
 	}
 }
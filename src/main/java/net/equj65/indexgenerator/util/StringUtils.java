@@ -18,6 +18,22 @@ public class StringUtils {
 		return target == null || target.length() == 0;
 	}
 	
+	/**
+	 * 指定位置以降で最初に出現する空白文字以外の文字の位置を返却します。<br />
+	 * 空白文字の判定は{@link String#trim()}と同様に、コードポイントがスペース以下の文字を空白文字とします。
+	 * @param target 検索対象の文字列
+	 * @param fromIndex 検索開始位置
+	 * @return 空白文字以外の文字の位置。存在しない場合は-1
+	 */
+	public static int indexOfNonWhitespace(CharSequence target, int fromIndex) {
+		for (int i = fromIndex; i < target.length(); i++) {
+			if (target.charAt(i) > ' ') {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
 	/**
 	 * {@link StringUtils#join(String[], String)}
 	 * @param tokens
@@ -0,0 +1,46 @@
+package net.equj65.indexgenerator;
+
+/**
+ * テストに利用するSQLを作成するクラス。
+ * @author W.Ryozo
+ */
+public final class SqlFixture {
+
+    private SqlFixture() {
+    }
+
+    /**
+     * 指定数のCreateTable文、およびInsert文を含むSQLを作成する。<br />
+     * CreateTable文（table0、table1、…）はコメント、区切り文字を含む文字列リテラル、括弧を含むカラム定義を指定数持ち、
+     * 10カラム毎の単項目UNIQUE制約（code0、code10、…）と複合UNIQUE制約（id, name）を持つ。
+     * コメントには全角文字を含む。
+     * @param tableCount CreateTable文の数
+     * @param columnCount CreateTable文1文当たりのカラム定義（code0、code1、…）の数
+     * @return 作成したSQL
+     */
+    public static String createSchema(int tableCount, int columnCount) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < tableCount; i++) {
+            appendTable(builder, i, columnCount);
+        }
+        return builder.toString();
+    }
+
+    private static void appendTable(StringBuilder builder, int tableNo, int columnCount) {
+        builder.append("/* テーブル").append(tableNo).append(" ; */\r\n")
+               .append("CREATE TABLE table").append(tableNo).append("\r\n")
+               .append("(\r\n")
+               .append("\tid serial NOT NULL,\r\n");
+        for (int i = 0; i < columnCount; i++) {
+            builder.append("\tcode").append(i).append(" numeric(10,2) DEFAULT (round(1.5, 0))");
+            if (i % 10 == 0) {
+                builder.append(" UNIQUE");
+            }
+            builder.append(", -- コード, (\r\n");
+        }
+        builder.append("\tname text DEFAULT 'a;b,(c',\r\n")
+               .append("\tUNIQUE (id, name)\r\n")
+               .append(") WITHOUT OIDS;\r\n")
+               .append("INSERT INTO table").append(tableNo).append(" VALUES (1, 'x;y', 'unique');\r\n");
+    }
+}
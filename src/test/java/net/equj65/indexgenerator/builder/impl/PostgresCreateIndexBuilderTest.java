@@ -0,0 +1,84 @@
+package net.equj65.indexgenerator.builder.impl;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import net.equj65.indexgenerator.domain.UniqueKey;
+import net.equj65.indexgenerator.parser.SQLParser;
+
+import org.junit.Test;
+
+/**
+ * {@link PostgresCreateIndexBuilder}のテストクラス。
+ * @author W.Ryozo
+ */
+public class PostgresCreateIndexBuilderTest {
+
+    @Test
+    public void 条件が無い場合はWhere句を出力しないこと() {
+        PostgresCreateIndexBuilder builder = new PostgresCreateIndexBuilder();
+        builder.setTableName("item");
+        builder.setIndexFields("code");
+        assertEquals("CREATE UNIQUE INDEX item_code_key ON item (code);\r\n", builder.build().getSqlCommand());
+    }
+
+    @Test
+    public void 条件が1つの場合はWhere句に条件のみを出力すること() {
+        PostgresCreateIndexBuilder builder = new PostgresCreateIndexBuilder();
+        builder.addIndexCondition("is_deleted", Boolean.FALSE);
+        builder.setTableName("item");
+        builder.setIndexFields("id", "code");
+        assertEquals("CREATE UNIQUE INDEX item_id_code_key ON item (id, code) WHERE is_deleted = false;\r\n",
+                builder.build().getSqlCommand());
+    }
+
+    @Test
+    public void 複数の条件は追加した順にANDで連結すること() {
+        PostgresCreateIndexBuilder builder = new PostgresCreateIndexBuilder();
+        builder.addIndexCondition("is_deleted", Boolean.FALSE);
+        builder.addIndexCondition("status", "active");
+        builder.addIndexCondition("version", new BigDecimal("1.5"));
+        builder.setTableName("item");
+        builder.setIndexFields("code");
+        assertEquals("CREATE UNIQUE INDEX item_code_key ON item (code)"
+                + " WHERE is_deleted = false AND status = 'active' AND version = 1.5;\r\n",
+                builder.build().getSqlCommand());
+    }
+
+    @Test
+    public void 条件値がnullの場合はIS_NULLを出力すること() {
+        PostgresCreateIndexBuilder builder = new PostgresCreateIndexBuilder();
+        builder.addIndexCondition("deleted_at", null);
+        builder.addIndexCondition("is_deleted", Boolean.FALSE);
+        builder.setTableName("item");
+        builder.setIndexFields("code");
+        assertEquals("CREATE UNIQUE INDEX item_code_key ON item (code) WHERE deleted_at IS NULL AND is_deleted = false;\r\n",
+                builder.build().getSqlCommand());
+    }
+
+    @Test
+    public void 同一インスタンスで作成した2つ目のIndexのデフォルト名が1つ目と異なること() {
+        List<UniqueKey> uniqueKeyList = new SQLParser()
+                .parse("CREATE TABLE item (id int UNIQUE, code text, name text, UNIQUE (code, name));\r\n")
+                .getCreateTableList().get(0).getUniqueKeyList();
+        PostgresCreateIndexBuilder builder = new PostgresCreateIndexBuilder();
+        builder.addIndexCondition("is_deleted", Boolean.FALSE);
+        builder.setTableName("item");
+
+        builder.setIndexKey(uniqueKeyList.get(0));
+        StringBuilder sqlBuilder = new StringBuilder();
+        builder.appendTo(sqlBuilder);
+        builder.setIndexKey(uniqueKeyList.get(1));
+        builder.appendTo(sqlBuilder);
+        builder.setTableName("other");
+        builder.setIndexFields("code");
+        builder.appendTo(sqlBuilder);
+
+        assertEquals("CREATE UNIQUE INDEX item_id_key ON item (id) WHERE is_deleted = false;\r\n"
+                + "CREATE UNIQUE INDEX item_code_name_key ON item (code, name) WHERE is_deleted = false;\r\n"
+                + "CREATE UNIQUE INDEX other_code_key ON other (code) WHERE is_deleted = false;\r\n",
+                sqlBuilder.toString());
+    }
+}
@@ -0,0 +1,51 @@
+package net.equj65.indexgenerator.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.EntireSQL;
+import net.equj65.indexgenerator.domain.SqlCommand;
+import net.equj65.indexgenerator.parser.SQLParser;
+
+import org.junit.Test;
+
+/**
+ * {@link CacheKey}のテストクラス。
+ * @author W.Ryozo
+ */
+public class CacheKeyTest {
+
+    @Test
+    public void 条件の順序が異なる場合はWHERE句と同様にキーも異なること() {
+        Map<String, Object> deletedFirst = new LinkedHashMap<>();
+        deletedFirst.put("is_deleted", Boolean.FALSE);
+        deletedFirst.put("tenant_id", 1);
+        Map<String, Object> tenantFirst = new LinkedHashMap<>();
+        tenantFirst.put("tenant_id", 1);
+        tenantFirst.put("is_deleted", Boolean.FALSE);
+        Map<String, Object> sameOrder = new LinkedHashMap<>(deletedFirst);
+
+        CacheKey deletedFirstKey = CacheKey.ofSettings(DBMS.POSTGRESQL, deletedFirst, "UTF-8");
+        assertEquals(deletedFirstKey, CacheKey.ofSettings(DBMS.POSTGRESQL, sameOrder, "UTF-8"));
+        assertNotEquals(deletedFirstKey, CacheKey.ofSettings(DBMS.POSTGRESQL, tenantFirst, "UTF-8"));
+
+        assertEquals("CREATE UNIQUE INDEX item_code_key ON item (code) WHERE is_deleted = false AND tenant_id = 1;\r\n",
+                buildIndex(deletedFirst));
+        assertEquals("CREATE UNIQUE INDEX item_code_key ON item (code) WHERE tenant_id = 1 AND is_deleted = false;\r\n",
+                buildIndex(tenantFirst));
+    }
+
+    /**
+     * 条件を付与したCreateIndex文を作成する。
+     */
+    private static String buildIndex(Map<String, Object> conditionMap) {
+        EntireSQL entireSql = new SQLParser().parse("CREATE TABLE item (id int, code text UNIQUE);\r\n");
+        entireSql.addConditionToAllUniqueConstraint(DBMS.POSTGRESQL, conditionMap);
+        List<SqlCommand> commandList = entireSql.getSqlCommandList();
+        return commandList.get(commandList.size() - 1).getSqlCommand();
+    }
+}
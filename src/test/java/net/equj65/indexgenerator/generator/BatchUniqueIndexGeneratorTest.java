@@ -0,0 +1,107 @@
+package net.equj65.indexgenerator.generator;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.equj65.indexgenerator.constants.DBMS;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link BatchUniqueIndexGenerator}のテストクラス。
+ * @author W.Ryozo
+ */
+public class BatchUniqueIndexGeneratorTest {
+
+    /** テストに利用するSQLファイルの数 */
+    private static final int FILE_COUNT = 12;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void 成功と失敗が混在する場合に全ファイルの結果を走査順に返却すること() throws IOException {
+        File inputDir = temporaryFolder.newFolder("input");
+        File outputDir = temporaryFolder.newFolder("output");
+        List<File> badFileList = new ArrayList<>();
+        for (int i = 0; i < FILE_COUNT; i++) {
+            File dir = new File(inputDir, "dir" + (i % 3));
+            dir.mkdirs();
+            File file = new File(dir, "table" + i + ".sql");
+            if (i % 4 == 1) {
+                // 括弧が閉じられていないCreateTable文は解析に失敗する。
+                write(file, "CREATE TABLE table" + i + " (id int UNIQUE;\r\n");
+                badFileList.add(file);
+            } else {
+                write(file, "CREATE TABLE table" + i + " (id int UNIQUE, name text);\r\n");
+            }
+        }
+        write(new File(inputDir, "memo.txt"), "CREATE TABLE memo (id int UNIQUE;\r\n");
+
+        Map<String, Object> conditionMap = new HashMap<>();
+        conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+        BatchResult result = new BatchUniqueIndexGenerator(2).generate(inputDir, outputDir,
+                BatchUniqueIndexGenerator.DEFAULT_GLOB, "UTF-8", DBMS.POSTGRESQL, conditionMap);
+
+        List<GenerateResult> resultList = result.getResultList();
+        List<File> expectedInputList = walk(inputDir);
+        assertEquals(FILE_COUNT, expectedInputList.size());
+        assertEquals(expectedInputList.size(), resultList.size());
+        for (int i = 0; i < resultList.size(); i++) {
+            GenerateResult fileResult = resultList.get(i);
+            File input = fileResult.getInputSqlFile();
+            assertEquals(expectedInputList.get(i).getAbsoluteFile(), input.getAbsoluteFile());
+            assertEquals(!badFileList.contains(input), fileResult.isSuccess());
+            if (fileResult.isSuccess()) {
+                String table = input.getName().replace(".sql", "");
+                assertTrue(read(fileResult.getOutputSqlFile()).contains(
+                        "CREATE UNIQUE INDEX " + table + "_id_key ON " + table + " (id) WHERE is_deleted = false;"));
+            } else {
+                assertNotNull(fileResult.getError());
+            }
+        }
+        assertEquals(badFileList.size(), result.getErrorCount());
+        assertEquals(badFileList.size(), result.getErrorList().size());
+        assertEquals(FILE_COUNT - badFileList.size(), result.getSuccessCount());
+        assertFalse(result.isSuccess());
+    }
+
+    /**
+     * ディレクトリ配下の.sqlファイルを走査順に返却する。
+     */
+    private static List<File> walk(File dir) throws IOException {
+        final List<File> fileList = new ArrayList<>();
+        Files.walkFileTree(dir.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (file.toString().endsWith(".sql")) {
+                    fileList.add(file.toFile());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return fileList;
+    }
+
+    private static void write(File file, String sql) throws IOException {
+        Files.write(file.toPath(), sql.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
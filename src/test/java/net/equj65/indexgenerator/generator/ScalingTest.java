@@ -0,0 +1,287 @@
+package net.equj65.indexgenerator.generator;
+
+import static net.equj65.indexgenerator.SqlFixture.createSchema;
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.equj65.indexgenerator.domain.CreateTableSqlCommand;
+import net.equj65.indexgenerator.domain.EntireSQL;
+import net.equj65.indexgenerator.parser.SQLParser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 入力サイズに対する処理時間、および割り当て量の増加が線形であることを確認するテストクラス。<br />
+ * 入力サイズN、8Nで計測し、比が線形の上限（8倍に余裕を持たせた値）に収まることを検証する。
+ * 2乗に比例する処理が混入した場合、比は64倍前後となる。<br />
+ * 割り当て量は{@link com.sun.management.ThreadMXBean}で全スレッドの割り当て量の合計として計測するため、
+ * {@link UniqueIndexPipeline}の読み込み、解析スレッドでの割り当ても含む。
+ * @author W.Ryozo
+ */
+public class ScalingTest {
+
+    /** 入力サイズの倍率 */
+    private static final int SCALE = 8;
+
+    /** 処理時間の比の上限 */
+    private static final double MAX_TIME_RATIO = SCALE * 2.5;
+
+    /** 割り当て量の比の上限 */
+    private static final double MAX_ALLOCATION_RATIO = SCALE * 1.5;
+
+    /** 計測前の実行回数 */
+    private static final int WARM_UP_COUNT = 3;
+
+    /** 計測回数。処理時間は最小値を採用する */
+    private static final int MEASURE_COUNT = 5;
+
+    /** 最大ヒープを制限した実行の最大ヒープサイズ */
+    private static final String SMALL_HEAP = "-Xmx32m";
+
+    /** 最大ヒープを制限した実行の入力サイズ（最大ヒープの2倍） */
+    private static final long LARGE_INPUT_SIZE = 64L * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void SQL文数に対して解析の処理時間と割り当て量が線形に増加すること() {
+        final SQLParser parser = new SQLParser();
+        assertLinear(new Sizable() {
+            @Override
+            public Object run(int size) {
+                return parser.parse(createSchema(size, 10));
+            }
+        }, 250);
+    }
+
+    @Test
+    public void カラム数に対してUNIQUE制約の解析と除去の処理時間と割り当て量が線形に増加すること() {
+        final SQLParser parser = new SQLParser();
+        assertLinear(new Sizable() {
+            @Override
+            public Object run(int size) {
+                EntireSQL entireSql = parser.parse(createSchema(1, size));
+                ((CreateTableSqlCommand) entireSql.getSqlCommandList().get(0)).removeUniqueConstraints();
+                return entireSql;
+            }
+        }, 500);
+    }
+
+    @Test
+    public void 入力ファイルサイズに対して作成処理の処理時間と割り当て量が線形に増加すること() throws IOException {
+        final Map<String, Object> conditionMap = new HashMap<>();
+        conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+        final File output = new File(temporaryFolder.getRoot(), "output.sql");
+        File smallInput = temporaryFolder.newFile("small.sql");
+        File largeInput = temporaryFolder.newFile("large.sql");
+        Files.write(smallInput.toPath(), createSchema(250, 10).getBytes(StandardCharsets.UTF_8));
+        Files.write(largeInput.toPath(), createSchema(250 * SCALE, 10).getBytes(StandardCharsets.UTF_8));
+        final File[] inputs = {smallInput, largeInput};
+        assertLinear(new Sizable() {
+            @Override
+            public Object run(int size) {
+                try {
+                    Files.deleteIfExists(output.toPath());
+                    UniqueIndexGenerator.generateFile(inputs[size == 1 ? 0 : 1], output, "UTF-8",
+                            UniqueIndexGenerator.DEFAULT_DBMS, conditionMap);
+                    return output;
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }, 1);
+    }
+
+    @Test
+    public void 最大ヒープの2倍の入力を最大ヒープを制限したJVMで処理できること() throws Exception {
+        File input = temporaryFolder.newFile("input.sql");
+        File output = new File(temporaryFolder.getRoot(), "output.sql");
+        int tableCount = writeLargeSchema(input, LARGE_INPUT_SIZE);
+
+        List<String> command = Arrays.asList(
+                new File(System.getProperty("java.home"), "bin/java").getPath(), SMALL_HEAP,
+                "-cp", System.getProperty("java.class.path"),
+                SmallHeapMain.class.getName(), input.getPath(), output.getPath());
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String log = readFully(process.getInputStream());
+        assertEquals(log, 0, process.waitFor());
+        assertLargeSchemaOutput(output, tableCount);
+    }
+
+    /**
+     * 入力サイズN、8Nで処理した際の処理時間、および割り当て量の比が上限に収まることを検証する。
+     */
+    private static void assertLinear(Sizable target, int baseSize) {
+        com.sun.management.ThreadMXBean threadBean = getThreadBean();
+        long[] small = measure(threadBean, target, baseSize);
+        long[] large = measure(threadBean, target, baseSize * SCALE);
+        double timeRatio = (double) large[0] / small[0];
+        double allocationRatio = (double) large[1] / small[1];
+        assertTrue("time ratio : " + timeRatio, timeRatio < MAX_TIME_RATIO);
+        assertTrue("allocation ratio : " + allocationRatio, allocationRatio < MAX_ALLOCATION_RATIO);
+    }
+
+    /**
+     * 処理時間の最小値(ns)と、1回あたりの全スレッドの割り当て量(byte)を計測する。
+     */
+    private static long[] measure(com.sun.management.ThreadMXBean threadBean, Sizable target, int size) {
+        for (int i = 0; i < WARM_UP_COUNT; i++) {
+            target.run(size);
+        }
+        long minNanos = Long.MAX_VALUE;
+        long allocatedBytes = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_COUNT; i++) {
+            Map<Long, Long> startBytes = getAllocatedBytes(threadBean);
+            long startTime = System.nanoTime();
+            target.run(size);
+            minNanos = Math.min(minNanos, System.nanoTime() - startTime);
+            allocatedBytes = Math.min(allocatedBytes, getAllocatedBytesSince(threadBean, startBytes));
+        }
+        return new long[] {minNanos, allocatedBytes};
+    }
+
+    /**
+     * 生存している全スレッドの割り当て量を取得する。
+     */
+    private static Map<Long, Long> getAllocatedBytes(com.sun.management.ThreadMXBean threadBean) {
+        long[] threadIds = threadBean.getAllThreadIds();
+        long[] allocatedBytes = threadBean.getThreadAllocatedBytes(threadIds);
+        Map<Long, Long> allocatedBytesMap = new HashMap<>();
+        for (int i = 0; i < threadIds.length; i++) {
+            // 取得までに終了したスレッドは-1となる
+            if (allocatedBytes[i] >= 0) {
+                allocatedBytesMap.put(threadIds[i], allocatedBytes[i]);
+            }
+        }
+        return allocatedBytesMap;
+    }
+
+    /**
+     * 指定時点以降の全スレッドの割り当て量の合計を取得する。指定時点以降に開始したスレッドは開始からの割り当て量とする。
+     */
+    private static long getAllocatedBytesSince(com.sun.management.ThreadMXBean threadBean, Map<Long, Long> startBytes) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : getAllocatedBytes(threadBean).entrySet()) {
+            Long start = startBytes.get(entry.getKey());
+            total += entry.getValue() - (start != null ? start : 0L);
+        }
+        return total;
+    }
+
+    /**
+     * スレッド毎の割り当て量を取得可能なThreadMXBeanを取得する。取得できないJVMではテストを行わない。
+     */
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(sunThreadBean.isThreadAllocatedMemorySupported());
+        sunThreadBean.setThreadAllocatedMemoryEnabled(true);
+        return sunThreadBean;
+    }
+
+    /**
+     * 指定サイズ以上のSQLファイルを作成し、作成したテーブル数を返却する。<br />
+     * CreateIndex文は入力全体の出力後に出力するため、全テーブルにUNIQUE制約を1つ持たせ、CreateIndex文の保持量も検証する。
+     */
+    private static int writeLargeSchema(File file, long size) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        long written = 0;
+        int tableCount = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8))) {
+            for (int i = 0; written < size; i++, tableCount++) {
+                builder.setLength(0);
+                builder.append("CREATE TABLE table").append(i).append("\r\n(\r\n\tid serial NOT NULL,\r\n");
+                for (int j = 0; j < 20; j++) {
+                    builder.append("\tcode").append(j).append(" varchar(10) DEFAULT 'a;b,(c' NOT NULL, -- コード\r\n");
+                }
+                builder.append("\tPRIMARY KEY (id),\r\n")
+                       .append("\tUNIQUE (id, code0)\r\n")
+                       .append(") WITHOUT OIDS;\r\n");
+                writer.write(builder.toString());
+                written += builder.length();
+            }
+        }
+        return tableCount;
+    }
+
+    /**
+     * {@link #writeLargeSchema(File, long)}で作成したSQLファイルの出力を検証する。<br />
+     * CreateTable文からUNIQUE制約が除去され、全テーブルのCreateIndex文がテーブル順に出力されていること。
+     */
+    private static void assertLargeSchemaOutput(File output, int tableCount) throws IOException {
+        int createTableCount = 0;
+        int indexCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(output.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("CREATE TABLE ")) {
+                    assertEquals("CreateIndex文の後にCreateTable文が出力されている", 0, indexCount);
+                    createTableCount++;
+                } else if (line.startsWith("CREATE UNIQUE INDEX ")) {
+                    String tableName = "table" + indexCount;
+                    assertEquals("CREATE UNIQUE INDEX " + tableName + "_id_code0_key ON " + tableName
+                            + " (id, code0) WHERE is_deleted = false;", line);
+                    indexCount++;
+                } else {
+                    assertFalse(line, line.contains("UNIQUE"));
+                }
+            }
+        }
+        assertEquals(tableCount, createTableCount);
+        assertEquals(tableCount, indexCount);
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        byte[] buffer = new byte[8192];
+        int readCount;
+        while ((readCount = in.read(buffer)) != -1) {
+            builder.append(new String(buffer, 0, readCount, StandardCharsets.UTF_8));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 入力サイズを指定して実行する処理。
+     */
+    private interface Sizable {
+        Object run(int size);
+    }
+
+    /**
+     * 最大ヒープを制限したJVMで実行する処理。失敗した場合は終了コード1で終了する。
+     */
+    public static class SmallHeapMain {
+        public static void main(String[] args) {
+            Map<String, Object> conditionMap = new HashMap<>();
+            conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+            try {
+                UniqueIndexGenerator.generateFile(new File(args[0]), new File(args[1]), "UTF-8",
+                        UniqueIndexGenerator.DEFAULT_DBMS, conditionMap);
+            } catch (Throwable e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+            System.exit(0);
+        }
+    }
+}
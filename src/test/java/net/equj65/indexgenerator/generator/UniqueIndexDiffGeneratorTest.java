@@ -0,0 +1,40 @@
+package net.equj65.indexgenerator.generator;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.EntireSQL;
+import net.equj65.indexgenerator.domain.SqlCommand;
+import net.equj65.indexgenerator.parser.SQLParser;
+
+import org.junit.Test;
+
+/**
+ * {@link UniqueIndexDiffGenerator}のテストクラス。
+ * @author W.Ryozo
+ */
+public class UniqueIndexDiffGeneratorTest {
+
+    @Test
+    public void 変更されたUnique制約のみDropIndex文とCreateUniqueIndex文を出力すること() {
+        String oldSql = "CREATE TABLE same (id int UNIQUE, name text);\r\n"
+                + "CREATE TABLE changed (id int UNIQUE, code text, name text, UNIQUE (code, name));\r\n"
+                + "CREATE TABLE reordered (id int UNIQUE, code text UNIQUE);\r\n"
+                + "CREATE TABLE removed (id int UNIQUE);\r\n";
+        String newSql = "CREATE TABLE same (id int UNIQUE, name text);\r\n"
+                + "CREATE TABLE changed (id int UNIQUE, code text UNIQUE, name text, /* 追加 */ memo text);\r\n"
+                + "CREATE TABLE reordered (code text UNIQUE, id int UNIQUE);\r\n"
+                + "CREATE TABLE added (id int, code text, UNIQUE (id, code));\r\n";
+
+        EntireSQL diffSql = UniqueIndexDiffGenerator.diff(
+                new SQLParser().parse(oldSql), new SQLParser().parse(newSql), DBMS.POSTGRESQL, null);
+
+        List<SqlCommand> commandList = diffSql.getSqlCommandList();
+        assertEquals(3, commandList.size());
+        assertEquals("DROP INDEX IF EXISTS changed_code_name_key;\r\n", commandList.get(0).getSqlCommand());
+        assertEquals("CREATE UNIQUE INDEX changed_code_key ON changed (code);\r\n", commandList.get(1).getSqlCommand());
+        assertEquals("CREATE UNIQUE INDEX added_id_code_key ON added (id, code);\r\n", commandList.get(2).getSqlCommand());
+    }
+}
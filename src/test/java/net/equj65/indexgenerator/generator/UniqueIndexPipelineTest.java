@@ -0,0 +1,186 @@
+package net.equj65.indexgenerator.generator;
+
+import static net.equj65.indexgenerator.SqlFixture.createSchema;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.EntireSQL;
+import net.equj65.indexgenerator.parser.SQLParser;
+import net.equj65.indexgenerator.trace.TracePoint;
+import net.equj65.indexgenerator.trace.TraceSpan;
+import net.equj65.indexgenerator.trace.Tracer;
+import net.equj65.indexgenerator.trace.Tracing;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link UniqueIndexPipeline}のテストクラス。
+ * @author W.Ryozo
+ */
+public class UniqueIndexPipelineTest {
+
+    /** テストに利用するCreateTable文の数 */
+    private static final int TABLE_COUNT = 300;
+
+    /** 読み込みの待機が頻繁に発生するよう、処理中SQL文数の上限を小さくしたパイプライン */
+    private static final UniqueIndexPipeline PIPELINE = new UniqueIndexPipeline(4, 8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Map<String, Object> conditionMap;
+
+    @Before
+    public void setUp() {
+        conditionMap = new HashMap<>();
+        conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+    }
+
+    @Test
+    public void 出力ファイルが一括処理の出力とバイト単位で一致すること() throws IOException {
+        String sql = createSchema(TABLE_COUNT, 1);
+        File input = temporaryFolder.newFile("input.sql");
+        Files.write(input.toPath(), sql.getBytes(Charset.forName("Shift_JIS")));
+
+        File expected = new File(temporaryFolder.getRoot(), "expected.sql");
+        EntireSQL entireSql = new SQLParser().parse(UniqueIndexGenerator.readSqlFile(input, "Shift_JIS"));
+        entireSql.addConditionToAllUniqueConstraint(DBMS.POSTGRESQL, conditionMap);
+        UniqueIndexGenerator.writeSqlFile(expected, entireSql, "Shift_JIS");
+
+        // 共有のスレッドを繰り返し利用しても結果が変わらないことを確認する。
+        for (int i = 0; i < 3; i++) {
+            File actual = new File(temporaryFolder.getRoot(), "actual" + i + ".sql");
+            UniqueIndexGenerator.generateFile(input, actual, "Shift_JIS", DBMS.POSTGRESQL, conditionMap, PIPELINE);
+            assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+        }
+    }
+
+    @Test
+    public void 読み込み中の例外が呼び出し元に伝播すること() throws IOException {
+        final String sql = createSchema(TABLE_COUNT, 1);
+        Reader reader = new StringReader(sql) {
+            private int readLength;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (readLength > sql.length() / 2) {
+                    throw new IOException("read failed");
+                }
+                int count = super.read(buffer, offset, Math.min(length, 256));
+                readLength += Math.max(count, 0);
+                return count;
+            }
+        };
+        try {
+            PIPELINE.run(reader, new StringWriter(), DBMS.POSTGRESQL, conditionMap);
+            fail();
+        } catch (IOException e) {
+            assertEquals("read failed", e.getMessage());
+        }
+        assertRunnable();
+    }
+
+    @Test
+    public void 解析中の例外が呼び出し元に伝播すること() throws IOException {
+        // 括弧が閉じられていないCreateTable文を中間に含める。
+        String sql = createSchema(TABLE_COUNT / 2, 1) + "CREATE TABLE broken (id int UNIQUE;\r\n" + createSchema(TABLE_COUNT / 2, 1);
+        try {
+            PIPELINE.run(new StringReader(sql), new StringWriter(), DBMS.POSTGRESQL, conditionMap);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // 解析スレッドで発生した例外をそのまま送出する
+        }
+        assertRunnable();
+    }
+
+    @Test
+    public void 全ての計測箇所が待機時間を含めずに記録されること() throws IOException {
+        String sql = createSchema(TABLE_COUNT, 1);
+        RecordingTracer tracer = new RecordingTracer();
+        Tracing.setTracer(tracer);
+        try {
+            PIPELINE.run(new StringReader(sql), new StringWriter(), DBMS.POSTGRESQL, conditionMap);
+        } finally {
+            Tracing.setTracer(null);
+        }
+
+        for (TracePoint point : TracePoint.values()) {
+            assertTrue(point.toString(), tracer.getCount(point) > 0);
+        }
+        // 1文毎の計測（SPLITは入力終端までの読み込みを含む）
+        int statementCount = new SQLParser().parse(sql).getSqlCommandList().size();
+        assertEquals(statementCount + 1, tracer.getCount(TracePoint.SPLIT));
+        assertEquals(statementCount, tracer.getCount(TracePoint.PARSE));
+        assertEquals(statementCount, tracer.getCount(TracePoint.BUILD_COMMAND));
+        assertEquals(TABLE_COUNT, tracer.getCount(TracePoint.REMOVE_UNIQUE));
+        assertEquals(TABLE_COUNT, tracer.getCount(TracePoint.ADD_CONDITION));
+        // 読み込みは待機の都度区切られ、区切った計測の合計が入力全体となる。
+        assertTrue(tracer.getCount(TracePoint.READ_FILE) > 1);
+        assertEquals(sql.length(), tracer.getLength(TracePoint.READ_FILE));
+        assertEquals(1, tracer.getCount(TracePoint.WRITE_FILE));
+    }
+
+    /**
+     * 失敗した実行の後も、同じパイプラインで正常に処理できることを検証する。
+     */
+    private void assertRunnable() throws IOException {
+        String sql = createSchema(TABLE_COUNT, 1);
+        EntireSQL entireSql = new SQLParser().parse(sql);
+        entireSql.addConditionToAllUniqueConstraint(DBMS.POSTGRESQL, conditionMap);
+        StringWriter writer = new StringWriter();
+        PIPELINE.run(new StringReader(sql), writer, DBMS.POSTGRESQL, conditionMap);
+        assertEquals(entireSql.toString(), writer.toString());
+    }
+
+    /**
+     * 計測箇所毎に、終了した計測の数と長さの合計を記録するTracer。
+     */
+    private static class RecordingTracer implements Tracer {
+
+        private final Map<TracePoint, long[]> recordMap = new EnumMap<>(TracePoint.class);
+
+        @Override
+        public TraceSpan begin(final TracePoint point) {
+            return new TraceSpan() {
+                @Override
+                public void finish(String tableName, long statementLength) {
+                    synchronized (recordMap) {
+                        long[] record = recordMap.get(point);
+                        if (record == null) {
+                            record = new long[2];
+                            recordMap.put(point, record);
+                        }
+                        record[0]++;
+                        record[1] += statementLength;
+                    }
+                }
+            };
+        }
+
+        long getCount(TracePoint point) {
+            synchronized (recordMap) {
+                return recordMap.containsKey(point) ? recordMap.get(point)[0] : 0;
+            }
+        }
+
+        long getLength(TracePoint point) {
+            synchronized (recordMap) {
+                return recordMap.containsKey(point) ? recordMap.get(point)[1] : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package net.equj65.indexgenerator.generator;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.equj65.indexgenerator.constants.DBMS;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link UniqueIndexWatcher}のテストクラス。<br />
+ * 入力ファイルを変更して再作成した出力ファイルが、変更後の入力ファイルを一括で処理した出力と一致することを検証する。
+ * @author W.Ryozo
+ */
+public class UniqueIndexWatcherTest {
+
+    /** テストに利用するCreateTable文の数 */
+    private static final int TABLE_COUNT = 5;
+
+    private File workDir;
+    private File input;
+    private File output;
+    private Map<String, Object> conditionMap;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("watcher-test").toFile();
+        input = new File(workDir, "input.sql");
+        output = new File(workDir, "output.sql");
+        conditionMap = new HashMap<>();
+        conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : workDir.listFiles()) {
+            file.delete();
+        }
+        workDir.delete();
+    }
+
+    @Test
+    public void 先頭のSQL文の変更が出力に反映されること() throws IOException {
+        String sql = createSchema(TABLE_COUNT);
+        try (UniqueIndexWatcher watcher = createWatcher("UTF-8", sql)) {
+            int parsedCount = regenerate(watcher, "UTF-8", sql.replace("table0\r\n", "renamed0\r\n"));
+            assertEquals(1, parsedCount);
+        }
+    }
+
+    @Test
+    public void 中間のSQL文の変更が出力に反映されること() throws IOException {
+        String sql = createSchema(TABLE_COUNT);
+        try (UniqueIndexWatcher watcher = createWatcher("UTF-8", sql)) {
+            int parsedCount = regenerate(watcher, "UTF-8", sql.replace("\tname2 text,", "\tname2 varchar(100),"));
+            assertEquals(1, parsedCount);
+        }
+    }
+
+    @Test
+    public void 末尾のSQL文の変更と追加が出力に反映されること() throws IOException {
+        String sql = createSchema(TABLE_COUNT);
+        try (UniqueIndexWatcher watcher = createWatcher("UTF-8", sql)) {
+            String lastTable = "table" + (TABLE_COUNT - 1);
+            sql = sql.replace("CREATE TABLE " + lastTable + "\r\n", "CREATE TABLE " + lastTable + "_v2\r\n");
+            regenerate(watcher, "UTF-8", sql);
+            regenerate(watcher, "UTF-8", sql + createTable(TABLE_COUNT));
+        }
+    }
+
+    @Test
+    public void Unique制約の追加と削除が出力に反映されること() throws IOException {
+        String sql = createSchema(TABLE_COUNT);
+        try (UniqueIndexWatcher watcher = createWatcher("UTF-8", sql)) {
+            String added = sql.replace("\tname2 text,", "\tname2 text UNIQUE,");
+            regenerate(watcher, "UTF-8", added);
+            assertTrue(read(output, "UTF-8").contains("CREATE UNIQUE INDEX table2_name2_key ON table2 (name2)"));
+
+            String removed = added.replace("\tUNIQUE (id, code3)\r\n", "\tPRIMARY KEY (id)\r\n");
+            regenerate(watcher, "UTF-8", removed);
+            assertFalse(read(output, "UTF-8").contains("ON table3 (id, code3)"));
+        }
+    }
+
+    @Test
+    public void マルチバイト文字コードの入力でバイト長が変わる変更が出力に反映されること() throws IOException {
+        String sql = createSchema(TABLE_COUNT);
+        try (UniqueIndexWatcher watcher = createWatcher("Shift_JIS", sql)) {
+            // 出力ファイル上で後続の内容が移動するよう、変更前後でバイト長を変える。
+            regenerate(watcher, "Shift_JIS", sql.replace("/* テーブル1 */", "/* 全角文字を追加したテーブル1 */"));
+            regenerate(watcher, "Shift_JIS", sql.replace("/* テーブル3 */", "/* 3 */")
+                    .replace("\tname3 text,", "\t名称３ text UNIQUE,"));
+        }
+    }
+
+    /**
+     * 入力ファイルを作成し、初回の作成を行ったWatcherを作成する。
+     */
+    private UniqueIndexWatcher createWatcher(String encoding, String sql) throws IOException {
+        Files.write(input.toPath(), sql.getBytes(Charset.forName(encoding)));
+        UniqueIndexWatcher watcher = new UniqueIndexWatcher(input, output, encoding, DBMS.POSTGRESQL, conditionMap);
+        regenerate(watcher, encoding, sql);
+        return watcher;
+    }
+
+    /**
+     * 入力ファイルを書き換えて再作成し、出力ファイルが一括で処理した出力と一致することを検証する。
+     * @return 再解析したSQL文の数
+     */
+    private int regenerate(UniqueIndexWatcher watcher, String encoding, String sql) throws IOException {
+        Files.write(input.toPath(), sql.getBytes(Charset.forName(encoding)));
+        int parsedCount = watcher.regenerate();
+
+        File expected = new File(workDir, "expected.sql");
+        Files.deleteIfExists(expected.toPath());
+        UniqueIndexGenerator.generateFile(input, expected, encoding, DBMS.POSTGRESQL, conditionMap);
+        assertEquals(read(expected, encoding), read(output, encoding));
+        return parsedCount;
+    }
+
+    private static String read(File file, String encoding) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), Charset.forName(encoding));
+    }
+
+    private static String createSchema(int tableCount) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < tableCount; i++) {
+            builder.append(createTable(i));
+        }
+        return builder.toString();
+    }
+
+    private static String createTable(int tableNo) {
+        return "/* テーブル" + tableNo + " */\r\n"
+                + "CREATE TABLE table" + tableNo + "\r\n"
+                + "(\r\n"
+                + "\tid serial NOT NULL,\r\n"
+                + "\tcode" + tableNo + " varchar(20) NOT NULL UNIQUE,\r\n"
+                + "\tname" + tableNo + " text,\r\n"
+                + "\tUNIQUE (id, code" + tableNo + ")\r\n"
+                + ") WITHOUT OIDS;\r\n";
+    }
+}
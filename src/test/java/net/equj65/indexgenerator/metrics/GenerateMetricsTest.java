@@ -0,0 +1,79 @@
+package net.equj65.indexgenerator.metrics;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.generator.UniqueIndexGenerator;
+import net.equj65.indexgenerator.parser.SQLParser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link GenerateMetrics}のテストクラス。
+ * @author W.Ryozo
+ */
+public class GenerateMetricsTest {
+
+    /** テストに利用するCreateTable文の数 */
+    private static final int TABLE_COUNT = 200;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void 全工程の処理時間と記録回数がSQL文数に対応して記録されること() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            builder.append("/* テーブル").append(i).append(" */\r\n")
+                   .append("CREATE TABLE table").append(i).append("\r\n")
+                   .append("(\r\n")
+                   .append("\tid serial NOT NULL,\r\n")
+                   .append("\tcode varchar(10) NOT NULL UNIQUE,\r\n")
+                   .append("\tname text,\r\n")
+                   .append("\tUNIQUE (id, name)\r\n")
+                   .append(") WITHOUT OIDS;\r\n")
+                   .append("INSERT INTO table").append(i).append(" VALUES (1, 'x;y', 'name');\r\n");
+        }
+        String sql = builder.toString();
+        File input = temporaryFolder.newFile("input.sql");
+        Files.write(input.toPath(), sql.getBytes(StandardCharsets.UTF_8));
+        File output = new File(temporaryFolder.getRoot(), "output.sql");
+        Map<String, Object> conditionMap = new HashMap<>();
+        conditionMap.put(UniqueIndexGenerator.DEFAULT_DELFLAG_NAME, Boolean.FALSE);
+
+        GenerateMetrics metrics = new GenerateMetrics();
+        UniqueIndexGenerator.generateFile(input, output, "UTF-8", DBMS.POSTGRESQL, conditionMap, metrics);
+
+        int statementCount = new SQLParser().parse(sql).getSqlCommandList().size();
+        assertEquals(statementCount, metrics.getStatementCount());
+        assertEquals(TABLE_COUNT, metrics.getCreateTableCount());
+        assertEquals(TABLE_COUNT * 2, metrics.getUniqueConstraintCount());
+        assertEquals(TABLE_COUNT * 2, metrics.getIndexCount());
+        assertEquals(input.length(), metrics.getInputBytes());
+        assertEquals(output.length(), metrics.getOutputBytes());
+        assertTrue(metrics.getElapsedNanos() > 0);
+
+        for (GeneratePhase phase : GeneratePhase.values()) {
+            assertTrue(phase.toString(), metrics.getPhaseNanos(phase) > 0);
+            assertTrue(phase.toString(), metrics.getPhaseCount(phase) > 0);
+        }
+        // 読み込みと分割は入力終端の検出を含めてSQL文毎に記録する。
+        assertEquals(statementCount + 1, metrics.getPhaseCount(GeneratePhase.READ));
+        assertEquals(statementCount + 1, metrics.getPhaseCount(GeneratePhase.SPLIT));
+        assertEquals(statementCount, metrics.getPhaseCount(GeneratePhase.CLASSIFY));
+        assertEquals(TABLE_COUNT, metrics.getPhaseCount(GeneratePhase.ANALYZE_FIELDS));
+        assertEquals(TABLE_COUNT, metrics.getPhaseCount(GeneratePhase.REMOVE_UNIQUE));
+        assertEquals(TABLE_COUNT, metrics.getPhaseCount(GeneratePhase.BUILD_INDEX));
+        // 書き込みはSQL文毎に加え、CreateIndex文の書き込みとフラッシュを記録する。
+        assertEquals(statementCount + 2, metrics.getPhaseCount(GeneratePhase.WRITE));
+    }
+}
@@ -0,0 +1,128 @@
+package net.equj65.indexgenerator.parser;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.Charset;
+
+import net.equj65.indexgenerator.parser.SQLLexer.State;
+
+import org.junit.Test;
+
+/**
+ * {@link SQLLexer}のテストクラス。
+ * @author W.Ryozo
+ */
+public class SQLLexerTest {
+
+    @Test
+    public void 文字列リテラル内の文字は有効と判定されないこと() {
+        String sql = "a 'b;--c' d";
+        assertTrue(SQLLexer.isEffective(sql, sql.indexOf('\'')));
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf(';')));
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf('-')));
+        assertTrue(SQLLexer.isEffective(sql, sql.indexOf('d')));
+        assertEquals(State.STRING_LITERAL, stateOf("a 'b"));
+    }
+
+    @Test
+    public void 連続した引用符は文字列リテラルを終了させないこと() {
+        String sql = "'it''s; -- x' ;";
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf(';')));
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf('-')));
+        assertTrue(SQLLexer.isEffective(sql, sql.lastIndexOf(';')));
+        assertEquals(State.EFFECTIVE, stateOf("''"));
+        assertEquals(State.EFFECTIVE, stateOf("''''"));
+        assertEquals(State.STRING_LITERAL, stateOf("'''"));
+    }
+
+    @Test
+    public void 引用符付き識別子内の文字は有効と判定されないこと() {
+        String sql = "CREATE TABLE \"a;b--(c\" (\"/*id*/\" int UNIQUE);";
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf(';')));
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf('-')));
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf('(')));
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf('/')));
+        assertTrue(SQLLexer.isEffective(sql, sql.indexOf(" (")));
+        assertTrue(SQLLexer.isEffective(sql, sql.lastIndexOf(';')));
+        assertEquals(State.QUOTED_IDENTIFIER, stateOf("CREATE TABLE \"a"));
+    }
+
+    @Test
+    public void 連続した二重引用符は引用符付き識別子を終了させないこと() {
+        String sql = "\"a\"\"b;c\" ;";
+        assertFalse(SQLLexer.isEffective(sql, sql.indexOf(';')));
+        assertTrue(SQLLexer.isEffective(sql, sql.lastIndexOf(';')));
+        assertEquals(State.QUOTED_IDENTIFIER, stateOf("\"a\"\""));
+    }
+
+    @Test
+    public void 文字列リテラルと引用符付き識別子は互いの引用符で終了しないこと() {
+        assertEquals(State.EFFECTIVE, stateOf("'a\"b' "));
+        assertEquals(State.EFFECTIVE, stateOf("\"it's\" "));
+        assertEquals(State.STRING_LITERAL, stateOf("'a\""));
+        assertEquals(State.QUOTED_IDENTIFIER, stateOf("\"it'"));
+    }
+
+    @Test
+    public void コメント内の引用符は無視されること() {
+        assertEquals(State.EFFECTIVE, stateOf("-- it's \"a\r\n"));
+        assertEquals(State.EFFECTIVE, stateOf("/* it's \"a */"));
+        assertEquals(State.SINGLE_LINE_COMMENT, stateOf("a -- b"));
+        assertEquals(State.MULTI_LINE_COMMENT, stateOf("a /* b *"));
+    }
+
+    @Test
+    public void ShiftJISの2バイト目が0x5Cの文字を含むSQLを正しく判定すること() {
+        Charset shiftJis = Charset.forName("Shift_JIS");
+        String sql = "name text DEFAULT 'ソ表能' UNIQUE, -- 表\r\n\"予定表\" int;";
+        byte[] bytes = sql.getBytes(shiftJis);
+        int trailByteCount = 0;
+        for (int i = 1; i < bytes.length; i++) {
+            if (bytes[i] == 0x5C && (bytes[i - 1] & 0xFF) >= 0x81) {
+                trailByteCount++;
+            }
+        }
+        assertEquals(6, trailByteCount);
+
+        String decoded = new String(bytes, shiftJis);
+        assertEquals(sql, decoded);
+        assertTrue(SQLLexer.isEffective(decoded, decoded.indexOf(" UNIQUE")));
+        assertFalse(SQLLexer.isEffective(decoded, decoded.indexOf('能')));
+        assertFalse(SQLLexer.isEffective(decoded, decoded.indexOf("予定表")));
+        assertTrue(SQLLexer.isEffective(decoded, decoded.indexOf(';')));
+
+        SQLLexer lexer = new SQLLexer();
+        char[] chars = decoded.toCharArray();
+        lexer.next(chars, 0, chars.length);
+        assertEquals(State.EFFECTIVE, lexer.getState());
+    }
+
+    @Test
+    public void 行末の指定で単一行コメントのみが終了すること() {
+        SQLLexer lexer = new SQLLexer();
+        lexer.next("a -- b", 0, 6);
+        lexer.endOfLine();
+        assertEquals(State.EFFECTIVE, lexer.getState());
+
+        lexer.next("'a", 0, 2);
+        lexer.endOfLine();
+        assertEquals(State.STRING_LITERAL, lexer.getState());
+        lexer.reset();
+        assertEquals(State.EFFECTIVE, lexer.getState());
+
+        // 保留中のコメント開始文字は行を跨がない。
+        lexer.next('-');
+        lexer.endOfLine();
+        lexer.next('-');
+        assertEquals(State.EFFECTIVE, lexer.getState());
+    }
+
+    /**
+     * SQL文を全て読み込んだ後の状態を返却する。
+     */
+    private static State stateOf(String sql) {
+        SQLLexer lexer = new SQLLexer();
+        lexer.next(sql, 0, sql.length());
+        return lexer.getState();
+    }
+}
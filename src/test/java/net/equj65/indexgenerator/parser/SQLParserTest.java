@@ -0,0 +1,233 @@
+package net.equj65.indexgenerator.parser;
+
+import static net.equj65.indexgenerator.SqlFixture.createSchema;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import net.equj65.indexgenerator.cache.CacheScope;
+import net.equj65.indexgenerator.cache.ParseCache;
+import net.equj65.indexgenerator.constants.DBMS;
+import net.equj65.indexgenerator.domain.CreateTableSqlCommand;
+import net.equj65.indexgenerator.domain.EntireSQL;
+import net.equj65.indexgenerator.domain.SqlCommand;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link SQLParser}のテストクラス。
+ * @author W.Ryozo
+ */
+public class SQLParserTest {
+
+    /** テストに利用するCreateTable文の数 */
+    private static final int TABLE_COUNT = 500;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void 並列解析の結果が逐次解析の結果と同じ順序で一致すること() {
+        String sql = createSchema(TABLE_COUNT, 1);
+        EntireSQL expected = new SQLParser().parse(sql);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            EntireSQL actual = new SQLParser(pool).parse(sql);
+            assertSameCommands(expected, actual);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void 同一インスタンスを複数スレッドから同時に利用できること() throws Exception {
+        final String sql = createSchema(TABLE_COUNT, 1);
+        final SQLParser parser = new SQLParser();
+        EntireSQL expected = parser.parse(sql);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<EntireSQL>> futureList = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futureList.add(executor.submit(new Callable<EntireSQL>() {
+                    @Override
+                    public EntireSQL call() {
+                        return parser.parse(sql);
+                    }
+                }));
+            }
+            for (Future<EntireSQL> future : futureList) {
+                assertSameCommands(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 並列解析中の例外が呼び出し元に伝播すること() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // フィールド定義部の無いCreateTable文
+            new SQLParser(executor).parse("CREATE TABLE hoge;");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void 解析結果のCreateTable文をテーブル名と入力順で参照できること() {
+        EntireSQL entireSql = new SQLParser().parse(createSchema(TABLE_COUNT, 1));
+
+        List<CreateTableSqlCommand> createTableList = entireSql.getCreateTableList();
+        assertEquals(TABLE_COUNT, createTableList.size());
+        assertEquals(TABLE_COUNT, entireSql.getCreateTableCount());
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            CreateTableSqlCommand createTable = entireSql.getCreateTable("table" + i);
+            assertEquals("table" + i, createTable.getCreateTableName());
+            assertSame(createTable, createTableList.get(i));
+        }
+        assertNull(entireSql.getCreateTable("unknown"));
+    }
+
+    @Test
+    public void 解析時に記録した位置を利用してUniqueキーの抽出とUNIQUE制約の除去ができること() {
+        String sql = "CREATE TABLE t (\n"
+                + "\tUNIQUE (a, /* x, */ b),\n"
+                + "\tunique(c),\n"
+                + "\ta int UNIQUE, -- unique,\n"
+                + "\tb text DEFAULT 'unique,(' NOT NULL,\n"
+                + "\tc int\tunique,\n"
+                + "\tUNIQUE (b, c)\n"
+                + ") WITHOUT OIDS;";
+        CreateTableSqlCommand createTable = new SQLParser().parse(sql).getCreateTable("t");
+        assertEquals("[[a, b], [c], [a], [c], [b, c]]", createTable.getUniqueKeyList().toString());
+
+        createTable.removeUniqueConstraints();
+        assertEquals("CREATE TABLE t (\n"
+                + "\ta int, -- unique,\n"
+                + "\tb text DEFAULT 'unique,(' NOT NULL,\n"
+                + "\tc int\t) WITHOUT OIDS;", createTable.getSqlCommand());
+    }
+
+    @Test
+    public void 先頭のコメントを読み飛ばしSQL文の種別を判定できること() {
+        assertEquals(SQLStatementClassifier.StatementType.CREATE_TABLE,
+                SQLStatementClassifier.classify("-- create\r\n/* ; */ create /* x */\ttable hoge(id int)"));
+        assertEquals(SQLStatementClassifier.StatementType.ALTER_TABLE,
+                SQLStatementClassifier.classify(" ALTER TABLE hoge ADD UNIQUE (id)"));
+        assertEquals(SQLStatementClassifier.StatementType.INSERT,
+                SQLStatementClassifier.classify("/* CREATE TABLE */ INSERT INTO hoge VALUES ('CREATE TABLE a (b)')"));
+        assertEquals(SQLStatementClassifier.StatementType.COMMENT_ON,
+                SQLStatementClassifier.classify("COMMENT\nON TABLE hoge IS 'x'"));
+        assertEquals(SQLStatementClassifier.StatementType.OTHER,
+                SQLStatementClassifier.classify("CREATE INDEX idx ON hoge (id)"));
+        assertEquals("hoge", SQLStatementClassifier.getTableName("/* a */ create table hoge/* b */(id int);"));
+
+        EntireSQL entireSql = new SQLParser().parse(
+                "INSERT INTO hoge VALUES ('CREATE TABLE a (b UNIQUE)');\r\n-- x\r\nCREATE TABLE fuga (id int UNIQUE);");
+        assertFalse(entireSql.getSqlCommandList().get(0) instanceof CreateTableSqlCommand);
+        assertEquals(1, entireSql.getCreateTableCount());
+        assertNotNull(entireSql.getCreateTable("fuga"));
+    }
+
+    @Test
+    public void キャッシュから復元したCreateTable文が解析結果と一致し破損したエントリは再解析されること() throws IOException {
+        StringBuilder builder = new StringBuilder("CREATE TABLE wide\r\n(\r\n\tid serial NOT NULL UNIQUE");
+        for (int i = 0; builder.length() < CacheScope.MIN_STATEMENT_LENGTH; i++) {
+            builder.append(",\r\n\tcolumn").append(i).append(" varchar(10) NOT NULL -- 項目").append(i);
+        }
+        String sql = builder.append(",\r\n\tUNIQUE (column0, column1)\r\n);\r\n").toString() + createSchema(1, 1);
+        EntireSQL expected = new SQLParser().parse(sql);
+        expected.addConditionToAllUniqueConstraint(DBMS.POSTGRESQL, null);
+
+        File directory = temporaryFolder.newFolder("parse-cache");
+        CacheScope scope = new ParseCache(directory).scope(DBMS.POSTGRESQL, null, "UTF-8");
+        for (int i = 0; i < 2; i++) {
+            EntireSQL actual = new SQLParser(null, null, scope).parse(sql);
+            actual.addConditionToAllUniqueConstraint(DBMS.POSTGRESQL, null);
+            assertSameCommands(expected, actual);
+        }
+
+        // 別インスタンスで開き直し、エントリの内容を破損させる。
+        ParseCache cache = new ParseCache(directory);
+        assertEquals(1, cache.getEntryCount());
+        for (File shard : directory.listFiles()) {
+            for (File entry : shard.listFiles()) {
+                try (RandomAccessFile file = new RandomAccessFile(entry, "rw")) {
+                    long position = file.length() / 2;
+                    file.seek(position);
+                    int value = file.read();
+                    file.seek(position);
+                    file.write(~value);
+                }
+            }
+        }
+        EntireSQL actual = new SQLParser(null, null, cache.scope(DBMS.POSTGRESQL, null, "UTF-8")).parse(sql);
+        actual.addConditionToAllUniqueConstraint(DBMS.POSTGRESQL, null);
+        assertSameCommands(expected, actual);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void サイズ上限を超える既存のエントリは開き直した時点で古いものから削除されること() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int tableNo = 0; tableNo < 3; tableNo++) {
+            builder.append("CREATE TABLE wide").append(tableNo).append("\r\n(\r\n\tid serial NOT NULL UNIQUE");
+            for (int i = 0; i < CacheScope.MIN_STATEMENT_LENGTH / 32; i++) {
+                builder.append(",\r\n\tcolumn").append(i).append(" varchar(10) NOT NULL -- 項目").append(i);
+            }
+            builder.append("\r\n);\r\n");
+        }
+
+        File directory = temporaryFolder.newFolder("parse-cache");
+        ParseCache cache = new ParseCache(directory);
+        new SQLParser(null, null, cache.scope(DBMS.POSTGRESQL, null, "UTF-8")).parse(builder.toString());
+        assertEquals(3, cache.getEntryCount());
+        long entryBytes = cache.getTotalBytes() / 3;
+
+        ParseCache reopened = new ParseCache(directory, entryBytes * 3 / 2);
+        assertEquals(1, reopened.getEntryCount());
+        assertTrue(reopened.getTotalBytes() <= entryBytes * 3 / 2);
+        int fileCount = 0;
+        for (File shard : directory.listFiles()) {
+            fileCount += shard.listFiles().length;
+        }
+        assertEquals(1, fileCount);
+    }
+
+    /**
+     * 2つのEntireSQLが同じSQL文を同じ順序で保持していることを検証する。
+     */
+    private static void assertSameCommands(EntireSQL expected, EntireSQL actual) {
+        List<SqlCommand> expectedList = expected.getSqlCommandList();
+        List<SqlCommand> actualList = actual.getSqlCommandList();
+        assertEquals(expectedList.size(), actualList.size());
+        for (int i = 0; i < expectedList.size(); i++) {
+            SqlCommand expectedCommand = expectedList.get(i);
+            SqlCommand actualCommand = actualList.get(i);
+            assertEquals(expectedCommand.getClass(), actualCommand.getClass());
+            assertEquals(expectedCommand.getSqlCommand(), actualCommand.getSqlCommand());
+            if (expectedCommand instanceof CreateTableSqlCommand) {
+                CreateTableSqlCommand expectedCreateTable = (CreateTableSqlCommand) expectedCommand;
+                CreateTableSqlCommand actualCreateTable = (CreateTableSqlCommand) actualCommand;
+                assertEquals(expectedCreateTable.getCreateTableName(), actualCreateTable.getCreateTableName());
+                assertEquals(expectedCreateTable.getUniqueKeyList(), actualCreateTable.getUniqueKeyList());
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.equj65.indexgenerator.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * {@link SqlUtils}のテストクラス。
+ * @author W.Ryozo
+ */
+public class SqlUtilsTest {
+
+    @Test
+    public void 単一行コメントは改行文字を残して削除されること() {
+        assertEquals("id int, \r\nname text", SqlUtils.removeComment("id int, -- ID\r\nname text"));
+        assertEquals("id int, \nname text", SqlUtils.removeComment("id int, -- ID\nname text"));
+    }
+
+    @Test
+    public void 改行文字の無い入力終端の単一行コメントが削除されること() {
+        assertEquals("id int ", SqlUtils.removeComment("id int -- ID"));
+        assertEquals("id int ", SqlUtils.removeComment("id int --"));
+        assertEquals("", SqlUtils.removeComment("--"));
+    }
+
+    @Test
+    public void 複数行コメントは改行文字を含めて削除されること() {
+        assertEquals("id  int", SqlUtils.removeComment("id /* ID\r\n識別子 */ int"));
+        assertEquals("id int", SqlUtils.removeComment("id/**/ int"));
+    }
+
+    @Test
+    public void 複数行コメントは最初のコメント終了文字列で終了すること() {
+        // 入れ子のコメントは解釈せず、最初の"*/"以降を有効なSQLとして扱う。
+        assertEquals("id  b */ int", SqlUtils.removeComment("id /* a /* b */ b */ int"));
+        assertEquals("id  int", SqlUtils.removeComment("id /* a -- b */ int"));
+    }
+
+    @Test
+    public void 終端していない複数行コメントは削除されること() {
+        assertEquals("id ", SqlUtils.removeComment("id /* ID"));
+        assertEquals("id ", SqlUtils.removeComment("id /* ID *"));
+    }
+
+    @Test
+    public void 文字列リテラル内のコメント開始文字列は削除されないこと() {
+        assertEquals("name text DEFAULT '--' UNIQUE", SqlUtils.removeComment("name text DEFAULT '--' UNIQUE"));
+        assertEquals("name text DEFAULT '/* a */' ", SqlUtils.removeComment("name text DEFAULT '/* a */' /* b */"));
+        assertEquals("name text DEFAULT 'it''s -- a' ", SqlUtils.removeComment("name text DEFAULT 'it''s -- a' -- b"));
+        // 終端していない文字列リテラルはそのまま出力する。
+        assertEquals("name text DEFAULT '-- a", SqlUtils.removeComment("name text DEFAULT '-- a"));
+    }
+
+    @Test
+    public void 引用符付き識別子内のコメント開始文字列は削除されないこと() {
+        assertEquals("\"a--b\" int ", SqlUtils.removeComment("\"a--b\" int -- c"));
+        assertEquals("\"/*a*/\" int ", SqlUtils.removeComment("\"/*a*/\" int /* c */"));
+        assertEquals("\"it's -- a\" ", SqlUtils.removeComment("\"it's -- a\" -- b"));
+    }
+
+    @Test
+    public void コメント内の文字列リテラル開始文字は無視されること() {
+        assertEquals("id \r\nname text DEFAULT 'a'", SqlUtils.removeComment("id -- it's\r\nname text DEFAULT 'a'"));
+        assertEquals("id  int", SqlUtils.removeComment("id /* it's */ int"));
+    }
+
+    @Test
+    public void 指定範囲のコメントのみが削除され出力先に追加されること() {
+        String sql = "a -- b\r\nc /* d */ e";
+        StringBuilder builder = new StringBuilder("x");
+        SqlUtils.removeComment(sql, 2, 13, builder);
+        assertEquals("x\r\nc ", builder.toString());
+    }
+}